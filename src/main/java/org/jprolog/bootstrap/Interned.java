@@ -47,6 +47,7 @@ public final class Interned {
     public static final PrologAtomInterned GREATER_THAN_ATOM = internAtom(">");
     public static final PrologAtomInterned EMPTY_BRACES_ATOM = internAtom("{}");
     public static final PrologAtomInterned EMPTY_LIST_ATOM = internAtom("[]");
+    public static final PrologAtomInterned EMPTY_ASSOC_ATOM = internAtom("t");
     public static final PrologAtomInterned OPEN_BRACKET = internAtom("(");
     public static final PrologAtomInterned CLOSE_BRACKET = internAtom(")");
     public static final PrologAtomInterned OPEN_SQUARE_BRACKET = internAtom("[");
@@ -71,6 +72,7 @@ public final class Interned {
     public static final PrologAtomInterned PERMISSION_ERROR_FUNCTOR = internAtom("permission_error");
     public static final PrologAtomInterned REPRESENTATION_ERROR_FUNCTOR = internAtom("representation_error");
     public static final PrologAtomInterned EVALUATION_ERROR_FUNCTOR = internAtom("evaluation_error");
+    public static final PrologAtomInterned FORMAT_ERROR_FUNCTOR = internAtom("format");
     public static final PrologAtomInterned ABORTED_ATOM = internAtom("$aborted");
     public static final PrologAtomInterned LIST_TYPE = internAtom("list");
     public static final PrologAtomInterned CHARACTER_TYPE = internAtom("character");
@@ -88,11 +90,16 @@ public final class Interned {
     public static final PrologAtomInterned MODIFY_ACTION = internAtom("modify");
     public static final PrologAtomInterned COMPOUND_OR_ATOM_TYPE = internAtom("compound_or_atom");
     public static final PrologAtomInterned STREAM_TYPE = internAtom("stream");
+    public static final PrologAtomInterned ASSOC_TYPE = internAtom("assoc");
+    public static final PrologAtomInterned PAIR_TYPE = internAtom("pair");
+    public static final PrologAtomInterned ACYCLIC_TERM_TYPE = internAtom("acyclic_term");
+    public static final PrologAtomInterned ENCODABLE_TYPE = internAtom("encodable");
     public static final PrologAtomInterned PRIVATE_PROCEDURE_TYPE = internAtom("private_procedure");
     public static final PrologAtomInterned STATIC_PROCEDURE_TYPE = internAtom("static_procedure");
     public static final PrologAtomInterned NOT_LESS_THAN_ZERO_DOMAIN = internAtom("not_less_than_zero");
     public static final PrologAtomInterned NON_EMPTY_LIST_DOMAIN = internAtom("non_empty_list");
     public static final PrologAtomInterned RANGE_DOMAIN = internAtom("range");
+    public static final PrologAtomInterned UNIQUE_KEY_PAIRS_DOMAIN = internAtom("unique_key_pairs");
     public static final PrologAtomInterned STREAM_OR_ALIAS_DOMAIN = internAtom("stream_or_alias");
     public static final PrologAtomInterned STREAM_DOMAIN = internAtom("stream");
     public static final PrologAtomInterned STREAM_PROPERTY_DOMAIN = internAtom("stream_property");
@@ -36,6 +36,7 @@ public class Run {
      */
     public static void main(String[] args) {
         Environment environment = new Environment();
+        environment.getStatistics().register(); // top level engine of process may be monitored
         new Run(environment).run();
     }
 
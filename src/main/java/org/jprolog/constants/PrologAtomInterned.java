@@ -5,6 +5,7 @@ package org.jprolog.constants;
 
 import org.jprolog.execution.Environment;
 import org.jprolog.expressions.Term;
+import org.jprolog.io.FormatString;
 
 import java.lang.ref.WeakReference;
 import java.util.Map;
@@ -16,6 +17,10 @@ import java.util.Map;
 public final class PrologAtomInterned extends PrologAtomLike {
     private final String name;
     protected final Holder holder;
+    // index of name as an operator, with version of operator names, see OperatorTable
+    private volatile long operatorIndex;
+    // this atom parsed as a format string, as last used, see FormatString
+    private FormatString formatString;
 
     private PrologAtomInterned(Holder holder) {
         this.name = holder.name;
@@ -32,6 +37,39 @@ public final class PrologAtomInterned extends PrologAtomLike {
         return name;
     }
 
+    /**
+     * @return cached operator index of this atom, see {@link org.jprolog.execution.OperatorTable}
+     */
+    public long getOperatorIndex() {
+        return operatorIndex;
+    }
+
+    /**
+     * Cache operator index of this atom. The value depends only on the name of the atom, and is tagged with the
+     * version of operator names it was resolved against, so no lock is required.
+     *
+     * @param operatorIndex operator index and version
+     */
+    public void setOperatorIndex(long operatorIndex) {
+        this.operatorIndex = operatorIndex;
+    }
+
+    /**
+     * @return cached parse of this atom as a format string, or null
+     */
+    public FormatString getFormatString() {
+        return formatString;
+    }
+
+    /**
+     * Cache parse of this atom as a format string. Parsed format strings are immutable, so no lock is required.
+     *
+     * @param formatString parsed format string
+     */
+    public void setFormatString(FormatString formatString) {
+        this.formatString = formatString;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -63,7 +101,7 @@ public final class PrologAtomInterned extends PrologAtomLike {
     }
 
     /**
-     * Retrieve interned atom via intern cache
+     * Retrieve interned atom via intern cache. Caller is responsible for locking the cache.
      *
      * @param name  Name of atom to retrieve
      * @param cache Interned cache
@@ -71,24 +109,22 @@ public final class PrologAtomInterned extends PrologAtomLike {
      */
     public static PrologAtomInterned get(String name, Map<Holder, WeakReference<Holder>> cache) {
         // The hoops are to utilize cache as a weak set, but ensuring we resolve to the same holder
-        synchronized (cache) {
-            Holder key = new Holder(name);
-            WeakReference<Holder> weakHolder = cache.get(key);
-            if (weakHolder != null) {
-                Holder ref = weakHolder.get();
-                if (ref != null) {
-                    // happy path
-                    return ref.get();
-                }
+        Holder key = new Holder(name);
+        WeakReference<Holder> weakHolder = cache.get(key);
+        if (weakHolder != null) {
+            Holder ref = weakHolder.get();
+            if (ref != null) {
+                // happy path
+                return ref.get();
             }
-            // Create or Refresh interned atom
-            cache.put(key, new WeakReference<>(key));
-            return key.get();
         }
+        // Create or Refresh interned atom
+        cache.put(key, new WeakReference<>(key));
+        return key.get();
     }
 
     /**
-     * This is to permit weak hash map, synchronized in Environment
+     * This is to permit weak hash map, locked in Environment
      */
     public static class Holder {
         private final String name;
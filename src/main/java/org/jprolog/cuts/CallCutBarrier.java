@@ -12,11 +12,13 @@ public class CallCutBarrier implements CutPoint {
     protected final Environment environment;
     protected final CutPoint parent;
     private final int backtrackMark;
+    private final int trailMark;
 
     public CallCutBarrier(Environment environment, CutPoint parent) {
         this.environment = environment;
         this.parent = parent;
         this.backtrackMark = environment.getBacktrackDepth(); // a cut will trim
+        this.trailMark = environment.getTrailDepth();
     }
 
     /**
@@ -24,8 +26,9 @@ public class CallCutBarrier implements CutPoint {
      */
     @Override
     public void cut() {
-        // throw away items in backtrack stack that are not needed
-        environment.cutBacktrackStack(backtrackMark);
+        // throw away items in backtrack stack that are not needed, decision points of the enclosing clause may remain
+        // so all bindings remain conditional
+        environment.cutBacktrackStack(backtrackMark, trailMark, Long.MAX_VALUE);
         // throw away any inner cut points
         environment.setCutPoint(this);
     }
@@ -14,6 +14,7 @@ public class ClauseCutBarrier implements CutPoint {
     protected final CutPoint parent;
     protected final long watermark;
     protected final int backtrackMark;
+    protected final int trailMark;
 
     public ClauseCutBarrier(Environment environment, CutPoint parent) {
         this(environment, parent, environment.variableWatermark());
@@ -24,6 +25,7 @@ public class ClauseCutBarrier implements CutPoint {
         this.parent = parent;
         this.watermark = watermark;
         this.backtrackMark = environment.getBacktrackDepth();
+        this.trailMark = environment.getTrailDepth();
     }
 
     /**
@@ -31,8 +33,8 @@ public class ClauseCutBarrier implements CutPoint {
      */
     @Override
     public void cut() {
-        // throw away items in backtrack stack that are not needed
-        environment.cutBacktrackStack(backtrackMark);
+        // throw away items in backtrack stack that are not needed, and bindings of variables of this clause
+        environment.cutBacktrackStack(backtrackMark, trailMark, watermark);
         // throw away any inner cut points
         environment.setCutPoint(this);
     }
@@ -3,11 +3,9 @@
 //
 package org.jprolog.debugging;
 
-import org.jprolog.execution.Backtrack;
 import org.jprolog.execution.DecisionPoint;
 import org.jprolog.execution.Environment;
 
-import java.util.ListIterator;
 
 public class DebugDecisionPoint implements DecisionPoint {
 
@@ -28,11 +26,6 @@ public class DebugDecisionPoint implements DecisionPoint {
         redo();
     }
 
-    @Override
-    public void cut(ListIterator<Backtrack> iter) {
-        decisionPoint.cut(iter);
-    }
-
     @Override
     public void restore() {
         decisionPoint.restore(); // restores context to just before decision point
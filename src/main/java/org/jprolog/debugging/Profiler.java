@@ -0,0 +1,341 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.debugging;
+
+import org.jprolog.callstack.ResumableExecutionPoint;
+import org.jprolog.execution.Environment;
+import org.jprolog.instructions.ExecRunClause;
+import org.jprolog.predicates.Predication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A low overhead profiler. Unlike the debugger, the profiler does not require code to be recompiled. Port counts are
+ * maintained by {@link ExecRunClause} when a profiler is active. Time is measured by sampling: a ticker thread
+ * advances a counter, and the executing thread captures the call stack at the next predicate call after the counter
+ * changes. The sampled stack is therefore always consistent, at the cost of attributing time to the nearest call.
+ */
+public class Profiler {
+
+    /**
+     * Deepest call stack that is sampled. Beyond this, outer frames are not attributed time.
+     */
+    public static final int MAX_SAMPLE_DEPTH = 1000;
+
+    /**
+     * Statistics for a single predicate.
+     */
+    public static final class Entry {
+        private final Predication predication;
+        long calls;
+        long redos;
+        long exits;
+        long selfSamples;
+        long inclusiveSamples;
+
+        private Entry(Predication predication) {
+            this.predication = predication;
+        }
+
+        public Predication getPredication() {
+            return predication;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getRedos() {
+            return redos;
+        }
+
+        /**
+         * Fails are derived from the box model, every call or redo leaves by exit, fail or exception. Exceptions are
+         * counted as fails.
+         *
+         * @return fail count
+         */
+        public long getFails() {
+            return Math.max(0, calls + redos - exits);
+        }
+
+        public long getExits() {
+            return exits;
+        }
+
+        public long getSelfSamples() {
+            return selfSamples;
+        }
+
+        public long getInclusiveSamples() {
+            return inclusiveSamples;
+        }
+    }
+
+    /**
+     * Ports of a single call. Nothing is placed on the backtrack stack, the exit is recorded where the call exits, and
+     * a redo where the call is re-entered after it exited. Trying clauses after a clause that did not exit is internal
+     * to the call. Backtracking into the body of a call that exited is counted as a redo when the call exits again.
+     * Backtracking past a call that exited leaving no choice point is neither a redo nor a fail.
+     */
+    public static final class Port {
+        private final Entry entry;
+        private boolean exited;
+
+        Port(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * Called when trying next clause.
+         */
+        public void retry() {
+            if (exited) {
+                entry.redos++;
+                exited = false;
+            }
+        }
+
+        /**
+         * Called when the call exits.
+         */
+        public void exit() {
+            if (exited) {
+                entry.redos++;
+            }
+            entry.exits++;
+            exited = true;
+        }
+    }
+
+    /**
+     * Exits of calls made in tail position. Such a call returns directly to the end of an outer clause, so the exits
+     * are recorded when that clause ends. Immutable (other than the exited flag), as each tail call adds to a copy,
+     * so that backtracking restores the exits along with the execution point that holds them. Exits of calls that
+     * cannot be retried are counted per predicate, so that tail recursion remains in constant space.
+     */
+    public static final class TailExits {
+        public static final TailExits NONE = new TailExits(new Entry[0], new long[0], null);
+        private final Entry[] entries;
+        private final long[] counts;
+        private final PortList ports;
+        private boolean exited;
+
+        private TailExits(Entry[] entries, long[] counts, PortList ports) {
+            this.entries = entries;
+            this.counts = counts;
+            this.ports = ports;
+        }
+
+        /**
+         * Add exit of a call.
+         *
+         * @param port          Port of call
+         * @param deterministic true if no clauses remain to be retried
+         * @return new exits
+         */
+        public TailExits add(Port port, boolean deterministic) {
+            if (!deterministic) {
+                return new TailExits(entries, counts, new PortList(port, ports));
+            }
+            int i = 0;
+            while (i < entries.length && entries[i] != port.entry) {
+                i++;
+            }
+            Entry[] newEntries = entries;
+            long[] newCounts = Arrays.copyOf(counts, Math.max(counts.length, i + 1));
+            if (i == entries.length) {
+                newEntries = Arrays.copyOf(entries, i + 1);
+                newEntries[i] = port.entry;
+            }
+            newCounts[i]++;
+            return new TailExits(newEntries, newCounts, ports);
+        }
+
+        /**
+         * Record exits, called when the outer clause ends.
+         */
+        public void exit() {
+            for (int i = 0; i < entries.length; i++) {
+                if (exited) {
+                    entries[i].redos += counts[i];
+                }
+                entries[i].exits += counts[i];
+            }
+            exited = true;
+            for (PortList list = ports; list != null; list = list.next) {
+                list.port.exit();
+            }
+        }
+    }
+
+    private static final class PortList {
+        final Port port;
+        final PortList next;
+
+        PortList(Port port, PortList next) {
+            this.port = port;
+            this.next = next;
+        }
+    }
+
+    private final Environment environment;
+    private final int intervalMillis;
+    private final HashMap<Predication, Entry> entries = new HashMap<>();
+    private final HashMap<String, Long> stacks = new HashMap<>();
+    private volatile int ticks;
+    private volatile boolean running;
+    private int sampledTicks;
+    private long totalSamples;
+    private long startTime;
+    private long elapsedNanos;
+    private Thread ticker;
+
+    /**
+     * Construct a profiler for an environment.
+     *
+     * @param environment    Environment being profiled
+     * @param intervalMillis Sample interval
+     */
+    public Profiler(Environment environment, int intervalMillis) {
+        this.environment = environment;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Begin sampling.
+     */
+    public void start() {
+        running = true;
+        ticker = new Thread(this::tick, "Prolog profiler");
+        ticker.setDaemon(true);
+        startTime = System.nanoTime();
+        ticker.start();
+    }
+
+    /**
+     * End sampling.
+     */
+    public void stop() {
+        if (running) {
+            running = false;
+            ticker.interrupt();
+            elapsedNanos += System.nanoTime() - startTime;
+        }
+    }
+
+    private void tick() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            ticks++;
+        }
+    }
+
+    /**
+     * Call port of a predicate.
+     *
+     * @param predication Predicate being called
+     * @return port used to track remaining ports of this call
+     */
+    public Port call(Predication predication) {
+        int t = ticks;
+        if (t != sampledTicks) {
+            sample(t - sampledTicks);
+            sampledTicks = t;
+        }
+        Entry entry = entry(predication);
+        entry.calls++;
+        return new Port(entry);
+    }
+
+    private Entry entry(Predication predication) {
+        Entry entry = entries.get(predication);
+        if (entry == null) {
+            entry = new Entry(predication);
+            entries.put(predication, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Capture call stack. The innermost frame is the predicate whose clause is currently executing.
+     *
+     * @param weight Number of ticks since last sample
+     */
+    private void sample(int weight) {
+        ArrayList<Predication> frames = new ArrayList<>();
+        frames.add(environment.getLocalContext().getPredication());
+        Iterator<ResumableExecutionPoint> it = environment.getCallStack().iterator();
+        while (it.hasNext() && frames.size() < MAX_SAMPLE_DEPTH) {
+            Predication frame = ExecRunClause.predicationOf(it.next());
+            if (frame != null && (frames.size() > 1 || !frame.equals(frames.get(0)))) {
+                frames.add(frame);
+            }
+        }
+        totalSamples += weight;
+        entry(frames.get(0)).selfSamples += weight;
+        IdentityHashMap<Entry, Entry> seen = new IdentityHashMap<>();
+        StringBuilder builder = new StringBuilder();
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            Entry entry = entry(frames.get(i));
+            if (seen.put(entry, entry) == null) {
+                entry.inclusiveSamples += weight;
+            }
+            builder.append(frames.get(i).toString());
+            if (i > 0) {
+                builder.append(';');
+            }
+        }
+        stacks.merge(builder.toString(), (long) weight, Long::sum);
+    }
+
+    /**
+     * @return Sample interval in milliseconds
+     */
+    public int getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * @return Total number of samples taken
+     */
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * @return Elapsed time profiling in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000L;
+    }
+
+    /**
+     * @return All predicate entries
+     */
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    /**
+     * Sampled stacks in collapsed form (frames from outermost to innermost separated by ';'), as consumed by flame
+     * graph tools.
+     *
+     * @return Ordered map of stack to sample count
+     */
+    public Map<String, Long> getCollapsedStacks() {
+        return new TreeMap<>(stacks);
+    }
+}
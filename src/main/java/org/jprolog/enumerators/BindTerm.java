@@ -0,0 +1,76 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.enumerators;
+
+import org.jprolog.execution.LocalContext;
+import org.jprolog.expressions.Term;
+import org.jprolog.variables.LabeledVariable;
+import org.jprolog.variables.Variable;
+
+import java.util.function.Function;
+
+/**
+ * Context for binding a term (typically a goal) to a local context. Unlike {@link Term#resolve(LocalContext)}, the
+ * values of bound variables are not walked, a bound variable is simply replaced by its value. Values are already
+ * resolved at the time they are bound, so cost is proportional to the size of the term itself, not the size of
+ * structures passed through its variables.
+ */
+public class BindTerm extends EnumTermStrategy {
+
+    private final LocalContext context;
+
+    public BindTerm(LocalContext context) {
+        super(context.environment());
+        this.context = context;
+    }
+
+    /**
+     * Labeled variables are mapped to active variables.
+     *
+     * @param variable Variable reference
+     * @return active variable, or its value if bound
+     */
+    @Override
+    public Term visitVariable(Variable variable) {
+        if (variable.isActive()) {
+            return variable;
+        } else {
+            return context.copy((LabeledVariable) variable).value();
+        }
+    }
+
+    /**
+     * Bound variables are replaced by their value without enumerating the value.
+     *
+     * @param variable Bound variable reference
+     * @return value of variable
+     */
+    @Override
+    public Term visitBoundVariable(Variable variable) {
+        return variable.value();
+    }
+
+    /**
+     * Variables are never followed, see {@link #visitBoundVariable(Variable)}.
+     *
+     * @param term Last argument
+     * @return term, or null if a variable
+     */
+    @Override
+    public Term followLastArgument(Term term) {
+        return term instanceof Variable ? null : term;
+    }
+
+    /**
+     * Binding is a pure function of the term, caching is not required.
+     *
+     * @param src             Source term
+     * @param computeFunction src -> modified src
+     * @return computed term
+     */
+    @Override
+    public Term computeUncachedTerm(Term src, Function<? super Term, ? extends Term> computeFunction) {
+        return computeFunction.apply(src);
+    }
+}
@@ -86,6 +86,27 @@ public class CallifyTerm extends EnumTermStrategy {
         }
     }
 
+    /**
+     * Long conjunctions and disjunctions are followed in a loop, other compound terms are always visited via
+     * {@link #visitCompoundTerm(CompoundTerm)}.
+     *
+     * @param term Last argument
+     * @return conjunction or disjunction, else null
+     */
+    @Override
+    public Term followLastArgument(Term term) {
+        Term value = term.value();
+        if (trimmed || !(value instanceof CompoundTerm)) {
+            return null;
+        }
+        PrologAtomInterned functor = PrologAtomInterned.from(environment(), ((CompoundTerm) value).functor());
+        if (functor == Interned.COMMA_FUNCTOR || functor == Interned.SEMICOLON_FUNCTOR) {
+            return value;
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Wrap variables in call.
      *
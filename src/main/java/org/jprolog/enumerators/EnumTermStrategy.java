@@ -23,7 +23,8 @@ import java.util.function.Function;
  */
 public abstract class EnumTermStrategy {
     private final Environment environment;
-    private final Map<Term, Term> refMap = new IdentityHashMap<>();
+    // allocated on first use, many strategies never cache
+    private Map<Term, Term> refMap;
 
     public EnumTermStrategy(Environment environment) {
         this.environment = environment;
@@ -46,6 +47,9 @@ public abstract class EnumTermStrategy {
      * @return computed term
      */
     public Term computeUncachedTerm(Term src, Function<? super Term, ? extends Term> computeFunction) {
+        if (refMap == null) {
+            refMap = new IdentityHashMap<>();
+        }
         return refMap.computeIfAbsent(src, computeFunction);
     }
 
@@ -90,6 +94,30 @@ public abstract class EnumTermStrategy {
         return variable;
     }
 
+    /**
+     * Visit a variable that has been bound to a value. Default is to enumerate the value.
+     *
+     * @param variable Bound variable reference
+     * @return Replacement term
+     */
+    public Term visitBoundVariable(Variable variable) {
+        return variable.value().enumTerm(this);
+    }
+
+    /**
+     * Called when copying the last argument of a compound term, including the tail of a list. Lists and
+     * right-recursive operators such as ','/2 can be arbitrarily deep, so a compound term returned here is copied in
+     * a loop by the caller as if visited by {@link #visitCompoundTerm(CompoundTerm)}. Default follows bound
+     * variables, per {@link #visitBoundVariable(Variable)}. Strategies that override either method must override
+     * this method to be consistent.
+     *
+     * @param term Last argument
+     * @return De-referenced argument, or null if argument must be visited via {@link Term#enumTerm(EnumTermStrategy)}
+     */
+    public Term followLastArgument(Term term) {
+        return term.value();
+    }
+
     /**
      * Visit a container term. Safest option is to evaluate contained item.
      *
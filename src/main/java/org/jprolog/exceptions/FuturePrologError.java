@@ -17,7 +17,7 @@ public abstract class FuturePrologError extends RuntimeException {
      * @param message Textual description of error
      */
     protected FuturePrologError(String message) {
-        super(message);
+        super(message, null, true, PrologThrowable.isCaptureStackTrace());
     }
 
     /**
@@ -26,7 +26,7 @@ public abstract class FuturePrologError extends RuntimeException {
      * @param cause Java cause of error
      */
     protected FuturePrologError(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, true, PrologThrowable.isCaptureStackTrace());
     }
 
     /**
@@ -34,7 +34,7 @@ public abstract class FuturePrologError extends RuntimeException {
      * @param cause Java cause of error
      */
     protected FuturePrologError(Throwable cause) {
-        super(cause);
+        super(cause == null ? null : cause.toString(), cause, true, PrologThrowable.isCaptureStackTrace());
     }
 
     /**
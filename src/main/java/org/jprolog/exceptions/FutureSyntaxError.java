@@ -0,0 +1,40 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.exceptions;
+
+import org.jprolog.execution.Environment;
+
+/**
+ * This will get turned into a PrologSyntaxError once context is known. Used where text is parsed outside of the
+ * Prolog thread.
+ */
+public class FutureSyntaxError extends FuturePrologError {
+    private final String type;
+
+    /**
+     * Construct a FutureSyntaxError
+     *
+     * @param type    Name of syntax error type (converted to an atom)
+     * @param message Display message
+     */
+    public FutureSyntaxError(String type, String message) {
+        super(message);
+        this.type = type;
+    }
+
+    /**
+     * @return Name of syntax error type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrologSyntaxError toError(Environment environment) {
+        return PrologSyntaxError.error(environment, type, getMessage());
+    }
+}
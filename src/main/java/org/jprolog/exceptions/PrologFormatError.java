@@ -0,0 +1,38 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.exceptions;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtom;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+/**
+ * Prolog Format error. A format error occurs when a format string is malformed, or does not agree with its
+ * arguments (see format/2).
+ */
+public class PrologFormatError extends PrologError {
+
+    /**
+     * Format error
+     *
+     * @param environment Execution environment
+     * @param message     Description of error, also the argument of the formal term
+     * @return exception
+     */
+    public static PrologFormatError error(Environment environment, String message) {
+        return new PrologFormatError(
+                formal(Interned.FORMAT_ERROR_FUNCTOR, new PrologAtom(message)),
+                context(environment, message),
+                null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected PrologFormatError(Term formal, ErrorContext context, Throwable cause) {
+        super(formal, context, cause);
+    }
+
+}
@@ -18,6 +18,9 @@ import java.io.IOException;
  */
 public class PrologThrowable extends RuntimeException implements Container {
 
+    // Capturing Java stack is expensive, and rarely of use for Prolog errors.
+    private static volatile boolean captureStackTrace = Boolean.getBoolean("jprolog.java_stack_trace");
+
     private final Term thrown;
 
     /**
@@ -28,10 +31,29 @@ public class PrologThrowable extends RuntimeException implements Container {
      * @param cause   Provides underlying Java cause if any, or null
      */
     public PrologThrowable(Term thrown, String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, true, captureStackTrace);
         this.thrown = thrown;
     }
 
+    /**
+     * Indicates if Prolog throwables capture the Java stack when constructed. By default they do not, as Prolog
+     * errors are frequently used for control flow. Applies to all environments.
+     *
+     * @return true if Java stack is captured
+     */
+    public static boolean isCaptureStackTrace() {
+        return captureStackTrace;
+    }
+
+    /**
+     * Change if Prolog throwables capture the Java stack when constructed (prolog flag java_stack_trace).
+     *
+     * @param capture true to capture Java stack, useful for debugging
+     */
+    public static void setCaptureStackTrace(boolean capture) {
+        captureStackTrace = capture;
+    }
+
     /**
      * {@inheritDoc}
      */
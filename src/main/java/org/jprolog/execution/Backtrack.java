@@ -3,10 +3,9 @@
 //
 package org.jprolog.execution;
 
-import java.util.ListIterator;
-
 /**
- * An entry on the backtracking stack.
+ * An entry on the backtracking stack. A cut discards entries without calling them, see
+ * {@link Environment#cutBacktrackStack(int, int, long)}.
  */
 public interface Backtrack {
     /**
@@ -16,14 +15,6 @@ public interface Backtrack {
         undo();
     }
 
-    /**
-     * Called during cut pruning. Iter can be used to operate on the entry to delete the backtracking entry.
-     * The goal is to reduce as many entries as possible in response to a cut.
-     */
-    default void cut(ListIterator<Backtrack> iter) {
-        // does nothing
-    }
-
     /**
      * Called to undo state (trimming, backtracking, throwing)
      */
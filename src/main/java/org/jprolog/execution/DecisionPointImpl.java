@@ -7,7 +7,6 @@ import org.jprolog.callstack.ResumableExecutionPoint;
 import org.jprolog.callstack.TransferHint;
 import org.jprolog.cuts.CutPoint;
 
-import java.util.ListIterator;
 
 /**
  * This is a decision point partial implementation. Backtracking pauses at each decision point to consider
@@ -55,16 +54,6 @@ public abstract class DecisionPointImpl implements DecisionPoint {
         redo();
     }
 
-    /**
-     * Cut removes the decision point.
-     *
-     * @param iter cut iterator
-     */
-    @Override
-    public void cut(ListIterator<Backtrack> iter) {
-        iter.remove();
-    }
-
     /**
      * Undo does nothing on a decision point.
      */
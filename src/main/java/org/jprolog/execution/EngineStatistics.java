@@ -0,0 +1,244 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime counters for an environment. Counters are updated by the execution engine without synchronization, and
+ * are expected to be read either by the executing thread (statistics/2) or loosely by a monitor (MXBean).
+ * Registration with the platform MBean server, as org.jprolog:type=EngineStatistics,id=N, is opt-in (see
+ * {@link #register()}), as environments are also created per thread, per worker and per demand load. A registered
+ * environment is unregistered when released (see {@link Environment#release()}), or by {@link #unregister()}. The
+ * environment is only weakly referenced, an environment that is never released remains registered with its last
+ * counters.
+ */
+public final class EngineStatistics implements EngineStatisticsMXBean {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final WeakReference<Environment> environment;
+    private final long startTime = System.currentTimeMillis();
+    private long threadId = Thread.currentThread().getId();
+    private volatile ObjectName objectName = null;
+    long inferences;
+    long backtracks;
+    long choicepoints;
+    long queries;
+    int backtrackHighWater;
+    // for runtime/walltime "since last" values
+    private long lastCpuTime;
+    private long lastWallTime;
+    // at start of current query
+    private long queryCpuNanos;
+    private long queryWallTime;
+    private long queryInferences;
+
+    EngineStatistics(Environment environment) {
+        this.environment = new WeakReference<>(environment);
+    }
+
+    /**
+     * Register with platform MBean server under a unique name, if not already registered. Failure to register is
+     * ignored, statistics remain available through statistics/2.
+     *
+     * @return registered name, or null if not registered
+     */
+    public synchronized ObjectName register() {
+        if (objectName != null) {
+            return objectName;
+        }
+        try {
+            ObjectName name = new ObjectName("org.jprolog:type=EngineStatistics,id=" + NEXT_ID.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException | SecurityException e) {
+            // not monitored
+        }
+        return objectName;
+    }
+
+    /**
+     * Unregister from platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        ObjectName name = objectName;
+        if (name == null) {
+            return;
+        }
+        objectName = null;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(name);
+        } catch (JMException | SecurityException e) {
+            // already unregistered
+        }
+    }
+
+    /**
+     * @return name registered with platform MBean server, or null if not registered
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Called when execution enters the run loop, CPU time is accounted against the executing thread.
+     */
+    void enter() {
+        threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * Called when a query starts, per-query values are measured from this point.
+     */
+    void startQuery() {
+        threadId = Thread.currentThread().getId();
+        queries++;
+        queryCpuNanos = cpuTimeNanos();
+        queryWallTime = System.currentTimeMillis();
+        queryInferences = inferences;
+    }
+
+    /**
+     * Count a single predicate call.
+     */
+    public void inference() {
+        inferences++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInferences() {
+        return inferences;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getChoicepoints() {
+        return choicepoints;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getQueries() {
+        return queries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBacktrackDepth() {
+        Environment current = environment.get();
+        return current == null ? 0 : current.getBacktrackDepth();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBacktrackHighWater() {
+        return backtrackHighWater;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCpuTimeMillis() {
+        return cpuTimeNanos() / 1000000L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWallTimeMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getQueryCpuTimeMillis() {
+        return (cpuTimeNanos() - queryCpuNanos) / 1000000L;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getQueryWallTimeMillis() {
+        return System.currentTimeMillis() - queryWallTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getQueryInferences() {
+        return inferences - queryInferences;
+    }
+
+    /**
+     * @return CPU time of executing thread in nanoseconds, or wall time since environment was created if not
+     * supported
+     */
+    private long cpuTimeNanos() {
+        if (CPU_TIME_SUPPORTED) {
+            long nanos = THREADS.getThreadCpuTime(threadId);
+            if (nanos >= 0) {
+                return nanos;
+            }
+        }
+        return getWallTimeMillis() * 1000000L;
+    }
+
+    /**
+     * CPU time since last call to this method, per runtime key of statistics/2.
+     *
+     * @param now Value from {@link #getCpuTimeMillis()}
+     * @return delta in milliseconds
+     */
+    public long cpuTimeSinceLast(long now) {
+        long delta = now - lastCpuTime;
+        lastCpuTime = now;
+        return delta;
+    }
+
+    /**
+     * Wall time since last call to this method, per walltime key of statistics/2.
+     *
+     * @param now Value from {@link #getWallTimeMillis()}
+     * @return delta in milliseconds
+     */
+    public long wallTimeSinceLast(long now) {
+        long delta = now - lastWallTime;
+        lastWallTime = now;
+        return delta;
+    }
+}
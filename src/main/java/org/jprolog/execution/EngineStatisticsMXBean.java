@@ -0,0 +1,67 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+/**
+ * Management view of {@link EngineStatistics}. Each environment is registered with the platform MBean server, and may
+ * be monitored e.g. via JConsole.
+ */
+public interface EngineStatisticsMXBean {
+
+    /**
+     * @return Number of predicate calls. Counts user defined predicates and library builtins, but not control
+     * constructs or builtins compiled inline (e.g. is/2)
+     */
+    long getInferences();
+
+    /**
+     * @return Number of times execution has transitioned to backtracking
+     */
+    long getBacktracks();
+
+    /**
+     * @return Number of decision points created
+     */
+    long getChoicepoints();
+
+    /**
+     * @return Number of queries started
+     */
+    long getQueries();
+
+    /**
+     * @return Current depth of backtrack stack (trail and decision points)
+     */
+    int getBacktrackDepth();
+
+    /**
+     * @return Deepest backtrack stack observed
+     */
+    int getBacktrackHighWater();
+
+    /**
+     * @return CPU time of executing thread in milliseconds, or wall time if not supported
+     */
+    long getCpuTimeMillis();
+
+    /**
+     * @return Milliseconds since environment was created
+     */
+    long getWallTimeMillis();
+
+    /**
+     * @return CPU time of executing thread in milliseconds since the current (or last) query started
+     */
+    long getQueryCpuTimeMillis();
+
+    /**
+     * @return Milliseconds since the current (or last) query started
+     */
+    long getQueryWallTimeMillis();
+
+    /**
+     * @return Number of predicate calls since the current (or last) query started
+     */
+    long getQueryInferences();
+}
@@ -20,6 +20,7 @@ import org.jprolog.cuts.CutPoint;
 import org.jprolog.debugging.ActiveDebugger;
 import org.jprolog.debugging.DebuggerHook;
 import org.jprolog.debugging.NoDebugger;
+import org.jprolog.debugging.Profiler;
 import org.jprolog.debugging.SpyPoints;
 import org.jprolog.exceptions.PrologError;
 import org.jprolog.exceptions.PrologHalt;
@@ -31,6 +32,7 @@ import org.jprolog.functions.StackFunction;
 import org.jprolog.io.LogicalStream;
 import org.jprolog.parser.CharConverter;
 import org.jprolog.predicates.BuiltInPredicate;
+import org.jprolog.predicates.ClauseJournal;
 import org.jprolog.predicates.ClauseSearchPredicate;
 import org.jprolog.predicates.DemandLoadPredicate;
 import org.jprolog.predicates.LoadGroup;
@@ -39,63 +41,78 @@ import org.jprolog.predicates.PredicateDefinition;
 import org.jprolog.predicates.Predication;
 import org.jprolog.predicates.VarArgDefinition;
 import org.jprolog.utility.TrackableList;
+import org.jprolog.variables.ActiveVariable;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.ref.WeakReference;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
  * Runtime environment of Prolog. Note that in the current version, Environments are not thread safe. That is, only
- * one thread may use an Environment.
+ * one thread may use an Environment. Environments that share a program (see {@link Shared}) may run on different
+ * threads (see {@link WorkerPool} and {@link PrologThread}).
  */
 public class Environment {
 
+    private static final long VARIABLE_BLOCK_SIZE = 1 << 20;
+    private static final int INITIAL_STACK_SIZE = 256;
+    // maximum number of discarded backtrack entries left uncleared by cut
+    private static final int STALE_BACKTRACK_LIMIT = 64;
+
     // These are shared by all 'break' instances of Environment
     public final static class Shared {
         // character translation table
         private final CharConverter charConverter = new CharConverter();
         // table of atoms for this instance
         private final WeakHashMap<PrologAtomInterned.Holder, WeakReference<PrologAtomInterned.Holder>> atomTable = new WeakHashMap<>();
-        // table of predicates for this instance
-        private final HashMap<Predication.Interned, PredicateDefinition> dictionary = new HashMap<>();
+        private final ReentrantLock atomLock = new ReentrantLock();
+        // table of predicates for this instance (looked up by worker threads)
+        private final ConcurrentHashMap<Predication.Interned, PredicateDefinition> dictionary =
+                new ConcurrentHashMap<>();
         // table of variable argument predicates for this instance
         private final HashMap<PrologAtomInterned, VarArgDefinition> varArgDictionary = new HashMap<>();
         // table of functions functions
         private final HashMap<Predication.Interned, StackFunction> functions = new HashMap<>();
-        // tables of operators for this instance
-        private final TreeMap<Atomic, OperatorEntry> infixPostfixOperatorTable = new TreeMap<>();
-        private final TreeMap<Atomic, OperatorEntry> prefixOperatorTable = new TreeMap<>();
-        // io, ID mappings
-        private final HashMap<PrologInteger, LogicalStream> streamById = new HashMap<>();
-        private final HashMap<PrologAtomInterned, LogicalStream> streamByAlias = new HashMap<>();
+        // operators for this instance, replaced (never modified) by op/3
+        private volatile OperatorTable operatorTable;
+        private final ReentrantLock operatorLock = new ReentrantLock();
+        // io, ID mappings (opened and closed by any thread)
+        private final ConcurrentHashMap<PrologInteger, LogicalStream> streamById = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<PrologAtomInterned, LogicalStream> streamByAlias = new ConcurrentHashMap<>();
         // load group mappings
-        private final HashMap<String, LoadGroup> loadGroups = new HashMap<>();
+        private final ConcurrentHashMap<String, LoadGroup> loadGroups = new ConcurrentHashMap<>();
         // debugging spy points
         private final SpyPoints spyPoints = new SpyPoints();
-        // Variable ID allocator
-        private long nextVariableId = 10;
+        // Variable ID allocator, each environment allocates IDs from its own block
+        private final AtomicLong nextVariableBlock = new AtomicLong(10);
         // global flags
         private final PrologFlags flags = new PrologFlags();
+        // threads, message queues and mutexes
+        private final PrologThreads threads = new PrologThreads();
+        // held while a demand-loaded predicate is loaded
+        private final ReentrantLock demandLoadLock = new ReentrantLock();
 
         public Shared() {
             // Bootstap
             dictionary.putAll(Builtins.getPredicates());
             varArgDictionary.putAll(Builtins.getVarArgPredicates());
             functions.putAll(Builtins.getFunctions());
-            infixPostfixOperatorTable.putAll(Operators.getInfixPostfix());
-            prefixOperatorTable.putAll(Operators.getPrefix());
+            operatorTable = new OperatorTable(Operators.getPrefix(), Operators.getInfixPostfix());
             streamById.putAll(DefaultIoBinding.getById());
             streamByAlias.putAll(DefaultIoBinding.getByAlias());
             // Add atoms last to ensure that all interned atoms are added
@@ -109,7 +126,31 @@ public class Environment {
          * @return Interned Atom
          */
         public PrologAtomInterned internAtom(String name) {
-            return PrologAtomInterned.get(name, atomTable);
+            atomLock.lock();
+            try {
+                return PrologAtomInterned.get(name, atomTable);
+            } finally {
+                atomLock.unlock();
+            }
+        }
+
+        /**
+         * @return Number of atoms currently interned
+         */
+        public int atomCount() {
+            atomLock.lock(); // size() also removes collected atoms
+            try {
+                return atomTable.size();
+            } finally {
+                atomLock.unlock();
+            }
+        }
+
+        /**
+         * @return lock held while a demand-loaded predicate is loaded
+         */
+        public ReentrantLock getDemandLoadLock() {
+            return demandLoadLock;
         }
 
         /**
@@ -190,12 +231,35 @@ public class Environment {
             return dictionary.entrySet().stream();
         }
 
+        /**
+         * Close journals of all persistent predicates, see {@link ClauseJournal}.
+         */
+        private void closeJournals() {
+            for (PredicateDefinition definition : dictionary.values()) {
+                if (definition instanceof ClauseSearchPredicate) {
+                    ClauseJournal journal = ((ClauseSearchPredicate) definition).getJournal();
+                    if (journal != null) {
+                        try {
+                            journal.close();
+                        } catch (UncheckedIOException e) {
+                            // ignore, continue closing other journals
+                        }
+                    }
+                }
+            }
+        }
+
         private void abortReset(Environment environment) {
             CloseOptions options = new CloseOptions(environment, null);
             for (LogicalStream stream : streamById.values()) {
                 if (stream.getCloseOnAbort()) {
                     try {
-                        stream.close(environment, options);
+                        if (stream.close(environment, options)) {
+                            streamById.remove(stream.getId(), stream);
+                            for (PrologAtomInterned alias : stream.getAliases()) {
+                                streamByAlias.remove(alias, stream);
+                            }
+                        }
                     } catch (IOException e) {
                         // ignore
                     }
@@ -206,8 +270,15 @@ public class Environment {
 
     // shared state between related environments
     private final Shared shared;
-    // stacks
-    private final LinkedList<Backtrack> backtrackStack = new LinkedList<>();
+    // stacks, each backtrack entry records the depth of the trail when it was pushed
+    private Backtrack[] backtrackStack = new Backtrack[INITIAL_STACK_SIZE];
+    private int[] trailMarks = new int[INITIAL_STACK_SIZE];
+    private int backtrackDepth = 0;
+    // entries at or above backtrackDepth may be stale up to this limit, see cutBacktrackStack
+    private int backtrackLimit = 0;
+    // variables bound since last decision point, unbound on backtracking
+    private ActiveVariable[] trail = new ActiveVariable[INITIAL_STACK_SIZE];
+    private int trailDepth = 0;
     private final LinkedList<Term> dataStack = new LinkedList<>();
     // active streams
     private LogicalStream inputStream;
@@ -224,6 +295,9 @@ public class Environment {
     // debugger
     private DebuggerHook debuggerHook = NoDebugger.SELF;
     private boolean debugging = false;
+    // profiler
+    private Profiler profiler;
+    private Profiler lastProfile;
     // state
     private ExecutionState executionState = ExecutionState.FORWARD;
     // terminals
@@ -248,12 +322,24 @@ public class Environment {
     private LoadGroup loadGroup;
     // break level
     private final int breakLevel;
+    // runtime counters
+    private final EngineStatistics statistics = new EngineStatistics(this);
+    // block of variable IDs
+    private long nextVariableId = 0;
+    private long variableIdLimit = 0;
+    // set by another thread to stop execution
+    private volatile boolean stopRequested = false;
+    // thread created by thread_create/3, or null
+    private PrologThread thread = null;
+    // true if shared context was created by (and so is released with) this environment
+    private boolean ownsShared = false;
 
     /**
      * Construct a new environment.
      */
     public Environment() {
         this(new Shared());
+        ownsShared = true;
     }
 
     /**
@@ -296,13 +382,19 @@ public class Environment {
     public void abortReset() {
         this.inputStream = this.defaultInputStream;
         this.outputStream = this.defaultOutputStream;
+        shared.threads.releaseMutexes();
         shared.abortReset(this);
     }
 
     /**
-     * Should be called prior to releasing environment
+     * Should be called prior to releasing environment. Releasing the environment that created the shared context
+     * also closes journals of persistent predicates.
      */
     public void release() {
+        statistics.unregister();
+        if (ownsShared) {
+            shared.closeJournals();
+        }
         this.defaultInputStream.unprotect(this, -1);
         this.defaultOutputStream.unprotect(this, -1);
         this.inputStream = this.defaultInputStream = LogicalStream.NONE;
@@ -411,6 +503,50 @@ public class Environment {
         return StreamSupport.stream(new ExecutionSpliterator(execution), false);
     }
 
+    /**
+     * @return Runtime counters for this environment
+     */
+    public EngineStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Active profiler, or null if not profiling
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Begin or end profiling. When ending, the profiler is retained for reporting.
+     *
+     * @param profiler New profiler, or null to end profiling
+     */
+    public void setProfiler(Profiler profiler) {
+        if (this.profiler != null) {
+            this.profiler.stop();
+            lastProfile = this.profiler;
+        }
+        this.profiler = profiler;
+        if (profiler != null) {
+            profiler.start();
+        }
+    }
+
+    /**
+     * @return Most recently completed profile, or null if none
+     */
+    public Profiler getLastProfile() {
+        return lastProfile;
+    }
+
+    /**
+     * @return Number of atoms currently interned
+     */
+    public int getAtomCount() {
+        return shared.atomCount();
+    }
+
     /**
      * Depth of Data stack.
      *
@@ -426,7 +562,16 @@ public class Environment {
      * @return depth
      */
     public int getBacktrackDepth() {
-        return backtrackStack.size();
+        return backtrackDepth;
+    }
+
+    /**
+     * Depth of binding trail, see {@link #trail(ActiveVariable)}.
+     *
+     * @return depth
+     */
+    public int getTrailDepth() {
+        return trailDepth;
     }
 
     /**
@@ -434,14 +579,18 @@ public class Environment {
      * @return true if there are more solutions available
      */
     public boolean hasMoreSolitions() {
-        return !(backtrackStack.isEmpty() || backtrackStack.peek() == backtrackTerminal);
+        return !(backtrackDepth == 0 || backtrackStack[backtrackDepth - 1] == backtrackTerminal);
     }
 
     /**
-     * @return Iterable list of backtrack stack
+     * @return Copy of backtrack stack, most recent entry first
      */
     public List<Backtrack> getBacktrackStack() {
-        return Collections.unmodifiableList(backtrackStack);
+        Backtrack[] copy = new Backtrack[backtrackDepth];
+        for (int i = 0; i < backtrackDepth; i++) {
+            copy[i] = backtrackStack[backtrackDepth - 1 - i];
+        }
+        return Collections.unmodifiableList(Arrays.asList(copy));
     }
 
     /**
@@ -450,7 +599,10 @@ public class Environment {
      * @return Variable ID
      */
     public long nextVariableId() {
-        return shared.nextVariableId++;
+        if (nextVariableId == variableIdLimit) {
+            allocateVariableBlock();
+        }
+        return nextVariableId++;
     }
 
     /**
@@ -459,17 +611,59 @@ public class Environment {
      * @return watermark (variables below this were introduced before this point).
      */
     public long variableWatermark() {
-        return shared.nextVariableId;
+        if (nextVariableId == variableIdLimit) {
+            allocateVariableBlock();
+        }
+        return nextVariableId;
+    }
+
+    /**
+     * Variable IDs are allocated from the shared context in blocks, so that environments running on different
+     * threads do not contend for IDs. Each block is above all previous blocks, so IDs allocated by any one
+     * environment are always increasing.
+     */
+    private void allocateVariableBlock() {
+        nextVariableId = shared.nextVariableBlock.getAndAdd(VARIABLE_BLOCK_SIZE);
+        variableIdLimit = nextVariableId + VARIABLE_BLOCK_SIZE;
+    }
+
+    /**
+     * On (e.g.) exception handling, backtrack stack and trail are reduced to a known point, undoing any operations
+     * along the way.
+     *
+     * @param depth      Desired depth (from prior call to {@link #getBacktrackDepth()}).
+     * @param trailDepth Desired depth of trail (from prior call to {@link #getTrailDepth()}).
+     */
+    public void trimBacktrackStackToDepth(int depth, int trailDepth) {
+        while (backtrackDepth > depth) {
+            popBacktrack().undo();
+        }
+        undoTrail(trailDepth);
+    }
+
+    /**
+     * Pop entry of backtrack stack, first unbinding variables bound after the entry was pushed.
+     *
+     * @return popped entry
+     */
+    private Backtrack popBacktrack() {
+        int top = --backtrackDepth;
+        Backtrack backtrack = backtrackStack[top];
+        backtrackStack[top] = null;
+        undoTrail(trailMarks[top]);
+        return backtrack;
     }
 
     /**
-     * On (e.g.) exception handling, backtrack stack is reduced to a known point, undoing any operations along the way.
+     * Unbind variables on trail down to given depth.
      *
-     * @param depth Desired depth (from prior call to {@link #getBacktrackDepth()}).
+     * @param depth Desired depth of trail
      */
-    public void trimBacktrackStackToDepth(int depth) {
-        while (backtrackStack.size() > depth) {
-            backtrackStack.pop().undo();
+    private void undoTrail(int depth) {
+        while (trailDepth > depth) {
+            ActiveVariable variable = trail[--trailDepth];
+            trail[trailDepth] = null;
+            variable.unbind();
         }
     }
 
@@ -508,22 +702,41 @@ public class Environment {
     }
 
     /**
-     * Primitive helper of cut
+     * Primitive helper of cut. All entries of the backtrack stack above target depth are discarded by resetting the
+     * top of the stack. Discarded slots are cleared lazily, once more than {@link #STALE_BACKTRACK_LIMIT} slots are
+     * stale, so that discarded decision points (and the contexts they reference) do not remain reachable. Each slot
+     * is cleared at most once per entry pushed into it, so the cost of clearing is amortized over the pushes.
+     * Bindings recorded on the trail after the target depth of trail remain conditional, unless the variable is no
+     * older than the given watermark. Such a variable was created after every decision point that remains, so it need
+     * not be unbound when backtracking to one of them. Only the trail recorded since the target depth is compacted,
+     * which is bounded by the conditional bindings made since that point, not by the number of decision points.
      *
      * @param targetDepth new target depth of backtrack stack
-     */
-    public void cutBacktrackStack(int targetDepth) {
-        //
-        // Determine how far back we can rewind backtracking
-        //
-        int delta = backtrackStack.size() - targetDepth;
-        //
-        // Attempt to reduce the stack
-        //
-        ListIterator<Backtrack> iter = backtrackStack.listIterator();
-        while (delta-- > 0) {
-            iter.next().cut(iter);
+     * @param trailDepth  depth of trail at same point as targetDepth
+     * @param watermark   variables with an id at or above watermark are discarded from trail, see
+     *                    {@link #variableWatermark()}
+     */
+    public void cutBacktrackStack(int targetDepth, int trailDepth, long watermark) {
+        if (targetDepth < backtrackDepth) {
+            backtrackDepth = targetDepth;
+            if (backtrackLimit - targetDepth > STALE_BACKTRACK_LIMIT) {
+                Arrays.fill(backtrackStack, targetDepth, backtrackLimit, null);
+                backtrackLimit = targetDepth;
+            }
         }
+        int from = Math.min(trailDepth, this.trailDepth);
+        if (watermark == Long.MAX_VALUE || from == this.trailDepth) {
+            return; // no trail compaction
+        }
+        int write = from;
+        for (int i = from; i < this.trailDepth; i++) {
+            ActiveVariable variable = trail[i];
+            if (variable.id() < watermark) {
+                trail[write++] = variable;
+            }
+        }
+        Arrays.fill(trail, write, this.trailDepth, null);
+        this.trailDepth = write;
     }
 
     /**
@@ -533,7 +746,37 @@ public class Environment {
      * @param backtrack Backtracking state/callback
      */
     public void pushBacktrack(Backtrack backtrack) {
-        backtrackStack.push(backtrack);
+        int depth = backtrackDepth;
+        if (depth == backtrackStack.length) {
+            backtrackStack = Arrays.copyOf(backtrackStack, depth * 2);
+            trailMarks = Arrays.copyOf(trailMarks, depth * 2);
+        }
+        backtrackStack[depth] = backtrack;
+        trailMarks[depth] = trailDepth;
+        backtrackDepth = ++depth;
+        if (depth > backtrackLimit) {
+            backtrackLimit = depth;
+        }
+        if (depth > statistics.backtrackHighWater) {
+            statistics.backtrackHighWater = depth;
+        }
+    }
+
+    /**
+     * Record a variable binding so that the variable is unbound on backtracking. The binding is not recorded if the
+     * variable is deterministic (see {@link CutPoint#isDeterministic(long)}).
+     *
+     * @param variable Variable that was bound
+     */
+    public void trail(ActiveVariable variable) {
+        if (!cutPoint.isDeterministic(variable.id())) {
+            int depth = trailDepth;
+            if (depth == trail.length) {
+                trail = Arrays.copyOf(trail, depth * 2);
+            }
+            trail[depth] = variable;
+            trailDepth = depth + 1;
+        }
     }
 
     /**
@@ -543,22 +786,15 @@ public class Environment {
      */
     public void pushDecisionPoint(DecisionPoint decisionPoint) {
         if (debugging) decisionPoint = debuggerHook.acceptDecisionPoint(decisionPoint);
+        statistics.choicepoints++;
         pushBacktrack(decisionPoint);
     }
 
-    /**
-     * Conditionally add a backtrack
-     */
-    public void pushBacktrackIfNotDeterministic(long id, Backtrack backtrack) {
-        if (!cutPoint.isDeterministic(id)) {
-            pushBacktrack(backtrack);
-        }
-    }
-
     /**
      * Begin backtracking
      */
     public void backtrack() {
+        statistics.backtracks++;
         executionState = ExecutionState.BACKTRACK;
     }
 
@@ -605,10 +841,14 @@ public class Environment {
      */
     public void reset() {
         forward();
-        backtrackStack.clear();
+        Arrays.fill(backtrackStack, 0, backtrackLimit, null);
+        backtrackDepth = 0;
+        backtrackLimit = 0;
+        Arrays.fill(trail, 0, trailDepth, null);
+        trailDepth = 0;
         dataStack.clear();
         execution = terminalIP;
-        backtrackStack.push(backtrackTerminal);
+        pushBacktrack(backtrackTerminal);
         catchPoint = CatchPoint.TERMINAL;
     }
 
@@ -618,14 +858,18 @@ public class Environment {
      * @return true if success
      */
     public ExecutionState run() {
+        statistics.enter();
         // Tight loop handling forward and backtracking at the simplest level
         for (; ; ) {
             try {
-                while (executionState == ExecutionState.FORWARD) {
+                while (executionState == ExecutionState.FORWARD && !stopRequested) {
                     execution.invokeNext();
                 }
-                while (executionState == ExecutionState.BACKTRACK) {
-                    backtrackStack.poll().backtrack();
+                while (executionState == ExecutionState.BACKTRACK && !stopRequested) {
+                    popBacktrack().backtrack();
+                }
+                if (stopRequested) {
+                    executionState = ExecutionState.FAILED;
                 }
                 if (executionState.isTerminal()) {
                     return executionState;
@@ -640,6 +884,14 @@ public class Environment {
         }
     }
 
+    /**
+     * Request, from any thread, that execution in this environment stops as soon as possible. Execution ends as if it
+     * failed, and no further execution is possible.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
     /**
      * Create or retrieve an atom of specified name for this environment. Only one atom exists per name per environment.
      *
@@ -723,12 +975,7 @@ public class Environment {
      * @return operator entry
      */
     public OperatorEntry getPrefixOperator(Atomic atom) {
-        OperatorEntry entry = shared.prefixOperatorTable.get(atom);
-        if (entry == null) {
-            return OperatorEntry.ARGUMENT;
-        } else {
-            return entry;
-        }
+        return shared.operatorTable.lookup(atom).prefix();
     }
 
     /**
@@ -738,12 +985,7 @@ public class Environment {
      * @return operator entry
      */
     public OperatorEntry getInfixPostfixOperator(Atomic atom) {
-        OperatorEntry entry = shared.infixPostfixOperatorTable.get(atom);
-        if (entry == null) {
-            return OperatorEntry.ARGUMENT;
-        } else {
-            return entry;
-        }
+        return shared.operatorTable.lookup(atom).infixPostfix();
     }
 
     /**
@@ -752,7 +994,7 @@ public class Environment {
      * @return all prefix operators
      */
     public Map<Atomic, OperatorEntry> getPrefixOperators() {
-        return Collections.unmodifiableMap(shared.prefixOperatorTable);
+        return shared.operatorTable.getPrefixOperators();
     }
 
     /**
@@ -761,7 +1003,7 @@ public class Environment {
      * @return all infix/postfix operators
      */
     public Map<Atomic, OperatorEntry> getInfixPostfixOperators() {
-        return Collections.unmodifiableMap(shared.infixPostfixOperatorTable);
+        return shared.operatorTable.getInfixPostfixOperators();
     }
 
     /**
@@ -943,14 +1185,21 @@ public class Environment {
      * @param atom       Operator atom
      */
     public void makeOperator(int precedence, OperatorEntry.Code code, PrologAtomInterned atom) {
-        OperatorEntry entry;
-        if (code.isPrefix()) {
-            entry = shared.prefixOperatorTable.computeIfAbsent(atom, OperatorEntry::new);
-        } else {
-            entry = shared.infixPostfixOperatorTable.computeIfAbsent(atom, OperatorEntry::new);
+        shared.operatorLock.lock();
+        try {
+            OperatorTable table = shared.operatorTable;
+            OperatorEntry existing = code.isPrefix() ?
+                    table.lookup(atom).prefix() : table.lookup(atom).infixPostfix();
+            if (existing.getCode() == code && existing.getPrecedence() == precedence) {
+                return; // no change, existing entry is retained
+            }
+            OperatorEntry entry = new OperatorEntry(atom);
+            entry.setCode(code);
+            entry.setPrecedence(precedence);
+            shared.operatorTable = table.with(entry);
+        } finally {
+            shared.operatorLock.unlock();
         }
-        entry.setCode(code);
-        entry.setPrecedence(precedence);
     }
 
     /**
@@ -960,11 +1209,11 @@ public class Environment {
      * @param atom Operator atom
      */
     public void removeOperator(OperatorEntry.Code code, PrologAtomInterned atom) {
-        OperatorEntry entry;
-        if (code.isPrefix()) {
-            shared.prefixOperatorTable.remove(atom);
-        } else {
-            shared.infixPostfixOperatorTable.remove(atom);
+        shared.operatorLock.lock();
+        try {
+            shared.operatorTable = shared.operatorTable.without(code, atom);
+        } finally {
+            shared.operatorLock.unlock();
         }
     }
 
@@ -987,6 +1236,15 @@ public class Environment {
         return shared.loadGroups.get(id);
     }
 
+    /**
+     * Retrieve all load groups
+     *
+     * @return load groups
+     */
+    public Collection<LoadGroup> getLoadGroups() {
+        return shared.loadGroups.values();
+    }
+
     /**
      * Change load group. Group is inserted into table, replacing
      * any previous group of that name
@@ -1065,6 +1323,29 @@ public class Environment {
         return shared.spyPoints;
     }
 
+    /**
+     * @return Threads, message queues and mutexes shared by environments
+     */
+    public PrologThreads threads() {
+        return shared.threads;
+    }
+
+    /**
+     * @return Thread that owns this environment, or null if not created by thread_create/3
+     */
+    public PrologThread getThread() {
+        return thread;
+    }
+
+    /**
+     * Associate environment with a thread.
+     *
+     * @param thread Thread that owns this environment
+     */
+    public void setThread(PrologThread thread) {
+        this.thread = thread;
+    }
+
     /**
      * @return Break-level, 0 = top level
      */
@@ -59,6 +59,16 @@ public final class LocalContext {
         return variables.computeIfAbsent(var.id(), i -> new ActiveVariable(environment, var.name(), environment.nextVariableId()));
     }
 
+    /**
+     * Return the active variable previously associated with a labeled variable, without creating one.
+     *
+     * @param var Labeled inactive variable.
+     * @return associated active variable, or null if variable has not been activated.
+     */
+    public ActiveVariable existing(LabeledVariable var) {
+        return variables.get(var.id());
+    }
+
     /**
      * Creates a view map from the set of variables, giving each variable a unique name.
      *
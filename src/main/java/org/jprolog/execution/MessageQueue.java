@@ -0,0 +1,211 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.expressions.Term;
+import org.jprolog.utility.MpmcQueue;
+import org.jprolog.utility.Waiters;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Queue of messages between Prolog threads (see {@link PrologThread}). Messages are copies of terms in which every
+ * variable is a labeled variable, and are held in a bounded lock-free queue. A receiver waits for a message that
+ * matches its pattern, a message that does not match is moved to a deferred list, where it is visible to subsequent
+ * receivers in order of arrival. The bound applies to all messages held, whether queued or deferred, so a sender
+ * that finds the queue full waits until a receiver removes a message (backpressure). Waiting spins briefly, then
+ * yields, then parks until a message is sent or removed (see {@link Waiters}), no lock is held while waiting.
+ */
+public class MessageQueue {
+
+    /**
+     * Default maximum number of messages in queue before senders wait.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final PrologInteger id;
+    private final PrologAtomInterned alias;
+    private final MpmcQueue<Term> queue;
+    private final int maxSize;
+    private final AtomicInteger held = new AtomicInteger(); // queued and deferred messages, including reserved
+    private final ArrayList<Term> deferred = new ArrayList<>();
+    private final ReentrantLock deferredLock = new ReentrantLock();
+    private final Waiters senders = new Waiters();
+    private final Waiters receivers = new Waiters();
+    private volatile int deferredVersion = 0;
+    private volatile boolean destroyed = false;
+
+    /**
+     * Create a message queue.
+     *
+     * @param id      Id of queue
+     * @param alias   Alias of queue, or null
+     * @param maxSize Maximum number of messages, queued or deferred, before senders wait
+     */
+    public MessageQueue(PrologInteger id, PrologAtomInterned alias, int maxSize) {
+        this.id = id;
+        this.alias = alias;
+        this.maxSize = Math.max(1, maxSize);
+        this.queue = new MpmcQueue<>(this.maxSize);
+    }
+
+    /**
+     * @return id of queue
+     */
+    public PrologInteger getId() {
+        return id;
+    }
+
+    /**
+     * @return alias of queue, or null
+     */
+    public PrologAtomInterned getAlias() {
+        return alias;
+    }
+
+    /**
+     * @return alias if specified, else id
+     */
+    public Term handle() {
+        return alias != null ? alias : id;
+    }
+
+    /**
+     * Mark queue as destroyed, waiting senders and receivers give up.
+     */
+    public void destroy() {
+        destroyed = true;
+        senders.signalAll();
+        receivers.signalAll();
+    }
+
+    /**
+     * @return true if destroyed
+     */
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * Add message to queue, waiting while queue is full.
+     *
+     * @param message Message (copied term)
+     * @return false if queue was destroyed
+     * @throws InterruptedException if thread is interrupted while waiting
+     */
+    public boolean send(Term message) throws InterruptedException {
+        for (int attempt = 0; !destroyed; attempt++) {
+            int count = held.get();
+            if (count < maxSize && held.compareAndSet(count, count + 1)) {
+                // room is reserved, the queue holds no more than the number of messages held
+                while (!queue.offer(message)) {
+                    Thread.yield(); // a receiver is completing removal
+                }
+                receivers.signalAll();
+                return true;
+            }
+            pause(senders, attempt, () -> destroyed || held.get() < maxSize);
+        }
+        return false;
+    }
+
+    /**
+     * Remove the first message that matches, waiting until such a message arrives.
+     *
+     * @param matches Test of message against pattern, must not have side effects
+     * @return message, or null if queue was destroyed
+     * @throws InterruptedException if thread is interrupted while waiting
+     */
+    public Term receive(Predicate<Term> matches) throws InterruptedException {
+        int scanned = -1;
+        for (int attempt = 0; !destroyed; attempt++) {
+            int version = deferredVersion;
+            if (version != scanned) {
+                Term message = takeDeferred(matches);
+                if (message != null) {
+                    removed();
+                    return message;
+                }
+                scanned = version;
+            }
+            Term message = queue.poll();
+            if (message == null) {
+                int seen = scanned;
+                pause(receivers, attempt, () -> destroyed || queue.size() > 0 || deferredVersion != seen);
+                continue;
+            }
+            if (matches.test(message)) {
+                removed();
+                return message;
+            } else {
+                deferredLock.lock();
+                try {
+                    boolean current = deferredVersion == scanned;
+                    deferred.add(message);
+                    deferredVersion++;
+                    if (current) {
+                        scanned = deferredVersion; // only change is our own
+                    }
+                } finally {
+                    deferredLock.unlock();
+                }
+                receivers.signalAll(); // another receiver may match the deferred message
+                attempt = 0;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return approximate number of messages in queue
+     */
+    public int size() {
+        deferredLock.lock();
+        try {
+            return deferred.size() + queue.size();
+        } finally {
+            deferredLock.unlock();
+        }
+    }
+
+    /**
+     * A message has been removed from queue, making room for a sender.
+     */
+    private void removed() {
+        held.decrementAndGet();
+        senders.signalAll();
+    }
+
+    private Term takeDeferred(Predicate<Term> matches) {
+        deferredLock.lock();
+        try {
+            Iterator<Term> it = deferred.iterator();
+            while (it.hasNext()) {
+                Term message = it.next();
+                if (matches.test(message)) {
+                    it.remove();
+                    deferredVersion++;
+                    return message;
+                }
+            }
+            return null;
+        } finally {
+            deferredLock.unlock();
+        }
+    }
+
+    private static void pause(Waiters waiters, int attempt, BooleanSupplier ready) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        waiters.pause(attempt, ready);
+    }
+}
@@ -0,0 +1,205 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologAtomLike;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of the operators of an environment. op/3 never modifies a table, it publishes a replacement
+ * table, so a parse or write in progress sees a consistent set of operators. Each name that is an operator in any table
+ * is given an index, shared by all tables (and all environments), and each table holds the operator entries of each
+ * name (see {@link Slot}) in an array by index. Each interned atom caches the index of its name, which does not
+ * depend on the table, so the common lookup is a field read and an array read, whichever table it is made against.
+ */
+public final class OperatorTable {
+
+    // index of each name that is an operator in some table
+    private static final ConcurrentHashMap<String, Integer> NAME_INDEX = new ConcurrentHashMap<>();
+    // incremented as names are added, invalidates indexes cached on atoms that were not operator names
+    private static volatile int nameVersion = 0;
+    private static final Slot NONE = new Slot(OperatorEntry.ARGUMENT, OperatorEntry.ARGUMENT);
+
+    private final TreeMap<Atomic, OperatorEntry> prefix;
+    private final TreeMap<Atomic, OperatorEntry> infixPostfix;
+    private final Slot[] slots;
+
+    /**
+     * Create table from operator entries, entries must not be modified once added to a table.
+     *
+     * @param prefix       Prefix operators
+     * @param infixPostfix Infix and postfix operators
+     */
+    public OperatorTable(Map<? extends Atomic, ? extends OperatorEntry> prefix,
+                         Map<? extends Atomic, ? extends OperatorEntry> infixPostfix) {
+        this.prefix = new TreeMap<>(prefix);
+        this.infixPostfix = new TreeMap<>(infixPostfix);
+        int size = 0;
+        for (Atomic atom : this.prefix.keySet()) {
+            size = Math.max(size, assignIndex(((PrologAtomLike) atom).name()) + 1);
+        }
+        for (Atomic atom : this.infixPostfix.keySet()) {
+            size = Math.max(size, assignIndex(((PrologAtomLike) atom).name()) + 1);
+        }
+        slots = new Slot[size];
+        for (Atomic atom : this.prefix.keySet()) {
+            addSlot(atom);
+        }
+        for (Atomic atom : this.infixPostfix.keySet()) {
+            addSlot(atom);
+        }
+    }
+
+    private void addSlot(Atomic atom) {
+        int index = NAME_INDEX.get(((PrologAtomLike) atom).name());
+        if (slots[index] == null) {
+            slots[index] = new Slot(
+                    this.prefix.getOrDefault(atom, OperatorEntry.ARGUMENT),
+                    this.infixPostfix.getOrDefault(atom, OperatorEntry.ARGUMENT));
+        }
+    }
+
+    /**
+     * Index of an operator name, assigned on first use.
+     *
+     * @param name Name of operator
+     * @return index
+     */
+    private static int assignIndex(String name) {
+        Integer index = NAME_INDEX.get(name);
+        if (index != null) {
+            return index;
+        }
+        synchronized (NAME_INDEX) {
+            index = NAME_INDEX.get(name);
+            if (index == null) {
+                index = NAME_INDEX.size();
+                NAME_INDEX.put(name, index);
+                nameVersion++; // after put, see indexOf
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Index of the name of an interned atom, cached on the atom along with the version of the names it was resolved
+     * against. The cached value is the same for all tables, and changes only when a new operator name is added.
+     *
+     * @param atom Interned atom
+     * @return index, or -1 if not an operator name
+     */
+    private static int indexOf(PrologAtomInterned atom) {
+        int version = nameVersion;
+        long cached = atom.getOperatorIndex();
+        if ((int) (cached >>> 32) != version) {
+            Integer index = NAME_INDEX.get(atom.name());
+            cached = ((long) version << 32) | (index == null ? 0 : index + 1);
+            atom.setOperatorIndex(cached);
+        }
+        return (int) cached - 1;
+    }
+
+    /**
+     * Create a new table with one operator defined or redefined.
+     *
+     * @param entry New operator entry
+     * @return new table
+     */
+    public OperatorTable with(OperatorEntry entry) {
+        return entry.getCode().isPrefix() ?
+                new OperatorTable(with(prefix, entry.getFunctor(), entry), infixPostfix) :
+                new OperatorTable(prefix, with(infixPostfix, entry.getFunctor(), entry));
+    }
+
+    /**
+     * Create a new table with one operator removed.
+     *
+     * @param code Operator code (determines if operator is prefix or not)
+     * @param atom Operator atom
+     * @return new table
+     */
+    public OperatorTable without(OperatorEntry.Code code, Atomic atom) {
+        return code.isPrefix() ?
+                new OperatorTable(with(prefix, atom, null), infixPostfix) :
+                new OperatorTable(prefix, with(infixPostfix, atom, null));
+    }
+
+    private static Map<Atomic, OperatorEntry> with(Map<Atomic, OperatorEntry> source, Atomic atom, OperatorEntry entry) {
+        TreeMap<Atomic, OperatorEntry> copy = new TreeMap<>(source);
+        if (entry == null) {
+            copy.remove(atom);
+        } else {
+            copy.put(atom, entry);
+        }
+        return copy;
+    }
+
+    /**
+     * Retrieve operator entries of an atom.
+     *
+     * @param atom Atom (any other atomic is not an operator)
+     * @return slot of operator entries
+     */
+    public Slot lookup(Atomic atom) {
+        int index;
+        if (atom instanceof PrologAtomInterned) {
+            index = indexOf((PrologAtomInterned) atom);
+        } else if (atom instanceof PrologAtomLike) {
+            index = NAME_INDEX.getOrDefault(((PrologAtomLike) atom).name(), -1);
+        } else {
+            return NONE;
+        }
+        if (index < 0 || index >= slots.length || slots[index] == null) {
+            return NONE;
+        }
+        return slots[index];
+    }
+
+    /**
+     * @return all prefix operators for iteration
+     */
+    public Map<Atomic, OperatorEntry> getPrefixOperators() {
+        return Collections.unmodifiableMap(prefix);
+    }
+
+    /**
+     * @return all infix/postfix operators for iteration
+     */
+    public Map<Atomic, OperatorEntry> getInfixPostfixOperators() {
+        return Collections.unmodifiableMap(infixPostfix);
+    }
+
+    /**
+     * Operator entries of one name in one table. Slots are immutable.
+     */
+    public static final class Slot {
+        private final OperatorEntry prefix;
+        private final OperatorEntry infixPostfix;
+
+        private Slot(OperatorEntry prefix, OperatorEntry infixPostfix) {
+            this.prefix = prefix;
+            this.infixPostfix = infixPostfix;
+        }
+
+        /**
+         * @return prefix operator entry, or {@link OperatorEntry#ARGUMENT}
+         */
+        public OperatorEntry prefix() {
+            return prefix;
+        }
+
+        /**
+         * @return infix/postfix operator entry, or {@link OperatorEntry#ARGUMENT}
+         */
+        public OperatorEntry infixPostfix() {
+            return infixPostfix;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.enumerators.CopySimpleTerm;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.exceptions.PrologHalt;
+import org.jprolog.exceptions.PrologThrowable;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+
+/**
+ * A Prolog thread (see thread_create/3). Each thread solves a single goal in its own {@link Environment}, sharing the
+ * program of the environment that created it, and has its own {@link MessageQueue}. When the goal completes, the
+ * status of the thread is one of true, false, exception(E), or exited(Code) if the thread called halt. The thread that
+ * runs the top level (and any environment not created by thread_create/3) is the thread "main", which has no
+ * environment of its own.
+ */
+public class PrologThread {
+
+    private final PrologThreads registry;
+    private final PrologInteger id;
+    private final PrologAtomInterned alias;
+    private final MessageQueue queue;
+    private final boolean detached;
+    private final Environment environment;
+    private final Thread thread;
+    private volatile Term status = null;
+
+    /**
+     * Create a thread record.
+     *
+     * @param registry    Registry of threads
+     * @param id          Id of thread
+     * @param alias       Alias of thread, or null
+     * @param queueSize   Maximum size of message queue
+     * @param detached    true if thread is forgotten when it completes
+     * @param environment Environment of thread, or null for main
+     * @param goal        Goal (copied term) to solve, or null for main
+     */
+    PrologThread(PrologThreads registry, PrologInteger id, PrologAtomInterned alias, int queueSize,
+                 boolean detached, Environment environment, Term goal) {
+        this.registry = registry;
+        this.id = id;
+        this.alias = alias;
+        this.queue = new MessageQueue(id, alias, queueSize);
+        this.detached = detached;
+        this.environment = environment;
+        if (environment != null) {
+            environment.setThread(this);
+            this.thread = ThreadSupport.newThread(() -> run(goal), "Prolog thread " + id.toLong());
+        } else {
+            this.thread = null;
+        }
+    }
+
+    /**
+     * @return id of thread
+     */
+    public PrologInteger getId() {
+        return id;
+    }
+
+    /**
+     * @return alias of thread, or null
+     */
+    public PrologAtomInterned getAlias() {
+        return alias;
+    }
+
+    /**
+     * @return alias if specified, else id
+     */
+    public Term handle() {
+        return alias != null ? alias : id;
+    }
+
+    /**
+     * @return message queue of thread
+     */
+    public MessageQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return true if thread is the main thread
+     */
+    public boolean isMain() {
+        return thread == null;
+    }
+
+    /**
+     * @return true if thread is detached
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Begin solving goal.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Wait for thread to complete.
+     *
+     * @return status of thread (copied term)
+     * @throws InterruptedException if calling thread is interrupted
+     */
+    public Term join() throws InterruptedException {
+        thread.join();
+        return status;
+    }
+
+    private void run(Term goal) {
+        Query query = new Query(environment);
+        try {
+            query.prepare(goal);
+            status = query.run() == ExecutionState.SUCCESS ? Interned.TRUE_ATOM : Interned.FALSE_ATOM;
+        } catch (PrologThrowable pt) {
+            status = exception(pt.value());
+        } catch (PrologHalt ph) {
+            status = new CompoundTermImpl(environment.internAtom("exited"), PrologInteger.from(ph.getHaltCode()));
+        } catch (RuntimeException | Error e) {
+            // not expected (e.g. stack overflow)
+            status = exception(PrologError.systemError(environment, e).value());
+        } finally {
+            registry.releaseMutexes();
+            environment.release();
+            queue.destroy();
+            if (detached) {
+                registry.remove(this);
+            }
+        }
+    }
+
+    private Term exception(Term error) {
+        return new CompoundTermImpl(environment.internAtom("exception"),
+                error.enumTerm(new CopySimpleTerm(environment)));
+    }
+}
@@ -0,0 +1,207 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.enumerators.CopySimpleTerm;
+import org.jprolog.expressions.Term;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Threads, message queues and mutexes of environments that share a program. Threads and queues are looked up by id or
+ * by alias. Ids are allocated from a single sequence so that a thread id is never the id of another queue, allowing
+ * a thread id to also identify the thread's queue.
+ */
+public class PrologThreads {
+
+    private static final long MAIN_ID = 1;
+
+    private final AtomicLong nextId = new AtomicLong(MAIN_ID + 1);
+    private final ConcurrentHashMap<Atomic, PrologThread> threads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Atomic, MessageQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<PrologAtomInterned, ReentrantLock> mutexes = new ConcurrentHashMap<>();
+    private final ReentrantLock mainLock = new ReentrantLock();
+    private volatile PrologThread main;
+
+    /**
+     * Retrieve the thread of an environment.
+     *
+     * @param environment Execution environment
+     * @return thread, the main thread if environment was not created by thread_create/3
+     */
+    public PrologThread self(Environment environment) {
+        PrologThread thread = environment.getThread();
+        return thread != null ? thread : main(environment);
+    }
+
+    private PrologThread main(Environment environment) {
+        PrologThread thread = main;
+        if (thread == null) {
+            mainLock.lock();
+            try {
+                thread = main;
+                if (thread == null) {
+                    thread = new PrologThread(this, PrologInteger.from(MAIN_ID), environment.internAtom("main"),
+                            MessageQueue.DEFAULT_MAX_SIZE, false, null, null);
+                    register(thread);
+                    main = thread;
+                }
+            } finally {
+                mainLock.unlock();
+            }
+        }
+        return thread;
+    }
+
+    /**
+     * Create and start a new thread.
+     *
+     * @param environment Creating environment, which shares its program with the new thread
+     * @param goal        Goal to solve
+     * @param alias       Alias of thread, or null
+     * @param queueSize   Maximum size of message queue of thread
+     * @param detached    true if thread is forgotten as soon as it completes
+     * @return new thread, or null if alias is in use
+     */
+    public PrologThread create(Environment environment, Term goal, PrologAtomInterned alias, int queueSize,
+                               boolean detached) {
+        main(environment); // reserve alias "main"
+        Term copy = goal.enumTerm(new CopySimpleTerm(environment));
+        // environment of thread is created on calling thread, it inherits streams and working directory
+        Environment threadEnvironment = new Environment(environment);
+        PrologThread thread = new PrologThread(this, nextId(), alias, queueSize, detached,
+                threadEnvironment, copy);
+        if (!register(thread)) {
+            threadEnvironment.release();
+            return null;
+        }
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Create a message queue that is not associated with a thread.
+     *
+     * @param environment Execution environment
+     * @param alias       Alias of queue, or null
+     * @param maxSize     Maximum number of messages before senders wait
+     * @return new queue, or null if alias is in use
+     */
+    public MessageQueue createQueue(Environment environment, PrologAtomInterned alias, int maxSize) {
+        main(environment); // reserve alias "main"
+        MessageQueue queue = new MessageQueue(nextId(), alias, maxSize);
+        if (alias != null && (threads.containsKey(alias) || queues.putIfAbsent(alias, queue) != null)) {
+            return null;
+        }
+        queues.put(queue.getId(), queue);
+        return queue;
+    }
+
+    /**
+     * Find a thread.
+     *
+     * @param environment Execution environment
+     * @param handle      Id or alias
+     * @return thread, or null if not found
+     */
+    public PrologThread lookupThread(Environment environment, Atomic handle) {
+        main(environment);
+        return threads.get(handle);
+    }
+
+    /**
+     * Find a message queue, including the queue of a thread.
+     *
+     * @param environment Execution environment
+     * @param handle      Id or alias of queue or thread
+     * @return queue, or null if not found
+     */
+    public MessageQueue lookupQueue(Environment environment, Atomic handle) {
+        main(environment);
+        return queues.get(handle);
+    }
+
+    /**
+     * Forget a thread that has completed (joined or detached).
+     *
+     * @param thread Thread to forget
+     */
+    public void remove(PrologThread thread) {
+        threads.remove(thread.getId(), thread);
+        queues.remove(thread.getId(), thread.getQueue());
+        if (thread.getAlias() != null) {
+            threads.remove(thread.getAlias(), thread);
+            queues.remove(thread.getAlias(), thread.getQueue());
+        }
+    }
+
+    /**
+     * Destroy a message queue that is not associated with a thread.
+     *
+     * @param queue Queue to destroy
+     */
+    public void destroyQueue(MessageQueue queue) {
+        queue.destroy();
+        queues.remove(queue.getId(), queue);
+        if (queue.getAlias() != null) {
+            queues.remove(queue.getAlias(), queue);
+        }
+    }
+
+    /**
+     * Retrieve mutex of given name, creating as needed.
+     *
+     * @param name Name of mutex
+     * @return mutex
+     */
+    public ReentrantLock mutex(PrologAtomInterned name) {
+        return mutexes.computeIfAbsent(name, n -> new ReentrantLock());
+    }
+
+    /**
+     * Release all mutexes held by the current thread. Called when a thread or worker finishes its goal, and on abort,
+     * so that a mutex is not left held when the goal is exited other than by success, failure or error (e.g. stopped,
+     * aborted, or halt).
+     */
+    public void releaseMutexes() {
+        for (ReentrantLock lock : mutexes.values()) {
+            while (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Test if a message queue belongs to a thread.
+     *
+     * @param queue Message queue
+     * @return true if a thread of same id exists
+     */
+    public boolean isThreadQueue(MessageQueue queue) {
+        PrologThread thread = threads.get(queue.getId());
+        return thread != null && thread.getQueue() == queue;
+    }
+
+    private PrologInteger nextId() {
+        return PrologInteger.from(nextId.getAndIncrement());
+    }
+
+    private boolean register(PrologThread thread) {
+        PrologAtomInterned alias = thread.getAlias();
+        if (alias != null) {
+            if (queues.containsKey(alias) || threads.putIfAbsent(alias, thread) != null) {
+                return false;
+            }
+            queues.put(alias, thread.getQueue());
+        }
+        threads.put(thread.getId(), thread);
+        queues.put(thread.getId(), thread.getQueue());
+        return true;
+    }
+}
@@ -78,6 +78,7 @@ public class Query {
 
     public void start() {
         reset();
+        environment.getStatistics().startQuery();
         environment.setCutPoint(new ClauseCutBarrier(environment, initialCutPoint));
         instruction.invoke(environment);
     }
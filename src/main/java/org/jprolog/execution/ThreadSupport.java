@@ -0,0 +1,30 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+/**
+ * Creates the Java thread of each {@link PrologThread}. This version creates a platform thread. When running on Java
+ * 21 or later, the multi-release jar substitutes a version (src/main/java21) that creates a virtual thread, so that
+ * many thousands of Prolog threads may block on queues, mutexes and streams without each holding a platform thread.
+ * Locks used during execution and IO are {@link java.util.concurrent.locks.ReentrantLock}s rather than monitors, so
+ * that a blocked virtual thread does not pin its carrier.
+ */
+public final class ThreadSupport {
+    private ThreadSupport() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Create a thread that does not prevent the JVM from exiting.
+     *
+     * @param task Task to run
+     * @param name Name of thread
+     * @return new thread, not started
+     */
+    public static Thread newThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,252 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+import org.jprolog.enumerators.CopySimpleTerm;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.exceptions.PrologHalt;
+import org.jprolog.exceptions.PrologThrowable;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves independent goals in parallel. Each worker thread owns a worker {@link Environment} that shares the program
+ * of the calling environment, and takes the next unsolved goal until all goals are solved. Terms are passed between
+ * environments as copies in which every variable is a labeled variable, so no variable is ever shared between threads.
+ */
+public class WorkerPool implements AutoCloseable {
+
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+
+    private final Environment environment;
+    private final Environment[] workers;
+    private final ExecutorService executor;
+    private final LinkedBlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+    private final AtomicInteger nextJob = new AtomicInteger();
+    private volatile boolean stopped = false;
+    private Term[] templates;
+    private Term[] goals;
+    private Outcome[] outcomes;
+    private boolean once;
+
+    /**
+     * Outcome of solving one goal.
+     */
+    public static final class Outcome {
+        private final List<Term> solutions;
+        private final Term thrown;
+        private final Throwable exception;
+
+        private Outcome(List<Term> solutions, Term thrown, Throwable exception) {
+            this.solutions = solutions;
+            this.thrown = thrown;
+            this.exception = exception;
+        }
+
+        /**
+         * @return true if goal had at least one solution
+         */
+        public boolean succeeded() {
+            return solutions != null && !solutions.isEmpty();
+        }
+
+        /**
+         * @return true if goal threw an error
+         */
+        public boolean rethrowable() {
+            return thrown != null || exception != null;
+        }
+
+        /**
+         * Retrieve solutions, copied into the calling environment.
+         *
+         * @param environment Calling environment
+         * @return instantiated templates, in order of solution
+         */
+        public List<Term> solutions(Environment environment) {
+            List<Term> copies = new ArrayList<>(solutions.size());
+            for (Term solution : solutions) {
+                copies.add(solution.resolve(environment.getLocalContext()));
+            }
+            return copies;
+        }
+
+        /**
+         * If goal threw an error, rethrow it in the calling environment.
+         *
+         * @param environment Calling environment
+         * @return true if error was rethrown (via {@link Environment#throwing(Term)})
+         */
+        public boolean rethrow(Environment environment) {
+            if (exception instanceof PrologHalt) {
+                throw (PrologHalt) exception;
+            } else if (exception != null) {
+                throw PrologError.systemError(environment, exception);
+            }
+            if (thrown == null) {
+                return false;
+            }
+            environment.throwing(thrown.resolve(environment.getLocalContext()));
+            return true;
+        }
+    }
+
+    /**
+     * Create a pool of worker environments.
+     *
+     * @param environment Calling environment, shares its program with workers
+     * @param threads     Number of worker threads
+     */
+    public WorkerPool(Environment environment, int threads) {
+        this.environment = environment;
+        threads = Math.max(1, threads);
+        // worker environments are created on the calling thread, they modify shared state when created
+        workers = new Environment[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Environment(environment);
+        }
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "Prolog worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Begin solving goals, a pool solves only one set of jobs. Each job is a term Template-Goal in the calling
+     * environment, which is copied to be solved by a worker.
+     *
+     * @param jobs Template-Goal pairs
+     * @param once true to stop at first solution of each goal, else collect all solutions
+     */
+    public void start(List<? extends Term> jobs, boolean once) {
+        this.once = once;
+        templates = new Term[jobs.size()];
+        goals = new Term[jobs.size()];
+        outcomes = new Outcome[jobs.size()];
+        for (int i = 0; i < templates.length; i++) {
+            CompoundTerm job = (CompoundTerm) jobs.get(i).enumTerm(new CopySimpleTerm(environment));
+            templates[i] = job.get(0);
+            goals[i] = job.get(1);
+        }
+        for (Environment worker : workers) {
+            executor.execute(() -> work(worker));
+        }
+    }
+
+    /**
+     * Wait for the next goal to be solved.
+     *
+     * @return index of job
+     * @throws InterruptedException if calling thread is interrupted
+     */
+    public int take() throws InterruptedException {
+        return completed.take();
+    }
+
+    /**
+     * Retrieve outcome of a solved goal.
+     *
+     * @param job Index of job, see {@link #take()}
+     * @return outcome
+     */
+    public Outcome outcome(int job) {
+        return outcomes[job];
+    }
+
+    /**
+     * Solve all remaining goals, waiting for all to complete. Workers stop as soon as any goal throws, or fails if
+     * requested.
+     *
+     * @param stopOnFail true to stop when a goal fails
+     * @return outcomes in order of jobs
+     * @throws InterruptedException if calling thread is interrupted
+     */
+    public Outcome[] join(boolean stopOnFail) throws InterruptedException {
+        for (int remaining = outcomes.length; remaining > 0; remaining--) {
+            Outcome outcome = outcome(take());
+            if (outcome.rethrowable() || (stopOnFail && !outcome.succeeded())) {
+                stop();
+                break;
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Stop all workers as soon as possible, outcomes of goals that have not completed are discarded.
+     */
+    public void stop() {
+        stopped = true;
+        for (Environment worker : workers) {
+            worker.requestStop();
+        }
+    }
+
+    /**
+     * Stop workers and release worker environments.
+     */
+    @Override
+    public void close() {
+        stop();
+        executor.shutdownNow();
+        try {
+            // workers check for stop frequently, but may be waiting on IO
+            executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Environment worker : workers) {
+            worker.release();
+        }
+    }
+
+    private void work(Environment worker) {
+        try {
+            for (; ; ) {
+                int job = nextJob.getAndIncrement();
+                if (stopped || job >= goals.length) {
+                    return;
+                }
+                Outcome outcome = solve(worker, templates[job], goals[job]);
+                if (stopped) {
+                    return;
+                }
+                outcomes[job] = outcome;
+                completed.add(job);
+            }
+        } finally {
+            worker.threads().releaseMutexes(); // e.g. worker was stopped within with_mutex/2
+        }
+    }
+
+    private Outcome solve(Environment worker, Term template, Term goal) {
+        List<Term> solutions = new ArrayList<>();
+        Query query = new Query(worker) {
+            @Override
+            protected ExecutionState onSuccess() {
+                solutions.add(template.resolve(getLocalContext()).enumTerm(new CopySimpleTerm(worker)));
+                return once ? ExecutionState.SUCCESS : ExecutionState.BACKTRACK;
+            }
+        };
+        query.prepare(goal);
+        try {
+            query.run();
+            return new Outcome(solutions, null, null);
+        } catch (PrologThrowable pt) {
+            return new Outcome(null, pt.value().enumTerm(new CopySimpleTerm(worker)), null);
+        } catch (PrologHalt | Error e) {
+            // halt, or not expected (e.g. stack overflow), rethrown by calling environment
+            return new Outcome(null, null, e);
+        }
+    }
+}
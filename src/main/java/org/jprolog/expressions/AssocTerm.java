@@ -0,0 +1,342 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.expressions;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.enumerators.EnumTermStrategy;
+import org.jprolog.exceptions.FutureTypeError;
+import org.jprolog.execution.LocalContext;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * A node of a persistent AVL tree (see library(assoc)). Each node is a compound term of the form
+ * t(Key,Value,Balance,Left,Right), with the empty tree represented by the atom 't'. Presenting the tree
+ * as an ordinary compound term means that unification, standard order comparison and writing behave exactly as
+ * they would for the equivalent term. The node additionally caches its height, allowing insert and delete to be
+ * performed in O(log n) without re-inspecting the balance atoms. Nodes are never modified once constructed, an update
+ * copies only the path from the root to the changed node.
+ */
+public final class AssocTerm extends CompoundTermImpl {
+
+    private final AssocTerm left;
+    private final AssocTerm right;
+    private final int height;
+    private final boolean grounded;
+    private final boolean resolved;
+
+    /**
+     * Construct an AVL node. Children are null for empty tree.
+     *
+     * @param key      Key of this node
+     * @param value    Value of this node
+     * @param left     Left subtree (keys less than key), or null
+     * @param right    Right subtree (keys greater than key), or null
+     * @param resolved true if key, value and children are known to not require further resolving
+     */
+    private AssocTerm(Term key, Term value, AssocTerm left, AssocTerm right, boolean resolved) {
+        super(Interned.EMPTY_ASSOC_ATOM, key, value,
+                balance(height(left), height(right)), orEmpty(left), orEmpty(right));
+        this.left = left;
+        this.right = right;
+        this.height = Math.max(height(left), height(right)) + 1;
+        this.grounded = key.isGrounded() && value.isGrounded() &&
+                (left == null || left.grounded) && (right == null || right.grounded);
+        this.resolved = resolved;
+    }
+
+    /**
+     * Key of this node.
+     *
+     * @return key
+     */
+    public Term key() {
+        return members[1];
+    }
+
+    /**
+     * Value of this node. Note that {@link #value()} retains its meaning of de-referencing the term.
+     *
+     * @return value associated with key
+     */
+    public Term val() {
+        return members[2];
+    }
+
+    /**
+     * Convert a term into an AVL tree. The term is expected to be either the empty tree, an existing AssocTerm, or
+     * a compound term of the form t(K,V,Balance,L,R) (e.g. as read from text). In the last case the tree is rebuilt.
+     * The term is assumed to have already been resolved.
+     *
+     * @param term Term to convert
+     * @return tree, or null if empty
+     */
+    public static AssocTerm from(Term term) {
+        term = term.value();
+        if (term instanceof AssocTerm) {
+            return (AssocTerm) term;
+        }
+        if (isEmpty(term)) {
+            return null;
+        }
+        if (!CompoundTerm.termIsA(term, Interned.EMPTY_ASSOC_ATOM, 5)) {
+            throw new FutureTypeError(Interned.ASSOC_TYPE, term);
+        }
+        CompoundTerm node = (CompoundTerm) term;
+        return new AssocTerm(node.get(0), node.get(1), from(node.get(3)), from(node.get(4)), true);
+    }
+
+    /**
+     * Test if term is the empty tree.
+     *
+     * @param term Term to test
+     * @return true if empty tree
+     */
+    public static boolean isEmpty(Term term) {
+        term = term.value();
+        return term.isAtom() && Interned.EMPTY_ASSOC_ATOM.compareTo(term) == 0;
+    }
+
+    /**
+     * Convert a tree (possibly null) into a term.
+     *
+     * @param tree Tree or null
+     * @return Term
+     */
+    public static Term toTerm(AssocTerm tree) {
+        return orEmpty(tree);
+    }
+
+    /**
+     * Look up a key without needing to convert the tree. This works on any compound term of the form
+     * t(K,V,Balance,L,R).
+     *
+     * @param term Tree
+     * @param key  Key to search for
+     * @return value, or null if not found
+     */
+    public static Term lookup(Term term, Term key) {
+        term = term.value();
+        while (!isEmpty(term)) {
+            if (!CompoundTerm.termIsA(term, Interned.EMPTY_ASSOC_ATOM, 5)) {
+                throw new FutureTypeError(Interned.ASSOC_TYPE, term);
+            }
+            CompoundTerm node = (CompoundTerm) term;
+            int comp = key.compareTo(node.get(0));
+            if (comp == 0) {
+                return node.get(1);
+            }
+            term = node.get(comp < 0 ? 3 : 4).value();
+        }
+        return null;
+    }
+
+    /**
+     * Insert or replace key/value, returning a new tree.
+     *
+     * @param tree  Original tree (null if empty)
+     * @param key   Key to insert
+     * @param value Value to associate with key
+     * @return new tree
+     */
+    public static AssocTerm put(AssocTerm tree, Term key, Term value) {
+        if (tree == null) {
+            return new AssocTerm(key, value, null, null, true);
+        }
+        int comp = key.compareTo(tree.key());
+        if (comp == 0) {
+            return new AssocTerm(key, value, tree.left, tree.right, true);
+        } else if (comp < 0) {
+            return rebalance(tree.key(), tree.val(), put(tree.left, key, value), tree.right);
+        } else {
+            return rebalance(tree.key(), tree.val(), tree.left, put(tree.right, key, value));
+        }
+    }
+
+    /**
+     * Remove key, returning a new tree.
+     *
+     * @param tree Original tree (null if empty)
+     * @param key  Key to remove
+     * @return new tree (null if empty). Tree is unchanged if key is not in tree.
+     */
+    public static AssocTerm delete(AssocTerm tree, Term key) {
+        if (tree == null) {
+            return null;
+        }
+        int comp = key.compareTo(tree.key());
+        if (comp < 0) {
+            AssocTerm newLeft = delete(tree.left, key);
+            return newLeft == tree.left ? tree : rebalance(tree.key(), tree.val(), newLeft, tree.right);
+        } else if (comp > 0) {
+            AssocTerm newRight = delete(tree.right, key);
+            return newRight == tree.right ? tree : rebalance(tree.key(), tree.val(), tree.left, newRight);
+        } else if (tree.left == null) {
+            return tree.right;
+        } else if (tree.right == null) {
+            return tree.left;
+        } else {
+            // replace this node with the smallest node of the right tree
+            AssocTerm min = tree.right.min();
+            return rebalance(min.key(), min.val(), tree.left, delete(tree.right, min.key()));
+        }
+    }
+
+    /**
+     * @return Node with smallest key in this tree
+     */
+    public AssocTerm min() {
+        AssocTerm node = this;
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /**
+     * @return Node with largest key in this tree
+     */
+    public AssocTerm max() {
+        AssocTerm node = this;
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Append nodes to list in key order.
+     *
+     * @param tree  Tree (null if empty)
+     * @param nodes List of nodes to append to
+     */
+    public static void collect(AssocTerm tree, List<AssocTerm> nodes) {
+        ArrayDeque<AssocTerm> stack = new ArrayDeque<>();
+        AssocTerm node = tree;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            nodes.add(node);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Construct a node, performing single or double rotation as needed to restore AVL invariant.
+     */
+    private static AssocTerm rebalance(Term key, Term value, AssocTerm left, AssocTerm right) {
+        int lh = height(left);
+        int rh = height(right);
+        if (lh > rh + 1) {
+            if (height(left.left) >= height(left.right)) {
+                // single right rotation
+                return new AssocTerm(left.key(), left.val(), left.left,
+                        new AssocTerm(key, value, left.right, right, true), true);
+            } else {
+                // double rotation
+                AssocTerm lr = left.right;
+                return new AssocTerm(lr.key(), lr.val(),
+                        new AssocTerm(left.key(), left.val(), left.left, lr.left, true),
+                        new AssocTerm(key, value, lr.right, right, true), true);
+            }
+        } else if (rh > lh + 1) {
+            if (height(right.right) >= height(right.left)) {
+                // single left rotation
+                return new AssocTerm(right.key(), right.val(),
+                        new AssocTerm(key, value, left, right.left, true), right.right, true);
+            } else {
+                // double rotation
+                AssocTerm rl = right.left;
+                return new AssocTerm(rl.key(), rl.val(),
+                        new AssocTerm(key, value, left, rl.left, true),
+                        new AssocTerm(right.key(), right.val(), rl.right, right.right, true), true);
+            }
+        } else {
+            return new AssocTerm(key, value, left, right, true);
+        }
+    }
+
+    private static int height(AssocTerm tree) {
+        return tree == null ? 0 : tree.height;
+    }
+
+    private static Term orEmpty(AssocTerm tree) {
+        return tree == null ? Interned.EMPTY_ASSOC_ATOM : tree;
+    }
+
+    private static PrologAtomInterned balance(int leftHeight, int rightHeight) {
+        if (leftHeight < rightHeight) {
+            return Interned.LESS_THAN_ATOM;
+        } else if (leftHeight > rightHeight) {
+            return Interned.GREATER_THAN_ATOM;
+        } else {
+            return Interned.EQUALS_ATOM;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isGrounded() {
+        return grounded;
+    }
+
+    /**
+     * Trees constructed at runtime are built from already resolved terms, and therefore resolve in O(1). Only trees
+     * containing labeled variables (e.g. retrieved from the clause database) require a full resolve.
+     *
+     * @param context binding context
+     * @return resolved tree
+     */
+    @Override
+    public CompoundTerm resolve(LocalContext context) {
+        if (grounded || resolved) {
+            return this;
+        }
+        return new AssocTerm(key().resolve(context), val().resolve(context),
+                left == null ? null : (AssocTerm) left.resolve(context),
+                right == null ? null : (AssocTerm) right.resolve(context),
+                true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompoundTerm enumTerm(EnumTermStrategy strategy) {
+        if (grounded && strategy.pruneGroundedCompound()) {
+            return this;
+        } else {
+            return super.enumTerm(strategy);
+        }
+    }
+
+    /**
+     * Copies retain tree structure where possible.
+     *
+     * @param strategy Underlying strategy
+     * @return copied tree
+     */
+    @Override
+    public CompoundTerm enumAndCopyCompoundTermMembers(EnumTermStrategy strategy) {
+        return (CompoundTerm) strategy.computeUncachedTerm(this, tt -> {
+            Term key = key().enumTerm(strategy);
+            Term value = val().enumTerm(strategy);
+            Term newLeft = orEmpty(left).enumTerm(strategy);
+            Term newRight = orEmpty(right).enumTerm(strategy);
+            if ((newLeft instanceof AssocTerm || isEmpty(newLeft)) &&
+                    (newRight instanceof AssocTerm || isEmpty(newRight))) {
+                return new AssocTerm(key, value, from(newLeft), from(newRight), false);
+            }
+            // strategy changed the shape of the tree
+            return new CompoundTermImpl(Interned.EMPTY_ASSOC_ATOM, key, value, members[3], newLeft, newRight);
+        });
+    }
+}
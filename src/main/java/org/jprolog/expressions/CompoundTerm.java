@@ -28,6 +28,20 @@ public interface CompoundTerm extends Term {
         return new GroundedCompoundTerm(functor);
     }
 
+    /**
+     * Utility, create a compound term with atomic arguments. The compound term is implicitly grounded.
+     *
+     * @param functor Functor
+     * @param args    Atomic arguments
+     * @return compound term
+     */
+    static CompoundTerm from(Atomic functor, Atomic[] args) {
+        Term[] members = new Term[args.length + 1];
+        members[0] = functor;
+        System.arraycopy(args, 0, members, 1, args.length);
+        return new GroundedCompoundTerm(members);
+    }
+
     /**
      * Utility to determine if specified term is compound, and is of a particular atom.
      *
@@ -123,23 +137,36 @@ public interface CompoundTerm extends Term {
     @Override
     default int compareSameType(Term o) {
         // per standard, arity precedes functor in ordering
-        CompoundTerm other = (CompoundTerm) o;
-        int comp = Integer.compare(arity(), other.arity());
-        if (comp != 0) {
-            return comp;
-        }
-        comp = functor().compareTo(other.functor());
-        if (comp != 0) {
-            return comp;
-        }
-        int a = arity();
-        for (int i = 0; i < a; i++) {
-            comp = get(i).compareTo(other.get(i));
+        // last argument is compared in a loop, lists and right-recursive operators may be arbitrarily deep
+        CompoundTerm left = this;
+        CompoundTerm right = (CompoundTerm) o;
+        for (; ; ) {
+            int comp = Integer.compare(left.arity(), right.arity());
+            if (comp != 0) {
+                return comp;
+            }
+            comp = left.functor().compareTo(right.functor());
             if (comp != 0) {
                 return comp;
             }
+            int a = left.arity();
+            if (a == 0) {
+                return 0;
+            }
+            for (int i = 0; i < a - 1; i++) {
+                comp = left.get(i).compareTo(right.get(i));
+                if (comp != 0) {
+                    return comp;
+                }
+            }
+            Term leftLast = left.get(a - 1).value();
+            Term rightLast = right.get(a - 1).value();
+            if (!(leftLast instanceof CompoundTerm && rightLast instanceof CompoundTerm)) {
+                return Term.compare(leftLast, rightLast);
+            }
+            left = (CompoundTerm) leftLast;
+            right = (CompoundTerm) rightLast;
         }
-        return comp;
     }
 
     /**
@@ -3,8 +3,10 @@
 //
 package org.jprolog.expressions;
 
+import org.jprolog.bootstrap.Interned;
 import org.jprolog.constants.Atomic;
 import org.jprolog.enumerators.EnumTermStrategy;
+import org.jprolog.exceptions.FutureTypeError;
 import org.jprolog.execution.CompileContext;
 import org.jprolog.execution.Environment;
 import org.jprolog.execution.LocalContext;
@@ -14,8 +16,11 @@ import org.jprolog.predicates.PredicateDefinition;
 import org.jprolog.predicates.Predication;
 import org.jprolog.unification.SimpleUnifyIterator;
 import org.jprolog.unification.UnifyIterator;
+import org.jprolog.variables.ActiveVariable;
+import org.jprolog.variables.LabeledVariable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -131,35 +136,134 @@ public class CompoundTermImpl implements CompoundTerm {
      * Resolves compound terms recursively. Term is initially assumed to not be grounded. However as a result of
      * the resolve, the term may be determined to be grounded (or may become grounded). If it is grounded, it will
      * be annotated as such (using the more efficient {@link GroundedCompoundTerm}). If it is not grounded, it will
-     * be replaced by a new version that may be more resolved than the original.
+     * be replaced by a new version that may be more resolved than the original. Right-recursive terms such as
+     * (A,B,C,...) can be arbitrarily deep, so the last argument is followed in a loop rather than recursively. A
+     * cyclic term would make the loop endless, so the loop is checked for a repeat (see {@link #checkAcyclic}).
      */
     @Override
     public CompoundTerm resolve(LocalContext context) {
+        // Members other than the last are resolved top-down while walking the spine, so that variables are created
+        // in the same order as a recursive resolve. Only the resolved last arguments are spliced in bottom-up.
+        ArrayList<CompoundTermImpl> spine = null;
+        ArrayList<Term[]> prefixes = null;
+        CompoundTermImpl term = this;
+        Term checkpoint = this;
+        while (term.members.length > 1) {
+            Term last = dereference(term.members[term.members.length - 1], context);
+            if (last.getClass() != CompoundTermImpl.class) {
+                break;
+            }
+            if (spine == null) {
+                spine = new ArrayList<>();
+                prefixes = new ArrayList<>();
+            }
+            spine.add(term);
+            prefixes.add(term.resolvePrefix(context));
+            term = (CompoundTermImpl) last;
+            checkpoint = checkAcyclic(checkpoint, term, spine.size());
+        }
+        Term[] prefix = term.resolvePrefix(context);
+        CompoundTerm res = term.assemble(prefix, term.members[term.members.length - 1].resolve(context));
+        if (spine != null) {
+            for (int i = spine.size() - 1; i >= 0; i--) {
+                res = spine.get(i).assemble(prefixes.get(i), res);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Detect a cycle in a chain of terms that is followed in a loop (Brent's algorithm). Within a single resolve, a
+     * term reached a second time will be reached again, endlessly. Rather than remembering every term of the chain,
+     * each term is compared with a checkpoint that moves forward each time the number of steps reaches a power of 2,
+     * so a cycle is detected within a few times its length, at the cost of one comparison per step.
+     *
+     * @param checkpoint Current checkpoint
+     * @param next       Term reached
+     * @param steps      Number of steps taken to reach term
+     * @return new checkpoint
+     * @throws FutureTypeError if term is the checkpoint
+     */
+    /*package*/
+    static Term checkAcyclic(Term checkpoint, Term next, int steps) {
+        if (next == checkpoint) {
+            throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, next);
+        }
+        return (steps & (steps - 1)) == 0 ? next : checkpoint;
+    }
+
+    /**
+     * Resolve all members of this compound term except the last (non-recursive part of
+     * {@link #resolve(LocalContext)}).
+     *
+     * @param context binding context
+     * @return members, or a copy of members with resolved values
+     */
+    private Term[] resolvePrefix(LocalContext context) {
         // Algorithm copies on change
         Term[] target = members;
-        boolean changed = false;
-        boolean grounded = true;
-        for (int i = 0; i < members.length; i++) {
+        for (int i = 0; i < members.length - 1; i++) {
             Term orig = target[i];
             Term res = orig.resolve(context);
             if (orig != res) {
-                if (!changed) {
+                if (target == members) {
                     target = target.clone();
-                    changed = true;
                 }
                 target[i] = res;
             }
-            grounded = grounded && res.isGrounded();
+        }
+        return target;
+    }
+
+    /**
+     * Combine members resolved by {@link #resolvePrefix(LocalContext)} with the resolved last argument.
+     *
+     * @param target Result of resolvePrefix
+     * @param last   Resolved last argument
+     * @return resolved term
+     */
+    private CompoundTerm assemble(Term[] target, Term last) {
+        int lastIndex = members.length - 1;
+        if (target[lastIndex] != last) {
+            if (target == members) {
+                target = target.clone();
+            }
+            target[lastIndex] = last;
+        }
+        boolean grounded = true;
+        for (int i = 0; grounded && i < target.length; i++) {
+            grounded = target[i].isGrounded();
         }
         if (grounded) {
             return new GroundedCompoundTerm(target);
-        } else if (!changed) {
+        } else if (target == members) {
             return this;
         } else {
             return new CompoundTermImpl(target);
         }
     }
 
+    /**
+     * Step through variables without resolving the value they are bound to. Used to follow the tail of a
+     * list, or the last argument of a compound term, iteratively. Labeled variables are not activated here, as that
+     * would change the order in which variables are created.
+     *
+     * @param term    Term to de-reference
+     * @param context binding context
+     * @return value of term
+     */
+    /*package*/
+    static Term dereference(Term term, LocalContext context) {
+        if (term instanceof LabeledVariable) {
+            ActiveVariable active = context.existing((LabeledVariable) term);
+            if (active == null) {
+                return term;
+            }
+            term = active;
+        }
+        return term.value();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -169,26 +273,56 @@ public class CompoundTermImpl implements CompoundTerm {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}. The last argument is followed in a loop where permitted by the strategy, see
+     * {@link EnumTermStrategy#followLastArgument(Term)}.
      */
     @Override
     public CompoundTerm enumAndCopyCompoundTermMembers(EnumTermStrategy strategy) {
         return (CompoundTerm) strategy.computeUncachedTerm(this, tt -> {
-            Term[] copy = members.clone();
-            boolean grounded = true;
-            for (int i = 0; i < copy.length; i++) {
-                Term t = copy[i].enumTerm(strategy);
-                grounded = grounded && t.isGrounded();
-                copy[i] = t;
+            ArrayList<Term[]> spine = new ArrayList<>();
+            CompoundTermImpl term = this;
+            for (; ; ) {
+                Term[] copy = term.members.clone();
+                int last = copy.length - 1;
+                for (int i = 0; i < last; i++) {
+                    copy[i] = copy[i].enumTerm(strategy);
+                }
+                spine.add(copy);
+                Term next = last > 0 ? strategy.followLastArgument(copy[last]) : null;
+                if (next == null || !(next.getClass() == CompoundTermImpl.class ||
+                        (next.getClass() == GroundedCompoundTerm.class && !strategy.pruneGroundedCompound()))) {
+                    copy[last] = copy[last].enumTerm(strategy);
+                    break;
+                }
+                term = (CompoundTermImpl) next;
             }
-            if (grounded) {
-                return new GroundedCompoundTerm(copy);
-            } else {
-                return new CompoundTermImpl(copy);
+            CompoundTerm result = null;
+            for (int i = spine.size() - 1; i >= 0; i--) {
+                Term[] copy = spine.get(i);
+                if (result != null) {
+                    copy[copy.length - 1] = result;
+                }
+                result = fromMembers(copy);
             }
+            return result;
         });
     }
 
+    /**
+     * Construct compound term from copied members, noting if the term is grounded.
+     *
+     * @param copy Functor and arguments
+     * @return new compound term
+     */
+    private static CompoundTerm fromMembers(Term[] copy) {
+        for (Term t : copy) {
+            if (!t.isGrounded()) {
+                return new CompoundTermImpl(copy);
+            }
+        }
+        return new GroundedCompoundTerm(copy);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -11,6 +11,9 @@ import org.jprolog.execution.LocalContext;
  * Version of CompoundTerm that is known to be a grounded compound term.
  */
 /*package*/ class GroundedCompoundTerm extends CompoundTermImpl implements Grounded {
+    // cached structural hash (see TermHash), 0 if not yet computed
+    int termHash = 0;
+
     /**
      * Construct a grounded compound term. First member is the functor,
      * remaining members are the arguments.
@@ -8,6 +8,7 @@ import org.jprolog.enumerators.EnumTermStrategy;
 import org.jprolog.exceptions.FutureTypeError;
 import org.jprolog.execution.CompileContext;
 import org.jprolog.execution.LocalContext;
+import org.jprolog.io.TermCodec;
 import org.jprolog.io.WriteContext;
 
 import java.io.IOException;
@@ -140,6 +141,15 @@ public interface Term extends Comparable<Term> {
      */
     void write(WriteContext context) throws IOException;
 
+    /**
+     * Binary encoding of this term, per {@link TermCodec}. Decoded by {@link TermCodec#fromBytes}.
+     *
+     * @return encoded term
+     */
+    default byte[] toBinary() {
+        return TermCodec.toBytes(this);
+    }
+
     /**
      * All terms are comparable, and must implement these methods:
      */
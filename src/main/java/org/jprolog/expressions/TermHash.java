@@ -0,0 +1,290 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.expressions;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.constants.PrologFloat;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.constants.PrologString;
+import org.jprolog.exceptions.FutureTypeError;
+import org.jprolog.variables.Variable;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Structural hash of terms (see term_hash/2). The hash depends only on the names and values that make up the term,
+ * never on identity, so it is the same across runs and environments. A list hashes the same as the equivalent chain
+ * of '[|]'/2 terms, whatever its representation. In variant mode, variables are hashed by order of first occurrence,
+ * so variants have the same hash. The hash of a grounded compound term is cached on the term. Terms are visited with
+ * an explicit stack so that deep terms do not consume Java stack. When the depth is unlimited, the compound terms on
+ * the path being visited are tracked, and a cyclic term is a type error rather than a hash that never completes.
+ */
+public final class TermHash {
+
+    /**
+     * Depth that does not limit the hash.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int ATOM = 1;
+    private static final int INTEGER = 2;
+    private static final int FLOAT = 3;
+    private static final int STRING = 4;
+    private static final int VARIABLE = 5;
+    private static final int LIMIT = 6;
+    private static final int OTHER = 7;
+    private static final int LIST_SEED = functorSeed(Interned.LIST_FUNCTOR.name(), 2);
+
+    private final boolean variant;
+    private final HashMap<Long, Integer> variables = new HashMap<>();
+    private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+    private IdentityHashMap<Term, Boolean> path; // null if depth is limited
+    private boolean ground = true;
+    private int value;
+
+    private TermHash(boolean variant) {
+        this.variant = variant;
+    }
+
+    /**
+     * Hash a term that is ground to the given depth.
+     *
+     * @param term  Term to hash
+     * @param depth Depth of compound terms to consider, 1 considers only the principal functor, or {@link #UNLIMITED}
+     * @return non-negative hash, or null if term has a variable within depth
+     * @throws FutureTypeError if depth is unlimited and term is cyclic
+     */
+    public static Integer termHash(Term term, int depth) {
+        TermHash hash = new TermHash(false);
+        int h = hash.hash(term, depth);
+        return hash.ground ? h & 0x7fffffff : null;
+    }
+
+    /**
+     * Hash a term such that variants of the term have the same hash.
+     *
+     * @param term Term to hash
+     * @return non-negative hash
+     * @throws FutureTypeError if term is cyclic
+     */
+    public static int variantHash(Term term) {
+        return new TermHash(true).hash(term, UNLIMITED) & 0x7fffffff;
+    }
+
+    /**
+     * A compound term or list waiting for the hashes of its arguments, or elements and tail.
+     */
+    private static final class Frame {
+        final Term[] cells; // compound term, or list cells, in order
+        final Term[] children;
+        final int[] hashes;
+        final int seed;
+        final boolean list;
+        final int depth;
+        final GroundedCompoundTerm cache;
+        int next = 0;
+
+        Frame(Term[] cells, Term[] children, int seed, boolean list, int depth, GroundedCompoundTerm cache) {
+            this.cells = cells;
+            this.children = children;
+            this.hashes = new int[children.length];
+            this.seed = seed;
+            this.list = list;
+            this.depth = depth;
+            this.cache = cache;
+        }
+
+        /**
+         * @return depth of the next child
+         */
+        int childDepth() {
+            if (list && next == children.length - 1) {
+                return below(depth, next); // tail
+            } else if (list) {
+                return below(depth, next + 1);
+            } else {
+                return below(depth, 1);
+            }
+        }
+
+        int complete() {
+            int h;
+            if (list) {
+                h = hashes[hashes.length - 1];
+                for (int i = hashes.length - 2; i >= 0; i--) {
+                    h = mix((LIST_SEED * 31 + hashes[i]) * 31 + h);
+                }
+            } else {
+                h = seed;
+                for (int c : hashes) {
+                    h = h * 31 + c;
+                }
+                h = mix(h);
+                if (cache != null) {
+                    cache.termHash = h;
+                }
+            }
+            return h;
+        }
+    }
+
+    private int hash(Term term, int depth) {
+        if (depth == UNLIMITED) {
+            path = new IdentityHashMap<>();
+        }
+        Frame frame = open(term, depth);
+        if (frame == null) {
+            return value;
+        }
+        stack.push(frame);
+        for (; ; ) {
+            if (!ground) {
+                return 0;
+            }
+            Frame top = stack.peek();
+            if (top.next < top.children.length) {
+                if (path != null && top.list && top.next < top.cells.length) {
+                    // cell is on the path while its element, and the rest of the list, are visited
+                    path.put(top.cells[top.next], Boolean.TRUE);
+                }
+                Frame child = open(top.children[top.next], top.childDepth());
+                if (child != null) {
+                    stack.push(child);
+                    continue;
+                }
+                top.hashes[top.next++] = value;
+            } else {
+                stack.pop();
+                leave(top);
+                value = top.complete();
+                Frame parent = stack.peek();
+                if (parent == null) {
+                    return value;
+                }
+                parent.hashes[parent.next++] = value;
+            }
+        }
+    }
+
+    /**
+     * Hash a term, or prepare to hash its members.
+     *
+     * @return frame to complete, or null if hash is in value
+     */
+    private Frame open(Term term, int depth) {
+        if (depth <= 0) {
+            value = LIMIT;
+            return null;
+        }
+        Term t = term.value();
+        if (t instanceof TermList) {
+            // flatten, each element is one level deeper than the last
+            List<Term> children = new ArrayList<>();
+            List<Term> cells = new ArrayList<>();
+            Term checkpoint = null;
+            while (t instanceof TermList && cells.size() < depth) {
+                if (path != null) {
+                    if (path.containsKey(t)) {
+                        throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, t);
+                    }
+                    checkpoint = CompoundTermImpl.checkAcyclic(checkpoint, t, cells.size());
+                }
+                TermList list = (TermList) t;
+                cells.add(list);
+                children.add(list.getHead());
+                t = list.getTail().value();
+            }
+            children.add(t);
+            return new Frame(cells.toArray(new Term[0]), children.toArray(new Term[0]), LIST_SEED, true, depth,
+                    null);
+        } else if (t instanceof CompoundTerm) {
+            CompoundTerm compound = (CompoundTerm) t;
+            GroundedCompoundTerm cache = null;
+            if (depth == UNLIMITED && t instanceof GroundedCompoundTerm) {
+                cache = (GroundedCompoundTerm) t;
+                if (cache.termHash != 0) {
+                    value = cache.termHash;
+                    return null;
+                }
+            }
+            if (path != null && path.put(t, Boolean.TRUE) != null) {
+                throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, t);
+            }
+            int arity = compound.arity();
+            Term[] children = new Term[arity];
+            for (int i = 0; i < arity; i++) {
+                children[i] = compound.get(i);
+            }
+            return new Frame(new Term[]{t}, children, functorSeed(((PrologAtomLike) compound.functor()).name(), arity),
+                    false, depth, cache);
+        } else if (t instanceof Variable) {
+            if (variant) {
+                Integer index = variables.computeIfAbsent(((Variable) t).corefId(), id -> variables.size());
+                value = mix(VARIABLE * 31 + index);
+            } else {
+                ground = false;
+                value = 0;
+            }
+            return null;
+        } else {
+            value = atomicHash(t);
+            return null;
+        }
+    }
+
+    /**
+     * Remove the terms of a completed frame from the path.
+     */
+    private void leave(Frame frame) {
+        if (path != null) {
+            for (Term cell : frame.cells) {
+                path.remove(cell);
+            }
+        }
+    }
+
+    private static int atomicHash(Term t) {
+        if (t.isAtom()) {
+            return mix(ATOM * 31 + ((PrologAtomLike) t).name().hashCode());
+        } else if (t.isInteger()) {
+            BigInteger integer = PrologInteger.from(t).get();
+            int h = integer.bitLength() < 64 ?
+                    Long.hashCode(integer.longValue()) : Arrays.hashCode(integer.toByteArray());
+            return mix(INTEGER * 31 + h);
+        } else if (t.isFloat()) {
+            return mix(FLOAT * 31 + Double.hashCode(PrologFloat.from(t).get()));
+        } else if (t instanceof PrologString) {
+            return mix(STRING * 31 + ((PrologString) t).get().hashCode());
+        } else {
+            return mix((OTHER * 31 + t.typeRank()) * 31 + t.toString().hashCode());
+        }
+    }
+
+    private static int functorSeed(String name, int arity) {
+        return mix(name.hashCode() * 31 + arity);
+    }
+
+    private static int below(int depth, int levels) {
+        return depth == UNLIMITED ? UNLIMITED : depth - levels;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreads the bits of a combined hash.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -41,7 +41,10 @@ public class TermListImpl implements TermList, WorkingTermList {
     }
 
     /**
-     * Attempt to make list into a grounded list
+     * Attempt to make list into a grounded list. Lists built one element at a time are a long chain of lists, each
+     * linked to the next via a variable tail. The chain is followed in a loop (rather than recursively), with each
+     * list of the chain merged into the result. The chain stops at a grounded list, which needs no further resolving.
+     * A chain that returns to an earlier list is a cyclic term, and is a type error.
      *
      * @param context local contact (used e.g. to activate labeled variables)
      * @return resolved list
@@ -50,24 +53,38 @@ public class TermListImpl implements TermList, WorkingTermList {
     public TermList resolve(LocalContext context) {
         // Algorithm copies on change
         List<Term> target = null;
-        boolean changed = false;
         boolean grounded = true;
         for (int i = 0; i < terms.size(); i++) {
             Term orig = terms.get(i);
             Term res = orig.resolve(context);
             if (orig != res) {
-                if (!changed) {
+                if (target == null) {
                     target = new ArrayList<>(terms);
-                    changed = true;
                 }
                 target.set(i, res);
             }
             grounded = grounded && res.isGrounded();
         }
-        Term newTail = tail.resolve(context);
-        if (newTail != tail) {
-            changed = true;
+        Term last = tail; // resolved without dereferencing, so that a bound variable can detect a cycle
+        Term next = CompoundTermImpl.dereference(last, context);
+        Term checkpoint = this;
+        int steps = 0;
+        while (next.getClass() == TermListImpl.class) {
+            checkpoint = CompoundTermImpl.checkAcyclic(checkpoint, next, ++steps);
+            TermListImpl segment = (TermListImpl) next;
+            if (target == null) {
+                target = new ArrayList<>(terms);
+            }
+            for (Term orig : segment.terms) {
+                Term res = orig.resolve(context);
+                target.add(res);
+                grounded = grounded && res.isGrounded();
+            }
+            last = segment.tail;
+            next = CompoundTermImpl.dereference(last, context);
         }
+        Term newTail = last.resolve(context);
+        boolean changed = target != null || newTail != tail;
         if (target == null) {
             target = terms;
         }
@@ -90,19 +107,30 @@ public class TermListImpl implements TermList, WorkingTermList {
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}. Where permitted by the strategy (see {@link EnumTermStrategy#followLastArgument(Term)}), the
+     * chain of lists formed by the tail is followed in a loop and merged into the copy.
      */
     @Override
     public TermList enumAndCopyCompoundTermMembers(EnumTermStrategy strategy) {
         return (TermList) strategy.computeUncachedTerm(this, tt -> {
-            List<Term> copy = new ArrayList<>(terms);
+            List<Term> copy = new ArrayList<>(terms.size());
             boolean grounded = true;
-            for (int i = 0; i < copy.size(); i++) {
-                Term t = copy.get(i).enumTerm(strategy);
-                grounded = grounded && t.isGrounded();
-                copy.set(i, t);
+            TermListImpl segment = this;
+            Term newTail;
+            for (; ; ) {
+                for (Term orig : segment.terms) {
+                    Term t = orig.enumTerm(strategy);
+                    grounded = grounded && t.isGrounded();
+                    copy.add(t);
+                }
+                Term next = strategy.followLastArgument(segment.tail);
+                if (next == null || !(next.getClass() == TermListImpl.class ||
+                        (next.getClass() == GroundedTermList.class && !strategy.pruneGroundedCompound()))) {
+                    newTail = segment.tail.enumTerm(strategy);
+                    break;
+                }
+                segment = (TermListImpl) next;
             }
-            Term newTail = tail.enumTerm(strategy);
             grounded = grounded && newTail.isGrounded();
             if (grounded) {
                 return new GroundedTermList(copy, newTail);
@@ -0,0 +1,75 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+import java.util.Optional;
+
+/**
+ * Structured options parsed from a list of option atoms, used for reading csv/tsv data.
+ */
+public class CsvOptions implements Flags {
+
+    private static final OptionParser<CsvOptions> parser = new OptionParser<>();
+    private static final PrologAtomLike ROW = Interned.internAtom("row");
+
+    static {
+        parser.intFlag(Interned.internAtom("separator"), (o, v) -> o.separator = Optional.of(v.intValue()));
+        parser.intFlag(Interned.internAtom("quote"), (o, v) -> o.quote = v.intValue());
+        parser.booleanFlag(Interned.internAtom("convert"), (o, v) -> o.convert = v);
+        parser.booleanFlag(Interned.internAtom("strip"), (o, v) -> o.strip = v);
+        parser.atomFlag(Interned.internAtom("functor"), (o, v) -> o.functor = v);
+        parser.booleanFlag(Interned.internAtom("header"), (o, v) -> o.header = v);
+        parser.other(Interned.internAtom("stream"), (o, v) -> o.stream = Optional.of(v));
+    }
+
+    /**
+     * Column separator code, default is tab for a ".tsv" file, else comma
+     */
+    public Optional<Integer> separator = Optional.empty();
+    /**
+     * Quote code, a quoted column may contain separators and new lines, and a doubled quote
+     */
+    public int quote = '"';
+    /**
+     * Convert unquoted columns that are numbers to numbers, else all columns are atoms
+     */
+    public boolean convert = true;
+    /**
+     * Strip leading and trailing white space from unquoted columns
+     */
+    public boolean strip = false;
+    /**
+     * Functor of row terms
+     */
+    public PrologAtomLike functor = ROW;
+    /**
+     * Skip first row (column names)
+     */
+    public boolean header = false;
+    /**
+     * Unified with the stream opened to read a file (csv_read_file_row/3), e.g. to close it after a cut
+     */
+    public Optional<Term> stream = Optional.empty();
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public CsvOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("csv_option"), ffe.getTerm(), ffe);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+/**
+ * Structured options parsed from a list of option atoms, used for first_solution/3.
+ */
+public class FirstSolutionOptions implements Flags {
+
+    private static final OptionParser<FirstSolutionOptions> parser = new OptionParser<>();
+
+    static {
+        parser.enumFlag(Interned.internAtom("on_fail"), Action.class, (o, v) -> o.onFail = v);
+        parser.enumFlag(Interned.internAtom("on_error"), Action.class, (o, v) -> o.onError = v);
+    }
+
+    /**
+     * What to do when an alternative fails
+     */
+    public Action onFail = Action.ATOM_stop;
+    /**
+     * What to do when an alternative throws an error
+     */
+    public Action onError = Action.ATOM_stop;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public FirstSolutionOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("first_solution_option"),
+                    ffe.getTerm(), ffe);
+        }
+    }
+
+    public enum Action {
+        ATOM_stop,
+        ATOM_continue
+    }
+}
@@ -16,6 +16,13 @@ public class FlagSets extends LibraryBase {
         consult(WriteOptions.class);
         consult(CreateFlagOptions.class);
         consult(AbsoluteFileNameOptions.class);
+        consult(ProfileOptions.class);
+        consult(LoadFactsOptions.class);
+        consult(CsvOptions.class);
+        consult(FirstSolutionOptions.class);
+        consult(PersistentOptions.class);
+        consult(ThreadOptions.class);
+        consult(MessageQueueOptions.class);
         consult(PrologFlags.class);
         consult(StreamProperties.class);
     }
@@ -0,0 +1,76 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+import java.util.Optional;
+
+/**
+ * Structured options parsed from a list of option atoms, used for bulk loading facts.
+ */
+public class LoadFactsOptions implements Flags {
+
+    private static final OptionParser<LoadFactsOptions> parser = new OptionParser<>();
+    private static final PrologAtomLike ROW = Interned.internAtom("row");
+
+    static {
+        parser.enumFlag(Interned.internAtom("format"), Format.class, (o, v) -> o.format = Optional.of(v));
+        parser.atomFlag(Interned.internAtom("functor"), (o, v) -> o.functor = v);
+        parser.booleanFlag(Interned.internAtom("header"), (o, v) -> o.header = v);
+        parser.intFlag(Interned.internAtom("threads"), (o, v) -> o.threads = (int) Math.min(v, Integer.MAX_VALUE));
+        parser.booleanFlag(Interned.internAtom("table"), (o, v) -> o.table = v);
+        parser.booleanFlag(Interned.internAtom("silent"), (o, v) -> o.silent = v);
+    }
+
+    /**
+     * File format, default is determined by file extension
+     */
+    public Optional<Format> format = Optional.empty();
+    /**
+     * Functor of facts read from csv/tsv columns
+     */
+    public PrologAtomLike functor = ROW;
+    /**
+     * Skip first line of file (column names)
+     */
+    public boolean header = false;
+    /**
+     * Number of threads used to parse the file
+     */
+    public int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * Store facts in a compact fact table where possible
+     */
+    public boolean table = true;
+    /**
+     * Do not report number of rows loaded and load rate
+     */
+    public boolean silent = false;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public LoadFactsOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("load_facts_option"), ffe.getTerm(), ffe);
+        }
+    }
+
+    public enum Format {
+        ATOM_prolog,
+        ATOM_csv,
+        ATOM_tsv
+    }
+}
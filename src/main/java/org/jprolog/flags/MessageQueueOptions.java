@@ -0,0 +1,52 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.execution.MessageQueue;
+import org.jprolog.expressions.Term;
+
+import java.util.Optional;
+
+/**
+ * Structured options parsed from a list of option atoms, used when creating message queues.
+ */
+public class MessageQueueOptions implements Flags {
+
+    private static final OptionParser<MessageQueueOptions> parser = new OptionParser<>();
+
+    static {
+        parser.atomFlag(Interned.internAtom("alias"), (o, v) -> o.alias = Optional.of(v));
+        parser.intFlag(Interned.internAtom("max_size"),
+                (o, v) -> o.maxSize = (int) Math.max(1, Math.min(v, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Alias of queue, in addition to its id
+     */
+    public Optional<PrologAtomLike> alias = Optional.empty();
+    /**
+     * Maximum number of messages in queue before senders wait
+     */
+    public int maxSize = MessageQueue.DEFAULT_MAX_SIZE;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public MessageQueueOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("message_queue_option"),
+                    ffe.getTerm(), ffe);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.jprolog.exceptions.FutureFlagError;
 import org.jprolog.exceptions.PrologDomainError;
 import org.jprolog.execution.Environment;
 import org.jprolog.expressions.Term;
+import org.jprolog.io.FileReadWriteStreams;
 
 import java.util.Collections;
 import java.util.Optional;
@@ -27,10 +28,12 @@ public class OpenOptions implements Flags {
         parser.enumFlag(Interned.internAtom("type"), StreamProperties.Type.class, (o, v) -> o.type = v);
         parser.booleanFlag(Interned.internAtom("bom"), (o, v) -> o.bom = Optional.of(v));
         parser.enumFlag(Interned.internAtom("buffer"), StreamProperties.Buffering.class, (o, v) -> o.buffer = v);
+        parser.intFlag(Interned.internAtom("buffer_size"), (o, v) -> o.bufferSize = (int) Math.min(v, Integer.MAX_VALUE));
         parser.booleanFlag(Interned.internAtom("close_on_abort"), (o, v) -> o.closeOnAbort = v);
         parser.enumFlags(Interned.internAtom("create"), StreamProperties.Create.class, (o, v) -> o.create = v);
         parser.enumFlag(Interned.internAtom("encoding"), StreamProperties.Encoding.class, (o, v) -> o.encoding = Optional.of(v));
         parser.enumFlag(Interned.internAtom("eof_action"), StreamProperties.EofAction.class, (o, v) -> o.eofAction = v);
+        parser.booleanFlag(Interned.internAtom("map"), (o, v) -> o.map = v);
         parser.booleanFlag(Interned.internAtom("reposition"), (o, v) -> o.reposition = Optional.of(v));
     }
 
@@ -50,6 +53,10 @@ public class OpenOptions implements Flags {
      * Specify type of buffering
      */
     public StreamProperties.Buffering buffer = StreamProperties.Buffering.ATOM_full;
+    /**
+     * Specify size of file buffer in bytes, large buffers are allocated outside of the Java heap
+     */
+    public int bufferSize = FileReadWriteStreams.DEFAULT_BUFFER_SIZE;
     /**
      * Specify abort behavior
      */
@@ -66,6 +73,10 @@ public class OpenOptions implements Flags {
      * Specify EOF behavior
      */
     public StreamProperties.EofAction eofAction = StreamProperties.EofAction.ATOM_eof_code;
+    /**
+     * Specify if file (opened for read) is memory mapped
+     */
+    public boolean map = false;
     /**
      * Specify if respositioning is requested
      */
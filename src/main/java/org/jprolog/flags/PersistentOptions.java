@@ -0,0 +1,49 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+import java.util.Optional;
+
+/**
+ * Structured options parsed from a list of option atoms, used when declaring persistent predicates.
+ */
+public class PersistentOptions implements Flags {
+
+    private static final OptionParser<PersistentOptions> parser = new OptionParser<>();
+
+    static {
+        parser.other(Interned.internAtom("file"), (o, v) -> o.file = Optional.of(v));
+        parser.booleanFlag(Interned.internAtom("sync"), (o, v) -> o.sync = v);
+    }
+
+    /**
+     * Journal file, default is derived from name and arity of predicate
+     */
+    public Optional<Term> file = Optional.empty();
+    /**
+     * Force each change to disk before continuing. If false, changes are written but not forced, and may be lost if
+     * the system (rather than the process) crashes.
+     */
+    public boolean sync = true;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public PersistentOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("persistent_option"), ffe.getTerm(), ffe);
+        }
+    }
+}
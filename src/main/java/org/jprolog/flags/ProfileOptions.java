@@ -0,0 +1,56 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+
+/**
+ * Structured options parsed from a list of option atoms, used for profiling and reporting profiles.
+ */
+public class ProfileOptions implements Flags {
+
+    private static final OptionParser<ProfileOptions> parser = new OptionParser<>();
+
+    static {
+        parser.intFlag(Interned.internAtom("top"), (o, v) -> o.top = (int) (long) v);
+        parser.booleanFlag(Interned.internAtom("cumulative"), (o, v) -> o.cumulative = v);
+        parser.booleanFlag(Interned.internAtom("collapsed"), (o, v) -> o.collapsed = v);
+        parser.intFlag(Interned.internAtom("sample_rate"), (o, v) -> o.sampleRate = (int) (long) v);
+    }
+
+    /**
+     * Number of predicates to report
+     */
+    public int top = 25;
+    /**
+     * Order by inclusive rather than exclusive time
+     */
+    public boolean cumulative = false;
+    /**
+     * Report collapsed stacks suitable for flame graph tools instead of a table
+     */
+    public boolean collapsed = false;
+    /**
+     * Sample interval in milliseconds
+     */
+    public int sampleRate = 1;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public ProfileOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("profile_option"), ffe.getTerm(), ffe);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.jprolog.constants.Atomic;
 import org.jprolog.constants.PrologAtom;
 import org.jprolog.constants.PrologAtomLike;
 import org.jprolog.exceptions.FutureRepresentationError;
+import org.jprolog.exceptions.PrologThrowable;
 import org.jprolog.execution.Environment;
 import org.jprolog.expressions.Term;
 
@@ -53,6 +54,8 @@ public class PrologFlags implements Flags {
                 read(o -> o.flags.floatFormat).protect();
         global.protectedFlag(Interned.internAtom("integer_rounding_function")).
                 constant(Interned.internAtom("toward_zero")).protect();
+        global.booleanFlag(Interned.internAtom("java_stack_trace"), (o, v) -> PrologThrowable.setCaptureStackTrace(v)).
+                readBoolean(o -> PrologThrowable.isCaptureStackTrace()).protect();
         global.intFlag(Interned.internAtom("max_arity"), (o, v) -> o.flags.maxArity = validateMaxArity(v)).
                 readInteger(o -> o.flags.maxArity).protect();
         global.enumFlag(Interned.internAtom("unknown"), Unknown.class, (o, v) -> o.flags.unknown = v).
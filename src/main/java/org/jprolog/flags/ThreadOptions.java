@@ -0,0 +1,56 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.flags;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.exceptions.FutureFlagError;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.execution.Environment;
+import org.jprolog.execution.MessageQueue;
+import org.jprolog.expressions.Term;
+
+import java.util.Optional;
+
+/**
+ * Structured options parsed from a list of option atoms, used when creating threads.
+ */
+public class ThreadOptions implements Flags {
+
+    private static final OptionParser<ThreadOptions> parser = new OptionParser<>();
+
+    static {
+        parser.atomFlag(Interned.internAtom("alias"), (o, v) -> o.alias = Optional.of(v));
+        parser.booleanFlag(Interned.internAtom("detached"), (o, v) -> o.detached = v);
+        parser.intFlag(Interned.internAtom("queue_max_size"),
+                (o, v) -> o.queueMaxSize = (int) Math.max(1, Math.min(v, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Alias of thread, in addition to its id
+     */
+    public Optional<PrologAtomLike> alias = Optional.empty();
+    /**
+     * If true, thread is forgotten as soon as it completes and cannot be joined
+     */
+    public boolean detached = false;
+    /**
+     * Maximum number of messages in queue of thread before senders wait
+     */
+    public int queueMaxSize = MessageQueue.DEFAULT_MAX_SIZE;
+
+    /**
+     * Set this object of options from a list of option terms.
+     *
+     * @param environment Execution environment
+     * @param optionsTerm List of options
+     */
+    public ThreadOptions(Environment environment, Term optionsTerm) {
+        try {
+            parser.apply(environment, this, optionsTerm);
+        } catch (FutureFlagError ffe) {
+            throw PrologDomainError.error(environment, environment.internAtom("thread_option"), ffe.getTerm(), ffe);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.generators;
+
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.execution.DecisionPointImpl;
+import org.jprolog.execution.Environment;
+
+import java.math.BigInteger;
+import java.util.function.Predicate;
+
+/**
+ * Yields each integer of a range in ascending order through backtracking (see between/3). Unlike
+ * {@link YieldSolutions}, no look-ahead is needed to determine that a value is the last, so no decision point remains
+ * after the last value. The counter is a primitive long while the value is within range of a long, and a BigInteger
+ * outside of that range, so that a range may start below, or extend beyond, the range of a long.
+ */
+public class YieldRange extends DecisionPointImpl {
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+    private final Predicate<PrologInteger> consumer;
+    private final BigInteger high;
+    private final long longHigh;
+    private final boolean beyondLong;
+    private long next;
+    private BigInteger bigNext = null;
+
+    private YieldRange(Environment environment, BigInteger low, BigInteger high, Predicate<PrologInteger> consumer) {
+        super(environment);
+        this.high = high;
+        this.beyondLong = high == null || high.compareTo(MAX_LONG) > 0;
+        this.longHigh = beyondLong ? Long.MAX_VALUE : high.longValue();
+        this.consumer = consumer;
+        if (low.bitLength() < Long.SIZE) {
+            next = low.longValue();
+        } else {
+            bigNext = low;
+        }
+    }
+
+    /**
+     * Iterate over range low..high inclusive, yielding each value through process of backtracking. Backtracks
+     * immediately if range is empty.
+     *
+     * @param environment Execution environment
+     * @param low         First value
+     * @param high        Last value, or null for an unbounded range
+     * @param consumer    Consumer of next value, return true to yield the value, false to backtrack
+     */
+    public static void forRange(Environment environment, BigInteger low, BigInteger high,
+                                Predicate<PrologInteger> consumer) {
+        if (high != null && low.compareTo(high) > 0) {
+            environment.backtrack();
+            return;
+        }
+        new YieldRange(environment, low, high, consumer).redo();
+    }
+
+    /**
+     * Don't override/call this
+     */
+    @Override
+    public final void redo() {
+        BigInteger big = bigNext;
+        if (big != null && big.bitLength() < Long.SIZE) {
+            // counted up into range of a long
+            next = big.longValue();
+            bigNext = big = null;
+        }
+        PrologInteger value;
+        if (big == null) {
+            long current = next;
+            if (current < longHigh) {
+                // there is a solution after this
+                next = current + 1;
+                environment.pushDecisionPoint(this);
+            } else if (beyondLong) {
+                bigNext = MAX_LONG.add(BigInteger.ONE);
+                environment.pushDecisionPoint(this);
+            }
+            value = PrologInteger.from(current);
+        } else {
+            if (high == null || big.compareTo(high) < 0) {
+                bigNext = big.add(BigInteger.ONE);
+                environment.pushDecisionPoint(this);
+            }
+            value = PrologInteger.from(big);
+        }
+        environment.forward();
+        if (!consumer.test(value)) {
+            environment.backtrack();
+        }
+    }
+}
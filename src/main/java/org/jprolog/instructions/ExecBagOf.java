@@ -169,13 +169,14 @@ public class ExecBagOf extends ExecFindAll {
         protected boolean tryMatch(CompoundTerm solnValues, Set<Long> bound) {
             List<Long> newBound = new ArrayList<>();
             int depth = environment.getBacktrackDepth();
+            int trailDepth = environment.getTrailDepth();
             for (int j = 0; j < freeVariables.arity(); j++) {
                 ActiveVariable freeVariable = (ActiveVariable) freeVariables.get(j);
                 Term solnValue = solnValues.get(j);
                 if (freeVariable.compareTo(solnValue) != 0) {
                     // pick? make sure free variable is not already picked and unify it
                     if (bound.contains(freeVariable.id()) || !freeVariable.instantiate(solnValue)) {
-                        environment.trimBacktrackStackToDepth(depth);
+                        environment.trimBacktrackStackToDepth(depth, trailDepth);
                         return false;
                     } else {
                         newBound.add(freeVariable.id());
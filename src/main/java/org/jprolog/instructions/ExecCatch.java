@@ -80,6 +80,7 @@ public class ExecCatch extends ExecCall {
         final CatchPoint parent;
         final int dataStackDepth;
         final int backtrackDepth;
+        final int trailDepth;
 
         CatchHandler(Environment environment) {
             // Capture state that needs to be restored
@@ -87,6 +88,7 @@ public class ExecCatch extends ExecCall {
             this.parent = environment.getCatchPoint();
             this.cut = environment.getCutPoint();
             this.backtrackDepth = environment.getBacktrackDepth();
+            this.trailDepth = environment.getTrailDepth();
             // if Java exception occurred, data stack may be invalid
             this.dataStackDepth = environment.getDataStackDepth();
             this.executionPoint = environment.getExecution().freeze();
@@ -111,7 +113,7 @@ public class ExecCatch extends ExecCall {
             thrown = thrown.value();
             environment.setCatchPoint(parent); // next catch point
             // forced backtrack to here - has to be done prior to unify
-            environment.trimBacktrackStackToDepth(backtrackDepth);
+            environment.trimBacktrackStackToDepth(backtrackDepth, trailDepth);
             environment.setLocalContext(catchContext); // context for this catch
             environment.setCutPoint(cut); // restore related cut point / deterministic state
             if (!unifier.unify(catchContext, thrown)) {
@@ -4,10 +4,13 @@
 package org.jprolog.instructions;
 
 import org.jprolog.bootstrap.Interned;
+import org.jprolog.callstack.ActiveExecutionPoint;
 import org.jprolog.callstack.ResumableExecutionPoint;
 import org.jprolog.callstack.TransferHint;
 import org.jprolog.constants.PrologAtomLike;
 import org.jprolog.cuts.ClauseCutBarrier;
+import org.jprolog.debugging.Profiler;
+import org.jprolog.enumerators.BindTerm;
 import org.jprolog.exceptions.PrologExistenceError;
 import org.jprolog.execution.DecisionPointImpl;
 import org.jprolog.execution.Environment;
@@ -18,6 +21,7 @@ import org.jprolog.expressions.CompoundTerm;
 import org.jprolog.expressions.Term;
 import org.jprolog.predicates.ClauseEntry;
 import org.jprolog.predicates.ClauseSearchPredicate;
+import org.jprolog.predicates.FactTable;
 import org.jprolog.predicates.Predication;
 import org.jprolog.unification.Unifier;
 
@@ -54,7 +58,15 @@ public class ExecRunClause implements Instruction {
      */
     @Override
     public void invoke(Environment environment) {
-        ClauseEntry[] clauses = predicate.getClauses();
+        environment.getStatistics().inference();
+        Profiler profiler = environment.getProfiler();
+        Profiler.Port port = profiler == null ? null : profiler.call(predication);
+        FactTable facts = predicate.getFactTable();
+        if (facts != null) {
+            invokeFacts(environment, facts, port);
+            return;
+        }
+        ClauseEntry[] clauses = predicate.getClauses(environment.getLoadGroup());
         if (clauses.length == 0 && !predicate.isDynamic() &&
                 !predicate.isMultifile() &&
                 !predicate.isDiscontiguous()) {
@@ -72,12 +84,45 @@ public class ExecRunClause implements Instruction {
                             Interned.PROCEDURE, pred.term(), String.format("Predicate %s not defined", pred.toString()), null);
             }
         }
-        // Clauses are snapshot at time of call.
+        // Clauses are snapshot at time of call. Arguments are bound without walking the values of bound variables,
+        // head unification will only inspect as much of each value as needed.
         ClauseIterator iter =
-                new ClauseIterator(environment, reflect(), predication, clauses, term.resolve(environment.getLocalContext()));
+                new ClauseIterator(environment, reflect(), predication, clauses,
+                        term.enumTerm(new BindTerm(environment.getLocalContext())), port);
         iter.redo();
     }
 
+    /**
+     * Executes a predicate held as a fact table. Only rows that match the bound arguments of the call are visited.
+     *
+     * @param environment Execution environment
+     * @param facts       Fact table
+     * @param port        Profiler port, or null
+     */
+    private void invokeFacts(Environment environment, FactTable facts, Profiler.Port port) {
+        FactTable.Matcher matcher = facts.match(environment,
+                (CompoundTerm) term.enumTerm(new BindTerm(environment.getLocalContext())));
+        if (matcher == null) {
+            environment.backtrack();
+            return;
+        }
+        new FactIterator(environment, matcher, port).redo();
+    }
+
+    /**
+     * Identify the predicate associated with a call stack entry.
+     *
+     * @param executionPoint Entry from call stack
+     * @return Predication of clause that will be returned from, or null if entry is not a clause return
+     */
+    public static Predication predicationOf(ResumableExecutionPoint executionPoint) {
+        if (executionPoint instanceof ClauseEnd) {
+            return ((ClauseEnd) executionPoint).iter.key;
+        } else {
+            return null;
+        }
+    }
+
     /**
      * An instruction executed at end of a successful clause to restore stacks. This is deferred by pushing it onto
      * the IP stack. This is optimized for tail-call elimination.
@@ -99,6 +144,61 @@ public class ExecRunClause implements Instruction {
             // set up for resuming clause
             environment.setExecution(previous, TransferHint.LEAVE);
             iter.handleEndOfClause();
+            if (iter.port != null) {
+                iter.port.exit();
+            }
+        }
+
+        @Override
+        public Object id() {
+            return this;
+        }
+
+        @Override
+        public ResumableExecutionPoint previousExecution() {
+            return previous;
+        }
+    }
+
+    /**
+     * When profiling, replaces the end of an outer clause that a tail call returns to, recording exits of the tail
+     * calls before continuing with that end. A further tail call replaces this rather than adding to the call stack.
+     */
+    private static class TailEnd implements RestoresLocalContext {
+
+        final Environment environment;
+        final ResumableExecutionPoint previous;
+        final Profiler.TailExits exits;
+
+        private TailEnd(Environment environment, ResumableExecutionPoint previous, Profiler.TailExits exits) {
+            this.environment = environment;
+            this.previous = previous;
+            this.exits = exits;
+        }
+
+        /**
+         * Add a tail call to the end of the outer clause.
+         *
+         * @param environment   Execution environment
+         * @param port          Profiler port of tail call
+         * @param deterministic true if no clauses of tail call remain to be retried
+         */
+        static void add(Environment environment, Profiler.Port port, boolean deterministic) {
+            ActiveExecutionPoint execution = environment.getExecution();
+            TailEnd end;
+            if (execution instanceof TailEnd) {
+                TailEnd outer = (TailEnd) execution;
+                end = new TailEnd(environment, outer.previous, outer.exits.add(port, deterministic));
+            } else {
+                end = new TailEnd(environment, execution.freeze(), Profiler.TailExits.NONE.add(port, deterministic));
+            }
+            environment.setExecution(end, TransferHint.CONTROL);
+        }
+
+        @Override
+        public void invokeNext() {
+            environment.setExecution(previous, TransferHint.LEAVE);
+            exits.exit();
         }
 
         @Override
@@ -112,6 +212,48 @@ public class ExecRunClause implements Instruction {
         }
     }
 
+    /**
+     * Iterator over matching rows of a fact table. This is kept on the backtracking stack.
+     */
+    private static class FactIterator extends DecisionPointImpl {
+
+        final FactTable.Matcher matcher;
+        final Profiler.Port port;
+
+        private FactIterator(Environment environment, FactTable.Matcher matcher, Profiler.Port port) {
+            super(environment);
+            this.matcher = matcher;
+            this.port = port; // null if not profiling
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void redo() {
+            if (!matcher.hasNext()) {
+                environment.backtrack();
+                return;
+            }
+            if (port != null) {
+                port.retry();
+            }
+            int row = matcher.nextRow();
+            if (matcher.hasNext()) {
+                // not deterministic
+                environment.pushDecisionPoint(this);
+            }
+            if (matcher.unify(row)) {
+                if (port != null) {
+                    port.exit(); // a fact exits immediately
+                }
+                environment.forward();
+            } else {
+                environment.backtrack();
+            }
+        }
+    }
+
     /**
      * Main clause iterator with state. This is kept on the backtracking stack.
      */
@@ -122,15 +264,18 @@ public class ExecRunClause implements Instruction {
         final CompoundTerm source;
         final ClauseEntry[] clauses;
         final long variableWatermark;
+        final Profiler.Port port;
         int index = 0;
 
-        private ClauseIterator(Environment environment, CompoundTerm source, Predication key, ClauseEntry[] clauses, Term boundTerm) {
+        private ClauseIterator(Environment environment, CompoundTerm source, Predication key, ClauseEntry[] clauses, Term boundTerm,
+                               Profiler.Port port) {
             super(environment);
             this.source = source;
             this.key = key;
             this.term = boundTerm; // save the bound version of this structure
             this.clauses = clauses; // already a copy, no need to clone
             this.variableWatermark = environment.variableWatermark();
+            this.port = port; // null if not profiling
         }
 
         /**
@@ -151,6 +296,9 @@ public class ExecRunClause implements Instruction {
                 environment.backtrack();
                 return;
             }
+            if (port != null) {
+                port.retry();
+            }
             // Next clause
             ClauseEntry entry = clauses[index++];
             // Local context to use for execution of this clause
@@ -167,6 +315,9 @@ public class ExecRunClause implements Instruction {
             if (!(environment.getExecution() instanceof RestoresLocalContext)) {
                 // on return, restore the context (can be eliminated if previous entry is RestoresLocalContext)
                 environment.setExecution(new ClauseEnd(environment, this), TransferHint.CONTROL);
+            } else if (port != null) {
+                // exits when the outer clause ends
+                TailEnd.add(environment, port, index == clauses.length);
             }
 
             // First attempt to unify
@@ -11,6 +11,7 @@ import java.io.OutputStream;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The FIFO stream will take blocks of writes, and replay them as blocks of reads. It is assumed to
@@ -24,7 +25,7 @@ public class FifoStreams {
     private final Deque<byte[]> queue = new LinkedList<>();
     private final static int CHUNK_SIZE = 1024;
     private final AtomicBoolean outputClosed = new AtomicBoolean(false);
-    private final Object lock = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
     private long available = 0L; // protect with lock
 
     public FifoStreams() {
@@ -85,13 +86,16 @@ public class FifoStreams {
          */
         @Override
         public void flush() {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 if (partial == null || partial.size() == 0) {
                     return;
                 }
                 available += partial.size();
                 queue.addLast(partial.toByteArray());
                 partial = null;
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -100,10 +104,13 @@ public class FifoStreams {
          */
         @Override
         public void write(int b) {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 prepare();
                 partial.write(b);
                 chunk();
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -113,10 +120,13 @@ public class FifoStreams {
         @Override
         public void write(byte[] b, int off, int len) {
             if (len > 0) {
-                synchronized (lock) {
+                lock.lock();
+                try {
                     prepare();
                     partial.write(b, off, len);
                     chunk();
+                } finally {
+                    lock.unlock();
                 }
             }
         }
@@ -126,9 +136,12 @@ public class FifoStreams {
          */
         @Override
         public void close() {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 flush();
                 outputClosed.set(true);
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -182,8 +195,11 @@ public class FifoStreams {
          */
         @Override
         public int available() {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 return (int) Math.min(available, Integer.MAX_VALUE);
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -192,7 +208,8 @@ public class FifoStreams {
          */
         @Override
         public int read() {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 if (!prepareAndFill()) {
                     return IoUtility.EOF;
                 }
@@ -201,6 +218,8 @@ public class FifoStreams {
                     available--;
                 }
                 return symbol;
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -209,7 +228,8 @@ public class FifoStreams {
          */
         @Override
         public int read(byte[] b, int off, int len) {
-            synchronized (lock) {
+            lock.lock();
+            try {
                 if (!prepareAndFill()) {
                     return IoUtility.EOF;
                 }
@@ -218,6 +238,8 @@ public class FifoStreams {
                     available -= counted;
                 }
                 return counted;
+            } finally {
+                lock.unlock();
             }
         }
     }
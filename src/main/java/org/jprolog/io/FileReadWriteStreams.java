@@ -10,27 +10,60 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * PrologInputStream/PrologOutputStream that wraps a Java file channel. This exposes two Prolog streams,
- * one for writing, one for reading, both accessing the same mutual file
+ * one for writing, one for reading, both accessing the same mutual file. The stream is owned by a single
+ * {@link LogicalStream} and is not synchronized.
  */
 public class FileReadWriteStreams implements PrologInputStream, PrologOutputStream, Closeable {
 
+    /**
+     * Buffer size used unless otherwise specified (see open/4 option buffer_size).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MIN_BUFFER_SIZE = 16;
+
     private final FileChannel channel;
-    // TODO: Smarter buffer management, magic value
-    private final ByteBuffer buffer = ByteBuffer.allocate(512);
+    private final ByteBuffer buffer;
     private State state = State.CLEAN;
+    private final ReentrantLock lock = new ReentrantLock();
 
+    /**
+     * Wrap channel using default buffer size.
+     *
+     * @param channel File channel
+     */
     public FileReadWriteStreams(FileChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Wrap channel using given buffer size. Buffers larger than the default are allocated outside of the Java heap,
+     * allowing the channel to transfer directly to/from the buffer.
+     *
+     * @param channel    File channel
+     * @param bufferSize Size of buffer in bytes
+     */
+    public FileReadWriteStreams(FileChannel channel, int bufferSize) {
         this.channel = channel;
+        if (bufferSize > DEFAULT_BUFFER_SIZE) {
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        } else {
+            this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized int read() throws IOException {
+    public int read() throws IOException {
+        if (state == State.HAS_INPUT && buffer.hasRemaining()) {
+            // fast path
+            return buffer.get() & 0xff;
+        }
         ensureReading();
         if (!readSome()) {
             return IoUtility.EOF; // assume EOF
@@ -59,7 +92,12 @@ public class FileReadWriteStreams implements PrologInputStream, PrologOutputStre
      * {@inheritDoc}
      */
     @Override
-    public synchronized void write(int symbol) throws IOException {
+    public void write(int symbol) throws IOException {
+        if (state == State.DIRTY_OUTPUT && buffer.hasRemaining()) {
+            // fast path
+            buffer.put((byte) symbol);
+            return;
+        }
         ensureWriting();
         conditionalCommitWrite();
         buffer.put((byte) symbol);
@@ -84,19 +122,24 @@ public class FileReadWriteStreams implements PrologInputStream, PrologOutputStre
      * {@inheritDoc}
      */
     @Override
-    public synchronized void flush() throws IOException {
-        switch (state) {
-            case HAS_INPUT:
-                discardRead();
-                break;
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            switch (state) {
+                case HAS_INPUT:
+                    discardRead();
+                    break;
 
-            case DIRTY_OUTPUT:
-                commitWrite();
-                break;
+                case DIRTY_OUTPUT:
+                    commitWrite();
+                    break;
+            }
+            buffer.clear();
+            state = State.CLEAN;
+            channel.force(true);
+        } finally {
+            lock.unlock();
         }
-        buffer.clear();
-        state = State.CLEAN;
-        channel.force(true);
     }
 
     private void ensureReading() throws IOException {
@@ -237,11 +280,16 @@ public class FileReadWriteStreams implements PrologInputStream, PrologOutputStre
     }
 
     @Override
-    public synchronized void close() throws IOException {
-        if (state != State.CLOSED) {
-            flush();
-            channel.close();
-            state = State.CLOSED;
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (state != State.CLOSED) {
+                flush();
+                channel.close();
+                state = State.CLOSED;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
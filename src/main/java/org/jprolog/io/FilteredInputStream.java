@@ -90,6 +90,14 @@ public class FilteredInputStream implements PrologInputStream {
         return stream.approveClose(options);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void retainFrom(Position position) {
+        stream.retainFrom(position);
+    }
+
     /**
      * {@inheritDoc}
      */
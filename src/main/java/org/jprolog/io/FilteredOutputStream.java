@@ -50,6 +50,14 @@ public class FilteredOutputStream implements PrologOutputStream {
         stream.write(symbol);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(String text) throws IOException {
+        stream.write(text);
+    }
+
     /**
      * {@inheritDoc}
      */
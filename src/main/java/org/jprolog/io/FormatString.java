@@ -0,0 +1,454 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.io;
+
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.constants.PrologFloat;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.exceptions.PrologFormatError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Strings;
+import org.jprolog.expressions.Term;
+import org.jprolog.flags.CloseOptions;
+import org.jprolog.flags.WriteOptions;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A format string (see format/2) parsed into a sequence of literal text and directives. Parsing is independent of
+ * environment, and a parsed format string is immutable, so the parse of an atom is cached on the interned atom and
+ * reused by every call with the same atom. Formatting writes all text, including written terms, into a single
+ * buffer, column stops (~| and ~+) are resolved by inserting fill into the buffer, so the stream sees a single write.
+ */
+public final class FormatString {
+
+    private static final int DEFAULT = -1; // no numeric argument
+    private static final int STAR = -2; // numeric argument is taken from arguments
+    private static final int DEFAULT_COLUMN_WIDTH = 8;
+    private static final int DEFAULT_DIGITS = 6;
+    private static final String DIRECTIVES = "acdDefginpqrRstw|+";
+
+    private final Directive[] directives;
+
+    private FormatString(Directive[] directives) {
+        this.directives = directives;
+    }
+
+    /**
+     * Retrieve parsed format string, using cached parse if format is an atom.
+     *
+     * @param environment Execution environment
+     * @param format      Format as atom, string, or code/char list
+     * @return parsed format string
+     */
+    public static FormatString from(Environment environment, Term format) {
+        if (!format.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, format);
+        }
+        if (format.isAtom()) {
+            PrologAtomInterned atom = PrologAtomInterned.from(environment, format);
+            FormatString parsed = atom.getFormatString();
+            if (parsed == null) {
+                parsed = parse(environment, atom.name());
+                atom.setFormatString(parsed);
+            }
+            return parsed;
+        }
+        return parse(environment, Strings.stringFromAnyString(format));
+    }
+
+    /**
+     * Parse a format string.
+     *
+     * @param environment Execution environment (for errors only)
+     * @param source      Text of format string
+     * @return parsed format string
+     */
+    public static FormatString parse(Environment environment, String source) {
+        ArrayList<Directive> directives = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int len = source.length();
+        int i = 0;
+        while (i < len) {
+            char c = source.charAt(i++);
+            if (c != '~') {
+                literal.append(c);
+                continue;
+            }
+            int numeric = DEFAULT;
+            if (i < len && source.charAt(i) == '*') {
+                numeric = STAR;
+                i++;
+            } else if (i < len && source.charAt(i) == '`') {
+                if (i + 1 >= len) {
+                    throw PrologFormatError.error(environment, "Truncated format specification");
+                }
+                numeric = source.codePointAt(i + 1);
+                i += 1 + Character.charCount(numeric);
+            } else {
+                while (i < len && source.charAt(i) >= '0' && source.charAt(i) <= '9') {
+                    numeric = Math.max(numeric, 0) * 10 + (source.charAt(i++) - '0');
+                    if (numeric > 0xffffff) {
+                        throw PrologFormatError.error(environment, "Numeric argument is too large");
+                    }
+                }
+            }
+            if (i >= len) {
+                throw PrologFormatError.error(environment, "Truncated format specification");
+            }
+            c = source.charAt(i++);
+            if (c == '~') {
+                literal.append('~');
+            } else if (DIRECTIVES.indexOf(c) >= 0) {
+                if (literal.length() > 0) {
+                    directives.add(new Directive('\0', literal.toString(), DEFAULT));
+                    literal.setLength(0);
+                }
+                directives.add(new Directive(c, null, numeric));
+            } else {
+                throw PrologFormatError.error(environment, String.format("Unknown directive: ~%c", c));
+            }
+        }
+        if (literal.length() > 0) {
+            directives.add(new Directive('\0', literal.toString(), DEFAULT));
+        }
+        return new FormatString(directives.toArray(new Directive[0]));
+    }
+
+    /**
+     * Format arguments.
+     *
+     * @param environment Execution environment
+     * @param args        Arguments, each consumed by one directive
+     * @param column      Column of output at which text will be written
+     * @return formatted text
+     */
+    public String format(Environment environment, List<Term> args, int column) {
+        Formatter formatter = new Formatter(environment, args, column);
+        for (Directive directive : directives) {
+            formatter.apply(directive);
+        }
+        if (formatter.argIndex < args.size()) {
+            throw PrologFormatError.error(environment, "Too many arguments");
+        }
+        return formatter.buffer.toString();
+    }
+
+    /**
+     * Literal text (code is '\0'), or a directive with its numeric argument.
+     */
+    private static final class Directive {
+        final char code;
+        final String text;
+        final int numeric;
+
+        Directive(char code, String text, int numeric) {
+            this.code = code;
+            this.text = text;
+            this.numeric = numeric;
+        }
+    }
+
+    /**
+     * State of a single format operation.
+     */
+    private static final class Formatter {
+        final Environment environment;
+        final List<Term> args;
+        final StringBuilder buffer = new StringBuilder();
+        final ArrayList<int[]> fills = new ArrayList<>(); // pending fill points, {offset, fill char}
+        int argIndex = 0;
+        int lineStart = 0; // offset of start of current line
+        int lineColumn; // column at lineStart
+        int segmentStart = 0; // offset of text following previous column stop
+        int previousStop; // column of previous column stop
+        WriteContext plain = null;
+        WriteContext quoted = null;
+
+        Formatter(Environment environment, List<Term> args, int column) {
+            this.environment = environment;
+            this.args = args;
+            this.lineColumn = column;
+            this.previousStop = column;
+        }
+
+        void apply(Directive directive) {
+            int mark = buffer.length();
+            int numeric = directive.numeric;
+            if (numeric == STAR) {
+                Term count = next();
+                if (!count.isInteger()) {
+                    throw PrologFormatError.error(environment, "* expects a non-negative integer argument");
+                }
+                numeric = PrologInteger.from(count).notLessThanZero().toInteger();
+            }
+            switch (directive.code) {
+                case '\0':
+                    buffer.append(directive.text);
+                    break;
+                case 'a':
+                    atomic(next());
+                    break;
+                case 'c':
+                    character(next(), numeric == DEFAULT ? 1 : numeric);
+                    break;
+                case 'd':
+                case 'D':
+                    decimal(next(), numeric == DEFAULT ? 0 : numeric, directive.code == 'D');
+                    break;
+                case 'e':
+                case 'f':
+                case 'g':
+                    floating(next(), numeric == DEFAULT ? DEFAULT_DIGITS : numeric, directive.code);
+                    break;
+                case 'i':
+                    next();
+                    break;
+                case 'n':
+                    for (int n = numeric == DEFAULT ? 1 : numeric; n > 0; n--) {
+                        buffer.append('\n');
+                    }
+                    break;
+                case 'p':
+                case 'q':
+                    write(quoted(), next());
+                    break;
+                case 'r':
+                case 'R':
+                    radix(next(), numeric, directive.code == 'R');
+                    break;
+                case 's':
+                    buffer.append(Strings.stringFromAnyString(next()));
+                    break;
+                case 't':
+                    fills.add(new int[]{buffer.length(), numeric == DEFAULT ? ' ' : numeric});
+                    return;
+                case 'w':
+                    write(plain(), next());
+                    break;
+                case '|':
+                    columnStop(numeric == DEFAULT ? column(buffer.length()) : numeric);
+                    return;
+                case '+':
+                    columnStop(previousStop + (numeric == DEFAULT ? DEFAULT_COLUMN_WIDTH : numeric));
+                    return;
+                default:
+                    throw new InternalError("Unhandled directive " + directive.code);
+            }
+            // account for any new lines in text just added
+            for (int i = buffer.length() - 1; i >= mark; i--) {
+                if (buffer.charAt(i) == '\n') {
+                    lineStart = segmentStart = i + 1;
+                    lineColumn = 0;
+                    previousStop = 0;
+                    fills.clear();
+                    break;
+                }
+            }
+        }
+
+        Term next() {
+            if (argIndex >= args.size()) {
+                throw PrologFormatError.error(environment, "Not enough arguments");
+            }
+            Term arg = args.get(argIndex++);
+            if (!arg.isInstantiated()) {
+                throw PrologInstantiationError.error(environment, arg);
+            }
+            return arg;
+        }
+
+        int column(int offset) {
+            return lineColumn + offset - lineStart;
+        }
+
+        /**
+         * Pad text since previous column stop to reach column. Padding is distributed over the fill points of the
+         * segment, if there are none, text is padded at the end.
+         */
+        void columnStop(int target) {
+            int pad = target - column(buffer.length());
+            if (pad > 0) {
+                if (fills.isEmpty()) {
+                    fill(buffer.length(), ' ', pad);
+                } else {
+                    int share = pad / fills.size();
+                    int extra = pad % fills.size();
+                    for (int i = fills.size() - 1; i >= 0; i--) {
+                        int[] point = fills.get(i);
+                        fill(point[0], point[1], share + (i < extra ? 1 : 0));
+                    }
+                }
+            }
+            fills.clear();
+            segmentStart = buffer.length();
+            previousStop = column(segmentStart);
+        }
+
+        void fill(int offset, int fillChar, int count) {
+            StringBuilder padding = new StringBuilder(count);
+            for (int i = 0; i < count; i++) {
+                padding.appendCodePoint(fillChar);
+            }
+            buffer.insert(offset, padding);
+        }
+
+        void atomic(Term arg) {
+            if (arg.isAtom()) {
+                buffer.append(((PrologAtomLike) arg).name());
+            } else if (arg.isAtomic()) {
+                write(plain(), arg);
+            } else {
+                throw PrologTypeError.atomicExpected(environment, arg);
+            }
+        }
+
+        void character(Term arg, int count) {
+            if (!arg.isInteger()) {
+                throw PrologFormatError.error(environment, "~c expects an integer argument");
+            }
+            int code = PrologInteger.from(arg).toInteger();
+            for (int i = 0; i < count; i++) {
+                buffer.appendCodePoint(code);
+            }
+        }
+
+        void decimal(Term arg, int digits, boolean group) {
+            if (!arg.isInteger()) {
+                throw PrologFormatError.error(environment,
+                        String.format("~%c expects an integer argument", group ? 'D' : 'd'));
+            }
+            BigInteger value = PrologInteger.from(arg).get();
+            if (value.signum() < 0) {
+                buffer.append('-');
+                value = value.negate();
+            }
+            String text = value.toString();
+            if (text.length() <= digits) {
+                StringBuilder zeros = new StringBuilder();
+                for (int i = text.length(); i <= digits; i++) {
+                    zeros.append('0');
+                }
+                text = zeros + text;
+            }
+            int point = text.length() - digits;
+            if (group) {
+                int first = point % 3 == 0 ? 3 : point % 3;
+                buffer.append(text, 0, first);
+                for (int i = first; i < point; i += 3) {
+                    buffer.append(',').append(text, i, i + 3);
+                }
+            } else {
+                buffer.append(text, 0, point);
+            }
+            if (digits > 0) {
+                buffer.append('.').append(text, point, text.length());
+            }
+        }
+
+        void floating(Term arg, int digits, char code) {
+            if (code == 'f' && arg.isInteger()) {
+                // exact, for integers of any size
+                BigDecimal exact = new BigDecimal(PrologInteger.from(arg).get());
+                buffer.append(exact.setScale(digits, RoundingMode.HALF_UP).toPlainString());
+                return;
+            }
+            double value;
+            if (arg.isInteger()) {
+                value = PrologInteger.from(arg).get().doubleValue();
+            } else if (arg.isFloat()) {
+                value = PrologFloat.from(arg).get();
+            } else {
+                throw PrologFormatError.error(environment,
+                        String.format("~%c expects a numeric argument", code));
+            }
+            buffer.append(String.format(Locale.ROOT, "%." + digits + code, value));
+        }
+
+        void radix(Term arg, int radix, boolean upper) {
+            if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+                throw PrologFormatError.error(environment, "Radix must be in range 2..36");
+            }
+            if (!arg.isInteger()) {
+                throw PrologFormatError.error(environment,
+                        String.format("~%c expects an integer argument", upper ? 'R' : 'r'));
+            }
+            String text = PrologInteger.from(arg).get().toString(radix);
+            buffer.append(upper ? text.toUpperCase(Locale.ROOT) : text);
+        }
+
+        WriteContext plain() {
+            if (plain == null) {
+                WriteOptions options = new WriteOptions(environment, null);
+                options.numbervars = true;
+                options.quoted = false;
+                plain = new WriteContext(environment, options, new BufferOutput(buffer));
+            }
+            return plain;
+        }
+
+        WriteContext quoted() {
+            if (quoted == null) {
+                WriteOptions options = new WriteOptions(environment, null);
+                options.numbervars = true;
+                options.quoted = true;
+                quoted = new WriteContext(environment, options, new BufferOutput(buffer));
+            }
+            return quoted;
+        }
+
+        void write(WriteContext context, Term arg) {
+            context.beginSafe();
+            try {
+                new StructureWriter(context).write(arg);
+            } catch (IOException e) {
+                throw new InternalError(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Output stream over the format buffer.
+     */
+    private static final class BufferOutput implements PrologOutputStream {
+        private final StringBuilder buffer;
+
+        BufferOutput(StringBuilder buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int symbol) {
+            buffer.appendCodePoint(symbol);
+        }
+
+        @Override
+        public void write(String text) {
+            buffer.append(text);
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) {
+            buffer.append(chars, off, len);
+        }
+
+        @Override
+        public void close(CloseOptions options) {
+        }
+
+        @Override
+        public void seekEndOfStream() throws IOException {
+            throw new IOException("Cannot seek");
+        }
+    }
+}
@@ -11,11 +11,14 @@ import java.util.Optional;
 
 /**
  * Filter to handle buffered rewindable input. Logic uses a trailing buffer approach. Buffer is rewound by
- * restoring a saved position.
+ * restoring a saved position. The buffer grows as needed to keep input from a retained position (see
+ * {@link #retainFrom(Position)}), so that a line of any length can be rewound.
  */
 public class InputBuffered extends FilteredInputStream {
     private final CircularBuffer buf;
     private long charPos = 0; // effective character position
+    private long written = 0; // character position of end of buffered content
+    private long retainPos = -1; // content from here is not overwritten, or -1
     private final static int DEFAULT_BUFFER = 8192;
     private final static int MIN_BUFFER = 2;
 
@@ -63,14 +66,24 @@ public class InputBuffered extends FilteredInputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized int read() throws IOException {
+    public void retainFrom(Position position) {
+        retainPos = position == null ? -1 : position.getCharPos().orElse(-1L);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
         if (!buf.hasMark()) {
             // read one character into buffer
             int i = super.read();
             if (i < 0) {
                 return i;
             }
+            ensureRetained(1);
             buf.put((char) i);
+            written++;
         }
         charPos++;
         return buf.get();
@@ -81,8 +94,8 @@ public class InputBuffered extends FilteredInputStream {
      */
     @Override
     public int read(char[] b, int off, int len) throws IOException {
-        if (!buf.hasMark()) {
-            // at end, need to write more data into buffer (mark is set)
+        while (!buf.hasMark()) {
+            // at end, need to write more data into buffer (mark is set), a filter may deliver no data on a read
             int freshLen = readMore(len);
             if (freshLen < 0) {
                 return IoUtility.EOF;
@@ -163,6 +176,7 @@ public class InputBuffered extends FilteredInputStream {
      * @return number of characters read
      */
     private int readMore(int len) throws IOException {
+        ensureRetained(len);
         len = Math.min(len, buf.chunkWriteLength());
         int count = super.read(buf.array(), buf.writeOffset(), len);
         if (count < 0) {
@@ -170,6 +184,24 @@ public class InputBuffered extends FilteredInputStream {
             return count == 0 ? IoUtility.EOF : count;
         }
         buf.written(count);
+        written += count;
         return buf.maxAdvance();
     }
+
+    /**
+     * Grow buffer if writing len more characters would overwrite retained content. The buffer only grows to hold the
+     * content from the retained position, which the reader moves forward as content is consumed.
+     *
+     * @param len Number of characters about to be written
+     */
+    private void ensureRetained(int len) {
+        if (retainPos < 0 || retainPos > written || retainPos < written - buf.validLength()) {
+            return; // nothing to retain, or already lost
+        }
+        long needed = written - retainPos + len;
+        if (needed > buf.capacity()) {
+            long size = Math.max(needed, 2L * buf.capacity());
+            buf.grow((int) Math.min(size, Integer.MAX_VALUE - 8));
+        }
+    }
 }
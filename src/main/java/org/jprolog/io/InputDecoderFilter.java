@@ -12,14 +12,17 @@ import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 
 /**
- * Decode multi-byte character sets (UTF etc). This is based on {@link sun.nio.cs.StreamDecoder}.
+ * Decode multi-byte character sets (UTF etc). This is based on {@link sun.nio.cs.StreamDecoder}. Characters are
+ * decoded a block at a time into a reusable buffer, so that reading a single character does not allocate. The stream
+ * is owned by a single {@link LogicalStream} and is not synchronized.
  */
 public class InputDecoderFilter extends FilteredInputStream {
-    private static final int NO_CHAR = -2;
     private static final int DEFAULT_BYTE_BUFFER_SIZE = 8192;
-    private int nextChar = NO_CHAR;
+    private static final int DEFAULT_CHAR_BUFFER_SIZE = 8192;
     private final CharsetDecoder decoder;
     private final ByteBuffer bb;
+    private final CharBuffer cb; // decoded characters not yet consumed
+    private boolean eof = false;
     private long charPos = 0; // effective character position
 
     public InputDecoderFilter(PrologInputStream stream, Charset charset) {
@@ -29,88 +32,36 @@ public class InputDecoderFilter extends FilteredInputStream {
                 onUnmappableCharacter(CodingErrorAction.REPLACE);
         bb = ByteBuffer.allocate(DEFAULT_BYTE_BUFFER_SIZE);
         bb.flip();
+        cb = CharBuffer.allocate(DEFAULT_CHAR_BUFFER_SIZE);
+        cb.flip();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized int read() throws IOException {
-        switch (this.nextChar) {
-            case NO_CHAR:
-                // Read a pair of characters if possible
-                char[] pair = new char[2];
-                int count = this.readImpl(pair, 0, 2);
-                switch (count) {
-                    case 2:
-                        // actually read two characters
-                        // place one ready for next read()
-                        this.nextChar = pair[1];
-                        charPos++;
-                        return pair[0];
-                    case 1:
-                        // single character read
-                        charPos++;
-                        return pair[0];
-                    default:
-                        // reached EOF
-                        this.nextChar = IoUtility.EOF;
-                        return IoUtility.EOF;
-                }
-            case IoUtility.EOF:
-                // Already at EOF
-                return IoUtility.EOF;
-            default:
-                // Use the buffered character
-                return consume();
+    public int read() throws IOException {
+        if (!cb.hasRemaining() && !fill()) {
+            return IoUtility.EOF;
         }
+        charPos++;
+        return cb.get();
     }
 
     /**
      * {@inheritDoc}
      */
     public int read(char[] b, int off, int len) throws IOException {
-        if (this.nextChar == IoUtility.EOF) {
-            // Already at EOF
+        if (len <= 0) {
+            return eof ? IoUtility.EOF : len;
+        }
+        if (!cb.hasRemaining() && !fill()) {
             return IoUtility.EOF;
-        } else if (len <= 0) {
-            return len;
-        } else {
-            // First consider the buffered character
-            int counted = 0;
-            if (this.nextChar >= 0) {
-                b[off] = consume();
-                ++off;
-                --len;
-                counted = 1;
-                if (len == 0) {
-                    return counted;
-                }
-            }
-
-            if (len == 1) {
-                // Handle case when only one (more) character is requested
-                // This will recurse back into read to read 2 characters
-                int single = this.read();
-                if (single == -1) {
-                    return counted == 0 ? -1 : counted;
-                } else {
-                    charPos++;
-                    b[off] = (char) single;
-                    return counted + 1;
-                }
-            } else {
-                // fill buffer, multiple bytes
-                int sublen = this.readImpl(b, off, len);
-                if (sublen < 0) {
-                    nextChar = IoUtility.EOF;
-                    return counted == 0 ? -1 : counted;
-                } else {
-                    charPos += sublen;
-                    return counted + sublen;
-                }
-            }
         }
+        int count = Math.min(len, cb.remaining());
+        cb.get(b, off, count);
+        charPos += count;
+        return count;
     }
 
     /**
@@ -126,6 +77,13 @@ public class InputDecoderFilter extends FilteredInputStream {
      */
     public boolean seekPosition(Position position) throws IOException {
         if (super.seekPosition(position)) {
+            // discard anything read ahead
+            bb.clear();
+            bb.flip();
+            cb.clear();
+            cb.flip();
+            decoder.reset();
+            eof = false;
             this.setKnownPosition(position);
             return true;
         } else {
@@ -149,39 +107,24 @@ public class InputDecoderFilter extends FilteredInputStream {
     }
 
     /**
-     * Consume buffered character
-     *
-     * @return consumed character
-     */
-    private char consume() {
-        int c = nextChar;
-        nextChar = NO_CHAR;
-        charPos++;
-        return (char) c;
-    }
-
-    /**
-     * Read and fill character buffer, performing character conversion in the process.
+     * Refill empty character buffer, performing character conversion in the process.
      *
-     * @param b   Buffer to fill
-     * @param off Offset into buffer
-     * @param len Length of characters to read (at least two)
-     * @return Length read, or -1 if EOF reached
+     * @return true if characters are available, false if EOF reached
      * @throws IOException on IO Error
      */
-    private int readImpl(char[] b, int off, int len) throws IOException {
-        CharBuffer buffer = CharBuffer.wrap(b, off, len);
-        if (buffer.position() != 0) {
-            buffer = buffer.slice(); // makes position zero
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
         }
+        cb.clear();
         boolean readEof = false;
 
         for (; ; ) {
-            CoderResult coderResult = this.decoder.decode(this.bb, buffer, readEof);
+            CoderResult coderResult = this.decoder.decode(this.bb, cb, readEof);
             if (coderResult.isUnderflow()) {
                 // Need more data to perform/finish conversion
 
-                if (buffer.position() != 0 || readEof) {
+                if (cb.position() != 0 || readEof) {
                     // work with partial read or EOF
                     break;
                 }
@@ -194,7 +137,6 @@ public class InputDecoderFilter extends FilteredInputStream {
                         // Nothing read, nothing in buffer
                         break;
                     }
-                    this.decoder.reset();
                 }
             } else {
                 if (coderResult.isOverflow()) {
@@ -204,12 +146,12 @@ public class InputDecoderFilter extends FilteredInputStream {
                 coderResult.throwException();
             }
         }
-
+        cb.flip();
         if (readEof) {
             this.decoder.reset();
-            return IoUtility.EOF;
+            eof = !cb.hasRemaining();
         }
-        return buffer.position();
+        return cb.hasRemaining();
     }
 
     /**
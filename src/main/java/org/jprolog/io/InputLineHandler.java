@@ -148,9 +148,9 @@ public class InputLineHandler extends FilteredInputStream {
             if (x == IoUtility.EOF) {
                 return i > 0 ? i : IoUtility.EOF;
             }
-            b[off++] = (char) i;
+            b[off++] = (char) x;
             if (state == State.START_OF_LINE) {
-                return i; // don't fill past EOLN
+                return i + 1; // don't fill past EOLN
             }
         }
         return len;
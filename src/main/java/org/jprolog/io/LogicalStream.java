@@ -31,7 +31,9 @@ import org.jprolog.parser.ExpressionReader;
 import org.jprolog.parser.Tokenizer;
 import org.jprolog.unification.Unifier;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -39,6 +41,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Associates a constant with an input and output substream pair. Generally only one is used, but this allows
@@ -86,6 +89,7 @@ public class LogicalStream {
     private final boolean seekable = true;
     private boolean isTTY = false;
     private boolean ioChanged;
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Construct a binding object.
@@ -117,25 +121,30 @@ public class LogicalStream {
      *
      * @throws IOException IO Error
      */
-    public synchronized boolean close(Environment environment, CloseOptions options) throws IOException {
-        if (closed) {
-            return false; // cannot close streams that have previously been closed
-        }
-        if (isProtected(environment) && !options.force) {
-            return false;
-        }
-        if (!((input == null || input.approveClose(options))
-                && (output == null || output.approveClose(options)))) {
-            return false;
-        }
-        if (input != null) {
-            input.close(options);
-        }
-        if (output != null) {
-            output.close(options);
+    public boolean close(Environment environment, CloseOptions options) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return false; // cannot close streams that have previously been closed
+            }
+            if (isProtected(environment) && !options.force) {
+                return false;
+            }
+            if (!((input == null || input.approveClose(options))
+                    && (output == null || output.approveClose(options)))) {
+                return false;
+            }
+            if (input != null) {
+                input.close(options);
+            }
+            if (output != null) {
+                output.close(options);
+            }
+            closed = true;
+            return true;
+        } finally {
+            lock.unlock();
         }
-        closed = true;
-        return true;
     }
 
     /**
@@ -500,6 +509,20 @@ public class LogicalStream {
         return pos.getLinePos().orElse(0L);
     }
 
+    /**
+     * @param output Output stream
+     * @return Current column of output stream, 0 if unknown
+     */
+    private static long getColumnPosition(PrologOutputStream output) {
+        Position pos = new Position();
+        try {
+            output.getPosition(pos);
+        } catch (IOException ioe) {
+            // ignored
+        }
+        return pos.getColumnPos().orElse(0L);
+    }
+
     /**
      * @return True if seekable
      */
@@ -519,6 +542,13 @@ public class LogicalStream {
             input = configureInput(baseInput);
         }
         if (baseOutput != null) {
+            if (output != null) {
+                try {
+                    output.flush(); // text held by previous filters
+                } catch (IOException ioe) {
+                    // ignored
+                }
+            }
             output = configureOutput(baseOutput);
         }
     }
@@ -569,10 +599,11 @@ public class LogicalStream {
         PrologOutputStream filtered = source;
         Charset cs = getCharset();
         if (cs != null) {
-            filtered = new OutputEncoderFilter(filtered, cs);
+            // bytes are only held back when output is fully buffered
+            filtered = new OutputEncoderFilter(filtered, cs,
+                    bufferMode == StreamProperties.Buffering.ATOM_full && !isTTY);
         }
         // TODO: layers to handle TTY
-        // TODO: layers to handle buffering
         if (recordPosition) {
             filtered = new OutputPositionTracker(filtered, tracker);
         }
@@ -839,6 +870,58 @@ public class LogicalStream {
         }
     }
 
+    /**
+     * Write a term in binary form, see {@link TermCodec}.
+     *
+     * @param environment Execution environment
+     * @param streamId    Stream id for error reporting (or null if unknown)
+     * @param source      Term to write
+     */
+    public void writeBinaryTerm(Environment environment, Atomic streamId, Term source) {
+        assertBinary(environment, Io.OUTPUT_ACTION, streamId);
+        PrologOutputStream output = getOutputStream(environment, streamId);
+        byte[] bytes = TermCodec.toBytes(source);
+        try {
+            output.write(bytes, 0, bytes.length);
+        } catch (IOException ioe) {
+            throw writeError(ioe, environment);
+        }
+    }
+
+    /**
+     * Read a term in binary form, see {@link TermCodec}.
+     *
+     * @param environment Execution environment
+     * @param streamId    Stream id for error reporting (or null if unknown)
+     * @return read term, or end_of_file
+     */
+    public Term readBinaryTerm(Environment environment, Atomic streamId) {
+        assertBinary(environment, Io.INPUT_ACTION, streamId);
+        PrologInputStream input = getInputStream(environment, streamId);
+        try {
+            int first = input.read();
+            if (first < 0) {
+                return Io.END_OF_FILE;
+            }
+            DataInputStream data = new DataInputStream(new InputStream() {
+                private int pending = first;
+
+                @Override
+                public int read() throws IOException {
+                    if (pending >= 0) {
+                        int b = pending;
+                        pending = -1;
+                        return b;
+                    }
+                    return input.read();
+                }
+            });
+            return TermCodec.decode(data, environment).resolve(environment.getLocalContext());
+        } catch (IOException ioe) {
+            throw readError(ioe, environment);
+        }
+    }
+
     /**
      * Read a line of text
      *
@@ -940,6 +1023,32 @@ public class LogicalStream {
         }
     }
 
+    /**
+     * Write formatted text. Text is formatted in full, relative to the current column, then written in one write.
+     *
+     * @param environment Execution environment
+     * @param streamId    Stream identifier (or null if unknown)
+     * @param format      Parsed format string
+     * @param args        Format arguments
+     */
+    public void format(Environment environment, Atomic streamId, FormatString format, List<Term> args) {
+        assertText(environment, Io.OUTPUT_ACTION, streamId);
+        PrologOutputStream output = getOutputStream(environment, streamId);
+        String text = format.format(environment, args, (int) getColumnPosition(output));
+        try {
+            output.write(text);
+        } catch (IOException ioe) {
+            throw writeError(ioe, environment);
+        }
+    }
+
+    /**
+     * @return base output stream, as provided when stream was constructed
+     */
+    public PrologOutputStream getBaseOutput() {
+        return baseOutput;
+    }
+
     /**
      * Translates a read error
      *
@@ -968,11 +1077,16 @@ public class LogicalStream {
      * @param environment Environment that has default reference
      * @param mask        mask of what is considered protected
      */
-    public synchronized void protect(Environment environment, int mask) {
-        if (protection == null) {
-            protection = new WeakHashMap<>();
+    public void protect(Environment environment, int mask) {
+        lock.lock();
+        try {
+            if (protection == null) {
+                protection = new WeakHashMap<>();
+            }
+            protection.compute(environment, (key, prior) -> prior == null ? mask : mask | prior);
+        } finally {
+            lock.unlock();
         }
-        protection.compute(environment, (key, prior) -> prior == null ? mask : mask | prior);
     }
 
     /**
@@ -981,13 +1095,18 @@ public class LogicalStream {
      * @param environment Environment that has default reference
      * @param mask        indicating which protection to remove
      */
-    public synchronized void unprotect(Environment environment, int mask) {
-        if (protection == null) {
-            return;
-        }
-        protection.computeIfPresent(environment, (key, prior) -> (prior & ~mask) == 0 ? null : prior & ~mask);
-        if (protection.isEmpty()) {
-            protection = null; // remove map if no longer applying protection
+    public void unprotect(Environment environment, int mask) {
+        lock.lock();
+        try {
+            if (protection == null) {
+                return;
+            }
+            protection.computeIfPresent(environment, (key, prior) -> (prior & ~mask) == 0 ? null : prior & ~mask);
+            if (protection.isEmpty()) {
+                protection = null; // remove map if no longer applying protection
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -997,8 +1116,13 @@ public class LogicalStream {
      * @param environment Environment to check for
      * @return true if protected
      */
-    public synchronized boolean isProtected(Environment environment) {
-        return protection != null && protection.containsKey(environment);
+    public boolean isProtected(Environment environment) {
+        lock.lock();
+        try {
+            return protection != null && protection.containsKey(environment);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -1006,7 +1130,12 @@ public class LogicalStream {
      *
      * @return true if closed
      */
-    public synchronized boolean isClosed() {
-        return closed;
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
     }
 }
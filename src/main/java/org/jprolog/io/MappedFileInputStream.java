@@ -0,0 +1,191 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.io;
+
+import org.jprolog.flags.CloseOptions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+
+/**
+ * PrologInputStream that reads a file by mapping it into memory, see open/4 option map(true). Reading a byte is then
+ * a memory access, with paging performed by the operating system. Files larger than a single mapping (limited to 2GB
+ * by Java) are mapped one window at a time. The file size is determined when opened. Like
+ * {@link FileReadWriteStreams}, the stream is owned by a single {@link LogicalStream} and is not synchronized.
+ */
+public class MappedFileInputStream implements PrologInputStream, Closeable {
+
+    /**
+     * Largest region of file mapped at any one time.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+
+    /**
+     * Map file using default window size.
+     *
+     * @param channel File channel opened for read
+     * @throws IOException on IO error
+     */
+    public MappedFileInputStream(FileChannel channel) throws IOException {
+        this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Map file, with given window size.
+     *
+     * @param channel    File channel opened for read
+     * @param windowSize Largest region of file to map at a time
+     * @throws IOException on IO error
+     */
+    public MappedFileInputStream(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    /**
+     * Map window of file starting at given position.
+     *
+     * @param position New position in file
+     * @throws IOException on IO error
+     */
+    private void map(long position) throws IOException {
+        if (window != null && position >= windowStart && position < windowStart + window.limit()) {
+            // within current window
+            window.position((int) (position - windowStart));
+            return;
+        }
+        long start = Math.min(position, size);
+        int len = (int) Math.min(windowSize, size - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, len);
+        windowStart = start;
+    }
+
+    /**
+     * Ensure there is something to read, moving to next window if needed.
+     *
+     * @return true if not at end of file
+     * @throws IOException on IO error
+     */
+    private boolean readSome() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+        long next = windowStart + window.limit();
+        if (next >= size) {
+            return false;
+        }
+        map(next);
+        return window.hasRemaining();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (window.hasRemaining() || readSome()) {
+            return window.get() & 0xff;
+        }
+        return IoUtility.EOF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] bbuf, int off, int len) throws IOException {
+        if (!readSome()) {
+            return IoUtility.EOF;
+        }
+        if (len <= 0) {
+            return len;
+        }
+        int resLen = Math.min(len, window.remaining());
+        window.get(bbuf, off, resLen);
+        return resLen;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int advance(int len) throws IOException {
+        long position = logicalPosition();
+        if (position >= size) {
+            return IoUtility.EOF;
+        }
+        int skip = (int) Math.min(len, size - position);
+        map(position + skip);
+        return skip;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() {
+        long diff = size - logicalPosition();
+        return (int) Math.min(diff, Integer.MAX_VALUE);
+    }
+
+    private long logicalPosition() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getPosition(Position position) {
+        position.setBytePos(logicalPosition());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean seekPosition(Position position) throws IOException {
+        Optional<Long> pos = position.getBytePos();
+        if (pos.isPresent()) {
+            map(pos.get());
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seekEndOfStream() throws IOException {
+        map(size);
+    }
+
+    @Override
+    public void close(CloseOptions options) throws IOException {
+        close();
+    }
+
+    /**
+     * Close channel. Mapping is released when garbage collected.
+     *
+     * @throws IOException on IO error
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
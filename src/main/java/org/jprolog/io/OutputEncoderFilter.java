@@ -12,23 +12,44 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Encode characters into multi-byte sequences. This is based on {@link sun.nio.cs.StreamEncoder}.
+ * Encode characters into multi-byte sequences. This is based on {@link sun.nio.cs.StreamEncoder}. Text is encoded a
+ * chunk at a time through a reusable char buffer, so writing a string neither copies it into a new array nor visits
+ * it per character. When buffered, encoded bytes are held until the byte buffer is full, or until flush, close or a
+ * position request, otherwise they are written at the end of each write.
  */
 public class OutputEncoderFilter extends FilteredOutputStream {
     private static final int NO_CHAR = -2;
     private static final int DEFAULT_BYTE_BUFFER_SIZE = 8192;
+    private static final int DEFAULT_CHAR_BUFFER_SIZE = 4096;
     private final CharsetEncoder encoder;
     private final ByteBuffer bb;
+    private final char[] chunk = new char[DEFAULT_CHAR_BUFFER_SIZE];
+    private final CharBuffer chunkBuffer = CharBuffer.wrap(chunk);
+    private final boolean buffered;
     private int nextChar = NO_CHAR;
+    private final ReentrantLock lock = new ReentrantLock();
 
     public OutputEncoderFilter(PrologOutputStream stream, Charset charset) {
+        this(stream, charset, false);
+    }
+
+    /**
+     * Create new filter
+     *
+     * @param stream   Stream being wrapped
+     * @param charset  Character set to encode to
+     * @param buffered True to hold encoded bytes between writes
+     */
+    public OutputEncoderFilter(PrologOutputStream stream, Charset charset, boolean buffered) {
         super(stream);
         encoder = charset.newEncoder().
                 onMalformedInput(CodingErrorAction.REPLACE).
                 onUnmappableCharacter(CodingErrorAction.REPLACE);
         this.bb = ByteBuffer.allocate(DEFAULT_BYTE_BUFFER_SIZE);
+        this.buffered = buffered;
     }
 
     /**
@@ -36,18 +57,58 @@ public class OutputEncoderFilter extends FilteredOutputStream {
      */
     @Override
     public void write(int chr) throws IOException {
-        this.write(new char[]{(char) chr}, 0, 1);
+        lock.lock();
+        try {
+            chunk[0] = (char) chr;
+            chunkBuffer.clear().limit(1);
+            encode(chunkBuffer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(char[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            encode(CharBuffer.wrap(b, off, len));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized void write(char[] b, int off, int len) throws IOException {
+    public void write(String text) throws IOException {
+        lock.lock();
+        try {
+            int len = text.length();
+            for (int off = 0; off < len; off += chunk.length) {
+                int count = Math.min(chunk.length, len - off);
+                text.getChars(off, off + count, chunk, 0);
+                chunkBuffer.clear().limit(count);
+                encode(chunkBuffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encode characters into byte buffer, writing bytes when it fills. Called with lock held.
+     *
+     * @param buffer Characters to encode
+     * @throws IOException on IO error
+     */
+    private void encode(CharBuffer buffer) throws IOException {
         if (this.nextChar == IoUtility.EOF) {
             return;
         }
-        CharBuffer buffer = CharBuffer.wrap(b, off, len);
         if (this.nextChar >= 0) {
             this.flushLeftoverChar(buffer, false);
         }
@@ -67,7 +128,7 @@ public class OutputEncoderFilter extends FilteredOutputStream {
                 codeResult.throwException();
             }
         }
-        if (this.bb.position() > 0) {
+        if (!buffered && this.bb.position() > 0) {
             this.writeBytes();
         }
     }
@@ -84,14 +145,46 @@ public class OutputEncoderFilter extends FilteredOutputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void flush() throws IOException {
-        if (nextChar == IoUtility.EOF) {
-            return;
-        }
-        if (this.bb.position() > 0) {
-            this.writeBytes();
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (nextChar == IoUtility.EOF) {
+                return;
+            }
+            if (this.bb.position() > 0) {
+                this.writeBytes();
+            }
+            super.flush();
+        } finally {
+            lock.unlock();
         }
-        super.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getPosition(Position position) throws IOException {
+        writePending();
+        super.getPosition(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean seekPosition(Position position) throws IOException {
+        writePending();
+        return super.seekPosition(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seekEndOfStream() throws IOException {
+        writePending();
+        super.seekEndOfStream();
     }
 
     /**
@@ -174,6 +267,20 @@ public class OutputEncoderFilter extends FilteredOutputStream {
         }
     }
 
+    /**
+     * Write any bytes held in byte buffer, so that underlying stream is up to date.
+     */
+    private void writePending() throws IOException {
+        lock.lock();
+        try {
+            if (nextChar != IoUtility.EOF && this.bb.position() > 0) {
+                this.writeBytes();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private void writeBytes() throws IOException {
         this.bb.flip();
         int limit = this.bb.limit();
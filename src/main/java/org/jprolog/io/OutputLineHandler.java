@@ -39,4 +39,36 @@ public class OutputLineHandler extends FilteredOutputStream {
             super.write(b);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(char[] buffer, int off, int len) throws IOException {
+        int start = off;
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (buffer[i] == '\n') {
+                super.write(buffer, start, i - start);
+                super.write(eoln, 0, eoln.length);
+                start = i + 1;
+            }
+        }
+        if (start < end) {
+            super.write(buffer, start, end - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(String text) throws IOException {
+        if (text.indexOf('\n') < 0) {
+            super.write(text); // no translation required
+        } else {
+            char[] array = text.toCharArray();
+            write(array, 0, array.length);
+        }
+    }
 }
@@ -27,6 +27,12 @@ public class OutputPositionTracker extends FilteredOutputStream {
         tracker.visit(c);
     }
 
+    @Override
+    public void write(String text) throws IOException {
+        super.write(text);
+        tracker.visit(text);
+    }
+
     @Override
     public void write(char[] buffer, int off, int len) throws IOException {
         super.write(buffer, off, len);
@@ -0,0 +1,210 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.io;
+
+import org.jprolog.utility.SpscRingBuffer;
+import org.jprolog.utility.Waiters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A pipe between one writer and one reader, typically in different threads (see pipe/2). Bytes are held in a
+ * lock-free {@link SpscRingBuffer}, each read or write transfers a whole range at a time. The streams block: a reader
+ * waits until data is written or the output is closed (end of file), a writer waits until there is room or the input
+ * is closed (an error). {@link #tryRead} and {@link #tryWrite} transfer without waiting. Waiting spins briefly, then
+ * yields, then parks until the other side transfers or closes (see {@link Waiters}). Unlike {@link FifoStreams}, there
+ * is no lock and no intermediate buffer per write, but at most one thread may write, and at most one thread may read,
+ * at any time. Transfer is not zero-copy, each byte is copied once into the ring and once out of it.
+ */
+public class PipeStreams {
+
+    /**
+     * Default capacity of a pipe in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private final SpscRingBuffer ring;
+    private final Waiters readers = new Waiters();
+    private final Waiters writers = new Waiters();
+    private final PipeInputStream input = new PipeInputStream();
+    private final PipeOutputStream output = new PipeOutputStream();
+    private volatile boolean inputClosed = false;
+    private volatile boolean outputClosed = false;
+
+    /**
+     * Create pipe of default capacity.
+     */
+    public PipeStreams() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create pipe.
+     *
+     * @param capacity Minimum capacity in bytes
+     */
+    public PipeStreams(int capacity) {
+        ring = new SpscRingBuffer(capacity);
+    }
+
+    /**
+     * @return Stream to read
+     */
+    public InputStream getInput() {
+        return input;
+    }
+
+    /**
+     * @return Stream to write
+     */
+    public OutputStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Read available bytes without waiting.
+     *
+     * @param b   Target array
+     * @param off Offset into target
+     * @param len Maximum number of bytes to read
+     * @return number of bytes read, 0 if none available, or EOF if output is closed and pipe is empty
+     */
+    public int tryRead(byte[] b, int off, int len) {
+        if (len <= 0) {
+            return 0;
+        }
+        boolean closed = outputClosed; // read before poll, bytes written before close are not lost
+        int count = ring.poll(b, off, len);
+        if (count == 0 && closed) {
+            return IoUtility.EOF;
+        }
+        if (count > 0) {
+            writers.signalAll();
+        }
+        return count;
+    }
+
+    /**
+     * Write as many bytes as there is room for without waiting.
+     *
+     * @param b   Source array
+     * @param off Offset into source
+     * @param len Number of bytes to write
+     * @return number of bytes written, 0 if pipe is full
+     * @throws IOException if input is closed
+     */
+    public int tryWrite(byte[] b, int off, int len) throws IOException {
+        if (inputClosed) {
+            throw new IOException("Pipe closed by reader");
+        }
+        int count = ring.offer(b, off, len);
+        if (count > 0) {
+            readers.signalAll();
+        }
+        return count;
+    }
+
+    private static void pause(Waiters waiters, int attempt, BooleanSupplier ready) throws InterruptedIOException {
+        if (Thread.interrupted()) {
+            throw new InterruptedIOException();
+        }
+        waiters.pause(attempt, ready);
+    }
+
+    private class PipeOutputStream extends OutputStream {
+
+        private final byte[] single = new byte[1];
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (outputClosed) {
+                throw new IOException("Pipe output is closed");
+            }
+            int attempt = 0;
+            while (len > 0) {
+                int count = tryWrite(b, off, len);
+                if (count == 0) {
+                    pause(writers, attempt++, () -> inputClosed || ring.size() < ring.capacity());
+                } else {
+                    off += count;
+                    len -= count;
+                    attempt = 0;
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            outputClosed = true;
+            readers.signalAll();
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+
+        private final byte[] single = new byte[1];
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int available() {
+            return ring.size();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() throws IOException {
+            int count = read(single, 0, 1);
+            return count < 0 ? IoUtility.EOF : single[0] & 0xff;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len <= 0) {
+                return 0;
+            }
+            for (int attempt = 0; ; attempt++) {
+                int count = tryRead(b, off, len);
+                if (count != 0) {
+                    return count;
+                }
+                pause(readers, attempt, () -> outputClosed || ring.size() > 0);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            inputClosed = true;
+            writers.signalAll();
+        }
+    }
+}
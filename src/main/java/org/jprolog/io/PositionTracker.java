@@ -7,6 +7,7 @@ import org.jprolog.flags.CloseOptions;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 /**
@@ -16,6 +17,7 @@ public class PositionTracker implements PrologStream {
     private long linePos = 0;
     private long columnPos = 0;
     private boolean startOfLine = true;
+    private final ReentrantLock lock = new ReentrantLock();
     private static final Consumer<PositionTracker>[] handler;
 
     private static final Consumer<PositionTracker> noop = o->{};
@@ -46,12 +48,17 @@ public class PositionTracker implements PrologStream {
      * Given a single character, increment columns and lines
      * @param c Character
      */
-    public synchronized void visit(int c) {
-        handleStartOfLine();
-        if (c >= 0x20) {
-            columnPos++;
-        } else if (c >= 0) {
-            handler[c].accept(this);
+    public void visit(int c) {
+        lock.lock();
+        try {
+            handleStartOfLine();
+            if (c >= 0x20) {
+                columnPos++;
+            } else if (c >= 0) {
+                handler[c].accept(this);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -61,20 +68,90 @@ public class PositionTracker implements PrologStream {
      * @param start starting index
      * @param len number of characters
      */
-    public synchronized void visit(char [] chars, int start, int len) {
-        if (len <= 0) {
-            return;
+    public void visit(char [] chars, int start, int len) {
+        lock.lock();
+        try {
+            if (len <= 0) {
+                return;
+            }
+            int end = start + len;
+            int lines = 0;
+            int last = -1;
+            for(int i = start; i < end; i++) {
+                if (chars[i] == '\n') {
+                    lines++;
+                    last = i;
+                }
+            }
+            long column = advanceLines(lines, last, end);
+            for(int i = last < 0 ? start : last + 1; i < end; i++) {
+                column = advanceColumn(column, chars[i]);
+            }
+            columnPos = column;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Given a sequence of characters, increment columns and lines. Lines are counted by scanning for new lines, and
+     * columns are only counted after the last new line.
+     * @param text Sequence of characters
+     */
+    public void visit(CharSequence text) {
+        lock.lock();
+        try {
+            int end = text.length();
+            if (end == 0) {
+                return;
+            }
+            int lines = 0;
+            int last = -1;
+            for(int i = 0; i < end; i++) {
+                if (text.charAt(i) == '\n') {
+                    lines++;
+                    last = i;
+                }
+            }
+            long column = advanceLines(lines, last, end);
+            for(int i = last + 1; i < end; i++) {
+                column = advanceColumn(column, text.charAt(i));
+            }
+            columnPos = column;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * Account for new lines in a block of text, equivalent to visiting each character up to and including the last
+     * new line.
+     * @param lines Number of new lines
+     * @param last Index of last new line, if any
+     * @param end Index after end of block
+     * @return column to continue counting from
+     */
+    private long advanceLines(int lines, int last, int end) {
         handleStartOfLine();
-        int end = start + len;
-        for(int i = start; i < end; i++) {
-            char c = chars[i];
-            if (c >= 0x20) {
-                columnPos++;
-            } else {
-                handler[c].accept(this);
+        if (lines > 0) {
+            // line of the last new line is started lazily, as in visit(int)
+            linePos += lines - 1;
+            startOfLine = true;
+            if (last + 1 < end) {
+                handleStartOfLine();
             }
         }
+        return columnPos;
+    }
+
+    private static long advanceColumn(long column, char c) {
+        if (c >= 0x20) {
+            return column + 1;
+        } else if (c == '\t') {
+            return column + 8 - (column & 7);
+        } else {
+            return column;
+        }
     }
 
     /**
@@ -84,18 +161,28 @@ public class PositionTracker implements PrologStream {
      * @param len number of characters
      */
     public void visit(byte [] bytes, int start, int len) {
-        if (len <= 0) {
-            return;
-        }
-        handleStartOfLine();
-        int end = start + len;
-        for(int i = start; i < end; i++) {
-            byte c = bytes[i];
-            if (c >= 0x20) {
-                columnPos++;
-            } else {
-                handler[c].accept(this);
+        lock.lock();
+        try {
+            if (len <= 0) {
+                return;
+            }
+            int end = start + len;
+            int lines = 0;
+            int last = -1;
+            for(int i = start; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    lines++;
+                    last = i;
+                }
+            }
+            long column = advanceLines(lines, last, end);
+            for(int i = last < 0 ? start : last + 1; i < end; i++) {
+                byte c = bytes[i];
+                column = c < 0 ? column + 1 : advanceColumn(column, (char) c);
             }
+            columnPos = column;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -104,9 +191,14 @@ public class PositionTracker implements PrologStream {
      */
     @Override
     public void getPosition(Position position) {
-        handleStartOfLine();
-        position.setLinePos(linePos);
-        position.setColumnPos(columnPos);
+        lock.lock();
+        try {
+            handleStartOfLine();
+            position.setLinePos(linePos);
+            position.setColumnPos(columnPos);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -123,9 +215,14 @@ public class PositionTracker implements PrologStream {
      */
     @Override
     public void setKnownPosition(Position position) {
-        startOfLine = false;
-        position.getLinePos().ifPresent(c -> linePos = c);
-        position.getColumnPos().ifPresent(c -> columnPos = c);
+        lock.lock();
+        try {
+            startOfLine = false;
+            position.getLinePos().ifPresent(c -> linePos = c);
+            position.getColumnPos().ifPresent(c -> columnPos = c);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
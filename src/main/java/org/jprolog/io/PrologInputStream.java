@@ -28,6 +28,16 @@ public interface PrologInputStream extends PrologStream, IoRead {
     default void showPrompt() throws IOException {
     }
 
+    /**
+     * Request that input from the given position onwards remains available to {@link #seekPosition(Position)},
+     * even if that is more than a buffer would normally hold. Used by the tokenizer to rewind within a long line, the
+     * position is moved forward as each token is consumed.
+     *
+     * @param position Position to retain from, or null to release
+     */
+    default void retainFrom(Position position) {
+    }
+
     /**
      * Advance input by length symbols.
      * @param len Length to advance
@@ -20,7 +20,7 @@ public class ProtectedSequentialInputStream extends SequentialInputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized boolean approveClose(CloseOptions options) {
+    public boolean approveClose(CloseOptions options) {
         return options.force;
     }
 }
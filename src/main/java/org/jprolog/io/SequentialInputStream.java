@@ -7,6 +7,7 @@ import org.jprolog.flags.CloseOptions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * PrologInputStream that adapts a Java Input stream.
@@ -16,6 +17,7 @@ public class SequentialInputStream implements PrologInputStream {
     private final InputStream stream;
     private long pos = 0;
     private boolean closed = false;
+    private final ReentrantLock lock = new ReentrantLock();
 
     public SequentialInputStream(InputStream stream) {
         this.stream = stream;
@@ -25,13 +27,18 @@ public class SequentialInputStream implements PrologInputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized int read() throws IOException {
-        int c = stream.read();
-        if (c < 0) {
-            return IoUtility.EOF;
-        } else {
-            pos++; // position after read
-            return c;
+    public int read() throws IOException {
+        lock.lock();
+        try {
+            int c = stream.read();
+            if (c < 0) {
+                return IoUtility.EOF;
+            } else {
+                pos++; // position after read
+                return c;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -55,19 +62,29 @@ public class SequentialInputStream implements PrologInputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void getPosition(Position position) {
-        position.setBytePos(pos); // lowest level only
-        position.setCharPos(pos); // caller will overwrite
+    public void getPosition(Position position) {
+        lock.lock();
+        try {
+            position.setBytePos(pos); // lowest level only
+            position.setCharPos(pos); // caller will overwrite
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized void close(CloseOptions options) throws IOException {
-        if (!closed) {
-            stream.close();
-            closed = true;
+    public void close(CloseOptions options) throws IOException {
+        lock.lock();
+        try {
+            if (!closed) {
+                stream.close();
+                closed = true;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
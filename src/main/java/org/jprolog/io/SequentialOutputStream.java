@@ -7,6 +7,7 @@ import org.jprolog.flags.CloseOptions;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * PrologOutputStream that adapts a Java Output stream.
@@ -16,6 +17,7 @@ public class SequentialOutputStream implements PrologOutputStream {
     private final OutputStream stream;
     private long pos = 0;
     private boolean closed = false;
+    private final ReentrantLock lock = new ReentrantLock();
 
     public SequentialOutputStream(OutputStream stream) {
         this.stream = stream;
@@ -26,18 +28,28 @@ public class SequentialOutputStream implements PrologOutputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void getPosition(Position position) {
-        position.setBytePos(pos); // lowest level only
-        position.setCharPos(pos); // caller will overwrite
+    public void getPosition(Position position) {
+        lock.lock();
+        try {
+            position.setBytePos(pos); // lowest level only
+            position.setCharPos(pos); // caller will overwrite
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public synchronized void write(int symbol) throws IOException {
-        stream.write(symbol);
-        pos++;
+    public void write(int symbol) throws IOException {
+        lock.lock();
+        try {
+            stream.write(symbol);
+            pos++;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -60,10 +72,15 @@ public class SequentialOutputStream implements PrologOutputStream {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void close(CloseOptions options) throws IOException {
-        if (!closed) {
-            stream.close();
-            closed = true;
+    public void close(CloseOptions options) throws IOException {
+        lock.lock();
+        try {
+            if (!closed) {
+                stream.close();
+                closed = true;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -8,6 +8,7 @@ import org.jprolog.flags.CloseOptions;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Stream that writes to a string.
@@ -16,6 +17,7 @@ public class StringOutputStream implements PrologOutputStream, Closeable {
 
     private final StringWriter writer = new StringWriter();
     private boolean closed = false;
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * {@inheritDoc}
@@ -53,10 +55,15 @@ public class StringOutputStream implements PrologOutputStream, Closeable {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void close() throws IOException {
-        if (!closed) {
-            writer.close();
-            closed = true;
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (!closed) {
+                writer.close();
+                closed = true;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
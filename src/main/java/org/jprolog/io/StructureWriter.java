@@ -114,8 +114,8 @@ public class StructureWriter extends TermWriter<Term> {
                     writeSquareList(term);
                     return;
                 }
-                OperatorEntry op = context.environment().getInfixPostfixOperator(functor);
-                if (op != OperatorEntry.ARGUMENT && op.getCode().isBinary()) {
+                OperatorEntry op = binaryOperator(flags, term);
+                if (op != null) {
                     writeBinaryOperator(opComp, flags, op, functor, term.get(0), term.get(1));
                     return;
                 }
@@ -137,7 +137,29 @@ public class StructureWriter extends TermWriter<Term> {
     }
 
     /**
-     * Write a binary operator as [left] OP [right]. Precedence of left and right are taken into account.
+     * Determine if compound term is written as a binary operator.
+     *
+     * @param flags Additional flags
+     * @param term  Compound term of arity 2
+     * @return operator, or null if not written as a binary operator
+     */
+    private OperatorEntry binaryOperator(int flags, CompoundTerm term) {
+        Atomic functor = term.functor();
+        if (test(flags, NO_OPS) || functor.is(Interned.LIST_FUNCTOR)) {
+            return null;
+        }
+        OperatorEntry op = context.environment().getInfixPostfixOperator(functor);
+        if (op != OperatorEntry.ARGUMENT && op.getCode().isBinary()) {
+            return op;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Write a binary operator as [left] OP [right]. Precedence of left and right are taken into account. Where the
+     * right term is also a binary operator (e.g. A,B,C,...) it is written in a loop rather than recursively, with
+     * any closing brackets deferred to the end.
      * @param opComp Manage operator precedence
      * @param flags Additional flags
      * @param op Operator to write
@@ -148,17 +170,43 @@ public class StructureWriter extends TermWriter<Term> {
      */
     private void writeBinaryOperator(OpCompare opComp, int flags, OperatorEntry op, Atomic func, Term left, Term right) throws IOException {
         // P * Q * R * S
-        if (opComp.binaryBrackets(op)) {
-            context.beginSafe();
-            context.write("(");
-            writeBinaryOperator(terminal, 0, op, func, left, right);
+        int brackets = 0;
+        for (; ; ) {
+            if (opComp.binaryBrackets(op)) {
+                context.beginSafe();
+                context.write("(");
+                brackets++;
+                opComp = terminal;
+                flags = 0;
+            }
+            write(new LeftCompare(op), flags, left);
+            func.write(context);
+            opComp = new RightCompare(op);
+            OperatorEntry nextOp = null;
+            if (right instanceof CompoundTerm && ((CompoundTerm) right).arity() == 2) {
+                nextOp = binaryOperator(flags, (CompoundTerm) right);
+            }
+            if (nextOp == null) {
+                write(opComp, flags, right);
+                break;
+            }
+            CompoundTerm next = (CompoundTerm) right;
+            func = next.functor();
+            if (func.is(Interned.COMMA_FUNCTOR) && test(flags, COMMA_UNSAFE)) {
+                context.beginSafe();
+                context.write("(");
+                brackets++;
+                opComp = terminal;
+                flags = 0;
+            }
+            op = nextOp;
+            left = next.get(0);
+            right = next.get(1);
+        }
+        for (int i = 0; i < brackets; i++) {
             context.beginSafe();
             context.write(")");
-            return;
         }
-        write(new LeftCompare(op), flags, left);
-        func.write(context);
-        write(new RightCompare(op), flags, right);
     }
 
     /**
@@ -210,29 +258,61 @@ public class StructureWriter extends TermWriter<Term> {
     }
 
     /**
-     * Write a compound term structure in canonical form.
+     * Write a compound term structure in canonical form. Where operators are ignored, a last argument that is also
+     * written as a structure (e.g. a list written as '[|]'(H,T)) is written in a loop rather than recursively, with
+     * the closing brackets deferred to the end.
      *
      * @param term Term to write
      * @throws IOException on IO error
      */
     private void writeStructure(CompoundTerm term) throws IOException {
-        // TODO conflict if structure is a prefix operator, not handled
-        write(terminal, 0, term.functor());
-        int arity = term.arity();
-        if (term.arity() == 0) {
-            return;
+        int brackets = 0;
+        for (; ; ) {
+            // TODO conflict if structure is a prefix operator, not handled
+            write(terminal, 0, term.functor());
+            int arity = term.arity();
+            if (term.arity() == 0) {
+                break;
+            }
+            context.beginSafe();
+            context.write("(");
+            brackets++;
+            for (int i = 0; i < arity - 1; i++) {
+                write(comma, COMMA_UNSAFE, term.get(i));
+                context.beginSafe();
+                context.write(",");
+                context.beginGraphic();
+            }
+            Term last = term.get(arity - 1);
+            if (!isPlainStructure(last)) {
+                write(comma, COMMA_UNSAFE, last);
+                break;
+            }
+            term = (CompoundTerm) last;
         }
-        context.beginSafe();
-        context.write("(");
-        write(comma, COMMA_UNSAFE, term.get(0));
-        for (int i = 1; i < arity; i++) {
+        for (int i = 0; i < brackets; i++) {
             context.beginSafe();
-            context.write(",");
-            context.beginGraphic();
-            write(comma, COMMA_UNSAFE, term.get(i));
+            context.write(")");
         }
-        context.beginSafe();
-        context.write(")");
+    }
+
+    /**
+     * Determine if a last argument would be written by {@link #writeStructure(CompoundTerm)} with no other
+     * formatting, when operators are ignored.
+     *
+     * @param term Last argument
+     * @return true if term can be written by the loop in writeStructure
+     */
+    private boolean isPlainStructure(Term term) {
+        if (!(term instanceof CompoundTerm) || !context.options().ignoreOps) {
+            return false;
+        }
+        CompoundTerm compound = (CompoundTerm) term;
+        Atomic functor = compound.functor();
+        if (functor.is(Interned.COMMA_FUNCTOR)) {
+            return false; // bracketed
+        }
+        return !(compound.arity() == 1 && functor.is(Interned.DOLLAR_VAR) && context.options().numbervars);
     }
 
     /**
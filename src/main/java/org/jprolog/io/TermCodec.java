@@ -0,0 +1,556 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.io;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.constants.PrologEmptyList;
+import org.jprolog.constants.PrologFloat;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.constants.PrologString;
+import org.jprolog.exceptions.FutureTypeError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.expressions.TermListImpl;
+import org.jprolog.variables.LabeledVariable;
+import org.jprolog.variables.Variable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Binary encoding of terms, used where terms are saved and restored without involving the tokenizer and parser.
+ * Variables are numbered in order of first occurrence, so two terms that are variants of each other have the same
+ * encoding apart from variable names, and {@link #encodeVariant} omits the names. Atoms and functors are written in
+ * full on first occurrence, and thereafter by index into a dictionary that is built up as the encoding is read.
+ * Integers that fit in a long are written as zig-zag variable length integers, floats as raw doubles. Terms are encoded
+ * and decoded iteratively, with an explicit stack, so that deep terms and long lists do not consume Java stack. A
+ * cyclic term cannot be encoded, and is reported as a type error.
+ */
+public final class TermCodec {
+    private TermCodec() {
+        // Static methods/fields only
+    }
+
+    private static final int TAG_VAR = 0;
+    private static final int TAG_NEW_VAR = 1;
+    private static final int TAG_ATOM = 2;
+    private static final int TAG_INT = 3; // fixed 8 bytes, decoded only
+    private static final int TAG_BIG_INT = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_STRING = 6;
+    private static final int TAG_EMPTY_LIST = 7;
+    private static final int TAG_COMPOUND = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_ATOM_REF = 10;
+    private static final int TAG_COMPOUND_REF = 11;
+    private static final int TAG_VAR_INT = 12;
+
+    /**
+     * Encode a term.
+     *
+     * @param out  Output to write to
+     * @param term Term to encode
+     * @throws IOException on IO error
+     */
+    public static void encode(DataOutput out, Term term) throws IOException {
+        new Encoder(out, true).encode(term);
+    }
+
+    /**
+     * Encode a sequence of terms that share variables.
+     *
+     * @param out   Output to write to
+     * @param terms Terms to encode
+     * @throws IOException on IO error
+     */
+    public static void encode(DataOutput out, Term... terms) throws IOException {
+        Encoder encoder = new Encoder(out, true);
+        for (Term term : terms) {
+            encoder.encode(term);
+        }
+    }
+
+    /**
+     * Encode a term, or a sequence of terms that share variables, without variable names, so that terms that are
+     * variants of each other have identical encodings.
+     *
+     * @param out   Output to write to
+     * @param terms Terms to encode
+     * @throws IOException on IO error
+     */
+    public static void encodeVariant(DataOutput out, Term... terms) throws IOException {
+        Encoder encoder = new Encoder(out, false);
+        for (Term term : terms) {
+            encoder.encode(term);
+        }
+    }
+
+    /**
+     * Encode a term to a byte array.
+     *
+     * @param term Term to encode
+     * @return encoded term
+     */
+    public static byte[] toBytes(Term term) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            encode(new DataOutputStream(bytes), term);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe); // not expected
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a term from a byte array, see {@link #decode(DataInput, Environment)}.
+     *
+     * @param environment Execution environment, used to intern atoms and allocate variable ids
+     * @param bytes       Encoded term
+     * @return decoded term
+     * @throws IOException if bytes are not a valid encoding
+     */
+    public static Term fromBytes(Environment environment, byte[] bytes) throws IOException {
+        return decode(new DataInputStream(new ByteArrayInputStream(bytes)), environment);
+    }
+
+    /**
+     * Decode a term into an environment. Variables of the term are new anonymous labeled variables, the term is
+     * expected to be resolved by caller.
+     *
+     * @param in          Input to read from
+     * @param environment Execution environment, used to intern atoms and allocate variable ids
+     * @return decoded term
+     * @throws IOException on IO error, or if input is not a valid encoding
+     */
+    public static Term decode(DataInput in, Environment environment) throws IOException {
+        return decode(in, environment::internAtom,
+                name -> new LabeledVariable("_", environment.nextVariableId()));
+    }
+
+    /**
+     * Point in the encoding at which compound terms are added to, or removed from, the path of compound terms being
+     * encoded.
+     */
+    private static final class PathChange {
+        final Term enter;
+        final List<Term> leave;
+
+        PathChange(Term enter, List<Term> leave) {
+            this.enter = enter;
+            this.leave = leave;
+        }
+    }
+
+    /**
+     * State of encoding a sequence of terms.
+     */
+    private static final class Encoder {
+        // number of list cells after which a list is tested for a cycle of its own cells
+        private static final int SPINE_CHECK = 1024;
+        private final DataOutput out;
+        private final boolean names;
+        private final HashMap<Long, Integer> variables = new HashMap<>();
+        private final HashMap<String, Integer> atoms = new HashMap<>();
+        private final HashMap<String, Integer> functorNames = new HashMap<>();
+        private final HashMap<Long, Integer> functors = new HashMap<>();
+        // Terms and PathChanges
+        private final ArrayDeque<Object> stack = new ArrayDeque<>();
+        // compound terms (including list cells) that contain the term being encoded
+        private final IdentityHashMap<Term, Boolean> path = new IdentityHashMap<>();
+
+        Encoder(DataOutput out, boolean names) {
+            this.out = out;
+            this.names = names;
+        }
+
+        void encode(Term term) throws IOException {
+            stack.push(term);
+            while (!stack.isEmpty()) {
+                Object next = stack.pop();
+                if (next instanceof PathChange) {
+                    PathChange change = (PathChange) next;
+                    if (change.enter != null) {
+                        enter(change.enter);
+                    } else {
+                        for (Term t : change.leave) {
+                            path.remove(t);
+                        }
+                    }
+                    continue;
+                }
+                Term t = ((Term) next).value();
+                if (t instanceof TermList) {
+                    encodeList(t);
+                } else if (t instanceof CompoundTerm) {
+                    CompoundTerm compound = (CompoundTerm) t;
+                    int arity = compound.arity();
+                    enter(t);
+                    encodeFunctor(((PrologAtomLike) compound.functor()).name(), arity);
+                    stack.push(new PathChange(null, Collections.singletonList(t)));
+                    for (int i = arity - 1; i >= 0; i--) {
+                        stack.push(compound.get(i));
+                    }
+                } else {
+                    encodeSimple(t);
+                }
+            }
+        }
+
+        /**
+         * Encode the elements and tail of a list. Each list cell contains its element and all cells after it, so a
+         * cell is added to the path only when its element is about to be encoded.
+         */
+        private void encodeList(Term t) throws IOException {
+            List<Term> cells = new ArrayList<>();
+            IdentityHashMap<Term, Boolean> spine = null;
+            while (t instanceof TermList) {
+                if (path.containsKey(t) || (spine != null && spine.put(t, Boolean.TRUE) != null)) {
+                    throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, t);
+                }
+                cells.add(t);
+                if (cells.size() == SPINE_CHECK) {
+                    // a list this long might be a cycle of cells
+                    spine = new IdentityHashMap<>();
+                    for (Term cell : cells) {
+                        spine.put(cell, Boolean.TRUE);
+                    }
+                }
+                t = ((TermList) t).getTail().value();
+            }
+            int count = cells.size();
+            out.writeByte(TAG_LIST);
+            writeCount(out, count);
+            enter(cells.get(0));
+            stack.push(new PathChange(null, cells));
+            stack.push(t); // tail
+            for (int i = count - 1; i >= 0; i--) {
+                stack.push(((TermList) cells.get(i)).getHead());
+                if (i > 0) {
+                    stack.push(new PathChange(cells.get(i), null));
+                }
+            }
+        }
+
+        private void enter(Term t) {
+            if (path.put(t, Boolean.TRUE) != null) {
+                throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, t);
+            }
+        }
+
+        private void encodeFunctor(String name, int arity) throws IOException {
+            Integer nameIndex = functorNames.computeIfAbsent(name, n -> functorNames.size());
+            long key = ((long) nameIndex << 32) | arity;
+            Integer functor = functors.get(key);
+            if (functor != null) {
+                out.writeByte(TAG_COMPOUND_REF);
+                writeCount(out, functor);
+            } else {
+                functors.put(key, functors.size());
+                out.writeByte(TAG_COMPOUND);
+                writeString(out, name);
+                writeCount(out, arity);
+            }
+        }
+
+        private void encodeAtom(String name) throws IOException {
+            Integer atom = atoms.get(name);
+            if (atom != null) {
+                out.writeByte(TAG_ATOM_REF);
+                writeCount(out, atom);
+            } else {
+                atoms.put(name, atoms.size());
+                out.writeByte(TAG_ATOM);
+                writeString(out, name);
+            }
+        }
+
+        private void encodeSimple(Term t) throws IOException {
+            if (t instanceof Variable) {
+                Variable variable = (Variable) t;
+                Integer index = variables.get(variable.corefId());
+                if (index == null) {
+                    variables.put(variable.corefId(), variables.size());
+                    out.writeByte(TAG_NEW_VAR);
+                    writeString(out, names ? variable.name() : "");
+                } else {
+                    out.writeByte(TAG_VAR);
+                    writeCount(out, index);
+                }
+            } else if (t == PrologEmptyList.EMPTY_LIST) {
+                out.writeByte(TAG_EMPTY_LIST);
+            } else if (t.isAtom()) {
+                encodeAtom(((PrologAtomLike) t).name());
+            } else if (t.isInteger()) {
+                BigInteger value = PrologInteger.from(t).get();
+                if (value.bitLength() < 64) {
+                    out.writeByte(TAG_VAR_INT);
+                    writeLong(out, value.longValue());
+                } else {
+                    byte[] bytes = value.toByteArray();
+                    out.writeByte(TAG_BIG_INT);
+                    writeCount(out, bytes.length);
+                    out.write(bytes);
+                }
+            } else if (t.isFloat()) {
+                out.writeByte(TAG_FLOAT);
+                out.writeDouble(PrologFloat.from(t).get());
+            } else if (t.isString()) {
+                out.writeByte(TAG_STRING);
+                writeString(out, ((PrologString) t).get());
+            } else {
+                throw new FutureTypeError(Interned.ENCODABLE_TYPE, t);
+            }
+        }
+    }
+
+    /**
+     * Decode a term.
+     *
+     * @param in        Input to read from
+     * @param atoms     Function to intern an atom
+     * @param variables Function to create a new variable given its name
+     * @return decoded term
+     * @throws IOException on IO error
+     */
+    public static Term decode(DataInput in, Function<String, ? extends Atomic> atoms,
+                              Function<String, ? extends Term> variables) throws IOException {
+        return new Decoder(in, atoms, variables).decode();
+    }
+
+    /**
+     * Decode a sequence of terms that share variables.
+     *
+     * @param in        Input to read from
+     * @param count     Number of terms
+     * @param atoms     Function to intern an atom
+     * @param variables Function to create a new variable given its name
+     * @return decoded terms
+     * @throws IOException on IO error
+     */
+    public static Term[] decode(DataInput in, int count, Function<String, ? extends Atomic> atoms,
+                                Function<String, ? extends Term> variables) throws IOException {
+        Decoder decoder = new Decoder(in, atoms, variables);
+        Term[] terms = new Term[count];
+        for (int i = 0; i < count; i++) {
+            terms[i] = decoder.decode();
+        }
+        return terms;
+    }
+
+    /**
+     * A compound term or list that is waiting for its arguments, or elements and tail.
+     */
+    private static final class Pending {
+        final Term[] members;
+        final boolean list;
+        int next;
+
+        Pending(Term[] members, boolean list, int next) {
+            this.members = members;
+            this.list = list;
+            this.next = next;
+        }
+
+        Term complete() {
+            if (list) {
+                return new TermListImpl(Arrays.asList(members).subList(0, members.length - 1),
+                        members[members.length - 1]);
+            } else {
+                return new CompoundTermImpl(members);
+            }
+        }
+    }
+
+    /**
+     * State of decoding a sequence of terms.
+     */
+    private static final class Decoder {
+        private final DataInput in;
+        private final Function<String, ? extends Atomic> atomFactory;
+        private final Function<String, ? extends Term> variableFactory;
+        private final List<Term> seen = new ArrayList<>();
+        private final List<Atomic> atoms = new ArrayList<>();
+        private final List<Atomic> functors = new ArrayList<>();
+        private final List<Integer> arities = new ArrayList<>();
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+        Decoder(DataInput in, Function<String, ? extends Atomic> atomFactory,
+                Function<String, ? extends Term> variableFactory) {
+            this.in = in;
+            this.atomFactory = atomFactory;
+            this.variableFactory = variableFactory;
+        }
+
+        Term decode() throws IOException {
+            for (; ; ) {
+                int tag = in.readUnsignedByte();
+                Term result;
+                if (tag == TAG_COMPOUND || tag == TAG_COMPOUND_REF) {
+                    int index;
+                    if (tag == TAG_COMPOUND) {
+                        index = functors.size();
+                        functors.add(atomFactory.apply(readString(in)));
+                        arities.add(readCount(in));
+                    } else {
+                        index = readCount(in);
+                        if (index >= functors.size()) {
+                            throw new IOException("Invalid term encoding, bad functor");
+                        }
+                    }
+                    Atomic functor = functors.get(index);
+                    int arity = arities.get(index);
+                    if (arity > 0) {
+                        Term[] members = new Term[arity + 1];
+                        members[0] = functor;
+                        pending.push(new Pending(members, false, 1));
+                        continue;
+                    }
+                    result = CompoundTerm.from(functor);
+                } else if (tag == TAG_LIST) {
+                    int count = readCount(in);
+                    pending.push(new Pending(new Term[count + 1], true, 0));
+                    continue;
+                } else {
+                    result = decodeSimple(tag);
+                }
+                // complete as many pending terms as possible
+                for (; ; ) {
+                    Pending top = pending.peek();
+                    if (top == null) {
+                        return result;
+                    }
+                    top.members[top.next++] = result;
+                    if (top.next < top.members.length) {
+                        break;
+                    }
+                    pending.pop();
+                    result = top.complete();
+                }
+            }
+        }
+
+        private Atomic atom(String name) {
+            Atomic atom = atomFactory.apply(name);
+            atoms.add(atom);
+            return atom;
+        }
+
+        private Term decodeSimple(int tag) throws IOException {
+            switch (tag) {
+                case TAG_VAR: {
+                    int index = readCount(in);
+                    if (index >= seen.size()) {
+                        throw new IOException("Invalid term encoding, bad variable");
+                    }
+                    return seen.get(index);
+                }
+                case TAG_NEW_VAR: {
+                    Term variable = variableFactory.apply(readString(in));
+                    seen.add(variable);
+                    return variable;
+                }
+                case TAG_ATOM:
+                    return atom(readString(in));
+                case TAG_ATOM_REF: {
+                    int index = readCount(in);
+                    if (index >= atoms.size()) {
+                        throw new IOException("Invalid term encoding, bad atom");
+                    }
+                    return atoms.get(index);
+                }
+                case TAG_INT:
+                    return PrologInteger.from(in.readLong());
+                case TAG_VAR_INT:
+                    return PrologInteger.from(readLong(in));
+                case TAG_BIG_INT: {
+                    byte[] bytes = new byte[readCount(in)];
+                    in.readFully(bytes);
+                    return PrologInteger.from(new BigInteger(bytes));
+                }
+                case TAG_FLOAT:
+                    return PrologFloat.from(in.readDouble());
+                case TAG_STRING:
+                    return new PrologString(readString(in));
+                case TAG_EMPTY_LIST:
+                    return PrologEmptyList.EMPTY_LIST;
+                default:
+                    throw new IOException("Invalid term encoding, tag " + tag);
+            }
+        }
+    }
+
+    private static void writeLong(DataOutput out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7fL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7f) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readLong(DataInput in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigZag |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Invalid term encoding, bad integer");
+    }
+
+    private static void writeCount(DataOutput out, int count) throws IOException {
+        while ((count & ~0x7f) != 0) {
+            out.writeByte((count & 0x7f) | 0x80);
+            count >>>= 7;
+        }
+        out.writeByte(count);
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            count |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return count;
+            }
+        }
+        throw new IOException("Invalid term encoding, bad count");
+    }
+
+    private static void writeString(DataOutput out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeCount(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,250 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.AssocTerm;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.unification.Unifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Bootstraps association (AVL tree) predicates, see {@link AssocTerm}.
+ */
+public final class Assoc {
+    private Assoc() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Unify with an empty association.
+     *
+     * @param environment Execution environment
+     * @param assoc       Empty association
+     */
+    @Predicate("empty_assoc")
+    public static void emptyAssoc(Environment environment, Term assoc) {
+        Unifier.unifyAtom(environment, assoc, Interned.EMPTY_ASSOC_ATOM);
+    }
+
+    /**
+     * Retrieve value associated with key.
+     *
+     * @param environment Execution environment
+     * @param key         Key to look up
+     * @param assoc       Association to search
+     * @param value       Value unified with associated value
+     */
+    @Predicate("get_assoc")
+    public static void getAssoc(Environment environment, Term key, Term assoc, Term value) {
+        Term found = AssocTerm.lookup(instantiated(environment, assoc), key);
+        if (found == null) {
+            environment.backtrack();
+            return;
+        }
+        Unifier.unifyTerm(environment, value, found);
+    }
+
+    /**
+     * Add or replace a key in an association, producing a new association.
+     *
+     * @param environment Execution environment
+     * @param key         Key to add
+     * @param assoc       Original association
+     * @param value       Value to associate with key
+     * @param newAssoc    New association
+     */
+    @Predicate("put_assoc")
+    public static void putAssoc(Environment environment, Term key, Term assoc, Term value, Term newAssoc) {
+        AssocTerm tree = AssocTerm.put(AssocTerm.from(instantiated(environment, assoc)), key, value);
+        unifyAssoc(environment, newAssoc, tree);
+    }
+
+    /**
+     * Remove a key from an association, producing a new association. Fails if key does not exist.
+     *
+     * @param environment Execution environment
+     * @param key         Key to remove
+     * @param assoc       Original association
+     * @param value       Value that was associated with key
+     * @param newAssoc    New association
+     */
+    @Predicate("del_assoc")
+    public static void delAssoc(Environment environment, Term key, Term assoc, Term value, Term newAssoc) {
+        Term found = AssocTerm.lookup(instantiated(environment, assoc), key);
+        if (found == null || !Unifier.unifyTerm(environment, value, found)) {
+            environment.backtrack();
+            return;
+        }
+        AssocTerm tree = AssocTerm.delete(AssocTerm.from(instantiated(environment, assoc)), key);
+        unifyAssoc(environment, newAssoc, tree);
+    }
+
+    /**
+     * Construct association from a list of Key-Value pairs. Keys are required to be unique.
+     *
+     * @param environment Execution environment
+     * @param list        List of pairs
+     * @param assoc       New association
+     */
+    @Predicate("list_to_assoc")
+    public static void listToAssoc(Environment environment, Term list, Term assoc) {
+        AssocTerm tree = null;
+        for (Term pair : TermList.extractList(list)) {
+            pair = pair.value();
+            if (!CompoundTerm.termIsA(pair, Interned.MINUS_ATOM, 2)) {
+                throw PrologTypeError.error(environment, Interned.PAIR_TYPE, pair);
+            }
+            Term key = ((CompoundTerm) pair).get(0);
+            if (tree != null && AssocTerm.lookup(tree, key) != null) {
+                throw PrologDomainError.error(environment, Interned.UNIQUE_KEY_PAIRS_DOMAIN, list);
+            }
+            tree = AssocTerm.put(tree, key, ((CompoundTerm) pair).get(1));
+        }
+        unifyAssoc(environment, assoc, tree);
+    }
+
+    /**
+     * Convert association to an ordered list of Key-Value pairs.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param list        List of pairs
+     */
+    @Predicate("assoc_to_list")
+    public static void assocToList(Environment environment, Term assoc, Term list) {
+        unifyNodes(environment, assoc, list,
+                node -> new CompoundTermImpl(Interned.MINUS_ATOM, node.key(), node.val()));
+    }
+
+    /**
+     * Convert association to an ordered list of keys.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param list        List of keys
+     */
+    @Predicate("assoc_to_keys")
+    public static void assocToKeys(Environment environment, Term assoc, Term list) {
+        unifyNodes(environment, assoc, list, AssocTerm::key);
+    }
+
+    /**
+     * Convert association to a list of values, ordered by key.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param list        List of values
+     */
+    @Predicate("assoc_to_values")
+    public static void assocToValues(Environment environment, Term assoc, Term list) {
+        unifyNodes(environment, assoc, list, AssocTerm::val);
+    }
+
+    /**
+     * Retrieve smallest key and its value. Fails if association is empty.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param key         Smallest key
+     * @param value       Associated value
+     */
+    @Predicate("min_assoc")
+    public static void minAssoc(Environment environment, Term assoc, Term key, Term value) {
+        AssocTerm tree = AssocTerm.from(instantiated(environment, assoc));
+        if (tree == null) {
+            environment.backtrack();
+            return;
+        }
+        AssocTerm node = tree.min();
+        if (Unifier.unifyTerm(environment, key, node.key())) {
+            Unifier.unifyTerm(environment, value, node.val());
+        }
+    }
+
+    /**
+     * Retrieve largest key and its value. Fails if association is empty.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param key         Largest key
+     * @param value       Associated value
+     */
+    @Predicate("max_assoc")
+    public static void maxAssoc(Environment environment, Term assoc, Term key, Term value) {
+        AssocTerm tree = AssocTerm.from(instantiated(environment, assoc));
+        if (tree == null) {
+            environment.backtrack();
+            return;
+        }
+        AssocTerm node = tree.max();
+        if (Unifier.unifyTerm(environment, key, node.key())) {
+            Unifier.unifyTerm(environment, value, node.val());
+        }
+    }
+
+    // ====================================================================
+    // Helper methods
+    // ====================================================================
+
+    /**
+     * Ensure association argument is bound.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @return assoc
+     */
+    private static Term instantiated(Environment environment, Term assoc) {
+        if (!assoc.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, assoc);
+        }
+        return assoc;
+    }
+
+    /**
+     * Unify a newly constructed tree. The tree is already resolved, so if the target is a variable, it is instantiated
+     * directly, avoiding a walk of the tree.
+     *
+     * @param environment Execution environment
+     * @param target      Target term
+     * @param tree        Constructed tree (null if empty)
+     */
+    private static void unifyAssoc(Environment environment, Term target, AssocTerm tree) {
+        Term value = AssocTerm.toTerm(tree);
+        if (!target.isInstantiated() && target.instantiate(value)) {
+            return;
+        }
+        Unifier.unifyTerm(environment, target, value);
+    }
+
+    /**
+     * Unify list with a mapping of each node of association in key order.
+     *
+     * @param environment Execution environment
+     * @param assoc       Association
+     * @param list        Target list
+     * @param mapping     Function to convert each node into a list element
+     */
+    private static void unifyNodes(Environment environment, Term assoc, Term list, Function<AssocTerm, Term> mapping) {
+        ArrayList<AssocTerm> nodes = new ArrayList<>();
+        AssocTerm.collect(AssocTerm.from(instantiated(environment, assoc)), nodes);
+        List<Term> members = new ArrayList<>(nodes.size());
+        for (AssocTerm node : nodes) {
+            members.add(mapping.apply(node));
+        }
+        Unifier.unifyTerm(environment, list, TermList.from(members).toTerm());
+    }
+}
@@ -0,0 +1,196 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Builtins;
+import org.jprolog.bootstrap.DemandLoad;
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.execution.Environment;
+import org.jprolog.execution.WorkerPool;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.flags.FirstSolutionOptions;
+import org.jprolog.predicates.Predication;
+import org.jprolog.unification.Unifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Concurrent evaluation of independent goals, see {@link WorkerPool}. Goals are solved on copies of their terms, only
+ * the results are copied back to the calling environment.
+ */
+public final class Concurrent {
+    private Concurrent() {
+        // Static methods/fields only
+    }
+
+    /**
+     * List of predicates defined by the resource "concurrent.pl".
+     */
+    @DemandLoad("concurrent.pl")
+    public static Predication[] concurrent = {
+            Builtins.predicate("concurrent_findall", 4),
+            Builtins.predicate("concurrent_maplist", 2),
+            Builtins.predicate("concurrent_maplist", 3),
+            Builtins.predicate("concurrent_maplist", 4)
+    };
+
+    /**
+     * Solve each job Template-Goal in parallel, unifying bag with all instantiated templates, in order of job then
+     * order of solution. If any goal throws an error, the error is rethrown.
+     *
+     * @param environment Execution environment
+     * @param jobsTerm    List of Template-Goal
+     * @param bag         Unified with solutions
+     */
+    @Predicate("$concurrent_findall")
+    public static void concurrentFindAll(Environment environment, Term jobsTerm, Term bag) {
+        List<Term> jobs = TermList.extractList(jobsTerm);
+        List<Term> results = new ArrayList<>();
+        if (!jobs.isEmpty()) {
+            WorkerPool.Outcome[] outcomes = solve(environment, jobs, false);
+            if (rethrow(environment, outcomes)) {
+                return;
+            }
+            for (WorkerPool.Outcome outcome : outcomes) {
+                results.addAll(outcome.solutions(environment));
+            }
+        }
+        Unifier.unifyTerm(environment, bag, TermList.from(results).toTerm());
+    }
+
+    /**
+     * Call goal with corresponding elements of each list in parallel, each call is solved once. Fails if any call
+     * fails. Lists are expected to be of the same length.
+     *
+     * @param environment Execution environment
+     * @param goal        Goal to extend with list elements
+     * @param listsTerm   List of lists
+     */
+    @Predicate("$concurrent_maplist")
+    public static void concurrentMaplist(Environment environment, Term goal, Term listsTerm) {
+        List<List<Term>> lists = new ArrayList<>();
+        for (Term list : TermList.extractList(listsTerm)) {
+            lists.add(TermList.extractList(list));
+        }
+        int count = lists.get(0).size();
+        List<Term> calls = new ArrayList<>(count);
+        List<Term> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Term[] args = new Term[lists.size() + 1];
+            args[0] = goal;
+            for (int j = 0; j < lists.size(); j++) {
+                args[j + 1] = lists.get(j).get(i);
+            }
+            Term call = new CompoundTermImpl(Interned.CALL_FUNCTOR, args);
+            calls.add(call);
+            jobs.add(new CompoundTermImpl(Interned.MINUS_ATOM, call, call));
+        }
+        if (jobs.isEmpty()) {
+            return;
+        }
+        WorkerPool.Outcome[] outcomes = solve(environment, jobs, true);
+        if (rethrow(environment, outcomes)) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (outcomes[i] == null || !outcomes[i].succeeded()) {
+                environment.backtrack();
+                return;
+            }
+            if (!Unifier.unifyTerm(environment, calls.get(i), outcomes[i].solutions(environment).get(0))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Solve each goal in parallel, unifying template with the first solution found by any goal. Remaining goals are
+     * stopped. Options are on_fail(stop|continue) and on_error(stop|continue), by default the first goal to fail or
+     * throw an error also stops all goals.
+     *
+     * @param environment Execution environment
+     * @param template    Template shared by goals
+     * @param goalsTerm   List of goals
+     * @param optionsTerm Options
+     */
+    @Predicate("first_solution")
+    public static void firstSolution(Environment environment, Term template, Term goalsTerm, Term optionsTerm) {
+        FirstSolutionOptions options = new FirstSolutionOptions(environment, optionsTerm);
+        List<Term> goals = TermList.extractList(goalsTerm);
+        List<Term> jobs = new ArrayList<>(goals.size());
+        for (Term goal : goals) {
+            jobs.add(new CompoundTermImpl(Interned.MINUS_ATOM, template, goal));
+        }
+        if (jobs.isEmpty()) {
+            environment.backtrack();
+            return;
+        }
+        // every alternative gets its own thread, an alternative may not terminate
+        try (WorkerPool pool = new WorkerPool(environment, jobs.size())) {
+            pool.start(jobs, true);
+            for (int remaining = jobs.size(); remaining > 0; remaining--) {
+                WorkerPool.Outcome outcome = pool.outcome(pool.take());
+                if (outcome.succeeded()) {
+                    pool.stop();
+                    Unifier.unifyTerm(environment, template, outcome.solutions(environment).get(0));
+                    return;
+                }
+                boolean error = outcome.rethrowable();
+                if (error && options.onError == FirstSolutionOptions.Action.ATOM_stop) {
+                    pool.stop();
+                    outcome.rethrow(environment);
+                    return;
+                }
+                if (!error && options.onFail == FirstSolutionOptions.Action.ATOM_stop) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+        environment.backtrack();
+    }
+
+    /**
+     * Solve jobs in parallel, using up to one thread per processor.
+     *
+     * @param environment Execution environment
+     * @param jobs        List of Template-Goal
+     * @param once        true if only first solution of each goal is needed
+     * @return outcomes, in order of jobs, null if not solved
+     */
+    private static WorkerPool.Outcome[] solve(Environment environment, List<Term> jobs, boolean once) {
+        int threads = Math.min(jobs.size(), Runtime.getRuntime().availableProcessors());
+        try (WorkerPool pool = new WorkerPool(environment, threads)) {
+            pool.start(jobs, once);
+            return pool.join(once);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+    }
+
+    /**
+     * Rethrow the first error, in order of jobs, if any.
+     *
+     * @param environment Execution environment
+     * @param outcomes    Outcomes of jobs
+     * @return true if an error was rethrown
+     */
+    private static boolean rethrow(Environment environment, WorkerPool.Outcome[] outcomes) {
+        for (WorkerPool.Outcome outcome : outcomes) {
+            if (outcome != null && outcome.rethrow(environment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
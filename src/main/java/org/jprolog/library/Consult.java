@@ -16,6 +16,7 @@ import org.jprolog.execution.CompileContext;
 import org.jprolog.execution.Environment;
 import org.jprolog.execution.Instruction;
 import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
 import org.jprolog.instructions.ExecBlock;
 import org.jprolog.instructions.ExecCallLocal;
 import org.jprolog.instructions.ExecFinally;
@@ -28,8 +29,10 @@ import org.jprolog.utility.LinkNode;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.stream.Collectors;
 
 /**
  * File is referenced by {@link Library} to parse all annotations.
@@ -85,7 +88,25 @@ public final class Consult {
     }
 
     /**
-     * Set load group. Restore it under any exist circumstance.
+     * Unify with the sorted list of files that have been loaded (load groups that identify an existing file).
+     *
+     * @param environment Execution environment
+     * @param filesTerm   Unified with list of absolute file names
+     */
+    @Predicate("$load_group_files")
+    public static void loadGroupFiles(Environment environment, Term filesTerm) {
+        List<Term> files = environment.getLoadGroups().stream()
+                .map(LoadGroup::getId)
+                .filter(id -> id.length() > 0 && Files.isRegularFile(Paths.get(id)))
+                .sorted()
+                .map(environment::internAtom)
+                .collect(Collectors.toList());
+        Unifier.unifyList(environment, filesTerm, TermList.from(files));
+    }
+
+    /**
+     * Set load group. Restore it under any exist circumstance. Predicates reloaded in the new group are swapped in
+     * when callable exits (see {@link LoadGroup#completeReload()}).
      *
      * @param environment Execution environment
      * @param idTerm      Id of load group
@@ -100,7 +121,10 @@ public final class Consult {
 
         new ExecFinally(ExecBlock.future(callable),
                 e -> environment.changeLoadGroup(newGroup),
-                e -> environment.changeLoadGroup(priorGroup)).invoke(environment);
+                e -> {
+                    newGroup.completeReload();
+                    environment.changeLoadGroup(priorGroup);
+                }).invoke(environment);
     }
 
     /**
@@ -184,7 +208,9 @@ public final class Consult {
             // equivalent to load_files(File, [if(not_loaded)])
             Builtins.predicate("ensure_loaded", 1),
             // inline insertion of file
-            Builtins.predicate("include", 1)
+            Builtins.predicate("include", 1),
+            // reload all files that have changed
+            Builtins.predicate("make", 0)
     };
 
     // ====================================================================
@@ -0,0 +1,225 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.exceptions.PrologExistenceError;
+import org.jprolog.exceptions.PrologPermissionError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.flags.CsvOptions;
+import org.jprolog.flags.StreamProperties;
+import org.jprolog.generators.YieldSolutions;
+import org.jprolog.io.FileReadWriteStreams;
+import org.jprolog.io.LogicalStream;
+import org.jprolog.io.PrologInputStream;
+import org.jprolog.parser.CsvReader;
+import org.jprolog.unification.Unifier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Reading of csv/tsv data, see {@link CsvReader}. Rows are read lazily, one row per solution, so that data of any size
+ * is read in constant memory. Options are separator(Code), quote(Code), convert(Bool), strip(Bool), functor(F)
+ * (default row) and header(Bool) to skip the first row.
+ */
+public final class Csv {
+    private Csv() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Read rows of a csv/tsv file, one row per solution. The file is read as UTF-8, and is opened as a stream (see
+     * stream_property/2) that is closed when the last row has been read, or on error. A cut does not close the stream,
+     * if the remaining rows are cut away the stream remains open until abort, unless closed explicitly using the
+     * option stream(S), e.g. "csv_read_file_row(F, R, [stream(S)]), !, close(S)".
+     *
+     * @param environment Execution environment
+     * @param fileName    File to read
+     * @param row         Unified with each row
+     * @param options     Csv options
+     */
+    @Predicate("csv_read_file_row")
+    public static void csvReadFileRow(Environment environment, Term fileName, Term row, Term options) {
+        CsvOptions csvOptions = new CsvOptions(environment, options);
+        Path path = Io.parsePathWithCWD(environment, fileName);
+        LogicalStream logicalStream = openStream(environment, fileName, path);
+        PrologInteger id = logicalStream.getId();
+        boolean unified;
+        try {
+            unified = !csvOptions.stream.isPresent() || Unifier.unifyAtomic(environment, csvOptions.stream.get(), id);
+        } catch (RuntimeException e) {
+            Io.close(environment, id);
+            throw e;
+        }
+        if (!unified) {
+            Io.close(environment, id); // already backtracking
+            return;
+        }
+        CsvReader csv = new CsvReader(logicalStream.getInputStream(environment, id)::read, environment::internAtom,
+                csvOptions.functor, separator(csvOptions, path), csvOptions);
+        YieldSolutions.forAll(environment, rows(environment, csv, csvOptions, () -> Io.close(environment, id)),
+                term -> Unifier.unifyTerm(environment, row, term));
+    }
+
+    /**
+     * Read rows from a text stream, one row per solution.
+     *
+     * @param environment Execution environment
+     * @param streamIdent Stream to read
+     * @param row         Unified with each row
+     * @param options     Csv options
+     */
+    @Predicate("csv_read_stream")
+    public static void csvReadStream(Environment environment, Term streamIdent, Term row, Term options) {
+        CsvOptions csvOptions = new CsvOptions(environment, options);
+        LogicalStream logicalStream = Io.lookupStream(environment, streamIdent);
+        CsvReader csv = new CsvReader(
+                logicalStream.getInputStream(environment, streamIdent.isAtomic() ? (Atomic) streamIdent : null)::read,
+                environment::internAtom, csvOptions.functor, csvOptions.separator.orElse((int) ','), csvOptions);
+        YieldSolutions.forAll(environment, rows(environment, csv, csvOptions, null),
+                term -> Unifier.unifyTerm(environment, row, term));
+    }
+
+    /**
+     * Read all rows of a csv/tsv file into a list.
+     *
+     * @param environment Execution environment
+     * @param fileName    File to read
+     * @param rows        Unified with list of rows
+     * @param options     Csv options
+     */
+    @Predicate("csv_read_file")
+    public static void csvReadFile(Environment environment, Term fileName, Term rows, Term options) {
+        CsvOptions csvOptions = new CsvOptions(environment, options);
+        Path path = Io.parsePathWithCWD(environment, fileName);
+        ArrayList<Term> all = new ArrayList<>();
+        try (Reader reader = open(environment, fileName, path)) {
+            CsvReader csv = new CsvReader(reader::read, environment::internAtom, csvOptions.functor,
+                    separator(csvOptions, path), csvOptions);
+            if (csvOptions.header) {
+                csv.next();
+            }
+            for (CompoundTerm next = csv.next(); next != null; next = csv.next()) {
+                all.add(next);
+            }
+        } catch (IOException e) {
+            throw readError(environment, fileName, e);
+        }
+        Unifier.unifyTerm(environment, rows, TermList.from(all).toTerm());
+    }
+
+    private static Reader open(Environment environment, Term fileName, Path path) {
+        try {
+            return new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw PrologExistenceError.error(environment,
+                    Interned.SOURCE_SINK_DOMAIN, fileName, "File not found", e);
+        } catch (IOException e) {
+            throw readError(environment, fileName, e);
+        }
+    }
+
+    /**
+     * Open file as a text stream, registered with the environment so that it is closed on abort.
+     */
+    private static LogicalStream openStream(Environment environment, Term fileName, Path path) {
+        PrologInputStream input;
+        try {
+            input = new FileReadWriteStreams(FileChannel.open(path, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            throw PrologExistenceError.error(environment,
+                    Interned.SOURCE_SINK_DOMAIN, fileName, "File not found", e);
+        } catch (IOException e) {
+            throw readError(environment, fileName, e);
+        }
+        LogicalStream binding = new LogicalStream(LogicalStream.unique(), input, null,
+                StreamProperties.OpenMode.ATOM_read);
+        binding.setType(StreamProperties.Type.ATOM_text);
+        binding.setEncoding(StreamProperties.Encoding.ATOM_utf8);
+        binding.setEofAction(StreamProperties.EofAction.ATOM_eof_code);
+        binding.setCloseOnAbort(true);
+        binding.setObjectTerm(fileName);
+        binding.setIsTTY(false);
+        environment.addStream(binding.getId(), binding);
+        return binding;
+    }
+
+    private static PrologError readError(Environment environment, Term fileName, IOException e) {
+        return PrologPermissionError.error(environment,
+                environment.internAtom("open"), Interned.SOURCE_SINK_DOMAIN, fileName, "Cannot read file", e);
+    }
+
+    /**
+     * Default separator of a file is tab for ".tsv", else comma.
+     */
+    private static int separator(CsvOptions options, Path path) {
+        return options.separator.orElseGet(() ->
+                path.getFileName().toString().toLowerCase().endsWith(".tsv") ? (int) '\t' : (int) ',');
+    }
+
+    /**
+     * Rows of reader as a spliterator, closing source (if any) at end of rows or on error.
+     */
+    private static Spliterator<Term> rows(Environment environment, CsvReader csv, CsvOptions options,
+                                          Closeable source) {
+        return new Spliterators.AbstractSpliterator<Term>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private boolean skipHeader = options.header;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Term> action) {
+                CompoundTerm next;
+                try {
+                    if (skipHeader) {
+                        skipHeader = false;
+                        csv.next();
+                    }
+                    next = csv.next();
+                    if (next == null) {
+                        close();
+                        return false;
+                    }
+                } catch (IOException e) {
+                    close();
+                    throw PrologError.systemError(environment, e);
+                } catch (RuntimeException e) {
+                    close();
+                    throw e;
+                }
+                action.accept(next);
+                return true;
+            }
+
+            private void close() {
+                if (source != null) {
+                    try {
+                        source.close();
+                    } catch (IOException e) {
+                        // ignored, nothing further is read
+                    }
+                }
+            }
+        };
+    }
+}
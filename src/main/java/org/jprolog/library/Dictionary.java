@@ -7,6 +7,7 @@ import org.jprolog.bootstrap.Interned;
 import org.jprolog.bootstrap.Predicate;
 import org.jprolog.constants.PrologAtomInterned;
 import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.constants.PrologEmptyList;
 import org.jprolog.constants.PrologInteger;
 import org.jprolog.enumerators.CallifyTerm;
 import org.jprolog.enumerators.CopySimpleTerm;
@@ -17,21 +18,28 @@ import org.jprolog.execution.Environment;
 import org.jprolog.execution.LocalContext;
 import org.jprolog.expressions.CompoundTerm;
 import org.jprolog.expressions.Term;
+import org.jprolog.flags.PersistentOptions;
 import org.jprolog.generators.DoRedo;
 import org.jprolog.generators.YieldSolutions;
 import org.jprolog.predicates.BuiltInPredicate;
 import org.jprolog.predicates.ClauseEntry;
+import org.jprolog.predicates.ClauseJournal;
 import org.jprolog.predicates.ClauseSearchPredicate;
+import org.jprolog.predicates.FactTable;
 import org.jprolog.predicates.PredicateDefinition;
 import org.jprolog.predicates.Predication;
 import org.jprolog.unification.Unifier;
 import org.jprolog.unification.UnifyBuilder;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
@@ -128,6 +136,10 @@ public final class Dictionary {
         if (!(defn instanceof ClauseSearchPredicate)) {
             return; // silent
         }
+        ClauseJournal journal = ((ClauseSearchPredicate) defn).getJournal();
+        if (journal != null) {
+            journal.discard();
+        }
         environment.abolishPredicate(predication);
     }
 
@@ -196,6 +208,11 @@ public final class Dictionary {
                     String.format("Cannot retrieve clause for static procedure: %s", predication.toString()));
         }
         ClauseSearchPredicate clausePredicate = (ClauseSearchPredicate) defn;
+        FactTable facts = clausePredicate.getFactTable();
+        if (facts != null) {
+            retractFacts(environment, clausePredicate, facts, headMatcher, body, all);
+            return;
+        }
         List<ClauseEntry> clauses = Arrays.asList(clausePredicate.getClauses());
         if (clauses.isEmpty() && all) {
             // is this by spec?
@@ -219,9 +236,8 @@ public final class Dictionary {
             Unifier headUnifier = entry.getUnifier();
             if (headUnifier.unify(newContext, headMatcher) &&
                     bodyUnifier.unify(newContext, boundBody)) {
-                // Once unified, remove!
-                entry.getNode().remove();
-                return !all;
+                // Once unified, remove! Another thread may have removed it first.
+                return clausePredicate.remove(entry) && !all;
             } else {
                 return false;
             }
@@ -239,6 +255,59 @@ public final class Dictionary {
         }
     }
 
+    /**
+     * Retract and retract-all of a predicate held as a fact table. Rows are matched against the table, only a row that
+     * is removed is materialized (for the journal).
+     *
+     * @param environment     Execution environment
+     * @param clausePredicate Predicate
+     * @param facts           Fact table of predicate
+     * @param headMatcher     Head to match
+     * @param body            Body to match
+     * @param all             true if retract-all
+     */
+    private static void retractFacts(Environment environment, ClauseSearchPredicate clausePredicate, FactTable facts,
+                                     CompoundTerm headMatcher, Term body, boolean all) {
+        FactTable.Matcher matcher = matchFacts(environment, facts, headMatcher, body);
+        if (matcher == null) {
+            if (!all) {
+                environment.backtrack();
+            }
+            return;
+        }
+        Spliterator<Integer> rows = Spliterators.spliteratorUnknownSize(matcher, Spliterator.ORDERED);
+        java.util.function.Predicate<Integer> rowAction = row ->
+                // Once unified, remove! Another thread may have removed it first.
+                matcher.unify(row) && clausePredicate.removeFact(facts, row) && !all;
+        if (all) {
+            DoRedo.invoke(environment,
+                    () -> YieldSolutions.forAll(environment, rows, rowAction),
+                    () -> {
+                        // success
+                    }
+            );
+        } else {
+            YieldSolutions.forAll(environment, rows, rowAction);
+        }
+    }
+
+    /**
+     * Prepare to match a head and body against a fact table, the body of every fact is true.
+     *
+     * @param environment Execution environment
+     * @param facts       Fact table
+     * @param headMatcher Head to match
+     * @param body        Body to match
+     * @return matcher, or null if no fact can match
+     */
+    private static FactTable.Matcher matchFacts(Environment environment, FactTable facts, CompoundTerm headMatcher,
+                                                Term body) {
+        if (body.isInstantiated() ? body.compareTo(Interned.TRUE_ATOM) != 0 : !body.instantiate(Interned.TRUE_ATOM)) {
+            return null;
+        }
+        return facts.match(environment, headMatcher);
+    }
+
     /**
      * Recursively match clauses
      *
@@ -283,6 +352,17 @@ public final class Dictionary {
             return;
         }
         ClauseSearchPredicate clausePredicate = (ClauseSearchPredicate) defn;
+        FactTable facts = clausePredicate.getFactTable();
+        if (facts != null) {
+            FactTable.Matcher matcher = matchFacts(environment, facts, headMatcher, body);
+            if (matcher == null) {
+                environment.backtrack();
+                return;
+            }
+            YieldSolutions.forAll(environment, Spliterators.spliteratorUnknownSize(matcher, Spliterator.ORDERED),
+                    matcher::unify);
+            return;
+        }
         List<ClauseEntry> clauses = Arrays.asList(clausePredicate.getClauses());
         Unifier bodyUnifier = UnifyBuilder.from(body); // already resolved to context
 
@@ -383,6 +463,40 @@ public final class Dictionary {
         predicate.setDynamic(true);
     }
 
+    /**
+     * Mark a predication (or a comma separated sequence of predications) as persistent, with default options.
+     *
+     * @param environment     Execution environment
+     * @param predicationTerm Specifier
+     */
+    @Predicate("persistent")
+    public static void persistent(Environment environment, Term predicationTerm) {
+        persistent(environment, predicationTerm, PrologEmptyList.EMPTY_LIST);
+    }
+
+    /**
+     * Mark a predication (or a comma separated sequence of predications) as persistent. The clauses of a persistent
+     * predicate are restored from a journal file, and every subsequent assert and retract is appended to the journal.
+     * Options are file(F), default is name_arity.journal in the current directory, and sync(Bool), default true, to
+     * force each change to disk. With sync(false) changes survive the process being killed, but recent changes may be
+     * lost if the system crashes. The journal is closed when the top level environment is released. As persistent is
+     * not a standard operator, the directive form ":- persistent foo/3." requires ":- op(1150, fx, persistent)."
+     *
+     * @param environment     Execution environment
+     * @param predicationTerm Specifier
+     * @param optionsTerm     Persistent options
+     */
+    @Predicate("persistent")
+    public static void persistent(Environment environment, Term predicationTerm, Term optionsTerm) {
+        PersistentOptions options = new PersistentOptions(environment, optionsTerm);
+        while (CompoundTerm.termIsA(predicationTerm, Interned.COMMA_FUNCTOR, 2)) {
+            CompoundTerm sequence = (CompoundTerm) predicationTerm;
+            makePersistent(environment, sequence.get(0), options);
+            predicationTerm = sequence.get(1);
+        }
+        makePersistent(environment, predicationTerm, options);
+    }
+
     /**
      * Mark a predication as multi-file (inhibit consult from deleting definitions)
      *
@@ -481,7 +595,7 @@ public final class Dictionary {
 
         if (isDynamic) {
             if (!dictionaryEntry.isDynamic()) {
-                if (dictionaryEntry.getClauses().length > 0) {
+                if (dictionaryEntry.isCurrentPredicate()) {
                     throw PrologPermissionError.error(environment, Interned.MODIFY_ACTION, Interned.STATIC_PROCEDURE_TYPE,
                             predication.term(),
                             "The predicate " + predication.toString() + " is a static procedure");
@@ -493,11 +607,43 @@ public final class Dictionary {
             dictionaryEntry.changeLoadGroup(environment.getLoadGroup());
         }
 
+        if (dictionaryEntry.getFactTable() != null && Interned.TRUE_ATOM.compareTo(body) == 0) {
+            // fact may be appended to table
+            compoundHead = FactTable.intern(environment, compoundHead);
+        }
+
         // add clause to library (don't compile until execution)
-        ClauseEntry entry = new ClauseEntry((CompoundTerm) head, body, unifier);
+        ClauseEntry entry = new ClauseEntry(compoundHead, body, unifier);
         add.accept(dictionaryEntry, entry);
     }
 
+    private static void makePersistent(Environment environment, Term predicationTerm, PersistentOptions options) {
+        ClauseSearchPredicate predicate = lookupFromPredication(environment, predicationTerm);
+        CompoundTerm predicationCompound = (CompoundTerm) predicationTerm;
+        Term fileName = options.file.orElseGet(() -> environment.internAtom(
+                ((PrologAtomLike) predicationCompound.get(0).value()).name() + "_" +
+                        PrologInteger.from(predicationCompound.get(1)).toInteger() + ".journal"));
+        Path path = Io.parsePathWithCWD(environment, fileName);
+        ClauseJournal journal = predicate.getJournal();
+        if (journal != null) {
+            if (journal.getPath().equals(path)) {
+                return; // already persistent
+            }
+            throw PrologPermissionError.error(environment, Interned.MODIFY_ACTION, environment.internAtom("persistent_procedure"),
+                    predicationTerm, "Procedure is already persistent using " + journal.getPath());
+        }
+        if (predicate.isCurrentPredicate()) {
+            throw PrologPermissionError.error(environment, Interned.MODIFY_ACTION, environment.internAtom("persistent_procedure"),
+                    predicationTerm, "Procedure already has clauses");
+        }
+        try {
+            ClauseJournal.open(environment, predicate, path, options.sync);
+        } catch (IOException e) {
+            throw PrologPermissionError.error(environment, environment.internAtom("open"),
+                    Interned.SOURCE_SINK_DOMAIN, fileName, "Cannot open journal: " + e.getMessage(), e);
+        }
+    }
+
     private static ClauseSearchPredicate lookupFromPredication(Environment environment, Term predicationTerm) {
         if (!CompoundTerm.termIsA(predicationTerm, Interned.SLASH_ATOM, 2)) {
             // TODO: better error?
@@ -0,0 +1,164 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Builtins;
+import org.jprolog.bootstrap.DemandLoad;
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtom;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologEmptyList;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.constants.PrologString;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Strings;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.flags.StreamProperties;
+import org.jprolog.io.FormatString;
+import org.jprolog.io.LogicalStream;
+import org.jprolog.io.StringOutputStream;
+import org.jprolog.predicates.Predication;
+import org.jprolog.unification.Unifier;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Formatted output, see {@link FormatString}. Output may be directed to a stream, or to a sink, one of atom(A),
+ * string(S), codes(C) or chars(C).
+ */
+public final class Format {
+    private Format() {
+        // Static methods/fields only
+    }
+
+    private static final PrologAtomInterned CODES_SINK = Interned.internAtom("codes");
+    private static final PrologAtomInterned CHARS_SINK = Interned.internAtom("chars");
+
+    /**
+     * List of predicates defined by the resource "format.pl".
+     */
+    @DemandLoad("format.pl")
+    public static Predication[] format = {
+            Builtins.predicate("with_output_to", 2)
+    };
+
+    /**
+     * Format text without arguments to current output stream.
+     *
+     * @param environment Execution environment
+     * @param format      Format atom or string
+     */
+    @Predicate("format")
+    public static void format(Environment environment, Term format) {
+        format(environment, format, PrologEmptyList.EMPTY_LIST);
+    }
+
+    /**
+     * Format arguments to current output stream.
+     *
+     * @param environment Execution environment
+     * @param format      Format atom or string
+     * @param args        List of arguments, or a single argument that is not a list
+     */
+    @Predicate("format")
+    public static void format(Environment environment, Term format, Term args) {
+        environment.getOutputStream().format(environment, null,
+                FormatString.from(environment, format), arguments(args));
+    }
+
+    /**
+     * Format arguments to a stream or sink.
+     *
+     * @param environment Execution environment
+     * @param output      Stream, or sink atom(A), string(S), codes(C) or chars(C)
+     * @param format      Format atom or string
+     * @param args        List of arguments, or a single argument that is not a list
+     */
+    @Predicate("format")
+    public static void format(Environment environment, Term output, Term format, Term args) {
+        if (isSink(output)) {
+            String text = FormatString.from(environment, format).format(environment, arguments(args), 0);
+            unifySink(environment, output, text);
+        } else {
+            LogicalStream logicalStream = Io.lookupStream(environment, output);
+            logicalStream.format(environment, output.isAtomic() ? (Atomic) output : null,
+                    FormatString.from(environment, format), arguments(args));
+        }
+    }
+
+    /**
+     * Open a text stream that captures output in memory, see with_output_to/2.
+     *
+     * @param environment Execution environment
+     * @param streamIdent Unified with new stream
+     */
+    @Predicate("$open_memory_output")
+    public static void openMemoryOutput(Environment environment, Term streamIdent) {
+        PrologInteger id = LogicalStream.unique();
+        LogicalStream binding = new LogicalStream(id, null, new StringOutputStream(),
+                StreamProperties.OpenMode.ATOM_write);
+        binding.setType(StreamProperties.Type.ATOM_text);
+        binding.setEncoding(StreamProperties.Encoding.ATOM_octet); // text is captured as is
+        binding.setIsTTY(false);
+        environment.addStream(id, binding);
+        Unifier.unifyAtomic(environment, streamIdent, id);
+    }
+
+    /**
+     * Close a stream opened by '$open_memory_output'/1, and unify captured text with sink.
+     *
+     * @param environment Execution environment
+     * @param streamIdent Memory stream
+     * @param sink        One of atom(A), string(S), codes(C) or chars(C)
+     */
+    @Predicate("$close_memory_output")
+    public static void closeMemoryOutput(Environment environment, Term streamIdent, Term sink) {
+        LogicalStream logicalStream = Io.lookupStream(environment, streamIdent);
+        String text = logicalStream.getBaseOutput().toString();
+        Io.close(environment, streamIdent);
+        unifySink(environment, sink, text);
+    }
+
+    private static List<Term> arguments(Term args) {
+        if (TermList.isList(args)) {
+            return TermList.extractList(args);
+        } else {
+            return Collections.singletonList(args);
+        }
+    }
+
+    private static boolean isSink(Term output) {
+        return CompoundTerm.termIsA(output, Interned.ATOM_TYPE, 1)
+                || CompoundTerm.termIsA(output, Interned.STRING_TYPE, 1)
+                || CompoundTerm.termIsA(output, CODES_SINK, 1)
+                || CompoundTerm.termIsA(output, CHARS_SINK, 1);
+    }
+
+    private static void unifySink(Environment environment, Term sink, String text) {
+        if (!sink.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, sink);
+        }
+        if (!isSink(sink)) {
+            throw PrologDomainError.error(environment, "output_sink", sink);
+        }
+        Term target = ((CompoundTerm) sink).get(0);
+        if (CompoundTerm.termIsA(sink, Interned.ATOM_TYPE)) {
+            Unifier.unifyAtom(environment, target, new PrologAtom(text));
+        } else if (CompoundTerm.termIsA(sink, Interned.STRING_TYPE)) {
+            Unifier.unifyTerm(environment, target, new PrologString(text));
+        } else if (CompoundTerm.termIsA(sink, CODES_SINK)) {
+            Unifier.unifyTerm(environment, target, Strings.codePointsFromString(text));
+        } else {
+            Unifier.unifyTerm(environment, target, Strings.charsFromString(text));
+        }
+    }
+}
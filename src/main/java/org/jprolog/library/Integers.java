@@ -0,0 +1,120 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+import org.jprolog.generators.YieldRange;
+import org.jprolog.unification.Unifier;
+
+import java.math.BigInteger;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Bootstraps integer enumeration and successor predicates. These avoid evaluating an expression per step.
+ */
+public final class Integers {
+    private Integers() {
+        // Static methods/fields only
+    }
+
+    private static final PrologAtomInterned INF = Interned.internAtom("inf");
+    private static final PrologAtomInterned INFINITE = Interned.internAtom("infinite");
+
+    /**
+     * Low =&lt; Value =&lt; High. If Value is unbound, yields each integer of the range in turn. High may be inf or
+     * infinite.
+     *
+     * @param environment Execution environment
+     * @param lowTerm     Low bound, inclusive
+     * @param highTerm    High bound, inclusive
+     * @param valueTerm   Value to test or enumerate
+     */
+    @Predicate("between")
+    public static void between(Environment environment, Term lowTerm, Term highTerm, Term valueTerm) {
+        BigInteger low = PrologInteger.from(lowTerm).get();
+        BigInteger high = upperBound(environment, highTerm);
+        if (valueTerm.isInstantiated()) {
+            BigInteger value = PrologInteger.from(valueTerm).get();
+            if (value.compareTo(low) < 0 || (high != null && value.compareTo(high) > 0)) {
+                environment.backtrack();
+            }
+            return;
+        }
+        YieldRange.forRange(environment, low, high, valueTerm::instantiate);
+    }
+
+    /**
+     * Succ = Int+1, where both are not less than zero.
+     *
+     * @param environment Execution environment
+     * @param intTerm     Integer
+     * @param succTerm    Successor of integer
+     */
+    @Predicate("succ")
+    public static void succ(Environment environment, Term intTerm, Term succTerm) {
+        if (intTerm.isInstantiated()) {
+            BigInteger value = PrologInteger.from(intTerm).notLessThanZero().get();
+            if (succTerm.isInstantiated()) {
+                PrologInteger.from(succTerm).notLessThanZero();
+            }
+            Unifier.unifyInteger(environment, succTerm, value.add(BigInteger.ONE));
+        } else if (succTerm.isInstantiated()) {
+            BigInteger value = PrologInteger.from(succTerm).notLessThanZero().get();
+            if (value.signum() == 0) {
+                environment.backtrack();
+                return;
+            }
+            Unifier.unifyInteger(environment, intTerm, value.subtract(BigInteger.ONE));
+        } else {
+            throw PrologInstantiationError.error(environment, intTerm);
+        }
+    }
+
+    /**
+     * Z = X+Y, where at least two of the three are integers.
+     *
+     * @param environment Execution environment
+     * @param xTerm       X
+     * @param yTerm       Y
+     * @param zTerm       Z
+     */
+    @Predicate("plus")
+    public static void plus(Environment environment, Term xTerm, Term yTerm, Term zTerm) {
+        if (xTerm.isInstantiated() && yTerm.isInstantiated()) {
+            Unifier.unifyInteger(environment, zTerm,
+                    PrologInteger.from(xTerm).get().add(PrologInteger.from(yTerm).get()));
+        } else if (xTerm.isInstantiated() && zTerm.isInstantiated()) {
+            Unifier.unifyInteger(environment, yTerm,
+                    PrologInteger.from(zTerm).get().subtract(PrologInteger.from(xTerm).get()));
+        } else if (yTerm.isInstantiated() && zTerm.isInstantiated()) {
+            Unifier.unifyInteger(environment, xTerm,
+                    PrologInteger.from(zTerm).get().subtract(PrologInteger.from(yTerm).get()));
+        } else {
+            throw PrologInstantiationError.error(environment, xTerm.isInstantiated() ? yTerm : xTerm);
+        }
+    }
+
+    /**
+     * Upper bound of a range.
+     *
+     * @return bound, or null if unbounded
+     */
+    private static BigInteger upperBound(Environment environment, Term highTerm) {
+        if (highTerm.isAtom()) {
+            PrologAtomInterned atom = PrologAtomInterned.from(environment, highTerm);
+            if (atom == INF || atom == INFINITE) {
+                return null;
+            }
+            throw PrologTypeError.integerExpected(environment, highTerm);
+        }
+        return PrologInteger.from(highTerm).get();
+    }
+}
@@ -30,10 +30,13 @@ import org.jprolog.flags.WriteOptions;
 import org.jprolog.generators.YieldSolutions;
 import org.jprolog.io.FileReadWriteStreams;
 import org.jprolog.io.LogicalStream;
+import org.jprolog.io.MappedFileInputStream;
+import org.jprolog.io.PipeStreams;
 import org.jprolog.io.Position;
 import org.jprolog.io.PrologInputStream;
 import org.jprolog.io.PrologOutputStream;
 import org.jprolog.io.SequentialInputStream;
+import org.jprolog.io.SequentialOutputStream;
 import org.jprolog.unification.Unifier;
 
 import java.io.ByteArrayInputStream;
@@ -156,6 +159,36 @@ public final class Io {
         }
     }
 
+    /**
+     * Create an in-memory pipe, see {@link PipeStreams}. Text written to the write stream may be read from the read
+     * stream, typically by another thread. Read blocks until text is available, and end of file is seen after the write
+     * stream is closed. A write blocks while the pipe is full.
+     *
+     * @param environment Execution environment
+     * @param readIdent   Captures identifier of read stream
+     * @param writeIdent  Captures identifier of write stream
+     */
+    @Predicate("pipe")
+    public static void pipe(Environment environment, Term readIdent, Term writeIdent) {
+        PipeStreams pipe = new PipeStreams();
+        PrologInteger readId = LogicalStream.unique();
+        PrologInteger writeId = LogicalStream.unique();
+        LogicalStream readBinding = new LogicalStream(readId,
+                new SequentialInputStream(pipe.getInput()), null, StreamProperties.OpenMode.ATOM_read);
+        LogicalStream writeBinding = new LogicalStream(writeId,
+                null, new SequentialOutputStream(pipe.getOutput()), StreamProperties.OpenMode.ATOM_write);
+        for (LogicalStream binding : new LogicalStream[]{readBinding, writeBinding}) {
+            binding.setType(StreamProperties.Type.ATOM_text);
+            binding.setEncoding(StreamProperties.Encoding.ATOM_utf8);
+            binding.setEofAction(StreamProperties.EofAction.ATOM_eof_code);
+            binding.setIsTTY(false);
+            environment.addStream(binding.getId(), binding);
+        }
+        writeBinding.setBufferMode(StreamProperties.Buffering.ATOM_false); // reader sees each write
+        Unifier.unifyAtomic(environment, readIdent, readId);
+        Unifier.unifyAtomic(environment, writeIdent, writeId);
+    }
+
     /**
      * Change current input stream
      *
@@ -696,6 +729,33 @@ public final class Io {
         logicalStream.write(environment, null, term, options);
     }
 
+    /**
+     * Writes a term in binary form to specified binary output stream, to be read by fast_read/2.
+     *
+     * @param environment Execution environment
+     * @param streamIdent Stream to write to
+     * @param term        Term to write
+     */
+    @Predicate("fast_write")
+    public static void fastWrite(Environment environment, Term streamIdent, Term term) {
+        LogicalStream logicalStream = lookupStream(environment, streamIdent);
+        logicalStream.writeBinaryTerm(environment, (Atomic) streamIdent, term);
+    }
+
+    /**
+     * Reads a term written by fast_write/2 from specified binary input stream
+     *
+     * @param environment Execution environment
+     * @param streamIdent Stream to read from
+     * @param term        Receives read term (or end_of_file)
+     */
+    @Predicate("fast_read")
+    public static void fastRead(Environment environment, Term streamIdent, Term term) {
+        LogicalStream logicalStream = lookupStream(environment, streamIdent);
+        Term value = logicalStream.readBinaryTerm(environment, (Atomic) streamIdent);
+        Unifier.unifyTerm(environment, term, value);
+    }
+
     /**
      * Writes a term to specified output stream
      *
@@ -949,16 +1009,35 @@ public final class Io {
             aliasName = PrologAtomInterned.from(environment, streamTarget);
         }
 
+        if (options.map && mode != OPEN_READ) {
+            throw PrologPermissionError.error(environment,
+                    OPEN_ACTION, Interned.SOURCE_SINK_DOMAIN, fileName, "Only a file opened for read can be mapped");
+        }
+
         LogicalStream binding;
-        FileReadWriteStreams fileStream;
+        PrologInputStream input = null;
+        PrologOutputStream output = null;
 
         try {
-            fileStream = new FileReadWriteStreams(FileChannel.open(path, ops));
+            FileChannel channel = FileChannel.open(path, ops);
+            if (options.map) {
+                try {
+                    input = new MappedFileInputStream(channel);
+                } catch (IOException ioe) {
+                    channel.close();
+                    throw ioe;
+                }
+            } else {
+                FileReadWriteStreams fileStream = new FileReadWriteStreams(channel, options.bufferSize);
+                if (mode == OPEN_READ) {
+                    input = fileStream;
+                } else {
+                    output = fileStream;
+                }
+            }
         } catch (IOException ioe) {
             throw openError(ioe, environment, fileName);
         }
-        PrologInputStream input = mode == OPEN_READ ? fileStream : null;
-        PrologOutputStream output = mode != OPEN_READ ? fileStream : null;
         PrologInteger id = LogicalStream.unique();
         if (aliasName == null) {
             Unifier.unifyAtomic(environment, streamTarget, id);
@@ -14,21 +14,30 @@ public final class Library extends LibraryBase {
         // List of classes to consult
         consult(Apply.class);
         consult(Arithmetic.class);
+        consult(Assoc.class);
         consult(AtomsAndStrings.class);
         consult(Collation.class);
+        consult(Concurrent.class);
         consult(CompareImpl.class);
         consult(Consult.class);
         consult(Control.class);
         consult(Conversions.class);
+        consult(Csv.class);
         consult(Debug.class);
         consult(Dictionary.class);
         consult(Flags.class);
+        consult(Format.class);
+        consult(Integers.class);
         consult(Io.class);
         consult(Lists.class);
+        consult(LoadFacts.class);
         consult(Option.class);
         consult(ParsingControl.class);
+        consult(Profile.class);
+        consult(Statistics.class);
         consult(SystemControl.class);
         consult(Terms.class);
+        consult(Threads.class);
         consult(ThrowCatch.class);
         consult(Time.class);
         consult(Unify.class);
@@ -3,10 +3,15 @@
 //
 package org.jprolog.library;
 
+import org.jprolog.bootstrap.Builtins;
+import org.jprolog.bootstrap.DemandLoad;
+import org.jprolog.bootstrap.Interned;
 import org.jprolog.bootstrap.Predicate;
 import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomLike;
 import org.jprolog.constants.PrologInteger;
 import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologExistenceError;
 import org.jprolog.exceptions.PrologInstantiationError;
 import org.jprolog.exceptions.PrologTypeError;
 import org.jprolog.execution.Environment;
@@ -17,13 +22,16 @@ import org.jprolog.expressions.Term;
 import org.jprolog.expressions.TermList;
 import org.jprolog.expressions.WorkingTermList;
 import org.jprolog.generators.YieldSolutions;
+import org.jprolog.predicates.Predication;
 import org.jprolog.unification.Unifier;
 import org.jprolog.unification.UnifyBuilder;
 import org.jprolog.variables.LabeledVariable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * File is referenced by {@link Library} to parse all annotations.
@@ -34,6 +42,20 @@ public final class Lists {
         // Static methods/fields only
     }
 
+    /**
+     * Lists at or above this size are sorted using a parallel sort.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 100000;
+
+    /**
+     * List of predicates defined by the resource "sort.pl". These require calling back into Prolog
+     * for each comparison.
+     */
+    @DemandLoad("sort.pl")
+    public static Predication[] sort = {
+            Builtins.predicate("predsort", 3)
+    };
+
     /**
      * Unifies between a compound term and a list. This may result in the compound term being
      * instantiated, the list being instantiated, or both updating each other.
@@ -126,6 +148,32 @@ public final class Lists {
         }
     }
 
+    /**
+     * List is [Low, Low+1, ... High]. Fails if High is less than Low.
+     *
+     * @param environment Execution environment
+     * @param lowTerm     Low bound, inclusive
+     * @param highTerm    High bound, inclusive
+     * @param listTerm    List of integers
+     */
+    @Predicate("numlist")
+    public static void numlist(Environment environment, Term lowTerm, Term highTerm, Term listTerm) {
+        long low = PrologInteger.from(lowTerm).toLong();
+        long high = PrologInteger.from(highTerm).toLong();
+        if (high < low) {
+            environment.backtrack();
+            return;
+        }
+        if (high - low >= Integer.MAX_VALUE) {
+            throw PrologDomainError.range(environment, low, low + Integer.MAX_VALUE - 1, highTerm);
+        }
+        Term[] members = new Term[(int) (high - low + 1)];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = PrologInteger.from(low + i);
+        }
+        Unifier.unifyTerm(environment, listTerm, TermList.from(Arrays.asList(members)).toTerm());
+    }
+
     /**
      * Determine if a term is a member of a list
      *
@@ -142,10 +190,166 @@ public final class Lists {
                 thisElement.instantiate(element) || memberUnifier.unify(context, thisElement));
     }
 
+    /**
+     * Sort list into standard order of terms, removing duplicates.
+     *
+     * @param environment Execution environment
+     * @param list        List to sort
+     * @param sorted      Sorted list
+     */
+    @Predicate("sort")
+    public static void sort(Environment environment, Term list, Term sorted) {
+        Term[] members = sortedMembers(list, Term::compareTo, true);
+        Unifier.unifyTerm(environment, sorted, TermList.from(Arrays.asList(members)).toTerm());
+    }
+
+    /**
+     * Sort list into standard order of terms, retaining duplicates.
+     *
+     * @param environment Execution environment
+     * @param list        List to sort
+     * @param sorted      Sorted list
+     */
+    @Predicate("msort")
+    public static void msort(Environment environment, Term list, Term sorted) {
+        Term[] members = sortedMembers(list, Term::compareTo, false);
+        Unifier.unifyTerm(environment, sorted, TermList.from(Arrays.asList(members)).toTerm());
+    }
+
+    /**
+     * Stable sort of a list of Key-Value pairs by Key.
+     *
+     * @param environment Execution environment
+     * @param list        List of pairs to sort
+     * @param sorted      Sorted list
+     */
+    @Predicate("keysort")
+    public static void keysort(Environment environment, Term list, Term sorted) {
+        Term[] members = TermList.extractList(list).toArray(new Term[0]);
+        for (Term member : members) {
+            Term pair = member.value();
+            if (!pair.isInstantiated()) {
+                throw PrologInstantiationError.error(environment, pair);
+            }
+            if (!CompoundTerm.termIsA(pair, Interned.MINUS_ATOM, 2)) {
+                throw PrologTypeError.error(environment, Interned.PAIR_TYPE, pair);
+            }
+        }
+        sortMembers(members, Comparator.comparing(t -> ((CompoundTerm) t.value()).get(0)));
+        Unifier.unifyTerm(environment, sorted, TermList.from(Arrays.asList(members)).toTerm());
+    }
+
+    /**
+     * Sort list on a key with specified order. Key 0 sorts on the whole term, otherwise on the given argument of
+     * each (compound) member. Order is one of @&lt; or @&gt; (remove duplicate keys) or @=&lt; or @&gt;= (stable,
+     * retaining duplicates).
+     *
+     * @param environment Execution environment
+     * @param keyTerm     Key (argument index) to sort on
+     * @param orderTerm   Sort order
+     * @param list        List to sort
+     * @param sorted      Sorted list
+     */
+    @Predicate("sort")
+    public static void sort(Environment environment, Term keyTerm, Term orderTerm, Term list, Term sorted) {
+        if (!orderTerm.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, orderTerm);
+        }
+        if (!orderTerm.isAtom()) {
+            throw PrologTypeError.atomExpected(environment, orderTerm);
+        }
+        String order = ((PrologAtomLike) orderTerm.value()).name();
+        boolean dedupe;
+        boolean descending;
+        switch (order) {
+            case "@<":
+                dedupe = true;
+                descending = false;
+                break;
+            case "@=<":
+                dedupe = false;
+                descending = false;
+                break;
+            case "@>":
+                dedupe = true;
+                descending = true;
+                break;
+            case "@>=":
+                dedupe = false;
+                descending = true;
+                break;
+            default:
+                throw PrologDomainError.error(environment, "order", orderTerm);
+        }
+        int key = PrologInteger.from(keyTerm).notLessThanZero().toInteger();
+        Function<Term, Term> keyOf;
+        if (key == 0) {
+            keyOf = Term::value;
+        } else {
+            for (Term member : TermList.extractList(list)) {
+                Term value = member.value();
+                if (!value.isInstantiated()) {
+                    throw PrologInstantiationError.error(environment, value);
+                }
+                if (!(value instanceof CompoundTerm)) {
+                    throw PrologTypeError.compoundExpected(environment, value);
+                }
+                if (((CompoundTerm) value).arity() < key) {
+                    throw PrologExistenceError.error(environment, environment.internAtom("key"), keyTerm,
+                            String.format("Key %d does not exist", key), null);
+                }
+            }
+            keyOf = t -> ((CompoundTerm) t.value()).get(key - 1);
+        }
+        Comparator<Term> comparator = Comparator.comparing(keyOf);
+        if (descending) {
+            comparator = comparator.reversed();
+        }
+        Term[] members = sortedMembers(list, comparator, dedupe);
+        Unifier.unifyTerm(environment, sorted, TermList.from(Arrays.asList(members)).toTerm());
+    }
+
     // ====================================================================
     // Helper methods
     // ====================================================================
 
+    /**
+     * Extract and sort members of a list, optionally removing adjacent duplicates in the same pass.
+     *
+     * @param list       List to sort
+     * @param comparator Comparator to sort with
+     * @param dedupe     true to remove members that compare equal to their predecessor
+     * @return sorted members
+     */
+    private static Term[] sortedMembers(Term list, Comparator<Term> comparator, boolean dedupe) {
+        Term[] members = TermList.extractList(list).toArray(new Term[0]);
+        sortMembers(members, comparator);
+        if (!dedupe || members.length < 2) {
+            return members;
+        }
+        int n = 1;
+        for (int i = 1; i < members.length; i++) {
+            if (comparator.compare(members[n - 1], members[i]) != 0) {
+                members[n++] = members[i];
+            }
+        }
+        return n == members.length ? members : Arrays.copyOf(members, n);
+    }
+
+    /**
+     * Stable sort of an array of terms. Large arrays are sorted in parallel.
+     *
+     * @param members    Array to sort in place
+     * @param comparator Comparator to sort with
+     */
+    private static void sortMembers(Term[] members, Comparator<Term> comparator) {
+        if (members.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(members, comparator);
+        } else {
+            Arrays.sort(members, comparator);
+        }
+    }
+
     /**
      * Utility to calculate length of list
      *
@@ -0,0 +1,242 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.DefaultIoBinding;
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.exceptions.FuturePrologError;
+import org.jprolog.exceptions.FutureSyntaxError;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.exceptions.PrologExistenceError;
+import org.jprolog.exceptions.PrologPermissionError;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
+import org.jprolog.flags.LoadFactsOptions;
+import org.jprolog.parser.FactParser;
+import org.jprolog.predicates.ClauseEntry;
+import org.jprolog.predicates.ClauseSearchPredicate;
+import org.jprolog.predicates.Predication;
+import org.jprolog.unification.UnifyBuilder;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Bulk loading of fact-only files. Facts are parsed by {@link FactParser} rather than read/1, the file is split into
+ * chunks on line boundaries, and each chunk is parsed by a pool of threads. Facts are then added to the dictionary in
+ * file order on the Prolog thread, by default into a compact {@link org.jprolog.predicates.FactTable}.
+ */
+public final class LoadFacts {
+    private LoadFacts() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Size of each chunk of file handed to a parsing thread.
+     */
+    private static final int CHUNK_SIZE = 4 << 20;
+    /**
+     * Longest line that may cross the end of a chunk.
+     */
+    private static final int MAX_LINE = 1 << 20;
+
+    /**
+     * Load facts from a file, appending them to (dynamic) predicates. Options are format(prolog|csv|tsv), default
+     * determined from file extension, functor(F) for csv/tsv rows (default row), header(Bool) to skip the first line,
+     * threads(N), table(Bool) to store facts as clauses rather than a fact table, and silent(Bool) to suppress
+     * reporting of rows loaded per second to user_error.
+     *
+     * @param environment Execution environment
+     * @param fileName    File to load
+     * @param options     Load options
+     */
+    @Predicate("load_facts")
+    public static void loadFacts(Environment environment, Term fileName, Term options) {
+        LoadFactsOptions loadOptions = new LoadFactsOptions(environment, options);
+        Path path = Io.parsePathWithCWD(environment, fileName);
+        LoadFactsOptions.Format format = loadOptions.format.orElseGet(() -> formatOf(path));
+        PrologAtomInterned functor = PrologAtomInterned.from(environment, loadOptions.functor);
+        Environment.Shared shared = environment.getShared();
+        ConcurrentHashMap<String, PrologAtomInterned> atoms = new ConcurrentHashMap<>();
+        long startTime = System.nanoTime();
+        long rows = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, loadOptions.threads), r -> {
+            Thread thread = new Thread(r, "Prolog load_facts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Future<List<CompoundTerm>>> chunks = new ArrayList<>();
+            for (long start = 0; start < size; start += CHUNK_SIZE) {
+                final long chunkStart = start;
+                chunks.add(executor.submit(() -> {
+                    // workers intern concurrently with each other and with other Prolog threads, the shared atom
+                    // table is only modified under its lock (see Environment.Shared#internAtom), the per-load map
+                    // avoids taking that lock again for a name already seen
+                    FactParser parser = new FactParser(
+                            name -> atoms.computeIfAbsent(name, shared::internAtom), format, functor);
+                    return parseChunk(channel, size, chunkStart, loadOptions.header && chunkStart == 0, parser);
+                }));
+            }
+            Predication.Interned lastPredication = null;
+            ClauseSearchPredicate dictionaryEntry = null;
+            for (Future<List<CompoundTerm>> chunk : chunks) {
+                for (CompoundTerm head : chunk.get()) {
+                    if (lastPredication == null ||
+                            lastPredication.functor() != head.functor() || lastPredication.arity() != head.arity()) {
+                        lastPredication = new Predication.Interned((PrologAtomInterned) head.functor(), head.arity());
+                        dictionaryEntry = dynamicEntry(environment, lastPredication);
+                    }
+                    if (loadOptions.table) {
+                        dictionaryEntry.addFact(head);
+                    } else {
+                        dictionaryEntry.addEnd(new ClauseEntry(head, Interned.TRUE_ATOM, UnifyBuilder.from(head)));
+                    }
+                    rows++;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            throw PrologExistenceError.error(environment,
+                    Interned.SOURCE_SINK_DOMAIN, fileName, "File not found", e);
+        } catch (IOException e) {
+            throw PrologPermissionError.error(environment,
+                    environment.internAtom("open"), Interned.SOURCE_SINK_DOMAIN, fileName, "Cannot read file", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FuturePrologError) {
+                throw ((FuturePrologError) cause).toError(environment);
+            }
+            throw PrologError.systemError(environment, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!loadOptions.silent) {
+            double seconds = Math.max(1, System.nanoTime() - startTime) / 1e9;
+            environment.lookupStream(DefaultIoBinding.USER_ERROR_STREAM).write(environment, null,
+                    String.format("%% %d rows loaded from %s in %.3f sec (%.0f rows/sec)\n",
+                            rows, path.getFileName(), seconds, rows / seconds));
+        }
+    }
+
+    /**
+     * Parse all lines that start within a chunk. A line that starts in the chunk is parsed to its end, even if it
+     * ends in the next chunk.
+     *
+     * @param channel    File channel
+     * @param size       Size of file
+     * @param start      Offset of chunk
+     * @param skipHeader true if first line is skipped
+     * @param parser     Parser for this thread
+     * @return facts in file order
+     * @throws IOException on IO error
+     */
+    private static List<CompoundTerm> parseChunk(FileChannel channel, long size, long start, boolean skipHeader,
+                                                FactParser parser) throws IOException {
+        // Map one byte before the chunk to determine if the chunk starts on a line boundary
+        long base = Math.max(0, start - 1);
+        long end = Math.min(size, start + CHUNK_SIZE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, base,
+                Math.min(size, end + MAX_LINE) - base);
+        int limit = buffer.limit();
+        int chunkEnd = (int) (end - base);
+        int pos = 0;
+        if (start > 0) {
+            // skip remainder of line owned by previous chunk
+            while (pos < limit && buffer.get(pos++) != '\n') {
+                // skip
+            }
+        } else if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB &&
+                buffer.get(2) == (byte) 0xBF) {
+            pos = 3; // UTF-8 BOM
+        }
+        List<CompoundTerm> facts = new ArrayList<>();
+        byte[] bytes = new byte[256];
+        while (pos < chunkEnd) {
+            int eol = pos;
+            while (eol < limit && buffer.get(eol) != '\n') {
+                eol++;
+            }
+            if (eol == limit && base + limit < size) {
+                throw new FutureSyntaxError("invalid_fact",
+                        String.format("Line longer than %d bytes at byte offset %d", MAX_LINE, base + pos));
+            }
+            int len = eol - pos;
+            if (len > 0 && buffer.get(eol - 1) == '\r') {
+                len--;
+            }
+            if (bytes.length < len) {
+                bytes = new byte[Math.max(len, bytes.length * 2)];
+            }
+            buffer.position(pos);
+            buffer.get(bytes, 0, len);
+            if (skipHeader) {
+                skipHeader = false;
+            } else {
+                CompoundTerm head = parser.parse(new String(bytes, 0, len, StandardCharsets.UTF_8));
+                if (head != null) {
+                    facts.add(head);
+                }
+            }
+            pos = eol + 1;
+        }
+        return facts;
+    }
+
+    /**
+     * Retrieve predicate that facts are added to. As with assertz/1, the predicate becomes dynamic.
+     *
+     * @param environment Execution environment
+     * @param predication Predicate of fact
+     * @return dictionary entry
+     */
+    private static ClauseSearchPredicate dynamicEntry(Environment environment, Predication.Interned predication) {
+        ClauseSearchPredicate dictionaryEntry = environment.createDictionaryEntry(predication);
+        if (!dictionaryEntry.isDynamic()) {
+            if (dictionaryEntry.isCurrentPredicate()) {
+                throw PrologPermissionError.error(environment, Interned.MODIFY_ACTION, Interned.STATIC_PROCEDURE_TYPE,
+                        predication.term(),
+                        "The predicate " + predication.toString() + " is a static procedure");
+            }
+            dictionaryEntry.setDynamic(true);
+        }
+        return dictionaryEntry;
+    }
+
+    /**
+     * Default format of a file based on its extension.
+     *
+     * @param path File path
+     * @return format
+     */
+    private static LoadFactsOptions.Format formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return LoadFactsOptions.Format.ATOM_csv;
+        } else if (name.endsWith(".tsv")) {
+            return LoadFactsOptions.Format.ATOM_tsv;
+        } else {
+            return LoadFactsOptions.Format.ATOM_prolog;
+        }
+    }
+}
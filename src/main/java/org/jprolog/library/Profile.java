@@ -0,0 +1,152 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Builtins;
+import org.jprolog.bootstrap.DemandLoad;
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologEmptyList;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.debugging.Profiler;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.flags.ProfileOptions;
+import org.jprolog.io.LogicalStream;
+import org.jprolog.predicates.Predication;
+import org.jprolog.unification.Unifier;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Profiling predicates, see {@link Profiler}.
+ */
+public final class Profile {
+    private Profile() {
+        // Static methods/fields only
+    }
+
+    private static final PrologAtomInterned PROFILE_FUNCTOR = Interned.internAtom("profile");
+
+    /**
+     * List of predicates defined by the resource "profile.pl".
+     */
+    @DemandLoad("profile.pl")
+    public static Predication[] profile = {
+            Builtins.predicate("profile", 1),
+            Builtins.predicate("profile", 2)
+    };
+
+    /**
+     * Begin profiling, replacing any active profiler.
+     *
+     * @param environment Execution environment
+     * @param options     Profile options
+     */
+    @Predicate("$profile_start")
+    public static void profileStart(Environment environment, Term options) {
+        ProfileOptions profileOptions = new ProfileOptions(environment, options);
+        environment.setProfiler(new Profiler(environment, Math.max(1, profileOptions.sampleRate)));
+    }
+
+    /**
+     * End profiling, retaining profile for reporting.
+     *
+     * @param environment Execution environment
+     */
+    @Predicate("$profile_stop")
+    public static void profileStop(Environment environment) {
+        environment.setProfiler(null);
+    }
+
+    /**
+     * Retrieve most recent profile as a list of terms profile(Name/Arity, Call, Redo, Exit, Fail, Self, Total), where
+     * Self and Total are sample counts. Empty if there is no profile.
+     *
+     * @param environment Execution environment
+     * @param data        Unified with profile data
+     */
+    @Predicate("profile_data")
+    public static void profileData(Environment environment, Term data) {
+        Profiler profiler = environment.getLastProfile();
+        List<Term> items = new ArrayList<>();
+        if (profiler != null) {
+            for (Profiler.Entry entry : profiler.getEntries()) {
+                items.add(new CompoundTermImpl(PROFILE_FUNCTOR,
+                        entry.getPredication().term(),
+                        PrologInteger.from(entry.getCalls()),
+                        PrologInteger.from(entry.getRedos()),
+                        PrologInteger.from(entry.getExits()),
+                        PrologInteger.from(entry.getFails()),
+                        PrologInteger.from(entry.getSelfSamples()),
+                        PrologInteger.from(entry.getInclusiveSamples())));
+            }
+        }
+        Unifier.unifyTerm(environment, data, TermList.from(items).toTerm());
+    }
+
+    /**
+     * Report most recent profile to current output.
+     *
+     * @param environment Execution environment
+     */
+    @Predicate("show_profile")
+    public static void showProfile(Environment environment) {
+        showProfile(environment, PrologEmptyList.EMPTY_LIST);
+    }
+
+    /**
+     * Report most recent profile to current output. Options are top(N), cumulative(Bool) to order by inclusive
+     * time, and collapsed(Bool) to write one line per sampled stack, as consumed by flame graph tools.
+     *
+     * @param environment Execution environment
+     * @param options     Report options
+     */
+    @Predicate("show_profile")
+    public static void showProfile(Environment environment, Term options) {
+        ProfileOptions profileOptions = new ProfileOptions(environment, options);
+        Profiler profiler = environment.getLastProfile();
+        LogicalStream output = environment.getOutputStream();
+        if (profiler == null) {
+            output.write(environment, null, "No profile data.\n");
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (profileOptions.collapsed) {
+            for (Map.Entry<String, Long> stack : profiler.getCollapsedStacks().entrySet()) {
+                builder.append(stack.getKey()).append(' ').append(stack.getValue()).append('\n');
+            }
+            output.write(environment, null, builder.toString());
+            return;
+        }
+        List<Profiler.Entry> entries = new ArrayList<>(profiler.getEntries());
+        Comparator<Profiler.Entry> order = profileOptions.cumulative ?
+                Comparator.comparingLong(Profiler.Entry::getInclusiveSamples) :
+                Comparator.comparingLong(Profiler.Entry::getSelfSamples);
+        entries.sort(order.thenComparingLong(Profiler.Entry::getCalls).reversed()
+                .thenComparing(e -> e.getPredication().toString()));
+        long total = Math.max(1, profiler.getTotalSamples());
+        builder.append(String.format("%d samples (%d ms interval) in %.3f sec\n",
+                profiler.getTotalSamples(), profiler.getIntervalMillis(), profiler.getElapsedMillis() / 1000.0));
+        builder.append(String.format("%-32s %10s %10s %10s %10s %7s %7s\n",
+                "Predicate", "Call", "Redo", "Exit", "Fail", "Self", "Total"));
+        int limit = Math.min(entries.size(), profileOptions.top);
+        for (int i = 0; i < limit; i++) {
+            Profiler.Entry entry = entries.get(i);
+            builder.append(String.format("%-32s %10d %10d %10d %10d %6.1f%% %6.1f%%\n",
+                    entry.getPredication().toString(),
+                    entry.getCalls(), entry.getRedos(), entry.getExits(), entry.getFails(),
+                    100.0 * entry.getSelfSamples() / total,
+                    100.0 * entry.getInclusiveSamples() / total));
+        }
+        output.write(environment, null, builder.toString());
+    }
+}
@@ -0,0 +1,128 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.PrologAtomLike;
+import org.jprolog.constants.PrologFloat;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.execution.EngineStatistics;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermList;
+import org.jprolog.unification.Unifier;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Provides statistics/2, reporting runtime counters maintained by {@link EngineStatistics}.
+ */
+public final class Statistics {
+    private Statistics() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Retrieve a runtime statistic. Times are in milliseconds unless noted. Keys are:
+     * runtime [CPU, CPU since last], cputime (seconds), walltime [Wall, Wall since last], inferences, backtracks,
+     * choicepoints (decision points created), trail (current depth of backtrack stack), trail_max (deepest backtrack
+     * stack), stack (depth of call stack), queries, query_cputime (seconds), query_walltime and query_inferences
+     * (since the current query started), atoms, heapused, memory [Used, Free] and garbage_collection
+     * [Count, Freed, Time], where Freed is always 0.
+     *
+     * @param environment Execution environment
+     * @param key         Statistic key
+     * @param value       Unified with value of statistic
+     */
+    @Predicate("statistics")
+    public static void statistics(Environment environment, Term key, Term value) {
+        if (!key.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, key);
+        }
+        if (!key.isAtom()) {
+            throw PrologTypeError.atomExpected(environment, key);
+        }
+        EngineStatistics stats = environment.getStatistics();
+        Runtime runtime = Runtime.getRuntime();
+        Term result;
+        switch (((PrologAtomLike) key.value()).name()) {
+            case "runtime": {
+                long now = stats.getCpuTimeMillis();
+                result = pair(now, stats.cpuTimeSinceLast(now));
+                break;
+            }
+            case "cputime":
+                result = new PrologFloat(stats.getCpuTimeMillis() / 1000.0);
+                break;
+            case "walltime": {
+                long now = stats.getWallTimeMillis();
+                result = pair(now, stats.wallTimeSinceLast(now));
+                break;
+            }
+            case "inferences":
+                result = PrologInteger.from(stats.getInferences());
+                break;
+            case "backtracks":
+                result = PrologInteger.from(stats.getBacktracks());
+                break;
+            case "choicepoints":
+                result = PrologInteger.from(stats.getChoicepoints());
+                break;
+            case "trail":
+                result = PrologInteger.from(stats.getBacktrackDepth());
+                break;
+            case "trail_max":
+                result = PrologInteger.from(stats.getBacktrackHighWater());
+                break;
+            case "stack":
+                result = PrologInteger.from(environment.getCallStack().count());
+                break;
+            case "queries":
+                result = PrologInteger.from(stats.getQueries());
+                break;
+            case "query_cputime":
+                result = new PrologFloat(stats.getQueryCpuTimeMillis() / 1000.0);
+                break;
+            case "query_walltime":
+                result = PrologInteger.from(stats.getQueryWallTimeMillis());
+                break;
+            case "query_inferences":
+                result = PrologInteger.from(stats.getQueryInferences());
+                break;
+            case "atoms":
+                result = PrologInteger.from(environment.getAtomCount());
+                break;
+            case "heapused":
+                result = PrologInteger.from(runtime.totalMemory() - runtime.freeMemory());
+                break;
+            case "memory":
+                result = pair(runtime.totalMemory() - runtime.freeMemory(), runtime.freeMemory());
+                break;
+            case "garbage_collection": {
+                long count = 0;
+                long time = 0;
+                for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                    count += Math.max(0, gc.getCollectionCount());
+                    time += Math.max(0, gc.getCollectionTime());
+                }
+                result = TermList.from(Arrays.asList(
+                        PrologInteger.from(count), PrologInteger.from(0), PrologInteger.from(time))).toTerm();
+                break;
+            }
+            default:
+                throw PrologDomainError.error(environment, "statistics_key", key);
+        }
+        Unifier.unifyTerm(environment, value, result);
+    }
+
+    private static Term pair(long first, long second) {
+        return TermList.from(Arrays.asList(PrologInteger.from(first), PrologInteger.from(second))).toTerm();
+    }
+}
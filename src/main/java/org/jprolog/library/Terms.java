@@ -7,17 +7,31 @@ import org.jprolog.bootstrap.Predicate;
 import org.jprolog.constants.Atomic;
 import org.jprolog.constants.PrologAtomLike;
 import org.jprolog.constants.PrologInteger;
+import org.jprolog.constants.PrologString;
 import org.jprolog.enumerators.CopyTerm;
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologError;
 import org.jprolog.exceptions.PrologInstantiationError;
 import org.jprolog.exceptions.PrologTypeError;
 import org.jprolog.execution.Environment;
 import org.jprolog.execution.LocalContext;
 import org.jprolog.expressions.CompoundTerm;
 import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Strings;
 import org.jprolog.expressions.Term;
+import org.jprolog.expressions.TermHash;
+import org.jprolog.io.TermCodec;
 import org.jprolog.unification.Unifier;
 import org.jprolog.variables.LabeledVariable;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 /**
  * File is referenced by {@link Library} to parse all annotations.
  * Bootstraps term manipulation predicates.
@@ -235,4 +249,116 @@ public class Terms {
         Term copy = source.enumTerm(new CopyTerm(environment)); // valid even if source is uninstantiated
         Unifier.unifyTerm(environment, target, copy);
     }
+
+    /**
+     * Convert between a term and its binary encoding (see {@link TermCodec}). The encoding is held in a string with
+     * one character (0-255) per byte. If the string is instantiated, it is decoded and unified with the term,
+     * otherwise the term is encoded.
+     *
+     * @param environment Execution environment
+     * @param term        Term to encode, or unified with decoded term
+     * @param binary      String holding encoding
+     */
+    @Predicate("term_to_binary")
+    public static void termToBinary(Environment environment, Term term, Term binary) {
+        if (binary.isInstantiated()) {
+            byte[] bytes = Strings.stringFromAnyString(binary).getBytes(StandardCharsets.ISO_8859_1);
+            Term decoded;
+            try {
+                decoded = TermCodec.fromBytes(environment, bytes);
+            } catch (IOException ioe) {
+                throw PrologDomainError.error(environment, "term_encoding", binary);
+            }
+            Unifier.unifyTerm(environment, term, decoded.resolve(environment.getLocalContext()));
+        } else {
+            String encoded = new String(term.toBinary(), StandardCharsets.ISO_8859_1);
+            Unifier.unifyTerm(environment, binary, new PrologString(encoded));
+        }
+    }
+
+    /**
+     * Structural hash of a term (see {@link TermHash}). If term is not ground, hash is left unbound.
+     *
+     * @param environment Execution environment
+     * @param term        Term to hash
+     * @param hash        Unified with hash
+     */
+    @Predicate("term_hash")
+    public static void termHash(Environment environment, Term term, Term hash) {
+        Integer value = TermHash.termHash(term, TermHash.UNLIMITED);
+        if (value != null) {
+            Unifier.unifyInteger(environment, hash, value);
+        }
+    }
+
+    /**
+     * Structural hash of a term, considering compound terms to given depth, and reduced to given range. If term is not
+     * ground to given depth, hash is left unbound.
+     *
+     * @param environment Execution environment
+     * @param term        Term to hash
+     * @param depthTerm   Depth, 1 considers only principal functor, -1 for no limit
+     * @param rangeTerm   Hash is less than range
+     * @param hash        Unified with hash
+     */
+    @Predicate("term_hash")
+    public static void termHash(Environment environment, Term term, Term depthTerm, Term rangeTerm, Term hash) {
+        int depth = PrologInteger.from(depthTerm).toInteger();
+        int range = PrologInteger.from(rangeTerm).toInteger();
+        if (depth < -1) {
+            throw PrologDomainError.error(environment, "not_less_than_minus_one", depthTerm);
+        }
+        if (range < 1) {
+            throw PrologDomainError.error(environment, "not_less_than_one", rangeTerm);
+        }
+        Integer value = TermHash.termHash(term, depth < 0 ? TermHash.UNLIMITED : depth);
+        if (value != null) {
+            Unifier.unifyInteger(environment, hash, value % range);
+        }
+    }
+
+    /**
+     * Hash of a term such that variants of the term have the same hash.
+     *
+     * @param environment Execution environment
+     * @param term        Term to hash
+     * @param hash        Unified with hash
+     */
+    @Predicate("variant_hash")
+    public static void variantHash(Environment environment, Term term, Term hash) {
+        Unifier.unifyInteger(environment, hash, TermHash.variantHash(term));
+    }
+
+    /**
+     * SHA-1 of the binary encoding of a term without variable names (see {@link TermCodec#encodeVariant}), such that
+     * variants of the term have the same hash, and distinct terms are practically certain to have distinct hashes.
+     *
+     * @param environment Execution environment
+     * @param term        Term to hash
+     * @param hash        Unified with hash, an atom of 40 hexadecimal digits
+     */
+    @Predicate("variant_sha1")
+    public static void variantSha1(Environment environment, Term term, Term hash) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+            OutputStream discard = new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+            TermCodec.encodeVariant(new DataOutputStream(new DigestOutputStream(discard, digest)), term);
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw PrologError.systemError(environment, e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        Unifier.unifyAtom(environment, hash, environment.internAtom(hex.toString()));
+    }
 }
@@ -0,0 +1,333 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.library;
+
+import org.jprolog.bootstrap.Builtins;
+import org.jprolog.bootstrap.DemandLoad;
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.bootstrap.Predicate;
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.cuts.CutPoint;
+import org.jprolog.enumerators.CopySimpleTerm;
+import org.jprolog.exceptions.PrologError;
+import org.jprolog.exceptions.PrologExistenceError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologPermissionError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.execution.Environment;
+import org.jprolog.execution.LocalContext;
+import org.jprolog.execution.MessageQueue;
+import org.jprolog.execution.PrologThread;
+import org.jprolog.expressions.CompoundTermImpl;
+import org.jprolog.expressions.Term;
+import org.jprolog.flags.MessageQueueOptions;
+import org.jprolog.flags.ThreadOptions;
+import org.jprolog.predicates.Predication;
+import org.jprolog.unification.Unifier;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File is referenced by {@link Library} to parse all annotations.
+ * Threads, message queues and mutexes, see {@link PrologThread}. Each thread has its own environment over the shared
+ * program. Terms are copied whenever they pass between threads, so no variable is shared between threads.
+ */
+public final class Threads {
+    private Threads() {
+        // Static methods/fields only
+    }
+
+    /**
+     * List of predicates defined by the resource "threads.pl".
+     */
+    @DemandLoad("threads.pl")
+    public static Predication[] threads = {
+            Builtins.predicate("with_mutex", 2)
+    };
+
+    /**
+     * Create a thread to solve goal once.
+     *
+     * @param environment Execution environment
+     * @param goal        Goal to solve, copied
+     * @param id          Unified with alias of thread if specified, else id of thread
+     * @param optionsTerm Options alias(A), detached(Bool), queue_max_size(N)
+     */
+    @Predicate("thread_create")
+    public static void threadCreate(Environment environment, Term goal, Term id, Term optionsTerm) {
+        if (!goal.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, goal);
+        }
+        ThreadOptions options = new ThreadOptions(environment, optionsTerm);
+        PrologAtomInterned alias = options.alias.map(a -> PrologAtomInterned.from(environment, a)).orElse(null);
+        PrologThread thread = environment.threads().create(environment, goal, alias, options.queueMaxSize,
+                options.detached);
+        if (thread == null) {
+            throw PrologPermissionError.error(environment, "create", "thread",
+                    new CompoundTermImpl(environment.internAtom("alias"), alias),
+                    "Alias is already in use");
+        }
+        Unifier.unifyTerm(environment, id, thread.handle());
+    }
+
+    /**
+     * Wait for a thread to complete, and unify its status, one of true, false, exception(E), or exited(Code).
+     *
+     * @param environment Execution environment
+     * @param id          Id or alias of thread
+     * @param status      Unified with status of thread
+     */
+    @Predicate("thread_join")
+    public static void threadJoin(Environment environment, Term id, Term status) {
+        PrologThread thread = environment.threads().lookupThread(environment, handle(environment, id));
+        if (thread == null) {
+            throw PrologExistenceError.error(environment, environment.internAtom("thread"), id,
+                    String.format("Thread %s not found", id), null);
+        }
+        if (thread.isMain() || thread.isDetached() || thread == environment.threads().self(environment)) {
+            throw PrologPermissionError.error(environment, "join", "thread", id,
+                    "Thread cannot be joined");
+        }
+        Term result;
+        try {
+            result = thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+        environment.threads().remove(thread);
+        Unifier.unifyTerm(environment, status, result.resolve(environment.getLocalContext()));
+    }
+
+    /**
+     * Unify with the current thread.
+     *
+     * @param environment Execution environment
+     * @param id          Unified with alias of thread if it has one, else id of thread
+     */
+    @Predicate("thread_self")
+    public static void threadSelf(Environment environment, Term id) {
+        Unifier.unifyTerm(environment, id, environment.threads().self(environment).handle());
+    }
+
+    /**
+     * Send a copy of a term to a message queue or thread, waiting while the queue is full.
+     *
+     * @param environment Execution environment
+     * @param queueTerm   Id or alias of queue or thread
+     * @param message     Message to copy
+     */
+    @Predicate("thread_send_message")
+    public static void threadSendMessage(Environment environment, Term queueTerm, Term message) {
+        MessageQueue queue = lookupQueue(environment, queueTerm);
+        Term copy = message.enumTerm(new CopySimpleTerm(environment));
+        boolean sent;
+        try {
+            sent = queue.send(copy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+        if (!sent) {
+            throw queueNotFound(environment, queueTerm);
+        }
+    }
+
+    /**
+     * Remove the first message from queue of current thread that unifies with pattern, waiting until one arrives.
+     *
+     * @param environment Execution environment
+     * @param pattern     Unified with message
+     */
+    @Predicate("thread_get_message")
+    public static void threadGetMessage(Environment environment, Term pattern) {
+        PrologThread self = environment.threads().self(environment);
+        receive(environment, self.getQueue(), self.handle(), pattern);
+    }
+
+    /**
+     * Remove the first message from queue that unifies with pattern, waiting until one arrives.
+     *
+     * @param environment Execution environment
+     * @param queueTerm   Id or alias of queue or thread
+     * @param pattern     Unified with message
+     */
+    @Predicate("thread_get_message")
+    public static void threadGetMessage(Environment environment, Term queueTerm, Term pattern) {
+        receive(environment, lookupQueue(environment, queueTerm), queueTerm, pattern);
+    }
+
+    /**
+     * Create a message queue.
+     *
+     * @param environment Execution environment
+     * @param queueTerm   Unified with id of queue
+     */
+    @Predicate("message_queue_create")
+    public static void messageQueueCreate(Environment environment, Term queueTerm) {
+        MessageQueue queue = environment.threads().createQueue(environment, null, MessageQueue.DEFAULT_MAX_SIZE);
+        Unifier.unifyTerm(environment, queueTerm, queue.handle());
+    }
+
+    /**
+     * Create a message queue with options.
+     *
+     * @param environment Execution environment
+     * @param queueTerm   Unified with alias of queue if specified, else id of queue
+     * @param optionsTerm Options alias(A), max_size(N)
+     */
+    @Predicate("message_queue_create")
+    public static void messageQueueCreate(Environment environment, Term queueTerm, Term optionsTerm) {
+        MessageQueueOptions options = new MessageQueueOptions(environment, optionsTerm);
+        PrologAtomInterned alias = options.alias.map(a -> PrologAtomInterned.from(environment, a)).orElse(null);
+        MessageQueue queue = environment.threads().createQueue(environment, alias, options.maxSize);
+        if (queue == null) {
+            throw PrologPermissionError.error(environment, "create", "message_queue",
+                    new CompoundTermImpl(environment.internAtom("alias"), alias),
+                    "Alias is already in use");
+        }
+        Unifier.unifyTerm(environment, queueTerm, queue.handle());
+    }
+
+    /**
+     * Destroy a message queue, any thread waiting on the queue raises an existence error.
+     *
+     * @param environment Execution environment
+     * @param queueTerm   Id or alias of queue
+     */
+    @Predicate("message_queue_destroy")
+    public static void messageQueueDestroy(Environment environment, Term queueTerm) {
+        MessageQueue queue = lookupQueue(environment, queueTerm);
+        if (environment.threads().isThreadQueue(queue)) {
+            throw PrologPermissionError.error(environment, "destroy", "message_queue", queueTerm,
+                    "Queue belongs to a thread");
+        }
+        environment.threads().destroyQueue(queue);
+    }
+
+    /**
+     * Acquire named mutex, waiting if held by another thread. Mutexes are recursive.
+     *
+     * @param environment Execution environment
+     * @param mutex       Name of mutex
+     */
+    @Predicate("$mutex_lock")
+    public static void mutexLock(Environment environment, Term mutex) {
+        try {
+            mutex(environment, mutex).lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+    }
+
+    /**
+     * Release named mutex, which must be held by this thread.
+     *
+     * @param environment Execution environment
+     * @param mutex       Name of mutex
+     */
+    @Predicate("$mutex_unlock")
+    public static void mutexUnlock(Environment environment, Term mutex) {
+        ReentrantLock lock = mutex(environment, mutex);
+        if (!lock.isHeldByCurrentThread()) {
+            throw PrologPermissionError.error(environment, "unlock", "mutex", mutex,
+                    "Mutex is not held by this thread");
+        }
+        lock.unlock();
+    }
+
+    private static ReentrantLock mutex(Environment environment, Term mutex) {
+        if (!mutex.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, mutex);
+        }
+        if (!mutex.isAtom()) {
+            throw PrologTypeError.atomExpected(environment, mutex);
+        }
+        return environment.threads().mutex(PrologAtomInterned.from(environment, mutex));
+    }
+
+    /**
+     * Receive a matching message and unify it with pattern.
+     */
+    private static void receive(Environment environment, MessageQueue queue, Term queueTerm, Term pattern) {
+        Term message;
+        try {
+            message = queue.receive(m -> matches(environment, pattern, m));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw PrologError.systemError(environment, e);
+        }
+        if (message == null) {
+            throw queueNotFound(environment, queueTerm);
+        }
+        Unifier.unifyTerm(environment, pattern, message.resolve(environment.getLocalContext()));
+    }
+
+    /**
+     * Test if pattern unifies with message, without binding any variable of pattern.
+     */
+    private static boolean matches(Environment environment, Term pattern, Term message) {
+        if (!pattern.isInstantiated() || !message.isInstantiated()) {
+            return true;
+        }
+        LocalContext context = environment.newLocalContext();
+        CutPoint cutPoint = environment.getCutPoint();
+        int depth = environment.getBacktrackDepth();
+        int trailDepth = environment.getTrailDepth();
+        // every binding must be recorded so that it can be undone
+        environment.setCutPoint(new CutPoint() {
+            @Override
+            public void cut() {
+            }
+
+            @Override
+            public boolean isDeterministic(long variableId) {
+                return false;
+            }
+
+            @Override
+            public long getWatermark() {
+                return cutPoint.getWatermark();
+            }
+        });
+        try {
+            return Unifier.unifyInternal(context, pattern, message.resolve(context));
+        } finally {
+            environment.trimBacktrackStackToDepth(depth, trailDepth);
+            environment.setCutPoint(cutPoint);
+        }
+    }
+
+    private static MessageQueue lookupQueue(Environment environment, Term queueTerm) {
+        MessageQueue queue = environment.threads().lookupQueue(environment, handle(environment, queueTerm));
+        if (queue == null) {
+            throw queueNotFound(environment, queueTerm);
+        }
+        return queue;
+    }
+
+    private static PrologError queueNotFound(Environment environment, Term queueTerm) {
+        return PrologExistenceError.error(environment, environment.internAtom("message_queue"), queueTerm,
+                String.format("Message queue %s not found", queueTerm), null);
+    }
+
+    /**
+     * Convert a thread or queue id or alias to a key.
+     */
+    private static Atomic handle(Environment environment, Term term) {
+        if (!term.isInstantiated()) {
+            throw PrologInstantiationError.error(environment, term);
+        }
+        if (term.isInteger()) {
+            return PrologInteger.from(term);
+        }
+        if (term.isAtom()) {
+            return PrologAtomInterned.from(environment, term);
+        }
+        throw PrologTypeError.error(environment, Interned.ATOMIC_TYPE, term);
+    }
+}
@@ -0,0 +1,42 @@
+% Author: Jamie Hunter, 2019
+% Refer to LICENSE.TXT for copyright and license information
+%
+% Concurrent evaluation of independent goals. Goals are solved natively by worker threads.
+%
+
+%
+% concurrent_findall/4
+% concurrent_findall(+Template, :Generator, :Goal, -Bag)
+% Same as findall(Template, (Generator, Goal), Bag), except that Goal is solved in parallel for each solution of
+% Generator.
+%
+
+concurrent_findall(Template, Generator, Goal, Bag) :-
+    findall(Template-Goal, Generator, Jobs),
+    '$concurrent_findall'(Jobs, Bag).
+
+%
+% concurrent_maplist/2
+% concurrent_maplist(:Goal, +List)
+%
+
+concurrent_maplist(Goal, List) :-
+    '$concurrent_maplist'(Goal, [List]).
+
+%
+% concurrent_maplist/3
+% concurrent_maplist(:Goal, ?List1, ?List2)
+%
+
+concurrent_maplist(Goal, List1, List2) :-
+    length(List1, N), length(List2, N), !,
+    '$concurrent_maplist'(Goal, [List1, List2]).
+
+%
+% concurrent_maplist/4
+% concurrent_maplist(:Goal, ?List1, ?List2, ?List3)
+%
+
+concurrent_maplist(Goal, List1, List2, List3) :-
+    length(List1, N), length(List2, N), length(List3, N), !,
+    '$concurrent_maplist'(Goal, [List1, List2, List3]).
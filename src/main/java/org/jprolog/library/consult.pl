@@ -179,4 +179,15 @@ include(File) :-
             )),
     close(Stream).
 
+% reload every file that was modified since it was loaded. Predicates are replaced once the file is loaded,
+% clauses that did not change are retained as is
+make :-
+    '$load_group_files'(Files),
+    '$make_files'(Files).
+
+'$make_files'([]).
+'$make_files'([F|T]) :-
+    once(load_files(F, [if(changed)])),
+    '$make_files'(T).
+
 % :- Make private ...
@@ -0,0 +1,24 @@
+% Author: Jamie Hunter, 2019
+% Refer to LICENSE.TXT for copyright and license information
+%
+% Formatted output. format/1,2,3 are implemented natively.
+%
+
+%
+% with_output_to/2
+% with_output_to(+Sink, :Goal)
+% Solve Goal once with current output captured, and unify captured text with Sink, one of atom(A), string(S),
+% codes(C) or chars(C). Current output is restored when Goal succeeds, fails, or throws an error.
+%
+
+with_output_to(Sink, Goal) :-
+    '$open_memory_output'(Stream),
+    current_output(Old),
+    set_output(Stream),
+    (   catch(Goal, Error, (set_output(Old), close(Stream), throw(Error)))
+    ->  set_output(Old),
+        '$close_memory_output'(Stream, Sink)
+    ;   set_output(Old),
+        close(Stream),
+        fail
+    ).
@@ -0,0 +1,24 @@
+% Author: Jamie Hunter, 2019
+% Refer to LICENSE.TXT for copyright and license information
+%
+% Profiling entry points. Sampling and reporting are implemented natively.
+%
+
+%
+% profile/1, profile/2
+% profile(:Goal, +Options)
+% Goal is executed as per once/1. Profile data is retained for show_profile/1.
+%
+
+profile(Goal) :-
+    profile(Goal, []).
+
+profile(Goal, Options) :-
+    '$profile_start'(Options),
+    catch(Goal, E, true),
+    !,
+    '$profile_stop',
+    (   nonvar(E) -> throw(E) ; true ).
+profile(_, _) :-
+    '$profile_stop',
+    fail.
@@ -0,0 +1,47 @@
+% Author: Jamie Hunter, 2019
+% Refer to LICENSE.TXT for copyright and license information
+%
+% Sort predicates that require calling back into Prolog for comparison.
+% Other sort predicates (sort/2, msort/2, sort/4, keysort/2) are implemented natively.
+%
+
+%
+% predsort/3
+% predsort(:Pred, +List, -Sorted)
+% Pred is called as call(Pred, Delta, A, B), where Delta is one of <, = or >.
+% Elements for which Delta is = are removed.
+%
+
+predsort(Pred, List, Sorted) :-
+    length(List, N),
+    '$predsort'(Pred, N, List, _, Sorted1),
+    !,
+    Sorted = Sorted1.
+
+'$predsort'(Pred, 2, [X1,X2|L], L, R) :-
+    !,
+    call(Pred, Delta, X1, X2),
+    '$predsort2'(Delta, X1, X2, R).
+'$predsort'(_, 1, [X|L], L, [X]) :- !.
+'$predsort'(_, 0, L, L, []) :- !.
+'$predsort'(Pred, N, L1, L3, R) :-
+    N1 is N // 2,
+    N2 is N - N1,
+    '$predsort'(Pred, N1, L1, L2, R1),
+    '$predsort'(Pred, N2, L2, L3, R2),
+    '$predmerge'(Pred, R1, R2, R).
+
+'$predsort2'(<, X1, X2, [X1,X2]).
+'$predsort2'(=, X1, _, [X1]).
+'$predsort2'(>, X1, X2, [X2,X1]).
+
+'$predmerge'(_, [], R, R) :- !.
+'$predmerge'(_, R, [], R) :- !.
+'$predmerge'(Pred, [H1|T1], [H2|T2], Result) :-
+    call(Pred, Delta, H1, H2),
+    !,
+    '$predmerge'(Delta, Pred, H1, H2, T1, T2, Result).
+
+'$predmerge'(<, Pred, H1, H2, T1, T2, [H1|R]) :- '$predmerge'(Pred, T1, [H2|T2], R).
+'$predmerge'(=, Pred, H1, _, T1, T2, [H1|R]) :- '$predmerge'(Pred, T1, T2, R).
+'$predmerge'(>, Pred, H1, H2, T1, T2, [H2|R]) :- '$predmerge'(Pred, [H1|T1], T2, R).
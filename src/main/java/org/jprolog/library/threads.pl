@@ -0,0 +1,21 @@
+% Author: Jamie Hunter, 2019
+% Refer to LICENSE.TXT for copyright and license information
+%
+% Thread synchronization. Threads and message queues are implemented natively.
+%
+
+%
+% with_mutex/2
+% with_mutex(+Mutex, :Goal)
+% Solve Goal once while holding Mutex. Mutex is released when Goal succeeds, fails, or throws an error. If the thread
+% is stopped, aborted or halts within Goal, the mutex is released when the thread (or worker) ends, or on abort (see
+% PrologThreads.releaseMutexes).
+%
+
+with_mutex(Mutex, Goal) :-
+    '$mutex_lock'(Mutex),
+    (   catch(Goal, Error, ('$mutex_unlock'(Mutex), throw(Error)))
+    ->  '$mutex_unlock'(Mutex)
+    ;   '$mutex_unlock'(Mutex),
+        fail
+    ).
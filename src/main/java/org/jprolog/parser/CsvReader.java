@@ -0,0 +1,219 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.parser;
+
+import org.jprolog.constants.Atomic;
+import org.jprolog.exceptions.FutureSyntaxError;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.flags.CsvOptions;
+import org.jprolog.flags.LoadFactsOptions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * Reader of csv/tsv data, one row at a time, see csv_read_stream/3. Decoded text is read in blocks into a buffer and
+ * columns are scanned directly from the buffer, so memory use is bounded by the longest row, not by the size of the
+ * data. A quoted column may contain separators and new lines, and a quote is escaped by doubling. Blank lines are
+ * skipped. Unquoted columns that are numbers are converted as by {@link FactParser}.
+ */
+public final class CsvReader {
+
+    private static final String ERROR_TYPE = "invalid_csv";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+
+    /**
+     * Source of decoded text, for example {@link org.jprolog.io.PrologInputStream} or {@link java.io.Reader}.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Read a block of text.
+         *
+         * @param buffer Target buffer
+         * @param off    Offset into buffer
+         * @param len    Maximum number of chars
+         * @return number of chars read, or negative at end of text
+         * @throws IOException on IO error
+         */
+        int read(char[] buffer, int off, int len) throws IOException;
+    }
+
+    private final Source source;
+    private final Function<String, ? extends Atomic> atoms;
+    private final FactParser converter;
+    private final Atomic functor;
+    private final int separator;
+    private final int quote;
+    private final boolean convert;
+    private final boolean strip;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final ArrayList<Atomic> columns = new ArrayList<>();
+    private final StringBuilder builder = new StringBuilder();
+    private int pos = 0;
+    private int limit = 0;
+    private boolean atEof = false;
+    private long line = 1;
+
+    /**
+     * Create a reader.
+     *
+     * @param source    Source of text
+     * @param atoms     Function to create an atom from a name
+     * @param functor   Functor of row terms
+     * @param separator Column separator
+     * @param options   Quote, conversion and strip options
+     */
+    public CsvReader(Source source, Function<String, ? extends Atomic> atoms, Atomic functor, int separator,
+                     CsvOptions options) {
+        this.source = source;
+        this.atoms = atoms;
+        this.converter = new FactParser(atoms, LoadFactsOptions.Format.ATOM_csv, functor);
+        this.functor = functor;
+        this.separator = separator;
+        this.quote = options.quote;
+        this.convert = options.convert;
+        this.strip = options.strip;
+    }
+
+    /**
+     * Read next row.
+     *
+     * @return row term, or null at end of text
+     * @throws IOException on IO error
+     */
+    public CompoundTerm next() throws IOException {
+        int c;
+        while ((c = peek()) == '\n' || c == '\r') {
+            skipNewLine();
+        }
+        if (c == EOF) {
+            return null;
+        }
+        columns.clear();
+        for (; ; ) {
+            columns.add(parseColumn());
+            c = peek();
+            if (c == separator) {
+                pos++;
+            } else {
+                skipNewLine();
+                return CompoundTerm.from(functor, columns.toArray(new Atomic[0]));
+            }
+        }
+    }
+
+    /**
+     * Parse a column, leaving the separator or line terminator unconsumed.
+     */
+    private Atomic parseColumn() throws IOException {
+        if (strip) {
+            skipBlanks();
+        }
+        if (peek() == quote) {
+            pos++;
+            String text = parseQuoted();
+            if (strip) {
+                skipBlanks();
+            }
+            int c = peek();
+            if (c != separator && c != '\n' && c != '\r' && c != EOF) {
+                throw error("Expected separator after quoted column");
+            }
+            return atoms.apply(text);
+        }
+        builder.setLength(0);
+        for (; ; ) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == separator || c == '\n' || c == '\r') {
+                    break;
+                }
+                pos++;
+            }
+            builder.append(buffer, start, pos - start);
+            if (pos < limit || peek() == EOF) {
+                break;
+            }
+        }
+        String text = strip ? builder.toString().trim() : builder.toString();
+        return convert ? converter.column(text) : atoms.apply(text);
+    }
+
+    /**
+     * Parse remainder of a quoted column.
+     */
+    private String parseQuoted() throws IOException {
+        builder.setLength(0);
+        for (; ; ) {
+            int start = pos;
+            while (pos < limit && buffer[pos] != quote) {
+                if (buffer[pos] == '\n') {
+                    line++;
+                }
+                pos++;
+            }
+            builder.append(buffer, start, pos - start);
+            if (pos < limit) {
+                pos++; // quote
+                if (peek() != quote) {
+                    return builder.toString();
+                }
+                builder.append((char) quote);
+                pos++;
+            } else if (peek() == EOF) {
+                throw error("Unterminated quoted column");
+            }
+        }
+    }
+
+    private void skipBlanks() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t') {
+            if (c == separator) {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void skipNewLine() throws IOException {
+        int c = peek();
+        if (c == '\r') {
+            pos++;
+            c = peek();
+        }
+        if (c == '\n') {
+            pos++;
+        }
+        line++;
+    }
+
+    /**
+     * @return next char without consuming it, or EOF
+     */
+    private int peek() throws IOException {
+        while (pos >= limit) {
+            if (atEof) {
+                return EOF;
+            }
+            int n = source.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (n < 0) {
+                limit = 0;
+                atEof = true;
+            } else {
+                limit = n;
+            }
+        }
+        return buffer[pos];
+    }
+
+    private FutureSyntaxError error(String message) {
+        return new FutureSyntaxError(ERROR_TYPE, message + " at line " + line);
+    }
+}
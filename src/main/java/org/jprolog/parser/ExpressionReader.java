@@ -57,6 +57,47 @@ public final class ExpressionReader {
         OPERATOR
     }
 
+    /**
+     * What an expression is nested within
+     */
+    private enum Nesting {
+        SENTENCE,
+        STRUCTURE,
+        BRACKETS,
+        BRACES,
+        LIST
+    }
+
+    /**
+     * An expression being parsed, chained to the expression it is nested within.
+     */
+    private final class Frame {
+        final Frame outer;
+        final Nesting nesting;
+        final Atomic functor;
+        final PrologAtomLike terminal;
+        final BooleanSupplier confirmTerminal;
+        final boolean assumedAtEoF;
+        final State oldState;
+
+        Frame(Frame outer, Nesting nesting, Atomic functor, PrologAtomLike terminal) {
+            this(outer, nesting, functor, terminal, () -> true, false);
+        }
+
+        Frame(Frame outer, Nesting nesting, Atomic functor, PrologAtomLike terminal, BooleanSupplier confirmTerminal,
+              boolean assumedAtEoF) {
+            this.outer = outer;
+            this.nesting = nesting;
+            this.functor = functor;
+            this.terminal = terminal;
+            this.confirmTerminal = confirmTerminal;
+            this.assumedAtEoF = assumedAtEoF;
+            this.oldState = state;
+            operators.push(OperatorEntry.TERMINAL); // adds a guard for handleEnd
+            state = State.ARG_OR_PREFIX;
+        }
+    }
+
     /**
      * Create new expression reader. This may be used to read multiple sentences.
      *
@@ -75,8 +116,13 @@ public final class ExpressionReader {
      */
     public Term read() {
         boolean assumedAtEof = options.fullStop == ReadOptions.FullStop.ATOM_optional;
-        Term t = read(Interned.DOT, () -> !tokenizer.isNext('('), tokenizer.nextToken(), assumedAtEof);
-        tokenizer.skipEOLN();
+        Term t;
+        try {
+            t = read(Interned.DOT, () -> !tokenizer.isNext('('), tokenizer.nextToken(), assumedAtEof);
+            tokenizer.skipEOLN();
+        } finally {
+            tokenizer.release();
+        }
         // simplify the term. There should be no active variables, but applies enumeration at least once which
         // resolves containers.
         Term reduced = t.enumTerm(new SimplifyTerm(environment));
@@ -118,7 +164,9 @@ public final class ExpressionReader {
 
     /**
      * Read and parse a term expression. Terminal term is specified, and depends on context. This version
-     * is called if initial token is known.
+     * is called if initial token is known. Nested expressions ('(' ... ')', '[' ... ']', '{' ... '}' and arguments of
+     * a structure) are parsed using a chain of {@link Frame}s rather than recursion, so that deeply nested terms, such
+     * as a long list written in '[|]'(H, T) form, do not overflow the Java stack.
      *
      * @param terminal        Atom that indicates end of parse
      * @param confirmTerminal Called to make sure terminal really is a terminal
@@ -127,42 +175,82 @@ public final class ExpressionReader {
      * @return Resulting term of expression
      */
     private Term read(PrologAtomLike terminal, BooleanSupplier confirmTerminal, Term initialToken, boolean assumedAtEoF) {
-        operators.push(OperatorEntry.TERMINAL); // adds a guard for handleEnd
-        State oldState = state;
+        State initialState = state;
+        Frame frame = new Frame(null, Nesting.SENTENCE, null, terminal, confirmTerminal, assumedAtEoF);
         try {
-            state = State.ARG_OR_PREFIX;
-            for (Term token = initialToken; token != PrologEOF.EOF; token = tokenizer.nextToken()) {
-                if (is(token, Interned.OPEN_BRACKET)) {
+            Term token = initialToken;
+            for (; ; ) {
+                Term result;
+                if (token == PrologEOF.EOF) {
+                    result = handleEof(frame); // EOF is left for the enclosing expression
+                } else if (is(token, frame.terminal) && frame.confirmTerminal.getAsBoolean()) {
+                    result = handleEnd(frame.terminal);
+                    token = null;
+                } else if (is(token, Interned.OPEN_BRACKET)) {
                     if (state == State.OPERATOR) {
-                        handleStructure();
+                        frame = new Frame(frame, Nesting.STRUCTURE, structureFunctor(), Interned.CLOSE_BRACKET);
                     } else {
-                        handleBracketTerm();
+                        frame = new Frame(frame, Nesting.BRACKETS, null, Interned.CLOSE_BRACKET);
                     }
+                    token = tokenizer.nextToken();
+                    continue;
                 } else if (is(token, Interned.OPEN_SQUARE_BRACKET)) {
-                    handleList();
+                    token = tokenizer.nextToken();
+                    if (is(token, Interned.CLOSE_SQUARE_BRACKET)) {
+                        handleTerm(PrologEmptyList.EMPTY_LIST, false);
+                        token = tokenizer.nextToken();
+                    } else {
+                        frame = new Frame(frame, Nesting.LIST, null, Interned.CLOSE_SQUARE_BRACKET);
+                    }
+                    continue;
                 } else if (is(token, Interned.OPEN_BRACES)) {
-                    handleBracesTerm();
-                } else if (is(token, terminal) && confirmTerminal.getAsBoolean()) {
-                    return handleEnd(terminal);
+                    token = tokenizer.nextToken();
+                    if (is(token, Interned.CLOSE_BRACES)) {
+                        handleTerm(Interned.EMPTY_BRACES_ATOM, false);
+                        token = tokenizer.nextToken();
+                    } else {
+                        frame = new Frame(frame, Nesting.BRACES, null, Interned.CLOSE_BRACES);
+                    }
+                    continue;
                 } else {
                     handleTerm(token, !tokenizer.isNext('('));
+                    token = tokenizer.nextToken();
+                    continue;
+                }
+                // expression of this frame is complete
+                state = frame.oldState;
+                if (frame.outer == null) {
+                    return result;
+                }
+                handleNested(frame, result);
+                frame = frame.outer;
+                if (token == null) {
+                    token = tokenizer.nextToken();
                 }
-            }
-            // EOF
-            if (state == State.ARG_OR_PREFIX && operators.peek() == OperatorEntry.TERMINAL) {
-                // if no terms read, this is an acceptable place to receive an end-of-file
-                operators.pop();
-                return PrologEOF.EOF;
-            } else if (assumedAtEoF) {
-                // If we can assume terminal at end of file, then handle as if terminal was given. Note the ordering
-                // here so that EOF is returned when it is appropriate.
-                return handleEnd(terminal);
-            } else {
-                throw PrologSyntaxError.eofError(environment,
-                        "EOF reached before term was completed, missing '" + terminal + "' ?");
             }
         } finally {
-            state = oldState;
+            state = initialState;
+        }
+    }
+
+    /**
+     * Handle end of file before terminal of current expression.
+     *
+     * @param frame Current expression
+     * @return Completed term, or EOF
+     */
+    private Term handleEof(Frame frame) {
+        if (state == State.ARG_OR_PREFIX && operators.peek() == OperatorEntry.TERMINAL) {
+            // if no terms read, this is an acceptable place to receive an end-of-file
+            operators.pop();
+            return PrologEOF.EOF;
+        } else if (frame.assumedAtEoF) {
+            // If we can assume terminal at end of file, then handle as if terminal was given. Note the ordering
+            // here so that EOF is returned when it is appropriate.
+            return handleEnd(frame.terminal);
+        } else {
+            throw PrologSyntaxError.eofError(environment,
+                    "EOF reached before term was completed, missing '" + frame.terminal + "' ?");
         }
     }
 
@@ -234,8 +322,10 @@ public final class ExpressionReader {
 
     /**
      * Atom on stack, '(' parsed and assumed to be a compound term.
+     *
+     * @return functor of structure
      */
-    private void handleStructure() {
+    private Atomic structureFunctor() {
         Term atom = stack.pop();
         if (atom instanceof BracketedTerm) {
             // unwrap one level of brackets if it consists of a single term
@@ -249,46 +339,35 @@ public final class ExpressionReader {
         if (!atom.isAtom()) {
             throw PrologSyntaxError.functorError(environment, "Functor expected before '('");
         }
-        Term result = read(Interned.CLOSE_BRACKET, () -> true, tokenizer.nextToken(), false);
-        BracketedTerm bracketed = rewriteBracketedCommas(result);
-        // replace previous term
-        stack.push(new CompoundTermImpl((Atomic) atom, bracketed.get()));
-    }
-
-    /**
-     * Treat the contents of '(' and ')' as term. Note that commas are perfectly legal
-     * in this context. The term is wrapped inside BracketedTerm to protect it from being
-     * mis-interpreted when used as an argument where commas have special meaning.
-     */
-    private void handleBracketTerm() {
-        Term result = read(Interned.CLOSE_BRACKET, () -> true, tokenizer.nextToken(), false);
-        handleTerm(rewriteBracketedCommas(result), false);
+        return (Atomic) atom;
     }
 
     /**
-     * Handle content of '{' ... '}' as a single term
-     */
-    private void handleBracesTerm() {
-        Term next = tokenizer.nextToken();
-        if (is(next, Interned.CLOSE_BRACES)) {
-            handleTerm(Interned.EMPTY_BRACES_ATOM, false);
-        } else {
-            Term nestedTerm = read(Interned.CLOSE_BRACES, () -> true, next, false);
-            handleTerm(nestedTerm, false);
-        }
-    }
-
-    /**
-     * Handle content of '[' ... ']'
+     * Handle a completed nested expression as a term of the enclosing expression.
+     *
+     * @param frame  Nested expression
+     * @param result Term parsed within nested expression
      */
-
-    private void handleList() {
-        Term next = tokenizer.nextToken();
-        if (is(next, Interned.CLOSE_SQUARE_BRACKET)) {
-            handleTerm(PrologEmptyList.EMPTY_LIST, false);
-        } else {
-            Term nestedTerm = read(Interned.CLOSE_SQUARE_BRACKET, () -> true, next, false);
-            handleTerm(convertList(nestedTerm), false);
+    private void handleNested(Frame frame, Term result) {
+        switch (frame.nesting) {
+            case STRUCTURE:
+                // arguments of structure
+                stack.push(new CompoundTermImpl(frame.functor, rewriteBracketedCommas(result).get()));
+                break;
+            case BRACKETS:
+                // Treat the contents of '(' and ')' as term. Note that commas are perfectly legal in this context.
+                // The term is wrapped inside BracketedTerm to protect it from being mis-interpreted when used as an
+                // argument where commas have special meaning.
+                handleTerm(rewriteBracketedCommas(result), false);
+                break;
+            case BRACES:
+                handleTerm(result, false);
+                break;
+            case LIST:
+                handleTerm(convertList(result), false);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected nesting " + frame.nesting);
         }
     }
 
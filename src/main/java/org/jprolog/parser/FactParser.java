@@ -0,0 +1,347 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.parser;
+
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologFloat;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.exceptions.FutureSyntaxError;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.flags.LoadFactsOptions;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.function.Function;
+
+/**
+ * Parser for files consisting of one ground fact per line, see load_facts/2. This bypasses the tokenizer and the
+ * operator-precedence parser entirely. In prolog format, each line is a fact of the form name(Arg,...). where each
+ * argument is an atom (quoted or unquoted) or a number. In csv/tsv format, each line is a row of columns that become
+ * arguments of a fact with a fixed functor. Columns that look like numbers become numbers, everything else becomes
+ * an atom. The parser is used by multiple threads, one parser per thread.
+ */
+public class FactParser {
+
+    private static final String ERROR_TYPE = "invalid_fact";
+
+    private final Function<String, ? extends Atomic> atoms;
+    private final LoadFactsOptions.Format format;
+    private final Atomic functor;
+    private final ArrayList<Atomic> args = new ArrayList<>();
+    private final StringBuilder builder = new StringBuilder();
+    private String line;
+    private int pos;
+
+    /**
+     * Create a parser.
+     *
+     * @param atoms   Function to create (intern) an atom from a name
+     * @param format  Format of each line
+     * @param functor Functor of facts in csv/tsv format
+     */
+    public FactParser(Function<String, ? extends Atomic> atoms, LoadFactsOptions.Format format, Atomic functor) {
+        this.atoms = atoms;
+        this.format = format;
+        this.functor = functor;
+    }
+
+    /**
+     * Parse a single line.
+     *
+     * @param text Line of text, without line terminator
+     * @return Fact, or null if line is blank or a comment
+     */
+    public CompoundTerm parse(String text) {
+        line = text;
+        pos = 0;
+        args.clear();
+        switch (format) {
+            case ATOM_csv:
+                return parseColumns(',');
+            case ATOM_tsv:
+                return parseColumns('\t');
+            default:
+                return parseFact();
+        }
+    }
+
+    /**
+     * Parse a fact in Prolog syntax.
+     *
+     * @return Fact, or null if line is blank or a comment
+     */
+    private CompoundTerm parseFact() {
+        skipSpace();
+        if (atEnd() || peek() == '%') {
+            return null;
+        }
+        Atomic name = atoms.apply(parseName());
+        if (!atEnd() && peek() == '(') {
+            pos++;
+            do {
+                skipSpace();
+                args.add(parseArgument());
+                skipSpace();
+            } while (consume(','));
+            if (!consume(')')) {
+                throw error("Expected ',' or ')'");
+            }
+        }
+        skipSpace();
+        if (!consume('.')) {
+            throw error("Expected '.'");
+        }
+        skipSpace();
+        if (!atEnd() && peek() != '%') {
+            throw error("Expected one fact per line");
+        }
+        return args.isEmpty() ? CompoundTerm.from(name) : CompoundTerm.from(name, args.toArray(new Atomic[0]));
+    }
+
+    /**
+     * Parse an argument, which must be an atom or a number.
+     *
+     * @return argument
+     */
+    private Atomic parseArgument() {
+        if (atEnd()) {
+            throw error("Expected argument");
+        }
+        char c = peek();
+        if (c == '-' || isDigit(c)) {
+            int start = pos;
+            if (c == '-') {
+                pos++;
+            }
+            if (atEnd() || !isDigit(peek())) {
+                throw error("Expected number");
+            }
+            skipNumber();
+            return number(line.substring(start, pos));
+        }
+        return atoms.apply(parseName());
+    }
+
+    /**
+     * Parse an unquoted or quoted atom name.
+     *
+     * @return name
+     */
+    private String parseName() {
+        if (atEnd()) {
+            throw error("Expected atom");
+        }
+        char c = peek();
+        if (c == '\'') {
+            return parseQuoted();
+        }
+        if (!Character.isLowerCase(c)) {
+            throw error("Expected atom, variables and compound arguments are not supported by load_facts/2");
+        }
+        int start = pos;
+        while (!atEnd() && (Character.isLetterOrDigit(peek()) || peek() == '_')) {
+            pos++;
+        }
+        return line.substring(start, pos);
+    }
+
+    /**
+     * Parse a quoted atom, supporting doubled quotes and common escapes.
+     *
+     * @return name
+     */
+    private String parseQuoted() {
+        builder.setLength(0);
+        pos++;
+        for (; ; ) {
+            if (atEnd()) {
+                throw error("Unterminated quoted atom");
+            }
+            char c = line.charAt(pos++);
+            if (c == '\'') {
+                if (!atEnd() && peek() == '\'') {
+                    pos++;
+                    builder.append(c);
+                } else {
+                    return builder.toString();
+                }
+            } else if (c == '\\') {
+                if (atEnd()) {
+                    throw error("Unterminated quoted atom");
+                }
+                c = line.charAt(pos++);
+                switch (c) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case '\\':
+                    case '\'':
+                    case '"':
+                    case '`':
+                        builder.append(c);
+                        break;
+                    default:
+                        throw error("Unsupported escape sequence");
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    /**
+     * Parse a line of columns.
+     *
+     * @param separator Column separator
+     * @return Fact, or null if line is blank
+     */
+    private CompoundTerm parseColumns(char separator) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        for (; ; ) {
+            if (!atEnd() && peek() == '"') {
+                args.add(atoms.apply(parseQuotedColumn()));
+            } else {
+                int start = pos;
+                while (!atEnd() && peek() != separator) {
+                    pos++;
+                }
+                args.add(column(line.substring(start, pos)));
+            }
+            if (atEnd()) {
+                break;
+            }
+            if (peek() != separator) {
+                throw error("Expected separator after quoted column");
+            }
+            pos++;
+        }
+        return CompoundTerm.from(functor, args.toArray(new Atomic[0]));
+    }
+
+    /**
+     * Parse a quoted column, where a quote is escaped by doubling. Quoted columns are always atoms.
+     *
+     * @return column text
+     */
+    private String parseQuotedColumn() {
+        builder.setLength(0);
+        pos++;
+        for (; ; ) {
+            if (atEnd()) {
+                throw error("Unterminated quoted column");
+            }
+            char c = line.charAt(pos++);
+            if (c == '"') {
+                if (!atEnd() && peek() == '"') {
+                    pos++;
+                } else {
+                    return builder.toString();
+                }
+            }
+            builder.append(c);
+        }
+    }
+
+    /**
+     * Convert an unquoted column into a number if it is entirely a number, else an atom. Also used by
+     * {@link CsvReader}.
+     *
+     * @param text Column text
+     * @return atomic value
+     */
+    public Atomic column(String text) {
+        int save = pos;
+        String saveLine = line;
+        try {
+            line = text;
+            pos = 0;
+            if (!atEnd() && peek() == '-') {
+                pos++;
+            }
+            if (!atEnd() && isDigit(peek())) {
+                skipNumber();
+                if (atEnd()) {
+                    return number(text);
+                }
+            }
+            return atoms.apply(text);
+        } finally {
+            line = saveLine;
+            pos = save;
+        }
+    }
+
+    /**
+     * Skip digits, fraction and exponent of a number.
+     */
+    private void skipNumber() {
+        skipDigits();
+        if (pos + 1 < line.length() && peek() == '.' && isDigit(line.charAt(pos + 1))) {
+            pos++;
+            skipDigits();
+        }
+        if (!atEnd() && (peek() == 'e' || peek() == 'E')) {
+            int mark = pos++;
+            if (!atEnd() && (peek() == '+' || peek() == '-')) {
+                pos++;
+            }
+            if (!atEnd() && isDigit(peek())) {
+                skipDigits();
+            } else {
+                pos = mark;
+            }
+        }
+    }
+
+    private void skipDigits() {
+        while (!atEnd() && isDigit(peek())) {
+            pos++;
+        }
+    }
+
+    private static Atomic number(String text) {
+        if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+            return PrologFloat.from(Double.parseDouble(text));
+        } else if (text.length() < 18) {
+            return PrologInteger.from(Long.parseLong(text));
+        } else {
+            return PrologInteger.from(new BigInteger(text));
+        }
+    }
+
+    private void skipSpace() {
+        while (!atEnd() && Character.isWhitespace(peek())) {
+            pos++;
+        }
+    }
+
+    private boolean consume(char c) {
+        if (!atEnd() && peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean atEnd() {
+        return pos >= line.length();
+    }
+
+    private char peek() {
+        return line.charAt(pos);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private FutureSyntaxError error(String message) {
+        return new FutureSyntaxError(ERROR_TYPE, message + " at column " + (pos + 1) + ": " + line);
+    }
+}
@@ -35,7 +35,6 @@ public final class Tokenizer extends TokenRegex {
     private final ReadOptions options;
     private final PrologInputStream inputStream;
     private final Map<String, LabeledVariable> variableMap = new LinkedHashMap<>(); // order preserved
-    private final Position startOfLine = new Position();
     private final Position nextLine = new Position();
     private final Position tokenMark = new Position();
     private LineMatcher topLineMatcher = null;
@@ -203,21 +202,22 @@ public final class Tokenizer extends TokenRegex {
             return;
         }
         topLineMatcher.next(); // make sure we're past all tokens
+        int previousMark = matcherTokenMark;
         matcherTokenMark = topLineMatcher.at();
-        resetToLineStart();
-        inputStream.advance(matcherTokenMark);
+        // advance from end of previous token rather than from start of line, so a long line is not re-read per token
+        resetToMark();
+        inputStream.advance(matcherTokenMark - previousMark);
         inputStream.getPosition(tokenMark);
+        // input before the mark is never re-read, so the stream need only retain the rest of the line
+        inputStream.retainFrom(tokenMark);
     }
 
     /**
-     * Move input stream to start of line to reparse-line (or set position)
-     *
-     * @throws IOException on IO error
+     * Release line retained by input stream (see {@link #newLine(LineMatcher)}). Called when a sentence has been
+     * read. A line continues to be available until more input is read.
      */
-    private void resetToLineStart() throws IOException {
-        if (!inputStream.seekPosition(startOfLine)) {
-            throw new UnsupportedOperationException("NYI - how to handle this?");
-        }
+    public void release() {
+        inputStream.retainFrom(null);
     }
 
     /**
@@ -264,7 +264,7 @@ public final class Tokenizer extends TokenRegex {
             inputStream.seekPosition(nextLine);
         }
         inputStream.getPosition(tokenMark);
-        inputStream.getPosition(startOfLine);
+        inputStream.retainFrom(tokenMark); // line is read ahead, then re-read token by token, see commit
         matcherTokenMark = 0;
         String line = inputStream.readLine(); // read ahead of mark
         if (line == null) {
@@ -38,6 +38,7 @@ public class BuiltinPredicateArity0 extends BuiltInPredicate {
          */
         @Override
         public void invoke(Environment environment) {
+            environment.getStatistics().inference();
             LocalContext context = environment.getLocalContext();
             lambda.call(environment);
         }
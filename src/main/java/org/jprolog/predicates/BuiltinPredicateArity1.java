@@ -41,6 +41,7 @@ public class BuiltinPredicateArity1 extends BuiltInPredicate {
          */
         @Override
         public void invoke(Environment environment) {
+            environment.getStatistics().inference();
             LocalContext context = environment.getLocalContext();
             Term aBound = this.a.resolve(context);
             lambda.call(environment, aBound);
@@ -44,6 +44,7 @@ public class BuiltinPredicateArity3 extends BuiltInPredicate {
          */
         @Override
         public void invoke(Environment environment) {
+            environment.getStatistics().inference();
             LocalContext context = environment.getLocalContext();
             Term aBound = this.a.resolve(context);
             Term bBound = this.b.resolve(context);
@@ -0,0 +1,378 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.predicates;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
+import org.jprolog.io.TermCodec;
+import org.jprolog.unification.UnifyBuilder;
+import org.jprolog.variables.LabeledVariable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of changes to a persistent predicate (see persistent/1,2). Each asserted and retracted clause
+ * is appended as a record holding the binary encoding of the clause (see {@link TermCodec}). When the journal is
+ * opened, it is memory mapped and replayed to rebuild the clauses, without involving the parser. Facts are rebuilt
+ * into a {@link FactTable} where possible, rebuilding its indexes. A record that was not completely written (e.g. the
+ * process was killed) is discarded. The journal is compacted, by rewriting only the live clauses, when opened and
+ * whenever the number of dead records exceeds the number of live clauses. While open, a lock is held on a sibling
+ * ".lock" file (the journal itself is replaced by compaction), so the journal cannot be opened by another process
+ * or environment.
+ */
+public class ClauseJournal {
+
+    private static final byte[] MAGIC = {'J', 'P', 'L', 'J', 0, 1};
+    private static final byte ASSERTA = 'a';
+    private static final byte ASSERTZ = 'z';
+    private static final byte RETRACT = 'r';
+    /**
+     * Dead records always tolerated before compaction.
+     */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final ClauseSearchPredicate predicate;
+    private final Path path;
+    private final boolean sync;
+    private FileChannel channel;
+    private FileChannel lockChannel;
+    private long live = 0;
+    private long dead = 0;
+
+    private ClauseJournal(ClauseSearchPredicate predicate, Path path, boolean sync) {
+        this.predicate = predicate;
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /**
+     * Open (creating if needed) the journal for a predicate, replaying it to restore the clauses of the predicate.
+     * Predicate is expected to have no clauses.
+     *
+     * @param environment Execution environment
+     * @param predicate   Predicate
+     * @param path        Journal file
+     * @param sync        true to force each change to disk before continuing
+     * @return journal, attached to predicate
+     * @throws IOException on IO error
+     */
+    public static ClauseJournal open(Environment environment, ClauseSearchPredicate predicate, Path path,
+                                     boolean sync) throws IOException {
+        ClauseJournal journal = new ClauseJournal(predicate, path, sync);
+        journal.lock();
+        try {
+            long validLength = journal.replay(environment);
+            journal.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (validLength == 0) {
+                journal.channel.truncate(0);
+                journal.write(ByteBuffer.wrap(MAGIC));
+            } else {
+                // discard partially written record, if any
+                journal.channel.truncate(validLength);
+                journal.channel.position(validLength);
+            }
+        } catch (IOException | RuntimeException e) {
+            journal.closeChannels();
+            throw e;
+        }
+        predicate.setDynamic(true);
+        predicate.setJournal(journal);
+        if (journal.dead > 0) {
+            journal.compact();
+        }
+        return journal;
+    }
+
+    /**
+     * Take an exclusive lock on the lock file of the journal.
+     *
+     * @throws IOException if journal is in use, or on IO error
+     */
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(path.resolveSibling(path.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // held within this process
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Journal is in use: " + path);
+        }
+    }
+
+    /**
+     * @return path of journal
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * A clause read from journal, marked if subsequently retracted.
+     */
+    private static final class Record {
+        final byte[] clause;
+        boolean retracted;
+
+        Record(byte[] clause) {
+            this.clause = clause;
+        }
+    }
+
+    /**
+     * Replay journal into predicate.
+     *
+     * @param environment Execution environment
+     * @return length of valid part of journal, 0 if journal is new
+     * @throws IOException on IO error
+     */
+    private long replay(Environment environment) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < MAGIC.length) {
+            return 0;
+        }
+        ArrayDeque<Record> records = new ArrayDeque<>();
+        HashMap<ByteBuffer, ArrayDeque<Record>> byClause = new HashMap<>();
+        int valid;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large: " + path);
+            }
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a journal: " + path);
+            }
+            valid = buffer.position();
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= 5) {
+                byte op = buffer.get();
+                int len = buffer.getInt();
+                if (len < 0 || buffer.remaining() < len + 4) {
+                    break; // incomplete record
+                }
+                byte[] clause = new byte[len];
+                buffer.get(clause);
+                crc.reset();
+                crc.update(op);
+                crc.update(clause);
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    break; // corrupt record
+                }
+                valid = buffer.position();
+                ByteBuffer key = ByteBuffer.wrap(clause);
+                if (op == RETRACT) {
+                    ArrayDeque<Record> same = byClause.get(key);
+                    if (same != null && !same.isEmpty()) {
+                        // identical clauses cannot be distinguished, remove any one of them
+                        same.pop().retracted = true;
+                    }
+                } else {
+                    Record record = new Record(clause);
+                    if (op == ASSERTA) {
+                        records.addFirst(record);
+                    } else {
+                        records.addLast(record);
+                    }
+                    byClause.computeIfAbsent(key, k -> new ArrayDeque<>()).push(record);
+                }
+                dead++;
+            }
+        }
+        for (Record record : records) {
+            if (!record.retracted) {
+                Term[] clause = decode(environment, record.clause);
+                CompoundTerm head = (CompoundTerm) clause[0];
+                live++;
+                dead--;
+                if (Interned.TRUE_ATOM.compareTo(clause[1]) == 0) {
+                    predicate.addFact(head);
+                } else {
+                    predicate.addEnd(new ClauseEntry(head, clause[1], UnifyBuilder.from(head)));
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Record clause added to start of predicate.
+     *
+     * @param head Clause head
+     * @param body Clause body
+     */
+    public void asserta(CompoundTerm head, Term body) {
+        append(ASSERTA, head, body);
+        live++;
+    }
+
+    /**
+     * Record clause added to end of predicate.
+     *
+     * @param head Clause head
+     * @param body Clause body
+     */
+    public void assertz(CompoundTerm head, Term body) {
+        append(ASSERTZ, head, body);
+        live++;
+    }
+
+    /**
+     * Record clause removed from predicate.
+     *
+     * @param head Clause head
+     * @param body Clause body
+     */
+    public void retract(CompoundTerm head, Term body) {
+        append(RETRACT, head, body);
+        live--;
+        dead += 2;
+        if (dead > COMPACT_THRESHOLD && dead > live) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite journal to contain only live clauses. The new journal replaces the old only once completely written.
+     */
+    public void compact() {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                bytes.write(MAGIC);
+                long[] count = {0};
+                predicate.forEachClause((head, body) -> {
+                    try {
+                        byte[] record = record(ASSERTZ, head, body);
+                        bytes.write(record, 0, record.length);
+                        count[0]++;
+                        if (bytes.size() > 1 << 20) {
+                            writeFully(out, ByteBuffer.wrap(bytes.toByteArray()));
+                            bytes.reset();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writeFully(out, ByteBuffer.wrap(bytes.toByteArray()));
+                out.force(true);
+                live = count[0];
+                dead = 0;
+            }
+            channel.close();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Discard all clauses from journal and close it (abolish).
+     */
+    public void discard() {
+        try {
+            channel.truncate(MAGIC.length);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        close();
+    }
+
+    /**
+     * Close journal, predicate is no longer persistent.
+     */
+    public void close() {
+        predicate.setJournal(null);
+        try {
+            closeChannels();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close journal file, then release lock.
+     *
+     * @throws IOException on IO error
+     */
+    private void closeChannels() throws IOException {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lockChannel.close(); // releases lock
+        }
+    }
+
+    private void append(byte op, CompoundTerm head, Term body) {
+        try {
+            write(ByteBuffer.wrap(record(op, head, body)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer);
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Format a record: op, length, encoded clause, CRC of op and encoded clause.
+     */
+    private static byte[] record(byte op, CompoundTerm head, Term body) throws IOException {
+        ByteArrayOutputStream clauseBytes = new ByteArrayOutputStream();
+        TermCodec.encode(new DataOutputStream(clauseBytes), head, body);
+        byte[] clause = clauseBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(clause);
+        ByteBuffer record = ByteBuffer.allocate(clause.length + 9);
+        record.put(op).putInt(clause.length).put(clause).putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    private static Term[] decode(Environment environment, byte[] clause) throws IOException {
+        return TermCodec.decode(new DataInputStream(new ByteArrayInputStream(clause)), 2,
+                environment::internAtom, name -> new LabeledVariable(name, environment.nextVariableId()));
+    }
+}
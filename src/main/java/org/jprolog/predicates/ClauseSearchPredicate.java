@@ -3,16 +3,40 @@
 //
 package org.jprolog.predicates;
 
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.PrologAtomInterned;
 import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
 import org.jprolog.instructions.ExecRunClause;
 import org.jprolog.debugging.DebugInstruction;
+import org.jprolog.exceptions.FutureTypeError;
 import org.jprolog.execution.CompileContext;
+import org.jprolog.io.TermCodec;
+import org.jprolog.unification.UnifyBuilder;
 import org.jprolog.utility.TrackableList;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.ListIterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
- * A set of user-defined clauses that need to be searched
+ * A set of user-defined clauses that need to be searched. A predicate consisting only of facts with atomic arguments
+ * may instead be held in a {@link FactTable}, see {@link #addFact(CompoundTerm)}. Facts with atomic arguments that are
+ * appended are added to the table, and clause/2 and retract/1 match against the table directly (see
+ * {@link #removeFact(FactTable, int)}). The table is converted to clauses if any other clause is appended, if a
+ * clause is added to the start, if a static predicate is reconsulted, or if all clauses are retrieved as clause entries
+ * (see {@link #getClauses()}, e.g. by the debugger). Clauses may be modified by one thread while being called
+ * by other threads, modifications are made while locked, and each call uses an immutable snapshot of the clauses that is
+ * retained until the next modification. When a static predicate is re-consulted, the new clauses are collected
+ * separately while callers continue to see the prior clauses, and are swapped in when the load completes, see
+ * {@link #changeLoadGroup(LoadGroup)}.
  * TODO: Optimize search process for large dictionaries
  */
 public class ClauseSearchPredicate extends PredicateDefinition {
@@ -22,7 +46,14 @@ public class ClauseSearchPredicate extends PredicateDefinition {
     private boolean isDynamic = false;
     private boolean isMultifile = false;
     private boolean isDiscontiguous = false;
-    private LoadGroup loadGroup = null;
+    private volatile LoadGroup loadGroup = null;
+    private volatile ArrayList<ClauseEntry> reloaded = null;
+    private HashMap<ClauseKey, ArrayDeque<ClauseEntry>> reusable = null;
+    private volatile FactTable facts = null;
+    private volatile ClauseEntry[] snapshot = null;
+    private ClauseJournal journal = null;
+    private volatile ReentrantLock loadLock = null;
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Create a new predicate
@@ -95,19 +126,58 @@ public class ClauseSearchPredicate extends PredicateDefinition {
         return isDiscontiguous;
     }
 
-
+    /**
+     * Called as each clause is consulted, a change of load group replaces the clauses of a static predicate
+     * (reconsult semantics). If the predicate already has clauses and the new group completes (see
+     * {@link LoadGroup#completeReload()}), the replacement is incremental. New clauses are collected separately, each
+     * new clause that is identical to a prior clause reuses the prior {@link ClauseEntry} along with its compiled
+     * instructions, and the new clauses are swapped in as one change when the load completes.
+     *
+     * @param loadGroup Load group of clause being added
+     */
     public void changeLoadGroup(LoadGroup loadGroup) {
-        if (isDynamic || isMultifile) {
-            return; // does not apply
+        lock.lock();
+        try {
+            if (isDynamic || isMultifile) {
+                return; // does not apply
+            }
+            if (this.loadGroup != loadGroup) {
+                completeReload();
+                convertFacts();
+                if (loadGroup.isIncremental() && !clauses.isEmpty()) {
+                    reusable = new HashMap<>();
+                    for (ClauseEntry entry : clauses) {
+                        ClauseKey key = ClauseKey.of(entry);
+                        if (key != null) {
+                            reusable.computeIfAbsent(key, k -> new ArrayDeque<>()).add(entry);
+                        }
+                    }
+                    reloaded = new ArrayList<>();
+                    loadGroup.addReload(this);
+                } else {
+                    removeAll();
+                }
+            }
+            this.loadGroup = loadGroup;
+        } finally {
+            lock.unlock();
         }
-        if (this.loadGroup != loadGroup) {
-            ListIterator<ClauseEntry> it = clauses.listIterator();
-            while(it.hasNext()) {
-                it.next();
-                it.remove();
+    }
+
+    /**
+     * Swap in clauses collected while reloading under given group. Clauses that were not reloaded are removed.
+     *
+     * @param loadGroup Load group that has completed
+     */
+    public void completeReload(LoadGroup loadGroup) {
+        lock.lock();
+        try {
+            if (this.loadGroup == loadGroup) {
+                completeReload();
             }
+        } finally {
+            lock.unlock();
         }
-        this.loadGroup = loadGroup;
     }
 
     /**
@@ -119,6 +189,12 @@ public class ClauseSearchPredicate extends PredicateDefinition {
      */
     @Override
     public void compile(Predication predication, CompileContext context, CompoundTerm term) {
+        ReentrantLock loading = loadLock;
+        if (loading != null) {
+            // predicate is being demand-loaded, possibly by another thread, wait for load to complete
+            loading.lock();
+            loading.unlock();
+        }
         // always wrap in debugger instruction, the overhead should be minimal
         ExecRunClause inst = new ExecRunClause(predication, this, term);
         context.add(term, new DebugInstruction(term, inst, true));
@@ -130,16 +206,73 @@ public class ClauseSearchPredicate extends PredicateDefinition {
      */
     @Override
     public boolean isCurrentPredicate() {
-        return !clauses.isEmpty();
+        lock.lock();
+        try {
+            return !clauses.isEmpty() || (facts != null && facts.size() > 0);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Retrieve snapshot of all clauses.
+     * Retrieve snapshot of all clauses. A fact table is converted to clauses.
      *
      * @return clauses
      */
     public ClauseEntry[] getClauses() {
-        return clauses.elements(ELEMENT_ARRAY_TYPE);
+        ClauseEntry[] current = snapshot;
+        if (current == null) {
+            lock.lock();
+            try {
+                convertFacts();
+                current = snapshot;
+                if (current == null) {
+                    current = snapshot = clauses.elements(ELEMENT_ARRAY_TYPE);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Retrieve snapshot of clauses as seen from a load group. While the predicate is being reloaded, the loading
+     * group sees the clauses loaded so far, all other callers see the prior clauses.
+     *
+     * @param viewer Load group of caller
+     * @return clauses
+     */
+    public ClauseEntry[] getClauses(LoadGroup viewer) {
+        if (reloaded != null && viewer == loadGroup) {
+            lock.lock();
+            try {
+                if (reloaded != null) {
+                    return reloaded.toArray(ELEMENT_ARRAY_TYPE);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return getClauses();
+    }
+
+    /**
+     * Set while predicate is being demand-loaded (see {@link DemandLoadPredicate}).
+     *
+     * @param lock Lock held for duration of load, or null when load completes
+     */
+    public void setLoadLock(ReentrantLock lock) {
+        this.loadLock = lock;
+    }
+
+    /**
+     * Retrieve fact table if this predicate is held as a table.
+     *
+     * @return table, or null
+     */
+    public FactTable getFactTable() {
+        return facts;
     }
 
     /**
@@ -148,15 +281,255 @@ public class ClauseSearchPredicate extends PredicateDefinition {
      * @param entry Entry to add
      */
     public void addStart(ClauseEntry entry) {
-        clauses.addHead(entry.getNode());
+        lock.lock();
+        try {
+            completeReload();
+            convertFacts();
+            clauses.addHead(entry.getNode());
+            snapshot = null;
+            if (journal != null) {
+                journal.asserta(entry.getHead(), entry.getBody());
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Add a new clause to tail
+     * Add a new clause to tail. A fact is added to the fact table if predicate is held as a table, and the fact
+     * consists of only atomic arguments.
      *
      * @param entry Entry to add
      */
     public void addEnd(ClauseEntry entry) {
-        clauses.addTail(entry.getNode());
+        lock.lock();
+        try {
+            if (reloaded != null) {
+                reloaded.add(reuse(entry));
+                return;
+            }
+            if (facts != null && Interned.TRUE_ATOM.compareTo(entry.getBody()) == 0 &&
+                    FactTable.isTableFact(entry.getHead())) {
+                facts.add(entry.getHead());
+                if (journal != null) {
+                    journal.assertz(entry.getHead(), Interned.TRUE_ATOM);
+                }
+                return;
+            }
+            convertFacts();
+            clauses.addTail(entry.getNode());
+            snapshot = null;
+            if (journal != null) {
+                journal.assertz(entry.getHead(), entry.getBody());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a clause (retract).
+     *
+     * @param entry Entry to remove
+     * @return false if clause was already removed
+     */
+    public boolean remove(ClauseEntry entry) {
+        lock.lock();
+        try {
+            completeReload();
+            if (entry.getNode().isRemoved()) {
+                return false;
+            }
+            entry.getNode().remove();
+            snapshot = null;
+            if (journal != null) {
+                journal.retract(entry.getHead(), entry.getBody());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a row of a fact table (retract).
+     *
+     * @param table Fact table, as returned by {@link #getFactTable()}
+     * @param row   Row to remove
+     * @return false if fact was already removed, or table has since been converted to clauses
+     */
+    public boolean removeFact(FactTable table, int row) {
+        lock.lock();
+        try {
+            if (table != facts || !table.remove(row)) {
+                return false;
+            }
+            if (journal != null) {
+                journal.retract(table.get(row), Interned.TRUE_ATOM);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a fact to tail. The fact is added to a fact table if there are no other clauses, and the fact consists of
+     * only atomic arguments.
+     *
+     * @param head Head of fact, interned
+     */
+    public void addFact(CompoundTerm head) {
+        lock.lock();
+        try {
+            completeReload();
+            if (facts == null && clauses.isEmpty() && FactTable.isTableFact(head)) {
+                facts = new FactTable((PrologAtomInterned) head.functor(), head.arity());
+            }
+            if (facts != null && FactTable.isTableFact(head)) {
+                facts.add(head);
+                if (journal != null) {
+                    journal.assertz(head, Interned.TRUE_ATOM);
+                }
+            } else {
+                addEnd(new ClauseEntry(head, Interned.TRUE_ATOM, UnifyBuilder.from(head)));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Visit head and body of each clause in order, without converting a fact table.
+     *
+     * @param visitor Visitor of head and body
+     */
+    public void forEachClause(BiConsumer<CompoundTerm, Term> visitor) {
+        lock.lock();
+        try {
+            if (facts != null) {
+                facts.forEach(head -> visitor.accept(head, Interned.TRUE_ATOM));
+            } else {
+                for (ClauseEntry entry : clauses) {
+                    visitor.accept(entry.getHead(), entry.getBody());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieve journal if this predicate is persistent.
+     *
+     * @return journal, or null
+     */
+    public ClauseJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Attach or detach journal (see {@link ClauseJournal}).
+     *
+     * @param journal Journal, or null
+     */
+    public void setJournal(ClauseJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Find a clause of the prior load that is identical to a reloaded clause. Called while locked.
+     *
+     * @param entry Reloaded clause
+     * @return prior entry if found, else entry
+     */
+    private ClauseEntry reuse(ClauseEntry entry) {
+        ClauseKey key = ClauseKey.of(entry);
+        ArrayDeque<ClauseEntry> candidates = key == null ? null : reusable.get(key);
+        if (candidates == null || candidates.isEmpty()) {
+            return entry;
+        }
+        return candidates.removeFirst();
+    }
+
+    /**
+     * Replace clauses with reloaded clauses, if reloading. Called while locked.
+     */
+    private void completeReload() {
+        ArrayList<ClauseEntry> replacement = reloaded;
+        if (replacement == null) {
+            return;
+        }
+        removeAll();
+        for (ClauseEntry entry : replacement) {
+            clauses.addTail(entry.getNode());
+        }
+        reloaded = null;
+        reusable = null;
+    }
+
+    /**
+     * Remove all clauses. Called while locked.
+     */
+    private void removeAll() {
+        facts = null;
+        snapshot = null;
+        ListIterator<ClauseEntry> it = clauses.listIterator();
+        while (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Identity of a clause for reload, the binary encoding of head and body (see {@link TermCodec}).
+     */
+    private static final class ClauseKey {
+        private final byte[] encoded;
+        private final int hash;
+
+        private ClauseKey(byte[] encoded) {
+            this.encoded = encoded;
+            this.hash = Arrays.hashCode(encoded);
+        }
+
+        /**
+         * @param entry Clause entry
+         * @return key, or null if clause cannot be encoded
+         */
+        static ClauseKey of(ClauseEntry entry) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                // variable names differ between consults of the same clause, see TermCodec.encodeVariant
+                TermCodec.encodeVariant(new DataOutputStream(bytes), entry.getHead(), entry.getBody());
+            } catch (IOException | FutureTypeError e) {
+                return null;
+            }
+            return new ClauseKey(bytes.toByteArray());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ClauseKey && Arrays.equals(encoded, ((ClauseKey) other).encoded);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Convert fact table (if any) to clauses. Called while locked.
+     */
+    private void convertFacts() {
+        if (facts != null) {
+            FactTable table = facts;
+            for (ClauseEntry entry : table.toClauses()) {
+                clauses.addTail(entry.getNode());
+            }
+            snapshot = null;
+            facts = null;
+        }
     }
 }
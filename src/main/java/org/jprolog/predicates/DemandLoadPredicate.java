@@ -8,6 +8,8 @@ import org.jprolog.execution.CompileContext;
 import org.jprolog.execution.Environment;
 import org.jprolog.utility.TrackableList;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * A deferred predicate. If used, must load definitions and replace predicates with actual predicates.
  */
@@ -55,14 +57,29 @@ public class DemandLoadPredicate extends PredicateDefinition {
     @Override
     public void compile(Predication predication, CompileContext context, CompoundTerm term) {
         // Demand-load at compile time, give the demand-load process its own environment
-        Environment environment = new Environment(context.environmentShared());
-        // What is current definition? Have we already loaded it?
-        PredicateDefinition defn = environment.lookupPredicate(predication);
-        if (defn == this) {
-            // this step happening before load prevents cycles
-            defn = environment.createDictionaryEntry(predication);
-            // load definition
-            onDemand.load(environment);
+        Environment.Shared shared = context.environmentShared();
+        PredicateDefinition defn;
+        ReentrantLock lock = shared.getDemandLoadLock();
+        lock.lock();
+        try {
+            // worker threads may compile calls to the same predicate
+            Environment environment = new Environment(shared);
+            // What is current definition? Have we already loaded it?
+            defn = environment.lookupPredicate(predication);
+            if (defn == this) {
+                // this step happening before load prevents cycles
+                ClauseSearchPredicate loading = environment.createDictionaryEntry(predication);
+                defn = loading;
+                // load definition, other threads that find the new definition wait for load to complete
+                loading.setLoadLock(lock);
+                try {
+                    onDemand.load(environment);
+                } finally {
+                    loading.setLoadLock(null);
+                }
+            }
+        } finally {
+            lock.unlock();
         }
         // delegate compile step to new clause
         defn.compile(predication, context, term);
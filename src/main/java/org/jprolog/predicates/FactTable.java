@@ -0,0 +1,545 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.predicates;
+
+import org.jprolog.bootstrap.Interned;
+import org.jprolog.constants.Atomic;
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.execution.Environment;
+import org.jprolog.expressions.CompoundTerm;
+import org.jprolog.expressions.Term;
+import org.jprolog.unification.UnifyBuilder;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Compact storage for a predicate consisting only of ground facts with atomic arguments. Rather than a
+ * {@link ClauseEntry} per fact, rows are stored column-wise. A column of integers is held as an array of longs, any
+ * other column is held as an array of symbol ids, each id referring to a distinct atomic value of that column. A hash
+ * index of each column is built the first time a call binds that column, and discarded when rows are added.
+ * Unification is performed argument by argument against the columns, a fact is only materialized as a term when it is
+ * retrieved (see {@link #get(int)}), or when the table is converted back to clauses (see
+ * {@link ClauseSearchPredicate}). Rows are added, removed and matchers created while locked, rows are never modified
+ * once added. A removed row is marked with the generation at which it was removed, a matcher continues to see rows
+ * removed after it was created (logical update view).
+ */
+public class FactTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final PrologAtomInterned functor;
+    private final Column[] columns;
+    private final Index[] indexes;
+    private int size = 0;
+    private int live = 0;
+    private int capacity = INITIAL_CAPACITY;
+    private int[] removed = null; // generation at which row was removed, or 0
+    private int generation = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Create an empty table.
+     *
+     * @param functor Functor of facts
+     * @param arity   Number of columns
+     */
+    public FactTable(PrologAtomInterned functor, int arity) {
+        this.functor = functor;
+        this.columns = new Column[arity];
+        this.indexes = new Index[arity];
+    }
+
+    /**
+     * Test if a fact can be stored in a table.
+     *
+     * @param head Head of fact
+     * @return true if all arguments are atomic, and all atoms are interned
+     */
+    public static boolean isTableFact(CompoundTerm head) {
+        for (int i = 0; i < head.arity(); i++) {
+            Term arg = head.get(i).value();
+            if (!arg.isAtomic() || (arg.isAtom() && !(arg instanceof PrologAtomInterned))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Intern the atom arguments of a fact, so that the fact may be stored in a table (see
+     * {@link #isTableFact(CompoundTerm)}).
+     *
+     * @param environment Execution environment
+     * @param head        Head of fact
+     * @return head with interned atoms, or head unchanged if any argument is not atomic
+     */
+    public static CompoundTerm intern(Environment environment, CompoundTerm head) {
+        Atomic[] args = new Atomic[head.arity()];
+        boolean changed = false;
+        for (int i = 0; i < args.length; i++) {
+            Term arg = head.get(i).value();
+            if (!arg.isAtomic()) {
+                return head;
+            }
+            if (arg.isAtom() && !(arg instanceof PrologAtomInterned)) {
+                arg = PrologAtomInterned.from(environment, arg);
+                changed = true;
+            }
+            args[i] = (Atomic) arg;
+        }
+        return changed ? CompoundTerm.from(PrologAtomInterned.from(environment, head.functor()), args) : head;
+    }
+
+    /**
+     * @return Number of rows that have not been removed
+     */
+    public int size() {
+        return live;
+    }
+
+    /**
+     * Add a fact (see {@link #isTableFact(CompoundTerm)}) to end of table.
+     *
+     * @param head Head of fact
+     */
+    public void add(CompoundTerm head) {
+        lock.lock();
+        try {
+            if (size == capacity) {
+                capacity = capacity + (capacity >> 1);
+                for (Column column : columns) {
+                    column.grow(capacity);
+                }
+                if (removed != null) {
+                    removed = Arrays.copyOf(removed, capacity);
+                }
+            }
+            for (int i = 0; i < columns.length; i++) {
+                Atomic value = (Atomic) head.get(i).value();
+                if (columns[i] == null) {
+                    columns[i] = LongColumn.isLong(value) ? new LongColumn(capacity) : new SymbolColumn(capacity);
+                } else if (!columns[i].accepts(value)) {
+                    columns[i] = new SymbolColumn(columns[i], size, capacity);
+                }
+                columns[i].set(size, value);
+                indexes[i] = null;
+            }
+            size++;
+            live++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a row.
+     *
+     * @param row Row to remove
+     * @return false if row was already removed
+     */
+    public boolean remove(int row) {
+        lock.lock();
+        try {
+            if (removed == null) {
+                removed = new int[capacity];
+            } else if (removed[row] != 0) {
+                return false;
+            }
+            removed[row] = ++generation;
+            live--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Visit each row that has not been removed, in order.
+     *
+     * @param visitor Visitor of each fact
+     */
+    public void forEach(Consumer<CompoundTerm> visitor) {
+        lock.lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                if (removed == null || removed[row] == 0) {
+                    visitor.accept(get(row));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieve a single fact as a term.
+     *
+     * @param row Row of fact
+     * @return Fact
+     */
+    public CompoundTerm get(int row) {
+        if (columns.length == 0) {
+            return CompoundTerm.from(functor);
+        }
+        Atomic[] args = new Atomic[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            args[i] = columns[i].get(row);
+        }
+        return CompoundTerm.from(functor, args);
+    }
+
+    /**
+     * Convert rows that have not been removed to clause entries, in order.
+     *
+     * @return clause entries
+     */
+    public ClauseEntry[] toClauses() {
+        ArrayList<ClauseEntry> entries = new ArrayList<>(live);
+        forEach(head -> entries.add(new ClauseEntry(head, Interned.TRUE_ATOM, UnifyBuilder.from(head))));
+        return entries.toArray(new ClauseEntry[entries.size()]);
+    }
+
+    /**
+     * Prepare to match rows against a call. Arguments that are bound at time of call select and filter rows by key,
+     * using the index of the first bound column.
+     *
+     * @param environment Execution environment
+     * @param call        Bound call term
+     * @return Matcher, or null if no row can match
+     */
+    public Matcher match(Environment environment, CompoundTerm call) {
+        lock.lock();
+        try {
+            int limit = size; // rows added after call are not visible
+            if (live == 0) {
+                return null;
+            }
+            Term[] args = new Term[columns.length];
+            long[] keys = new long[columns.length];
+            boolean[] bound = new boolean[columns.length];
+            int indexColumn = -1;
+            for (int i = 0; i < columns.length; i++) {
+                Term arg = call.get(i).value();
+                args[i] = arg;
+                if (arg.isInstantiated()) {
+                    if (!arg.isAtomic()) {
+                        return null;
+                    }
+                    if (arg.isAtom() && !(arg instanceof PrologAtomInterned)) {
+                        arg = PrologAtomInterned.from(environment, arg);
+                    }
+                    Long key = columns[i].keyOf((Atomic) arg);
+                    if (key == null) {
+                        return null;
+                    }
+                    keys[i] = key;
+                    bound[i] = true;
+                    if (indexColumn < 0) {
+                        indexColumn = i;
+                    }
+                }
+            }
+            if (indexColumn >= 0) {
+                Index index = indexes[indexColumn];
+                if (index == null) {
+                    index = new Index(columns[indexColumn], size);
+                    indexes[indexColumn] = index;
+                }
+                return new Matcher(columns.clone(), args, keys, bound, limit, removed, generation, index,
+                        keys[indexColumn]);
+            } else {
+                return new Matcher(columns.clone(), args, keys, bound, limit, removed, generation, null, 0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Iterates the rows that match a call.
+     */
+    public static final class Matcher implements PrimitiveIterator.OfInt {
+        private final Column[] columns;
+        private final Term[] args;
+        private final long[] keys;
+        private final boolean[] bound;
+        private final int limit;
+        private final int[] removed;
+        private final int generation;
+        private final Index index;
+        private int next;
+
+        private Matcher(Column[] columns, Term[] args, long[] keys, boolean[] bound, int limit, int[] removed,
+                        int generation, Index index, long key) {
+            this.columns = columns; // columns may be replaced if table is added to
+            this.args = args;
+            this.keys = keys;
+            this.bound = bound;
+            this.limit = limit;
+            this.removed = removed; // replaced if table is added to, after which only later removals are missed
+            this.generation = generation;
+            this.index = index;
+            this.next = index == null ? 0 : index.first(key);
+            this.next = skip(this.next);
+        }
+
+        /**
+         * @return true if there is another candidate row
+         */
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        /**
+         * Advance to next candidate row.
+         *
+         * @return candidate row, which matches all arguments that were bound at time of call
+         */
+        public int nextRow() {
+            int row = next;
+            next = skip(index == null ? row + 1 : index.next(row));
+            return row;
+        }
+
+        /**
+         * Same as {@link #nextRow()}, allows rows to be streamed.
+         *
+         * @return candidate row
+         */
+        @Override
+        public int nextInt() {
+            return nextRow();
+        }
+
+        /**
+         * Unify a candidate row with call.
+         *
+         * @param row Row returned by {@link #nextRow()}
+         * @return true if unified
+         */
+        public boolean unify(int row) {
+            for (int i = 0; i < columns.length; i++) {
+                if (bound[i]) {
+                    continue; // already matched by key
+                }
+                Term arg = args[i].value();
+                if (arg.isInstantiated()) {
+                    // variable bound by an earlier argument of this call
+                    if (arg.compareTo(columns[i].get(row)) != 0) {
+                        return false;
+                    }
+                } else if (!arg.instantiate(columns[i].get(row))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Find first row, starting at given row, that was visible at time of call, and matches all bound keys.
+         *
+         * @param row Candidate row
+         * @return matching row, or -1
+         */
+        private int skip(int row) {
+            while (row >= 0 && row < limit) {
+                if ((removed == null || removed[row] == 0 || removed[row] > generation) && matchesKeys(row)) {
+                    return row;
+                }
+                row = index == null ? row + 1 : index.next(row);
+            }
+            return -1;
+        }
+
+        private boolean matchesKeys(int row) {
+            for (int i = 0; i < columns.length; i++) {
+                if (bound[i] && columns[i].key(row) != keys[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Column of values. Each value of a column has a long key such that two values are identical if and only if their
+     * keys are equal.
+     */
+    private abstract static class Column {
+        abstract boolean accepts(Atomic value);
+
+        abstract void set(int row, Atomic value);
+
+        abstract Atomic get(int row);
+
+        abstract long key(int row);
+
+        abstract Long keyOf(Atomic value);
+
+        abstract void grow(int capacity);
+    }
+
+    /**
+     * Column of integers that fit in a long, the key is the value itself.
+     */
+    private static final class LongColumn extends Column {
+        private static final BigInteger MIN = BigInteger.valueOf(Long.MIN_VALUE);
+        private static final BigInteger MAX = BigInteger.valueOf(Long.MAX_VALUE);
+        private long[] values;
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        static boolean isLong(Atomic value) {
+            if (!(value instanceof PrologInteger)) {
+                return false;
+            }
+            BigInteger big = ((PrologInteger) value).get();
+            return big.compareTo(MIN) >= 0 && big.compareTo(MAX) <= 0;
+        }
+
+        @Override
+        boolean accepts(Atomic value) {
+            return isLong(value);
+        }
+
+        @Override
+        void set(int row, Atomic value) {
+            values[row] = ((PrologInteger) value).get().longValue();
+        }
+
+        @Override
+        Atomic get(int row) {
+            return PrologInteger.from(values[row]);
+        }
+
+        @Override
+        long key(int row) {
+            return values[row];
+        }
+
+        @Override
+        Long keyOf(Atomic value) {
+            return isLong(value) ? ((PrologInteger) value).get().longValue() : null;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * Column of arbitrary atomic values, the key is an id assigned to each distinct value. Atoms are interned, and
+     * compare by identity.
+     */
+    private static final class SymbolColumn extends Column {
+        private final ArrayList<Atomic> symbols = new ArrayList<>();
+        private final HashMap<Atomic, Integer> symbolIds = new HashMap<>();
+        private int[] ids;
+
+        SymbolColumn(int capacity) {
+            ids = new int[capacity];
+        }
+
+        /**
+         * Convert a column that cannot hold a new value.
+         */
+        SymbolColumn(Column column, int size, int capacity) {
+            this(capacity);
+            for (int row = 0; row < size; row++) {
+                set(row, column.get(row));
+            }
+        }
+
+        @Override
+        boolean accepts(Atomic value) {
+            return true;
+        }
+
+        @Override
+        void set(int row, Atomic value) {
+            Integer id = symbolIds.get(value);
+            if (id == null) {
+                id = symbols.size();
+                symbols.add(value);
+                symbolIds.put(value, id);
+            }
+            ids[row] = id;
+        }
+
+        @Override
+        Atomic get(int row) {
+            return symbols.get(ids[row]);
+        }
+
+        @Override
+        long key(int row) {
+            return ids[row];
+        }
+
+        @Override
+        Long keyOf(Atomic value) {
+            Integer id = symbolIds.get(value);
+            return id == null ? null : (long) id;
+        }
+
+        @Override
+        void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+        }
+    }
+
+    /**
+     * Hash index of a column. Rows with the same hash are chained in row order.
+     */
+    private static final class Index {
+        private final Column column;
+        private final int[] buckets; // first row + 1, or 0
+        private final int[] chain; // next row + 1, or 0
+        private final int mask;
+
+        Index(Column column, int size) {
+            this.column = column;
+            int capacity = Integer.highestOneBit(Math.max(1, size)) << 1;
+            this.buckets = new int[capacity];
+            this.chain = new int[size];
+            this.mask = capacity - 1;
+            for (int row = size - 1; row >= 0; row--) {
+                int bucket = hash(column.key(row)) & mask;
+                chain[row] = buckets[bucket];
+                buckets[bucket] = row + 1;
+            }
+        }
+
+        int first(long key) {
+            return find(buckets[hash(key) & mask] - 1, key);
+        }
+
+        int next(int row) {
+            return find(chain[row] - 1, column.key(row));
+        }
+
+        private int find(int row, long key) {
+            while (row >= 0 && column.key(row) != key) {
+                row = chain[row] - 1;
+            }
+            return row;
+        }
+
+        private static int hash(long key) {
+            int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class LoadGroup {
     private final String id;
     private final PrologFloat time;
     private final ArrayList<Term> initialize = new ArrayList<>();
+    private final ArrayList<ClauseSearchPredicate> reloading = new ArrayList<>();
 
     public LoadGroup(String id, PrologFloat time) {
         this.id = id;
@@ -49,9 +50,49 @@ public class LoadGroup {
         return initialize;
     }
 
+    /**
+     * True if predicates reloaded in this group are replaced incrementally, which requires that
+     * {@link #completeReload()} is called when the load completes.
+     *
+     * @return true if incremental
+     */
+    public boolean isIncremental() {
+        return true;
+    }
+
+    /**
+     * Record a predicate that is being reloaded in this group.
+     *
+     * @param predicate Predicate being reloaded
+     */
+    public void addReload(ClauseSearchPredicate predicate) {
+        reloading.add(predicate);
+    }
+
+    /**
+     * Called when load completes, swaps in the reloaded clauses of each predicate.
+     */
+    public void completeReload() {
+        ClauseSearchPredicate[] predicates = reloading.toArray(new ClauseSearchPredicate[0]);
+        reloading.clear();
+        for (ClauseSearchPredicate predicate : predicates) {
+            predicate.completeReload(this);
+        }
+    }
+
     public static class Interactive extends LoadGroup {
         public Interactive() {
             super("", Time.now());
         }
+
+        /**
+         * Interactive group never completes.
+         *
+         * @return false
+         */
+        @Override
+        public boolean isIncremental() {
+            return false;
+        }
     }
 }
@@ -28,7 +28,7 @@ public final class UnifyAtomic implements UnifyStep {
      */
     @Override
     public UnifyIterator invoke(LocalContext context, UnifyIterator it) {
-        Term other = it.next().resolve(context);
+        Term other = it.next().value();
         if (!other.isInstantiated() && other.instantiate(atomic)) {
             return it;
         }
@@ -37,8 +37,8 @@ public final class UnifyVariable implements UnifyStep {
             }
         }
         if (!resolvedThis.isInstantiated()) {
-            Term resolvedOther = other.resolve(context);
-            if (resolvedThis.instantiate(resolvedOther)) {
+            // other is already resolved, avoid walking it again
+            if (resolvedThis.instantiate(other.value())) {
                 return it;
             }
         }
@@ -11,7 +11,7 @@ import org.jprolog.io.InputBuffered;
  * If mark is set, it identifies a read point into buffer. Content may exist before mark and after mark.
  */
 public class CircularBuffer {
-    private final char[] buffer;
+    private char[] buffer;
     private int markPos; // location of buffered read, or -1 if not set / end of buffer
     private int endPos; // location of next write
     private int valid; // length of valid content
@@ -26,6 +26,38 @@ public class CircularBuffer {
         reset();
     }
 
+    /**
+     * @return size of buffer
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Grow buffer, retaining all valid content and the mark.
+     *
+     * @param size New size of buffer, ignored if not larger than current size
+     */
+    public void grow(int size) {
+        if (size <= buffer.length) {
+            return;
+        }
+        int advance = maxAdvance();
+        int start = endPos - valid;
+        if (start < 0) {
+            start += buffer.length;
+        }
+        char[] grown = new char[size];
+        int first = Math.min(valid, buffer.length - start);
+        System.arraycopy(buffer, start, grown, 0, first);
+        System.arraycopy(buffer, 0, grown, first, valid - first);
+        buffer = grown;
+        endPos = valid;
+        if (markPos >= 0) {
+            markPos = valid - advance;
+        }
+    }
+
     /**
      * @return number of characters in buffer that is considered valid
      */
@@ -0,0 +1,110 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free, multi-producer multi-consumer queue. A ring of slots, each slot having a sequence number that
+ * indicates if the slot is ready to be written (sequence equals position) or read (sequence equals position + 1).
+ * Producers and consumers claim a position with a compare-and-set, and publish the slot by advancing its sequence.
+ * Neither operation blocks, callers decide how to wait when the queue is full or empty.
+ *
+ * @param <E> Type of element
+ */
+public class MpmcQueue<E> {
+    private final Object[] elements;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Create queue.
+     *
+     * @param capacity Minimum capacity, rounded up to a power of 2
+     */
+    public MpmcQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        elements = new Object[size];
+        sequence = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    /**
+     * @return capacity of queue
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Add element to tail of queue, if there is room.
+     *
+     * @param element Element to add (not null)
+     * @return false if queue is full
+     */
+    public boolean offer(E element) {
+        long pos = tail.get();
+        for (; ; ) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // slot not yet consumed, full
+            } else {
+                pos = tail.get(); // another producer claimed slot
+            }
+        }
+        int slot = (int) pos & mask;
+        elements[slot] = element;
+        sequence.set(slot, pos + 1); // publishes element
+        return true;
+    }
+
+    /**
+     * Remove element from head of queue, if any.
+     *
+     * @return element, or null if queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = head.get();
+        for (; ; ) {
+            int slot = (int) pos & mask;
+            long diff = sequence.get(slot) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // slot not yet published, empty
+            } else {
+                pos = head.get(); // another consumer claimed slot
+            }
+        }
+        int slot = (int) pos & mask;
+        E element = (E) elements[slot];
+        elements[slot] = null;
+        sequence.set(slot, pos + mask + 1); // releases slot to producers
+        return element;
+    }
+
+    /**
+     * @return approximate number of elements in queue
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+}
@@ -0,0 +1,103 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free, single-producer single-consumer ring of bytes. The producer owns the tail and the consumer owns
+ * the head, and each publishes its position with a volatile store after copying (a waiting thread can rely on seeing
+ * the change, see {@link Waiters}). A range is copied into the ring by offer and out of the ring by poll, each with at
+ * most two array copies (where the range wraps) and no lock. Each side caches the last position it read of the other
+ * side, and only re-reads it when the cached value shows the ring to be full (or empty). Neither operation blocks,
+ * callers decide how to wait. At most one thread may offer, and at most one thread may poll, at any time.
+ */
+public class SpscRingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next position to read
+    private final AtomicLong tail = new AtomicLong(); // next position to write
+    private long cachedHead = 0; // producer's view of head
+    private long cachedTail = 0; // consumer's view of tail
+
+    /**
+     * Create ring.
+     *
+     * @param capacity Minimum capacity in bytes, rounded up to a power of 2
+     */
+    public SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        buffer = new byte[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return capacity of ring in bytes
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Copy as many bytes as there is room for into ring. Producer only.
+     *
+     * @param src Source array
+     * @param off Offset into source
+     * @param len Number of bytes to copy
+     * @return number of bytes copied, 0 if ring is full
+     */
+    public int offer(byte[] src, int off, int len) {
+        long pos = tail.get();
+        int room = buffer.length - (int) (pos - cachedHead);
+        if (room < len) {
+            cachedHead = head.get();
+            room = buffer.length - (int) (pos - cachedHead);
+        }
+        int count = Math.min(len, room);
+        if (count <= 0) {
+            return 0;
+        }
+        int index = (int) pos & mask;
+        int first = Math.min(count, buffer.length - index);
+        System.arraycopy(src, off, buffer, index, first);
+        System.arraycopy(src, off + first, buffer, 0, count - first);
+        tail.set(pos + count); // publishes bytes
+        return count;
+    }
+
+    /**
+     * Copy as many bytes as are available out of ring. Consumer only.
+     *
+     * @param dst Target array
+     * @param off Offset into target
+     * @param len Maximum number of bytes to copy
+     * @return number of bytes copied, 0 if ring is empty
+     */
+    public int poll(byte[] dst, int off, int len) {
+        long pos = head.get();
+        int available = (int) (cachedTail - pos);
+        if (available < len) {
+            cachedTail = tail.get();
+            available = (int) (cachedTail - pos);
+        }
+        int count = Math.min(len, available);
+        if (count <= 0) {
+            return 0;
+        }
+        int index = (int) pos & mask;
+        int first = Math.min(count, buffer.length - index);
+        System.arraycopy(buffer, index, dst, off, first);
+        System.arraycopy(buffer, 0, dst, off + first, count - first);
+        head.set(pos + count); // releases room to producer
+        return count;
+    }
+
+    /**
+     * @return approximate number of bytes in ring
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+}
@@ -0,0 +1,59 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.utility;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Threads waiting on a lock-free structure (see {@link MpmcQueue} and {@link SpscRingBuffer}). A waiter spins briefly,
+ * then yields, then parks until signalled. A parked waiter is registered in a lock-free list before it re-tests its
+ * condition, and the other side signals after each change that may satisfy the condition, so a change between the
+ * test and the park is never missed, provided the change is published with a volatile store. Signalling when no thread
+ * is parked costs one read.
+ */
+public final class Waiters {
+    private static final int SPIN_LIMIT = 64;
+    private static final int YIELD_LIMIT = 128;
+
+    private final ConcurrentLinkedQueue<Thread> parked = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Pause between attempts of a wait loop. Returns when the caller should make another attempt, which may be
+     * spurious (e.g. on interrupt), the caller is expected to test for interrupt.
+     *
+     * @param attempt Number of prior failed attempts
+     * @param ready   Test if another attempt may succeed, must not block
+     */
+    public void pause(int attempt, BooleanSupplier ready) {
+        if (attempt < SPIN_LIMIT) {
+            return; // spin
+        } else if (attempt < YIELD_LIMIT) {
+            Thread.yield();
+            return;
+        }
+        Thread current = Thread.currentThread();
+        parked.add(current);
+        try {
+            if (!ready.getAsBoolean()) {
+                LockSupport.park(this);
+            }
+        } finally {
+            parked.remove(current);
+        }
+    }
+
+    /**
+     * Wake all parked waiters, called after each change that may allow a waiter to proceed.
+     */
+    public void signalAll() {
+        if (parked.isEmpty()) {
+            return;
+        }
+        for (Thread thread : parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -3,8 +3,9 @@
 //
 package org.jprolog.variables;
 
+import org.jprolog.bootstrap.Interned;
 import org.jprolog.enumerators.EnumTermStrategy;
-import org.jprolog.execution.Backtrack;
+import org.jprolog.exceptions.FutureTypeError;
 import org.jprolog.execution.CompileContext;
 import org.jprolog.execution.Environment;
 import org.jprolog.execution.LocalContext;
@@ -15,7 +16,6 @@ import org.jprolog.io.WriteContext;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
-import java.util.ListIterator;
 
 /**
  * Represents an activated variable (that can be instantiated).
@@ -28,8 +28,10 @@ public class ActiveVariable implements Variable {
     // Unique ID of variable to disambiguate two different variables of same name, note that active variables
     // have an ID that is unique across the entire environment
     private final long id;
-    // Value. In the case of co-reference variables, this is a unique variable, recursive to any depth
+    // Value. In the case of co-reference variables, this is the older variable, recursive to any depth
     private Term value = null;
+    // True while value is being resolved, a variable reached again from its own value is part of a cyclic term
+    private boolean resolving = false;
     // If a labeled variable is computed, it is cached here
     private WeakReference<LabeledVariable> label = null;
 
@@ -108,22 +110,36 @@ public class ActiveVariable implements Variable {
      */
     @Override
     public Term value() {
-        if (value == null) {
-            return this;
-        } else {
-            return value.value();
+        // co-reference chains are followed in a loop
+        ActiveVariable var = this;
+        while (var.value != null) {
+            if (!(var.value instanceof ActiveVariable)) {
+                return var.value.value();
+            }
+            var = (ActiveVariable) var.value;
         }
+        return var;
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}. Every cycle of a cyclic term passes through a bound variable, so a cycle that is followed
+     * recursively is detected here and is a type error. Cycles followed in a loop (the tail of a list, or the last
+     * argument of a compound term) are detected by the loop.
      */
     @Override
     public Term resolve(LocalContext context) {
-        if (value == null) {
+        Term tip = value();
+        if (tip == this) {
             return this;
-        } else {
-            return value.resolve(context);
+        }
+        if (resolving) {
+            throw new FutureTypeError(Interned.ACYCLIC_TERM_TYPE, tip);
+        }
+        resolving = true;
+        try {
+            return tip.resolve(context);
+        } finally {
+            resolving = false;
         }
     }
 
@@ -135,7 +151,7 @@ public class ActiveVariable implements Variable {
         if (value == null) {
             return strategy.visitVariable(this);
         } else {
-            return value.enumTerm(strategy);
+            return strategy.visitBoundVariable(this);
         }
     }
 
@@ -188,27 +204,10 @@ public class ActiveVariable implements Variable {
     }
 
     /**
-     * {@inheritDoc}
+     * Called on backtracking to undo a binding recorded on the trail (see {@link Environment#trail(ActiveVariable)}).
      */
-    private void pushBacktrack() {
-        environment.pushBacktrackIfNotDeterministic(id, new Backtrack() {
-            /**
-             * {@inheritDoc}
-             */
-            @Override
-            public void undo() {
-                // Undo is trivial.
-                value = null;
-            }
-
-            /**
-             * {@inheritDoc}
-             */
-            @Override
-            public void cut(ListIterator<Backtrack> iter) {
-                iter.remove();
-            }
-        });
+    public void unbind() {
+        value = null;
     }
 
     /**
@@ -227,20 +226,25 @@ public class ActiveVariable implements Variable {
         Term tipOther = newValue.value();
         if (tipOther.isInstantiated()) {
             value = tipOther;
-            pushBacktrack();
+            environment.trail(this);
             return true;
         }
         if (!((Variable) tipOther).isActive()) {
             throw new InternalError("Incorrect state attempting to assign inactive variable " + tipOther.toString() + " to " + toString());
         }
         ActiveVariable varOther = (ActiveVariable) tipOther;
-        // introduce new independent variable for co-reference assignment
-        long id = environment.nextVariableId();
-        ActiveVariable coref = new ActiveVariable(environment, "_G" + id, id);
-        value = coref;
-        pushBacktrack();
-        varOther.value = coref;
-        varOther.pushBacktrack();
+        if (varOther == this) {
+            return true;
+        }
+        // co-reference, the younger variable refers to the older variable, as the younger variable is more likely to
+        // be deterministic (and not need to be trailed)
+        if (varOther.id > id) {
+            varOther.value = this;
+            environment.trail(varOther);
+        } else {
+            value = varOther;
+            environment.trail(this);
+        }
         return true;
     }
 }
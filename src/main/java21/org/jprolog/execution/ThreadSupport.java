@@ -0,0 +1,25 @@
+// Author: Jamie Hunter, 2019
+// Refer to LICENSE.TXT for copyright and license information
+//
+package org.jprolog.execution;
+
+/**
+ * Creates the Java thread of each {@link PrologThread}. This version, used on Java 21 or later, creates a virtual
+ * thread. Virtual threads are always daemon threads.
+ */
+public final class ThreadSupport {
+    private ThreadSupport() {
+        // Static methods/fields only
+    }
+
+    /**
+     * Create a virtual thread.
+     *
+     * @param task Task to run
+     * @param name Name of thread
+     * @return new thread, not started
+     */
+    public static Thread newThread(Runnable task, String name) {
+        return Thread.ofVirtual().name(name).unstarted(task);
+    }
+}
@@ -0,0 +1,109 @@
+package org.jprolog.execution;
+
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.jprolog.test.Matchers.*;
+
+/**
+ * Large lists and long right-recursive terms are traversed without recursion in Java. Sizes are well beyond the depth
+ * at which a recursive traversal overflows the Java stack. The default size keeps the tests to a few seconds each, set
+ * system property jprolog.deepTermSize (e.g. -Djprolog.deepTermSize=10000000 -DargLine=-Xmx4g) to run larger.
+ */
+public class DeepTermTest {
+
+    private static final int LIST_SIZE = Integer.getInteger("jprolog.deepTermSize", 1000000);
+    private static final int CONJ_SIZE = LIST_SIZE;
+
+    @TempDir
+    public File testFolder;
+
+    protected Given given() {
+        return PrologTest.given("mklist(0, []) :- !.")
+                .and("mklist(N, [N|T]) :- N1 is N-1, mklist(N1, T).")
+                .and("mkconj(0, true) :- !.")
+                .and("mkconj(N, (X = N, T)) :- N1 is N-1, mkconj(N1, T).")
+                .and("mkseq(0, true) :- !.")
+                .and("mkseq(N, (N, T)) :- N1 is N-1, mkseq(N1, T).");
+    }
+
+    @Test
+    public void testLargeListRoundTrip() {
+        // each element of list is a separate list, linked by a tail variable
+        given().when("?- mklist(" + LIST_SIZE + ", L), copy_term(L, C), C == L, " +
+                "findall(L, true, [F]), F == C, length(F, N), msort(F, [Min|_]).")
+                .assertSuccess()
+                .variable("N", isInteger(LIST_SIZE))
+                .variable("Min", isInteger(1))
+                .andWhen("?- mklist(" + LIST_SIZE + ", L), assertz(big(L)), big(B), L = B, " +
+                        "compare(O, [0|L], [0|B]).")
+                .assertSuccess()
+                .variable("O", isAtom("="))
+                .andWhen("?- mklist(" + LIST_SIZE + ", L), length(P, " + LIST_SIZE + "), P = [X|_], L = P.")
+                .assertSuccess()
+                .variable("X", isInteger(LIST_SIZE));
+    }
+
+    @Test
+    public void testTextRoundTrip() {
+        String path = new File(testFolder, "big.pl").getPath().replace("\\", "\\\\").replace("'", "''");
+        // the whole list is written on one line
+        given().when("?- mklist(" + LIST_SIZE + ", L), mkseq(" + CONJ_SIZE + ", C), " +
+                "open('" + path + "', write, S), writeq(S, big(L, C)), write(S, '.'), nl(S), " +
+                "write(S, 'end.'), nl(S), close(S), " +
+                "open('" + path + "', read, R), read(R, big(L2, C2)), read(R, E), close(R), " +
+                "L2 == L, C2 == C, length(L2, N).")
+                .assertSuccess()
+                .variable("N", isInteger(LIST_SIZE))
+                .variable("E", isAtom("end"));
+    }
+
+    @Test
+    public void testCanonicalTextRoundTrip() {
+        String path = new File(testFolder, "canonical.pl").getPath().replace("\\", "\\\\").replace("'", "''");
+        // lists are written and read as nested structures
+        given().when("?- mklist(" + LIST_SIZE + ", L), " +
+                "open('" + path + "', write, S), write_canonical(S, big(L)), write(S, '.'), nl(S), close(S), " +
+                "open('" + path + "', read, R), read(R, big(L2)), close(R), " +
+                "L2 == L, length(L2, N).")
+                .assertSuccess()
+                .variable("N", isInteger(LIST_SIZE));
+    }
+
+    @Test
+    public void testLongConjunction() {
+        given().when("?- mkconj(" + CONJ_SIZE + ", C), call(C), C = (X = _, _).")
+                .assertSuccess()
+                .variable("X", isInteger(CONJ_SIZE))
+                .andWhen("?- mkconj(" + CONJ_SIZE + ", C), assertz((big :- C)), big, clause(big, B), " +
+                        "B = (_ = N, _).")
+                .assertSuccess()
+                .variable("N", isInteger(CONJ_SIZE))
+                .andWhen("?- mkconj(" + CONJ_SIZE + ", C), assertz((big(Y) :- C, Y = done)), big(Z).")
+                .assertSuccess()
+                .variable("Z", isAtom("done"));
+    }
+
+    @Test
+    public void testBinaryRoundTrip() {
+        given().when("?- mklist(" + LIST_SIZE + ", L), term_to_binary(L, B), term_to_binary(C, B), C == L.")
+                .assertSuccess()
+                .andWhen("?- mkconj(" + CONJ_SIZE + ", C), term_to_binary(C, B), term_to_binary(D, B), " +
+                        "D = (_ = X, _).")
+                .assertSuccess()
+                .variable("X", isInteger(CONJ_SIZE));
+    }
+
+    @Test
+    public void testVariableOrder() {
+        // variables of a right-recursive term are created in order of appearance
+        given().when("?- X = f(A, g(B, h(C))), A @< B, B @< C.")
+                .assertSuccess()
+                .andWhen("?- sort([f(A, g(B)), B, A], [P, Q|_]), P == A, Q == B.")
+                .assertSuccess();
+    }
+}
@@ -0,0 +1,43 @@
+package org.jprolog.execution;
+
+import org.jprolog.constants.PrologInteger;
+import org.jprolog.expressions.Term;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MessageQueueTest {
+
+    @Test
+    public void testDeferredMessagesCountTowardsBound() throws Exception {
+        MessageQueue queue = new MessageQueue(PrologInteger.from(1), null, 2);
+        Term a = PrologInteger.from(10);
+        Term b = PrologInteger.from(11);
+        assertThat(queue.send(a), is(true));
+        assertThat(queue.send(b), is(true));
+        // a is deferred while receiving b
+        assertThat(queue.receive(m -> m == b), is(b));
+        assertThat(queue.send(PrologInteger.from(12)), is(true));
+        // queue holds a (deferred) and 12, a further send waits
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread sender = new Thread(() -> {
+            try {
+                queue.send(PrologInteger.from(13));
+            } catch (InterruptedException e) {
+                failure.set(e);
+            }
+        });
+        sender.start();
+        sender.join(200);
+        assertThat(sender.isAlive(), is(true));
+        assertThat(queue.receive(m -> m == a), is(a));
+        sender.join(10000);
+        assertThat(sender.isAlive(), is(false));
+        assertThat(failure.get(), is(nullValue()));
+        assertThat(queue.size(), is(2));
+    }
+}
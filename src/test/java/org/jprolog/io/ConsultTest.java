@@ -11,6 +11,9 @@ import org.junit.jupiter.api.io.TempDir;
 import org.jprolog.execution.Environment;
 import org.jprolog.expressions.Term;
 import org.jprolog.flags.ReadOptions;
+import org.jprolog.predicates.ClauseEntry;
+import org.jprolog.predicates.ClauseSearchPredicate;
+import org.jprolog.predicates.Predication;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -20,8 +23,10 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 
 import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ConsultTest {
@@ -170,4 +175,58 @@ public class ConsultTest {
                 .assertFailed() // did not load new file
         ;
     }
+
+    @Test
+    public void testMake() throws IOException {
+        File file = new File(testFolder, "testMake.tmp");
+        String path = createFile(file,
+                "a(1).",
+                "a(2) :- true.",
+                "b(X) :- a(X), X > 1.",
+                "c(1).",
+                ":- b(X), expectLog(X)."
+        );
+        Given given = given().when("?- consult('" + path + "').")
+                .assertSuccess()
+                .and();
+        ClauseEntry[] a1 = clauses(given.environment(), "a", 1);
+        ClauseEntry[] b1 = clauses(given.environment(), "b", 1);
+        ClauseEntry[] c1 = clauses(given.environment(), "c", 1);
+        createFile(file,
+                "a(1).",
+                "a(3) :- true.",
+                "b(Y) :- a(Y), Y > 1.", // variant of previous clause
+                "c(1).",
+                ":- b(X), expectLog(X)." // sees the reloaded a/1
+        );
+        Files.setLastModifiedTime(file.toPath(),
+                FileTime.fromMillis(Files.getLastModifiedTime(file.toPath()).toMillis() + 10000));
+        given.when("?- make.")
+                .assertSuccess()
+                .andWhen("?- a(2).")
+                .assertFailed()
+                .andWhen("?- b(3).")
+                .assertSuccess()
+                .andWhen("?- expectLog('.').")
+                .assertSuccess();
+        checkLog(Matchers.isInteger(23));
+        ClauseEntry[] a2 = clauses(given.environment(), "a", 1);
+        ClauseEntry[] b2 = clauses(given.environment(), "b", 1);
+        ClauseEntry[] c2 = clauses(given.environment(), "c", 1);
+        assertThat(a2.length, is(2));
+        assertThat(a2[0], sameInstance(a1[0])); // unchanged
+        assertThat(a2[1], not(sameInstance(a1[1])));
+        assertThat(b2[0], sameInstance(b1[0]));
+        assertThat(c2[0], sameInstance(c1[0]));
+
+        // unchanged file is not reloaded
+        given.when("?- make.")
+                .assertSuccess();
+        assertThat(clauses(given.environment(), "a", 1), is(a2));
+    }
+
+    private ClauseEntry[] clauses(Environment environment, String name, int arity) {
+        Predication predication = new Predication(environment.internAtom(name), arity);
+        return ((ClauseSearchPredicate) environment.lookupPredicate(predication)).getClauses();
+    }
 }
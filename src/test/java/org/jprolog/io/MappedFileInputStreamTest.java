@@ -0,0 +1,95 @@
+package org.jprolog.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * A file can be opened for read via a memory mapping, the underlying helper class is MappedFileInputStream. A small
+ * window size is used to test moving between windows.
+ */
+public class MappedFileInputStreamTest {
+
+    private static final int WINDOW = 100;
+
+    @TempDir
+    public File testFolder;
+
+    private byte[] testData;
+    private MappedFileInputStream stream;
+
+    @BeforeEach
+    public void prepareTest() throws IOException {
+        File tempFile = new File(testFolder, "random.bin");
+        testData = new byte[1234];
+        ThreadLocalRandom.current().nextBytes(testData);
+        Files.write(tempFile.toPath(), testData);
+        stream = new MappedFileInputStream(FileChannel.open(tempFile.toPath(), StandardOpenOption.READ), WINDOW);
+    }
+
+    @AfterEach
+    public void endTest() throws IOException {
+        stream.close();
+    }
+
+    @Test
+    public void testReadBytes() throws IOException {
+        for (int i = 0; i < testData.length; i++) {
+            assertThat(stream.read(), is(testData[i] & 0xff));
+        }
+        assertThat(stream.read(), is(IoUtility.EOF));
+        assertPosition(testData.length);
+    }
+
+    @Test
+    public void testReadBlocks() throws IOException {
+        byte[] readData = new byte[testData.length];
+        int total = 0;
+        while (total < readData.length) {
+            int len = stream.read(readData, total, 73);
+            assertThat(len, allOf(greaterThan(0), lessThanOrEqualTo(WINDOW)));
+            total += len;
+        }
+        assertThat(readData, equalTo(testData));
+        assertThat(stream.read(readData, 0, readData.length), is(IoUtility.EOF));
+    }
+
+    @Test
+    public void testSeekAndAdvance() throws IOException {
+        setPosition(1000);
+        assertThat(stream.read(), is(testData[1000] & 0xff));
+        setPosition(50);
+        assertThat(stream.read(), is(testData[50] & 0xff));
+        assertThat(stream.available(), is(testData.length - 51));
+        assertThat(stream.advance(200), is(200));
+        assertPosition(251);
+        assertThat(stream.read(), is(testData[251] & 0xff));
+        assertThat(stream.advance(5000), is(testData.length - 252));
+        assertThat(stream.advance(1), is(IoUtility.EOF));
+        stream.seekEndOfStream();
+        assertThat(stream.read(), is(IoUtility.EOF));
+    }
+
+    private void setPosition(long position) throws IOException {
+        Position pos = new Position();
+        pos.setBytePos(position);
+        assertThat(stream.seekPosition(pos), is(true));
+    }
+
+    private void assertPosition(long expected) {
+        Position pos = new Position();
+        stream.getPosition(pos);
+        assertThat(pos.getBytePos().get(), is(expected));
+    }
+}
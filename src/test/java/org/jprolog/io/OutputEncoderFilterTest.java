@@ -41,6 +41,23 @@ public class OutputEncoderFilterTest {
         assertBuffer("\u0904\uD83c\uDf09x\u0903y");
     }
 
+    @Test
+    public void testBufferedChunks() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputEncoderFilter buffered = new OutputEncoderFilter(
+                new SequentialOutputStream(target), StandardCharsets.UTF_8, true);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("ab\uD83c\uDf09"); // surrogate pairs split across chunks
+        }
+        buffered.write(text.toString());
+        buffered.write('!');
+        int expected = text.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+        assertThat(target.size() < expected, is(true)); // tail held back
+        buffered.flush();
+        assertThat(new String(target.toByteArray(), StandardCharsets.UTF_8), is(text + "!"));
+    }
+
     private static Integer[] conv(byte... data) {
         Integer[] conv = new Integer[data.length];
         for (int i = 0; i < data.length; i++) {
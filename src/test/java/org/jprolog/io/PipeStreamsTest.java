@@ -0,0 +1,109 @@
+package org.jprolog.io;
+
+import org.jprolog.test.Matchers;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PipeStreamsTest {
+
+    @Test
+    public void testNonBlockingWrapAround() throws IOException {
+        PipeStreams pipe = new PipeStreams(5); // rounded up to 8
+        byte[] out = new byte[8];
+        assertThat(pipe.tryWrite("abcdef".getBytes(), 0, 6), is(6));
+        assertThat(pipe.tryWrite("ghij".getBytes(), 0, 4), is(2));
+        assertThat(pipe.tryWrite("x".getBytes(), 0, 1), is(0));
+        assertThat(pipe.tryRead(out, 0, 5), is(5));
+        assertThat(new String(out, 0, 5), is(equalTo("abcde")));
+        assertThat(pipe.tryWrite("klmno".getBytes(), 0, 5), is(5));
+        assertThat(pipe.getInput().available(), is(8));
+        assertThat(pipe.tryRead(out, 0, 8), is(8));
+        assertThat(new String(out, 0, 8), is(equalTo("fghklmno")));
+        assertThat(pipe.tryRead(out, 0, 8), is(0));
+        pipe.getOutput().close();
+        assertThat(pipe.tryRead(out, 0, 8), is(IoUtility.EOF));
+    }
+
+    @Test
+    public void testBulkTransferBetweenThreads() throws Exception {
+        PipeStreams pipe = new PipeStreams(64);
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + (i >> 8));
+        }
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try (OutputStream output = pipe.getOutput()) {
+                for (int off = 0; off < data.length; off += 1000) {
+                    output.write(data, off, Math.min(1000, data.length - off));
+                }
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        InputStream input = pipe.getInput();
+        byte[] block = new byte[777];
+        int count;
+        while ((count = input.read(block, 0, block.length)) >= 0) {
+            received.write(block, 0, count);
+        }
+        writer.join();
+        assertThat(failure.get(), is((Exception) null));
+        assertThat(Arrays.equals(received.toByteArray(), data), is(true));
+    }
+
+    @Test
+    public void testParkedReaderIsWoken() throws Exception {
+        PipeStreams pipe = new PipeStreams(8);
+        AtomicReference<Integer> first = new AtomicReference<>();
+        AtomicReference<Integer> second = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                first.set(pipe.getInput().read());
+                second.set(pipe.getInput().read());
+            } catch (IOException e) {
+                first.set(null);
+            }
+        });
+        reader.start();
+        Thread.sleep(100); // reader is parked
+        pipe.getOutput().write('x');
+        Thread.sleep(100);
+        pipe.getOutput().close(); // end of file
+        reader.join(5000);
+        assertThat(reader.isAlive(), is(false));
+        assertThat(first.get(), is((int) 'x'));
+        assertThat(second.get(), is(IoUtility.EOF));
+    }
+
+    @Test
+    public void testWriteAfterReaderClosed() throws IOException {
+        PipeStreams pipe = new PipeStreams(8);
+        pipe.getInput().close();
+        assertThrows(IOException.class, () -> pipe.getOutput().write(new byte[4], 0, 4));
+    }
+
+    @Test
+    public void testPipePredicate() {
+        PrologTest.given()
+                .when("?- pipe(R, W), write(W, 'a(b, \"c\"). '), close(W), " +
+                        "read(R, X), read(R, Y), close(R).")
+                .assertSuccess()
+                .variable("X", Matchers.isCompoundTerm("a", Matchers.isAtom("b"), Matchers.isString("c")))
+                .variable("Y", Matchers.isAtom("end_of_file"));
+    }
+}
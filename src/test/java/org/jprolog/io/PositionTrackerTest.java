@@ -0,0 +1,45 @@
+package org.jprolog.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class PositionTrackerTest {
+
+    private static final String[] CHUNKS = {
+            "", "abc", "\n", "\n\n", "x\ty\n", "\tz", "end\n", "a\n\nb\t\tc", "\u0001\r\n", "last"
+    };
+
+    @Test
+    public void testBulkMatchesSingle() {
+        PositionTracker single = new PositionTracker();
+        PositionTracker chars = new PositionTracker();
+        PositionTracker text = new PositionTracker();
+        PositionTracker bytes = new PositionTracker();
+        for (String chunk : CHUNKS) {
+            for (int i = 0; i < chunk.length(); i++) {
+                single.visit(chunk.charAt(i));
+            }
+            char[] array = ("#" + chunk + "#").toCharArray();
+            chars.visit(array, 1, chunk.length());
+            text.visit(chunk);
+            byte[] byteArray = ("#" + chunk + "#").getBytes(StandardCharsets.ISO_8859_1);
+            bytes.visit(byteArray, 1, chunk.length());
+            assertSame(single, chars);
+            assertSame(single, text);
+            assertSame(single, bytes);
+        }
+    }
+
+    private void assertSame(PositionTracker expected, PositionTracker actual) {
+        Position expectedPos = new Position();
+        Position actualPos = new Position();
+        expected.getPosition(expectedPos);
+        actual.getPosition(actualPos);
+        assertThat(actualPos.getLinePos(), is(expectedPos.getLinePos()));
+        assertThat(actualPos.getColumnPos(), is(expectedPos.getColumnPos()));
+    }
+}
@@ -1,5 +1,6 @@
 package org.jprolog.io;
 
+import org.jprolog.exceptions.PrologPermissionError;
 import org.jprolog.test.Matchers;
 import org.jprolog.test.PrologTest;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import java.nio.file.Files;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ReadWriteTest {
 
@@ -74,4 +76,57 @@ public class ReadWriteTest {
             assertThat(text, equalTo("foobar"));
         }
     }
+
+    @Test
+    public void testOpenMapped() throws IOException {
+        File tempFile = new File(testFolder, "openMapped.txt");
+        String path = quotePath(tempFile);
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("a(b,c).\nd(e).\n");
+        }
+        PrologTest.given()
+                .when("?- open('" + path + "', read, File, [map(true)]), " +
+                        "read(File, X), read(File, Y), read(File, Z), " +
+                        "close(File).")
+                .assertSuccess()
+                .variable("X", Matchers.isCompoundTerm("a", Matchers.isAtom("b"), Matchers.isAtom("c")))
+                .variable("Y", Matchers.isCompoundTerm("d", Matchers.isAtom("e")))
+                .variable("Z", Matchers.isAtom("end_of_file"));
+        assertThrows(PrologPermissionError.class, () -> PrologTest.given()
+                .when("?- open('" + path + "', write, _, [map(true)])."));
+    }
+
+    @Test
+    public void testOpenBufferSize() throws IOException {
+        File tempFile = new File(testFolder, "openBufferSize.txt");
+        String path = quotePath(tempFile);
+        PrologTest.given()
+                .when("?- open('" + path + "', write, Out, [buffer_size(1048576)]), " +
+                        "write(Out, 'a(b,c).'), close(Out), " +
+                        "open('" + path + "', read, In, [buffer_size(1)]), " +
+                        "read(In, X), close(In).")
+                .assertSuccess()
+                .variable("X", Matchers.isCompoundTerm("a", Matchers.isAtom("b"), Matchers.isAtom("c")));
+    }
+
+    @Test
+    public void testFastWriteAndRead() throws IOException {
+        File tempFile = new File(testFolder, "fastWriteAndRead.bin");
+        String path = quotePath(tempFile);
+        PrologTest.given()
+                .when("?- open('" + path + "', write, Out, [type(binary)]), " +
+                        "fast_write(Out, a(X, [1,X], \"s\", 1.5, 123456789012345678901234567890)), " +
+                        "fast_write(Out, b), close(Out), " +
+                        "open('" + path + "', read, In, [type(binary)]), " +
+                        "fast_read(In, A), fast_read(In, B), fast_read(In, C), close(In).")
+                .assertSuccess()
+                .variable("A", Matchers.isCompoundTerm("a",
+                        Matchers.isVariable(),
+                        Matchers.isList(Matchers.isInteger(1), Matchers.isVariable()),
+                        Matchers.isString("s"),
+                        Matchers.isFloat(1.5),
+                        Matchers.isInteger(new java.math.BigInteger("123456789012345678901234567890"))))
+                .variable("B", Matchers.isAtom("b"))
+                .variable("C", Matchers.isAtom("end_of_file"));
+    }
 }
@@ -9,6 +9,7 @@ import org.jprolog.constants.PrologAtomInterned;
 import org.jprolog.constants.PrologEmptyList;
 import org.jprolog.execution.Environment;
 import org.jprolog.execution.OperatorEntry;
+import org.jprolog.expressions.CompoundTermImpl;
 import org.jprolog.expressions.Term;
 import org.jprolog.expressions.TermListImpl;
 import org.jprolog.flags.ReadOptions;
@@ -134,4 +135,21 @@ public class StructureWriterTest {
         expect(read("(1^2)@@@ ."), equalToCompressingWhiteSpace("1^2@@@"));
     }
 
+    @Test
+    public void testRightRecursiveOperators() throws IOException {
+        expect(read("1-(2-(3-4))."), equalToCompressingWhiteSpace("1-(2-(3-4))"));
+        expect(read("a:-(b:-c)."), equalToCompressingWhiteSpace("a:-(b:-c)"));
+        expect(read("a,(b;c;d),e."), equalToCompressingWhiteSpace("a,(b;c;d),e"));
+        expect(read("f((a,b,c),d)."), equalToCompressingWhiteSpace("f((a,b,c),d)"));
+        expect(read("(a:-b,c,d)."), equalToCompressingWhiteSpace("a:-b,c,d"));
+        expect(read("1*(2+(3*4+5))."), equalToCompressingWhiteSpace("1*(2+(3*4+5))"));
+        // Long conjunction is written without recursion
+        Term conj = Interned.TRUE_ATOM;
+        for (int i = 0; i < 100000; i++) {
+            conj = new CompoundTermImpl(Interned.COMMA_FUNCTOR, atom("a"), conj);
+        }
+        String text = StructureWriter.toString(environment, conj, options);
+        assertThat(text.length(), equalTo(100000 * 2 + 4));
+        assertThat(text, endsWith("a,a,true"));
+    }
 }
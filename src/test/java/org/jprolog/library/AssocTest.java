@@ -0,0 +1,122 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for AVL association predicates.
+ */
+public class AssocTest {
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    @Test
+    public void testPutGet() {
+        given()
+                .when("?- empty_assoc(A0), put_assoc(b, A0, 2, A1), put_assoc(a, A1, 1, A2), " +
+                        "put_assoc(c, A2, 3, A3), get_assoc(a, A3, X), get_assoc(c, A3, Y).")
+                .assertSuccess()
+                .variable("X", isInteger(1))
+                .variable("Y", isInteger(3))
+                .andWhen("?- list_to_assoc([a-1], A), get_assoc(b, A, _).")
+                .assertFailed()
+                .andWhen("?- list_to_assoc([a-1], A0), put_assoc(a, A0, 2, A), get_assoc(a, A, X).")
+                .assertSuccess()
+                .variable("X", isInteger(2))
+        ;
+    }
+
+    @Test
+    public void testOrdering() {
+        given()
+                .when("?- list_to_assoc([c-3, a-1, e-5, b-2, d-4], A), assoc_to_keys(A, K), assoc_to_values(A, V).")
+                .assertSuccess()
+                .variable("K", isList(isAtom("a"), isAtom("b"), isAtom("c"), isAtom("d"), isAtom("e")))
+                .variable("V", isList(isInteger(1), isInteger(2), isInteger(3), isInteger(4), isInteger(5)))
+                .andWhen("?- list_to_assoc([b-2, a-1], A), assoc_to_list(A, L).")
+                .assertSuccess()
+                .variable("L", isList(
+                        isCompoundTerm("-", isAtom("a"), isInteger(1)),
+                        isCompoundTerm("-", isAtom("b"), isInteger(2))))
+                .andWhen("?- list_to_assoc([b-2, a-1, c-3], A), min_assoc(A, K1, V1), max_assoc(A, K2, V2).")
+                .assertSuccess()
+                .variable("K1", isAtom("a"))
+                .variable("V1", isInteger(1))
+                .variable("K2", isAtom("c"))
+                .variable("V2", isInteger(3))
+        ;
+    }
+
+    @Test
+    public void testDelete() {
+        given()
+                .when("?- list_to_assoc([a-1, b-2, c-3, d-4], A0), del_assoc(b, A0, V, A), assoc_to_keys(A, K).")
+                .assertSuccess()
+                .variable("V", isInteger(2))
+                .variable("K", isList(isAtom("a"), isAtom("c"), isAtom("d")))
+                .andWhen("?- list_to_assoc([a-1], A0), del_assoc(b, A0, _, _).")
+                .assertFailed()
+        ;
+    }
+
+    @Test
+    public void testStructure() {
+        given()
+                .when("?- list_to_assoc([a-1], A), A == t(a, 1, =, t, t).")
+                .assertSuccess()
+                .andWhen("?- list_to_assoc([a-1, b-2], A), A = t(a, X, <, t, t(b, Y, =, t, t)).")
+                .assertSuccess()
+                .variable("X", isInteger(1))
+                .variable("Y", isInteger(2))
+                .andWhen("?- get_assoc(b, t(a, 1, <, t, t(b, 2, =, t, t)), X).")
+                .assertSuccess()
+                .variable("X", isInteger(2))
+                .andWhen("?- put_assoc(c, t(a, 1, <, t, t(b, 2, =, t, t)), 3, A), assoc_to_keys(A, K).")
+                .assertSuccess()
+                .variable("K", isList(isAtom("a"), isAtom("b"), isAtom("c")))
+        ;
+    }
+
+    @Test
+    public void testLargeAssoc() {
+        given()
+                .that("build(N, N, A, A) :- !.")
+                .and("build(I, N, A0, A) :- put_assoc(I, A0, I, A1), I1 is I+1, build(I1, N, A1, A).")
+                .when("?- empty_assoc(A0), build(0, 2000, A0, A), get_assoc(1234, A, X), " +
+                        "assoc_to_keys(A, K), length(K, L).")
+                .assertSuccess()
+                .variable("X", isInteger(1234))
+                .variable("L", isInteger(2000))
+        ;
+    }
+
+    @Test
+    public void testUnboundValues() {
+        given()
+                .when("?- list_to_assoc([a-X], A), get_assoc(a, A, Y), Y = 5.")
+                .assertSuccess()
+                .variable("X", isInteger(5))
+        ;
+        assertThrows(PrologDomainError.class, () ->
+                given().when("?- list_to_assoc([a-1, a-2], _)."));
+        assertThrows(PrologTypeError.class, () ->
+                given().when("?- get_assoc(a, foo, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                given().when("?- get_assoc(a, _, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                given().when("?- put_assoc(a, _, 1, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                given().when("?- assoc_to_keys(_, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                given().when("?- min_assoc(_, _, _)."));
+    }
+}
@@ -0,0 +1,97 @@
+package org.jprolog.library;
+
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import static org.jprolog.test.Matchers.*;
+
+/**
+ * Tests for concurrent_findall/4, concurrent_maplist/2,3,4 and first_solution/3.
+ */
+public class ConcurrentTest {
+
+    protected Given given() {
+        return PrologTest.given()
+                .that("nat(0).")
+                .and("nat(N) :- nat(M), N is M + 1.")
+                .and("range(N, N, [N]) :- !.")
+                .and("range(L, H, [L|T]) :- L1 is L + 1, range(L1, H, T).")
+                .and("sq(X, Y) :- Y is X * X.")
+                .and("add(X, Y, Z) :- Z is X + Y.")
+                .and("pair(X, X-a).")
+                .and("pair(X, X-b).")
+                .and("loop :- repeat, fail.");
+    }
+
+    @Test
+    public void testConcurrentFindAll() {
+        given()
+                .when("?- range(1, 2000, L), concurrent_findall(Y, member(X, L), sq(X, Y), R), " +
+                        "findall(Y, (member(X, L), sq(X, Y)), R2), R == R2, length(R, Len).")
+                .assertSuccess()
+                .variable("Len", isInteger(2000))
+                .andWhen("?- concurrent_findall(P, member(X, [1, 2, 3]), pair(X, P), R).")
+                .assertSuccess()
+                .variable("R", isList(
+                        isCompoundTerm("-", isInteger(1), isAtom("a")),
+                        isCompoundTerm("-", isInteger(1), isAtom("b")),
+                        isCompoundTerm("-", isInteger(2), isAtom("a")),
+                        isCompoundTerm("-", isInteger(2), isAtom("b")),
+                        isCompoundTerm("-", isInteger(3), isAtom("a")),
+                        isCompoundTerm("-", isInteger(3), isAtom("b"))))
+                .andWhen("?- concurrent_findall(X-V, member(X, [1, 2]), true, [A-V1, B-V2]), V1 \\== V2.")
+                .assertSuccess()
+                .variable("A", isInteger(1))
+                .variable("B", isInteger(2))
+                .andWhen("?- concurrent_findall(X, fail, true, R).")
+                .assertSuccess()
+                .variable("R", isList())
+                .andWhen("?- catch(concurrent_findall(Y, member(X, [1, a, 3]), Y is X + 1, R), " +
+                        "error(type_error(T, V), _), true).")
+                .assertSuccess()
+                .variable("T", isAtom("evaluable"))
+                .variable("V", isCompoundTerm("/", isAtom("a"), isInteger(0)));
+    }
+
+    @Test
+    public void testConcurrentMaplist() {
+        given()
+                .when("?- range(1, 500, L), concurrent_maplist(sq, L, S), maplist(sq, L, S2), S == S2.")
+                .assertSuccess()
+                .andWhen("?- concurrent_maplist(integer, [1, 2, 3]).")
+                .assertSuccess()
+                .andWhen("?- concurrent_maplist(integer, [1, a, 3]).")
+                .assertFailed()
+                .andWhen("?- concurrent_maplist(integer, [a]).")
+                .assertFailed()
+                .andWhen("?- concurrent_maplist(pair, [1, 2], P).")
+                .assertSuccess()
+                .variable("P", isList(
+                        isCompoundTerm("-", isInteger(1), isAtom("a")),
+                        isCompoundTerm("-", isInteger(2), isAtom("a"))))
+                .andWhen("?- concurrent_maplist(pair, [1, 2], [_, 2-c]).")
+                .assertFailed()
+                .andWhen("?- concurrent_maplist(add, [1, 2], [10, 20], R).")
+                .assertSuccess()
+                .variable("R", isList(isInteger(11), isInteger(22)));
+    }
+
+    @Test
+    public void testFirstSolution() {
+        given()
+                .when("?- first_solution(X, [loop, (nat(N), N > 1000, X = N)], []).")
+                .assertSuccess()
+                .variable("X", isInteger(1001))
+                .andWhen("?- first_solution(X, [fail, X = a], [on_fail(continue)]).")
+                .assertSuccess()
+                .variable("X", isAtom("a"))
+                .andWhen("?- first_solution(X, [fail, fail], [on_fail(continue)]).")
+                .assertFailed()
+                .andWhen("?- first_solution(X, [], []).")
+                .assertFailed()
+                .andWhen("?- catch(first_solution(X, [throw(oops)], []), E, true).")
+                .assertSuccess()
+                .variable("E", isAtom("oops"));
+    }
+}
@@ -0,0 +1,148 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologExistenceError;
+import org.jprolog.exceptions.PrologSyntaxError;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.Matchers.any;
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for csv_read_file/3, csv_read_file_row/3 and csv_read_stream/3.
+ */
+public class CsvTest {
+
+    @TempDir
+    public File testFolder;
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    private String quotePath(File path) {
+        return path.getPath().replace("\\", "\\\\").replace("'", "''");
+    }
+
+    private String write(String name, String text) throws IOException {
+        File file = new File(testFolder, name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(text);
+        }
+        return quotePath(file);
+    }
+
+    @Test
+    public void testReadFile() throws IOException {
+        String path = write("data.csv",
+                "name,count,ratio\n" +
+                        "a,1,1.5\r\n" +
+                        "\n" +
+                        "\"b, \"\"quoted\"\"\",-2,\"3\"\n" +
+                        "\"multi\nline\",,x"); // no final newline
+        given()
+                .when("?- csv_read_file('" + path + "', Rows, [header(true)]).")
+                .assertSuccess()
+                .variable("Rows", isList(
+                        isCompoundTerm("row", isAtom("a"), isInteger(1), isFloat(1.5)),
+                        isCompoundTerm("row", isAtom("b, \"quoted\""), isInteger(-2), isAtom("3")),
+                        isCompoundTerm("row", isAtom("multi\nline"), isAtom(""), isAtom("x"))
+                ))
+                .andWhen("?- csv_read_file('" + path + "', [R|_], [functor(col), convert(false)]).")
+                .assertSuccess()
+                .variable("R", isCompoundTerm("col", isAtom("name"), isAtom("count"), isAtom("ratio")))
+        ;
+    }
+
+    @Test
+    public void testReadFileRow() throws IOException {
+        String path = write("data.tsv", "a\t1\nb\t2\nc\t3\n");
+        given()
+                .when("?- csv_read_file_row('" + path + "', row(X, Y), []).")
+                .assertSuccess()
+                .variable("X", isAtom("a"))
+                .variable("Y", isInteger(1))
+                .anotherSolution()
+                .assertSuccess()
+                .variable("X", isAtom("b"))
+                .anotherSolution()
+                .assertSuccess()
+                .variable("X", isAtom("c"))
+                .anotherSolution()
+                .assertFailed()
+                .andWhen("?- csv_read_file_row('" + path + "', row(b, Y), []).")
+                .assertSuccess()
+                .variable("Y", isInteger(2))
+        ;
+    }
+
+    @Test
+    public void testReadFileRowCut() throws IOException {
+        String path = write("cut.csv", "a,1\nb,2\n");
+        Given given = given();
+        given.when("?- once(csv_read_file_row('" + path + "', R, [])), " +
+                "findall(S, stream_property(S, file_name('" + path + "')), L).")
+                .assertSuccess()
+                .variable("R", isCompoundTerm("row", isAtom("a"), isInteger(1)))
+                .variable("L", isList(isInteger(any(BigInteger.class))))
+                .andWhen("?- findall(R, csv_read_file_row('" + path + "', R, []), _), " +
+                        "findall(S, stream_property(S, file_name('" + path + "')), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(any(BigInteger.class)))); // only the stream that was cut
+        given.environment().abortReset(); // closes stream left open by cut
+        given.when("?- stream_property(S, file_name('" + path + "')), stream_property(S, input).")
+                .assertFailed()
+                .andWhen("?- csv_read_file_row('" + path + "', R, [stream(S)]), !, close(S), " +
+                        "\\+ stream_property(_, file_name('" + path + "')).")
+                .assertSuccess()
+                .variable("R", isCompoundTerm("row", isAtom("a"), isInteger(1)));
+    }
+
+    @Test
+    public void testReadStream() throws IOException {
+        StringBuilder text = new StringBuilder();
+        StringBuilder longColumn = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longColumn.append((char) ('a' + i % 26));
+        }
+        text.append(" x ; \"").append(longColumn).append("\" \n");
+        for (int i = 0; i < 5000; i++) {
+            text.append(i).append(';').append(i * 2).append('\n');
+        }
+        String path = write("data.txt", text.toString());
+        given()
+                .when("?- open('" + path + "', read, S), " +
+                        "findall(R, csv_read_stream(S, R, [separator(0';), strip(true)]), [First|Rest]), " +
+                        "close(S), length(Rest, N), Rest = [Second|_], arg(2, First, Long), atom_length(Long, L).")
+                .assertSuccess()
+                .variable("N", isInteger(5000))
+                .variable("Second", isCompoundTerm("row", isInteger(0), isInteger(0)))
+                .variable("L", isInteger(20000))
+        ;
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        String path = write("bad.csv", "a,\"unterminated\n");
+        assertThrows(PrologSyntaxError.class, () ->
+                given().when("?- csv_read_file('" + path + "', _, []).")
+        );
+        String path2 = write("bad2.csv", "a,\"b\"c\n");
+        assertThrows(PrologSyntaxError.class, () ->
+                given().when("?- csv_read_file('" + path2 + "', _, []).")
+        );
+        assertThrows(PrologExistenceError.class, () ->
+                given().when("?- csv_read_file('" + quotePath(new File(testFolder, "none.csv")) + "', _, []).")
+        );
+    }
+}
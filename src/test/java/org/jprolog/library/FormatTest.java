@@ -0,0 +1,109 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologFormatError;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import static org.jprolog.test.Matchers.isAtom;
+import static org.jprolog.test.Matchers.isString;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests format/2,3 and with_output_to/2
+ */
+public class FormatTest {
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    @Test
+    public void testFormatDirectives() {
+        given()
+                .when("?- format(atom(A), 'a~wb~qc~ad~~', [f(1), 'B c', 'D e']).")
+                .assertSuccess()
+                .variable("A", isAtom("af(1)b'B c'cD ed~"))
+                .andWhen("?- format(atom(A), '~d ~2d ~D ~2D', [42, 1234, 1234567, -5]).")
+                .assertSuccess()
+                .variable("A", isAtom("42 12.34 1,234,567 -0.05"))
+                .andWhen("?- format(atom(A), '~2f ~f ~3e ~0f', [3.14159, 2, 1500.0, 7]).")
+                .assertSuccess()
+                .variable("A", isAtom("3.14 2.000000 1.500e+03 7"))
+                .andWhen("?- format(atom(A), '~s~c~3c~n~i~a~8r~16R', [\"ab\", 0'c, 0'd, skip, x, 8, 255]).")
+                .assertSuccess()
+                .variable("A", isAtom("abcddd\nx10FF"))
+                .andWhen("?- format(atom(A), '~*c', [3, 0'z]).")
+                .assertSuccess()
+                .variable("A", isAtom("zzz"))
+                .andWhen("?- format(atom(A), 'no args', []).")
+                .assertSuccess()
+                .variable("A", isAtom("no args"))
+                .andWhen("?- format(string(S), '~w', single).")
+                .assertSuccess()
+                .variable("S", isString("single"))
+        ;
+    }
+
+    @Test
+    public void testFormatColumns() {
+        given()
+                .when("?- format(atom(A), '~w~10|~w', [abc, def]).")
+                .assertSuccess()
+                .variable("A", isAtom("abc       def"))
+                .andWhen("?- format(atom(A), '~t~w~10|~w', [abc, def]).")
+                .assertSuccess()
+                .variable("A", isAtom("       abcdef"))
+                .andWhen("?- format(atom(A), '~t~w~t~9|', [abc]).")
+                .assertSuccess()
+                .variable("A", isAtom("   abc   "))
+                .andWhen("?- format(atom(A), '~w~`-t~6+~w~t~6+|', [ab, cd]).")
+                .assertSuccess()
+                .variable("A", isAtom("ab----cd    |"))
+                .andWhen("?- format(atom(A), 'x~nab~4|y', []).")
+                .assertSuccess()
+                .variable("A", isAtom("x\nab  y"))
+        ;
+    }
+
+    @Test
+    public void testFormatColumnsAfterPriorOutput() {
+        // column stops are relative to the start of the line, including text already written
+        given()
+                .when("?- with_output_to(string(S), (format('~a~n', [start]), format('~t~d~6|~n', [123]))).")
+                .assertSuccess()
+                .variable("S", isString("start\n   123\n"))
+                .andWhen("?- with_output_to(string(S), (write(ab), format('~w~6|~w', [c, d]))).")
+                .assertSuccess()
+                .variable("S", isString("abc   d"))
+        ;
+    }
+
+    @Test
+    public void testWithOutputTo() {
+        given()
+                .when("?- with_output_to(string(S), (write(a), format('~w-~w', [b, c]), nl)).")
+                .assertSuccess()
+                .variable("S", isString("ab-c\n"))
+                .andWhen("?- with_output_to(atom(A), fail).")
+                .assertFailed()
+                .andWhen("?- catch(with_output_to(atom(A), throw(x)), x, true).")
+                .assertSuccess()
+                .andWhen("?- format(codes(C), '~w', [ab]), atom_codes(A, C).")
+                .assertSuccess()
+                .variable("A", isAtom("ab"))
+        ;
+    }
+
+    @Test
+    public void testFormatErrors() {
+        assertThrows(PrologFormatError.class, () ->
+                given().when("?- format(atom(_), '~w ~w', [a])."));
+        assertThrows(PrologFormatError.class, () ->
+                given().when("?- format(atom(_), '~w', [a, b])."));
+        assertThrows(PrologFormatError.class, () ->
+                given().when("?- format(atom(_), '~d', [a])."));
+        assertThrows(PrologFormatError.class, () ->
+                given().when("?- format(atom(_), '~j', [])."));
+    }
+}
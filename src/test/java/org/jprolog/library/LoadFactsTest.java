@@ -0,0 +1,188 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologPermissionError;
+import org.jprolog.exceptions.PrologSyntaxError;
+import org.jprolog.predicates.ClauseSearchPredicate;
+import org.jprolog.predicates.Predication;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for load_facts/2.
+ */
+public class LoadFactsTest {
+
+    @TempDir
+    public File testFolder;
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    private String quotePath(File path) {
+        return path.getPath().replace("\\", "\\\\").replace("'", "''");
+    }
+
+    private String write(String name, String text) throws IOException {
+        File file = new File(testFolder, name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(text);
+        }
+        return quotePath(file);
+    }
+
+    @Test
+    public void testPrologFacts() throws IOException {
+        String path = write("facts.pl",
+                "% comment\n" +
+                        "edge(a, b).\n" +
+                        "\n" +
+                        "edge('Hello World', -12).\r\n" +
+                        "edge(c,1.5). % trailing\n" +
+                        "node.\n" +
+                        "edge('it''s', 123456789012345678901234567890)."); // no final newline
+        given()
+                .when("?- load_facts('" + path + "', [silent(true)]), findall(X-Y, edge(X, Y), L), node.")
+                .assertSuccess()
+                .variable("L", isList(
+                        isCompoundTerm("-", isAtom("a"), isAtom("b")),
+                        isCompoundTerm("-", isAtom("Hello World"), isInteger(-12)),
+                        isCompoundTerm("-", isAtom("c"), isFloat(1.5)),
+                        isCompoundTerm("-", isAtom("it's"),
+                                isInteger(new java.math.BigInteger("123456789012345678901234567890")))))
+                .andWhen("?- retract(edge(a, b)), findall(X, edge(X, _), L).")
+                .assertSuccess()
+                .variable("L", isList(isAtom("Hello World"), isAtom("c"), isAtom("it's")));
+    }
+
+    @Test
+    public void testColumns() throws IOException {
+        String csv = write("rows.csv", "name,age\nbob,42\n\"smith, jane\",7\n\"1\",x\"y\n");
+        String tsv = write("rows.txt", "a\t1\t-2.5\n");
+        given()
+                .when("?- load_facts('" + csv + "', [header(true), functor(person), silent(true)]), " +
+                        "findall(N-A, person(N, A), L).")
+                .assertSuccess()
+                .variable("L", isList(
+                        isCompoundTerm("-", isAtom("bob"), isInteger(42)),
+                        isCompoundTerm("-", isAtom("smith, jane"), isInteger(7)),
+                        isCompoundTerm("-", isAtom("1"), isAtom("x\"y"))))
+                .andWhen("?- load_facts('" + tsv + "', [format(tsv), silent(true)]), row(A, B, C).")
+                .assertSuccess()
+                .variable("A", isAtom("a"))
+                .variable("B", isInteger(1))
+                .variable("C", isFloat(-2.5));
+    }
+
+    @Test
+    public void testManyChunks() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int count = 400000;
+        for (int i = 0; i < count; i++) {
+            builder.append("n(").append(i).append(", abcdefgh).\n");
+        }
+        String path = write("many.pl", builder.toString());
+        given()
+                .when("?- load_facts('" + path + "', [threads(4), silent(true)]), " +
+                        "findall(I, n(I, _), L), length(L, Len), msort(L, S), S == L, n(123456, X).")
+                .assertSuccess()
+                .variable("Len", isInteger(count))
+                .variable("X", isAtom("abcdefgh"));
+    }
+
+    @Test
+    public void testFactTable() throws IOException {
+        String path = write("table.pl",
+                "t(1, a, x).\n" +
+                        "t(2, b, 2).\n" +
+                        "t(3, a, 'a b').\n" +
+                        "t(99999999999999999999, c, 1.5).\n" +
+                        "t(4, 4, 4).\n" +
+                        "u.\n" +
+                        "u.\n");
+        given()
+                .when("?- load_facts('" + path + "', [silent(true)]).")
+                .assertSuccess()
+                .andWhen("?- findall(I, t(I, a, _), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(1), isInteger(3)))
+                .andWhen("?- findall(X, t(2, _, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(2)))
+                .andWhen("?- t(I, c, F).")
+                .assertSuccess()
+                .variable("I", isInteger(new java.math.BigInteger("99999999999999999999")))
+                .variable("F", isFloat(1.5))
+                .andWhen("?- findall(X, t(X, X, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(4)))
+                .andWhen("?- t(_, d, _).")
+                .assertFailed()
+                .andWhen("?- t(f(_), _, _).")
+                .assertFailed()
+                .andWhen("?- t(1, a, x), !, findall(x, u, L).")
+                .assertSuccess()
+                .variable("L", isList(isAtom("x"), isAtom("x")))
+                .andWhen("?- retract(t(2, b, _)), assertz(t(5, e, f(y))), findall(I, t(I, _, _), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(1), isInteger(3),
+                        isInteger(new java.math.BigInteger("99999999999999999999")), isInteger(4), isInteger(5)));
+    }
+
+    @Test
+    public void testFactTableUpdates() throws IOException {
+        String path = write("updates.pl",
+                "t(1, a).\n" +
+                        "t(2, b).\n" +
+                        "t(3, a).\n" +
+                        "t(4, c).\n");
+        Given given = given();
+        given.when("?- load_facts('" + path + "', [silent(true)]), assertz(t(5, a)).")
+                .assertSuccess()
+                .andWhen("?- clause(t(2, X), B).")
+                .assertSuccess()
+                .variable("X", isAtom("b"))
+                .variable("B", isAtom("true"))
+                .andWhen("?- clause(t(2, _), fail).")
+                .assertFailed()
+                .andWhen("?- retract(t(I, a)).")
+                .assertSuccess()
+                .variable("I", isInteger(1))
+                .andWhen("?- findall(I, (t(I, _), (retract(t(4, _)) -> true ; true)), L).") // logical update view
+                .assertSuccess()
+                .variable("L", isList(isInteger(2), isInteger(3), isInteger(4), isInteger(5)))
+                .andWhen("?- retractall(t(_, a)), findall(I-X, t(I, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isCompoundTerm("-", isInteger(2), isAtom("b"))))
+                .andWhen("?- retract(t(4, _)).")
+                .assertFailed();
+        ClauseSearchPredicate predicate = (ClauseSearchPredicate) given.environment().lookupPredicate(
+                new Predication(given.environment().internAtom("t"), 2));
+        assertThat(predicate.getFactTable(), is(notNullValue()));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        String bad = write("bad.pl", "f(a).\nf(X).\n");
+        assertThrows(PrologSyntaxError.class, () -> given()
+                .when("?- load_facts('" + bad + "', [silent(true)])."));
+        String good = write("good.pl", "g(a).\n");
+        assertThrows(PrologPermissionError.class, () -> given()
+                .that("g(b).")
+                .when("?- load_facts('" + good + "', [silent(true)])."));
+    }
+}
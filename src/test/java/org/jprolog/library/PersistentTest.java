@@ -0,0 +1,179 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologPermissionError;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for persistent/1,2.
+ */
+public class PersistentTest {
+
+    @TempDir
+    public File testFolder;
+
+    private Given current;
+
+    /**
+     * A journal is open in only one environment at a time, so the previous environment is released (closing its
+     * journals) before the next is created.
+     *
+     * @return {@link Given}
+     */
+    protected Given given() {
+        release();
+        current = PrologTest.given();
+        return current;
+    }
+
+    @AfterEach
+    public void release() {
+        if (current != null) {
+            current.environment().release();
+            current = null;
+        }
+    }
+
+    private String quotePath(File path) {
+        return path.getPath().replace("\\", "\\\\").replace("'", "''");
+    }
+
+    @Test
+    public void testRestore() {
+        String journal = quotePath(new File(testFolder, "p.journal"));
+        String declare = "?- persistent(p/2, [file('" + journal + "')]).";
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- assertz(p(1, a)), assertz(p(2, \"str\")), assertz(p(3, f(X, [X, Y|Y], 1.5))), " +
+                        "asserta(p(0, 123456789012345678901234567890)), assertz((p(N, rule) :- integer(N), N > 10)), " +
+                        "retract(p(2, _)).")
+                .assertSuccess();
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- findall(N, p(N, _), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(0), isInteger(1), isInteger(3)))
+                .andWhen("?- p(3, f(A, [B, C|D], F)), A == B, C == D, A \\== C.")
+                .assertSuccess()
+                .variable("F", isFloat(1.5))
+                .andWhen("?- p(0, B).")
+                .assertSuccess()
+                .variable("B", isInteger(new java.math.BigInteger("123456789012345678901234567890")))
+                .andWhen("?- p(11, R).")
+                .assertSuccess()
+                .variable("R", isAtom("rule"))
+                .andWhen("?- p(5, rule).")
+                .assertFailed()
+                .andWhen("?- retract(p(1, _)), " + declare.substring(3))
+                .assertSuccess();
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- findall(N, p(N, _), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(0), isInteger(3)))
+                .andWhen("?- abolish(p/2).")
+                .assertSuccess();
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- p(_, _).")
+                .assertFailed();
+    }
+
+    @Test
+    public void testManyFacts() {
+        String journal = quotePath(new File(testFolder, "q.journal"));
+        String declare = "?- persistent(q/2, [file('" + journal + "'), sync(false)]).";
+        given()
+                .that("add(N) :- N > 3000, !.")
+                .and("add(N) :- assertz(q(N, x)), N1 is N + 1, add(N1).")
+                .and("del(N) :- N > 2990, !.")
+                .and("del(N) :- retract(q(N, _)), N1 is N + 1, del(N1).")
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- add(1), del(1).")
+                .assertSuccess();
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- findall(N, q(N, x), L), length(L, Len), q(3000, X).")
+                .assertSuccess()
+                .variable("Len", isInteger(10))
+                .variable("X", isAtom("x"));
+    }
+
+    @Test
+    public void testIncompleteRecord() throws IOException {
+        File file = new File(testFolder, "r.journal");
+        String declare = "?- persistent(r/1, [file('" + quotePath(file) + "'), sync(true)]).";
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- assertz(r(a)), assertz(r(b)).")
+                .assertSuccess();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3); // simulate a partial write of the last record
+        }
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- findall(X, r(X), L), assertz(r(c)).")
+                .assertSuccess()
+                .variable("L", isList(isAtom("a")));
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- findall(X, r(X), L).")
+                .assertSuccess()
+                .variable("L", isList(isAtom("a"), isAtom("c")));
+    }
+
+    @Test
+    public void testInUse() {
+        String journal = quotePath(new File(testFolder, "v.journal"));
+        String declare = "?- persistent(v/1, [file('" + journal + "')]).";
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- assertz(v(1)).")
+                .assertSuccess();
+        assertThrows(PrologPermissionError.class, () -> PrologTest.given().when(declare));
+        given()
+                .when(declare)
+                .assertSuccess()
+                .andWhen("?- v(X).")
+                .assertSuccess()
+                .variable("X", isInteger(1));
+    }
+
+    @Test
+    public void testDirectiveAndErrors() {
+        String journal = quotePath(new File(testFolder, "s.journal"));
+        given()
+                .that("?- op(1150, fx, persistent).")
+                .when("?- working_directory(_, '" + quotePath(testFolder) + "'), persistent s/1, t/1.")
+                .assertSuccess()
+                .andWhen("?- assertz(s(1)), assertz(t(2)), s(X), t(Y).")
+                .assertSuccess()
+                .variable("X", isInteger(1))
+                .variable("Y", isInteger(2));
+        assertEquals(true, new File(testFolder, "s_1.journal").exists());
+        assertThrows(PrologPermissionError.class, () -> given()
+                .that("u(1).")
+                .when("?- persistent(u/1, [file('" + journal + "')])."));
+    }
+}
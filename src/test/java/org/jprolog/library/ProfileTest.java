@@ -0,0 +1,76 @@
+package org.jprolog.library;
+
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import static org.jprolog.test.Matchers.*;
+
+/**
+ * Tests for the profiler.
+ */
+public class ProfileTest {
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    @Test
+    public void testPortCounts() {
+        given()
+                .that("count(N, N) :- !.")
+                .and("count(I, N) :- I1 is I+1, count(I1, N).")
+                .and("pick(a).")
+                .and("pick(b).")
+                .and("pick(c).")
+                .when("?- profile((count(0, 10), pick(X), X == c)), profile_data(D), " +
+                        "member(profile(count/2, C, _, E, _, _, _), D), " +
+                        "member(profile(pick/1, PC, PR, _, PF, _, _), D).")
+                .assertSuccess()
+                .variable("C", isInteger(11))
+                .variable("E", isInteger(11))
+                .variable("PC", isInteger(1))
+                .variable("PR", isInteger(2))
+                .variable("PF", isInteger(0))
+                .andWhen("?- profile((pick(X), X == d)).")
+                .assertFailed()
+                // last exit is deterministic, so there is no further redo
+                .andWhen("?- profile_data(D), member(profile(pick/1, 1, 2, 3, 0, _, _), D).")
+                .assertSuccess()
+        ;
+    }
+
+    @Test
+    public void testCutAndDeterminism() {
+        given()
+                .that("count(N, N) :- !.")
+                .and("count(I, N) :- I1 is I+1, count(I1, N).")
+                .and("pick(a).")
+                .and("pick(b).")
+                .and("first(X) :- pick(X), !.")
+                .and("never :- pick(_), !, fail.")
+                .when("?- profile((first(_), (never ; true))), profile_data(D), " +
+                        "member(profile(first/1, 1, 0, 1, 0, _, _), D), " +
+                        "member(profile(never/0, 1, 0, 0, 1, _, _), D), " +
+                        "member(profile(pick/1, 2, 0, 2, 0, _, _), D).")
+                .assertSuccess()
+                // deterministic calls leave nothing on the backtrack stack
+                .andWhen("?- profile((statistics(trail, T0), count(0, 1000), statistics(trail, T1))), " +
+                        "T1 - T0 < 10.")
+                .assertSuccess()
+        ;
+    }
+
+    @Test
+    public void testSampling() {
+        given()
+                .that("loop(0) :- !.")
+                .and("loop(N) :- N1 is N-1, loop(N1).")
+                .when("?- profile(loop(300000)), profile_data(D), member(profile(loop/1, _, _, _, _, S, T), D), " +
+                        "S > 0, T >= S.")
+                .assertSuccess()
+                .andWhen("?- show_profile([top(5)]), show_profile([collapsed(true)]).")
+                .assertSuccess()
+        ;
+    }
+}
@@ -0,0 +1,81 @@
+package org.jprolog.library;
+
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.execution.EngineStatistics;
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for statistics/2.
+ */
+public class StatisticsTest {
+
+    protected Given given() {
+        return PrologTest.given();
+    }
+
+    @Test
+    public void testCounters() {
+        given()
+                .that("count(N, N) :- !.")
+                .and("count(I, N) :- I1 is I+1, count(I1, N).")
+                .when("?- statistics(inferences, I0), count(0, 100), statistics(inferences, I1), D is I1-I0, D >= 100.")
+                .assertSuccess()
+                .andWhen("?- statistics(choicepoints, C0), count(0, 10), statistics(choicepoints, C1), C1 > C0.")
+                .assertSuccess()
+                .andWhen("?- statistics(backtracks, B0), (member(_, [a,b,c]), fail ; true), " +
+                        "statistics(backtracks, B1), B1 >= B0+3.")
+                .assertSuccess()
+                .andWhen("?- statistics(trail, T), statistics(trail_max, M), M >= T.")
+                .assertSuccess()
+        ;
+    }
+
+    @Test
+    public void testTimes() {
+        given()
+                .when("?- statistics(runtime, [T, _]), statistics(walltime, [W, _]), statistics(cputime, C), " +
+                        "T >= 0, W >= 0, C >= 0.0.")
+                .assertSuccess()
+                .andWhen("?- statistics(atoms, A), A > 0, statistics(garbage_collection, [_, 0, _]).")
+                .assertSuccess()
+                .andWhen("?- K = runtime, statistics(K, [T, _]), T >= 0.")
+                .assertSuccess()
+                .andWhen("?- statistics(query_cputime, C), statistics(query_walltime, W), C >= 0.0, W >= 0, " +
+                        "statistics(query_inferences, I0), length(L, 100), maplist(=(x), L), " +
+                        "statistics(query_inferences, I1), I1 >= I0 + 100.")
+                .assertSuccess()
+        ;
+        assertThrows(PrologDomainError.class, () ->
+                given().when("?- statistics(foo, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                given().when("?- statistics(_, _)."));
+    }
+
+    @Test
+    public void testMXBeanRegistration() throws Exception {
+        Given given = given();
+        EngineStatistics stats = given.environment().getStatistics();
+        assertThat(stats.getObjectName(), is(nullValue())); // opt-in
+        ObjectName name = stats.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertThat(server.isRegistered(name), is(true));
+        assertThat(stats.register(), is(name));
+        given.when("?- statistics(inferences, _).").assertSuccess();
+        assertThat((Long) server.getAttribute(name, "Queries"), is(stats.getQueries()));
+        given.environment().release();
+        assertThat(server.isRegistered(name), is(false));
+    }
+}
@@ -0,0 +1,99 @@
+package org.jprolog.library;
+
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.jprolog.test.Matchers.*;
+
+/**
+ * Tests for threads, message queues and with_mutex/2.
+ */
+public class ThreadsTest {
+
+    protected Given given() {
+        return PrologTest.given()
+                .that("produce(Q, N, N) :- !, thread_send_message(Q, done).")
+                .and("produce(Q, I, N) :- thread_send_message(Q, item(I)), I1 is I + 1, produce(Q, I1, N).")
+                .and("consume(Q, Acc, Sum) :- thread_get_message(Q, M), " +
+                        "( M == done -> Sum = Acc ; M = item(I), Acc1 is Acc + I, consume(Q, Acc1, Sum) ).")
+                .and("incr(0) :- !.")
+                .and("incr(N) :- with_mutex(counter, (retract(counter(X)), Y is X + 1, assertz(counter(Y)))), " +
+                        "N1 is N - 1, incr(N1).");
+    }
+
+    @Test
+    public void testCreateJoin() {
+        given()
+                .when("?- thread_create(true, T, []), thread_join(T, S).")
+                .assertSuccess()
+                .variable("S", isAtom("true"))
+                .andWhen("?- thread_create(fail, T, []), thread_join(T, S).")
+                .assertSuccess()
+                .variable("S", isAtom("false"))
+                .andWhen("?- thread_create(throw(oops), T, []), thread_join(T, S).")
+                .assertSuccess()
+                .variable("S", isCompoundTerm("exception", isAtom("oops")))
+                .andWhen("?- thread_create(true, T, [alias(worker)]), thread_join(worker, S).")
+                .assertSuccess()
+                .variable("T", isAtom("worker"))
+                .variable("S", isAtom("true"))
+                .andWhen("?- thread_self(X).")
+                .assertSuccess()
+                .variable("X", isAtom("main"))
+                .andWhen("?- catch(thread_join(999, _), error(existence_error(thread, T), _), true).")
+                .assertSuccess()
+                .variable("T", isInteger(999));
+    }
+
+    @Test
+    public void testMessages() {
+        given()
+                .when("?- message_queue_create(Q, [max_size(4)]), thread_create(produce(Q, 0, 200), T, []), " +
+                        "consume(Q, 0, Sum), thread_join(T, S).")
+                .assertSuccess()
+                .variable("Sum", isInteger(19900))
+                .variable("S", isAtom("true"))
+                .andWhen("?- thread_self(Me), thread_send_message(Me, a(1)), thread_send_message(Me, b(2)), " +
+                        "thread_get_message(b(X)), thread_get_message(a(Y)).")
+                .assertSuccess()
+                .variable("X", isInteger(2))
+                .variable("Y", isInteger(1))
+                .andWhen("?- thread_send_message(main, f(1, 2)), thread_send_message(main, f(3, 3)), " +
+                        "thread_get_message(f(A, A)), thread_get_message(f(B, C)).")
+                .assertSuccess()
+                .variable("A", isInteger(3))
+                .variable("B", isInteger(1))
+                .variable("C", isInteger(2))
+                .andWhen("?- thread_self(Me), thread_create(thread_send_message(Me, hello(X, X)), T, []), " +
+                        "thread_get_message(hello(Y, Z)), thread_join(T, _), Y == Z.")
+                .assertSuccess()
+                .andWhen("?- message_queue_create(Q), message_queue_destroy(Q), " +
+                        "catch(thread_send_message(Q, x), error(existence_error(message_queue, _), _), true).")
+                .assertSuccess();
+    }
+
+    @Test
+    @Timeout(60)
+    public void testMutex() {
+        given()
+                .when("?- retractall(counter(_)), assertz(counter(0)), " +
+                        "thread_create(incr(50), T1, []), thread_create(incr(50), T2, []), " +
+                        "thread_create(incr(50), T3, []), thread_create(incr(50), T4, []), " +
+                        "thread_join(T1, true), thread_join(T2, true), thread_join(T3, true), thread_join(T4, true), " +
+                        "counter(C).")
+                .assertSuccess()
+                .variable("C", isInteger(200))
+                .andWhen("?- \\+ with_mutex(m, fail), catch(with_mutex(m, throw(x)), x, true), " +
+                        "with_mutex(m, X = 1), thread_create(with_mutex(m, true), T, []), thread_join(T, S).")
+                .assertSuccess()
+                .variable("X", isInteger(1))
+                .variable("S", isAtom("true"))
+                // mutex is released when thread halts within goal
+                .andWhen("?- thread_create(with_mutex(m, halt), T1, []), thread_join(T1, S1), " +
+                        "thread_create(with_mutex(m, true), T2, []), thread_join(T2, S2), with_mutex(m, true).")
+                .assertSuccess()
+                .variable("S2", isAtom("true"));
+    }
+}
@@ -1,10 +1,16 @@
 package org.jprolog.library;
 
 import org.junit.jupiter.api.Test;
+import org.jprolog.exceptions.PrologThrowable;
+import org.jprolog.exceptions.PrologTypeError;
 import org.jprolog.test.Given;
 import org.jprolog.test.PrologTest;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ThrowCatchTest {
 
@@ -28,4 +34,31 @@ public class ThrowCatchTest {
                 .variable("X", isAtom("b"))
                 .variable("Y", isAtom("b"));
     }
+
+    @Test
+    public void testThrowCatchLoop() {
+        PrologTest.given("loop(N, N) :- !.")
+                .and("loop(I, N) :- catch(atom_length(I, _), error(type_error(_, _), _), true), I1 is I+1, loop(I1, N).")
+                .and("exit(I) :- I > 5, throw(done(I)).")
+                .and("exit(I) :- I1 is I+1, exit(I1).")
+                .when("?- loop(0, 1000).")
+                .assertSuccess()
+                .andWhen("?- catch(exit(0), done(X), true).")
+                .assertSuccess()
+                .variable("X", isInteger(6));
+    }
+
+    @Test
+    public void testJavaStackTraceFlag() {
+        PrologTypeError error = assertThrows(PrologTypeError.class, () ->
+                PrologTest.given().when("?- atom_length(1, _)."));
+        assertThat(error.getStackTrace().length, equalTo(0));
+        try {
+            error = assertThrows(PrologTypeError.class, () ->
+                    PrologTest.given().when("?- set_prolog_flag(java_stack_trace, true), atom_length(1, _)."));
+            assertThat(error.getStackTrace().length, greaterThan(0));
+        } finally {
+            PrologThrowable.setCaptureStackTrace(false);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package org.jprolog.predicates;
+
+import org.jprolog.test.Given;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import static org.jprolog.test.Matchers.*;
+
+/**
+ * Test binding of goal arguments when calling user-defined predicates.
+ */
+public class ArgumentBindingTest {
+
+    protected Given given() {
+        return PrologTest.given("loop(0, _) :- !.")
+                .and("loop(N, L) :- N1 is N-1, loop(N1, L).")
+                .and("acc([], A, A).")
+                .and("acc([H|T], A, R) :- acc(T, [H|A], R).")
+                .and("first([X|_], X).")
+                .and("final([X], X) :- !.")
+                .and("final([_|T], X) :- final(T, X).");
+    }
+
+    @Test
+    public void testLargeNonGroundArgument() {
+        // a large structure containing variables is passed through many calls
+        given().when("?- length(L, 20000), loop(20000, L), length(L, N).")
+                .assertSuccess()
+                .variable("N", isInteger(20000))
+                .andWhen("?- length(L, 20000), acc(L, [], R), L = [a|_], first(R, X), final(R, Y).")
+                .assertSuccess()
+                .variable("X", isUninstantiated())
+                .variable("Y", isAtom("a"));
+    }
+
+    @Test
+    public void testBoundArguments() {
+        given().when("?- X = f(Y), Y = [1,2,3], first(Z, W), Z = [X|_], W = f(L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(1), isInteger(2), isInteger(3)))
+                .andWhen("?- A = B, B = [q|_], first(A, Q).")
+                .assertSuccess()
+                .variable("Q", isAtom("q"));
+    }
+}
@@ -5,6 +5,7 @@ import org.jprolog.test.Matchers;
 import org.jprolog.test.PrologTest;
 import org.junit.jupiter.api.Test;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.jprolog.test.Matchers.isInteger;
 
 /**
@@ -177,4 +178,37 @@ public class CutTest {
                 );
     }
 
+    @Test
+    public void testCutKeepsConditionalBindings() {
+        // a cut removes decision points of the clause, but bindings of older variables must still be undone when
+        // backtracking to an earlier decision point
+        PrologTest.given("a(1) :- true, !.")
+                .and("a(2).")
+                .and("c.")
+                .and("c.")
+                .and("b(X) :- c, X = 1, !.")
+                .and("d(X, Y) :- c, X = Y, !.")
+                .when("?- (a(X), X > 5 ; true), var(X).")
+                .assertSuccess()
+                .andWhen("?- (b(X), fail ; var(X)).")
+                .assertSuccess()
+                .andWhen("?- (d(X, Y), X = 1, fail ; var(X), var(Y)).")
+                .assertSuccess()
+                .andWhen("?- d(X, Y), X = 1.")
+                .assertSuccess()
+                .variable("Y", isInteger(1));
+    }
+
+    @Test
+    public void testCutDeepChoicepoints() {
+        // a single cut discards many decision points, bindings made after the cut point are kept
+        PrologTest.given("choices(0, []) :- !.")
+                .and("choices(N, [N|T]) :- (true ; true), N1 is N-1, choices(N1, T).")
+                .and("first(N, L) :- choices(N, L), !, '##backtrack_depth'.")
+                .when("?- first(10000, L), L = [10000|_], (L = [] ; true), length(L, 10000).")
+                .assertSuccess()
+                .backtrackDepth(equalTo(1))
+                .anotherSolution()
+                .assertFailed();
+    }
 }
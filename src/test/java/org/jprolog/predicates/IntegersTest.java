@@ -0,0 +1,119 @@
+package org.jprolog.predicates;
+
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologInstantiationError;
+import org.jprolog.exceptions.PrologTypeError;
+import org.jprolog.test.PrologTest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.jprolog.test.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test between/3, succ/2, plus/3 and numlist/3.
+ */
+public class IntegersTest {
+
+    @Test
+    public void testBetweenEnumerates() {
+        PrologTest.given()
+                .when("?- between(1, 3, X).")
+                .assertSuccess()
+                .variable("X", isInteger(1))
+                .anotherSolution()
+                .assertSuccess()
+                .variable("X", isInteger(2))
+                .anotherSolution()
+                .assertSuccess()
+                .variable("X", isInteger(3))
+                .anotherSolution()
+                .assertFailed()
+                .andWhen("?- findall(X, between(-2, 100000, X), L), length(L, N).")
+                .assertSuccess()
+                .variable("N", isInteger(100003))
+                .andWhen("?- between(1, inf, X), X > 5, !.")
+                .assertSuccess()
+                .variable("X", isInteger(6))
+                .andWhen("?- between(0, infinite, X), X >= 10, !.")
+                .assertSuccess()
+                .variable("X", isInteger(10))
+                .andWhen("?- between(3, 2, _).")
+                .assertFailed();
+    }
+
+    @Test
+    public void testBetweenChecks() {
+        PrologTest.given()
+                .when("?- between(1, 3, 3).")
+                .assertSuccess()
+                .andWhen("?- between(1, 3, 4).")
+                .assertFailed()
+                .andWhen("?- between(1, inf, 100000000000000000000000).")
+                .assertSuccess()
+                .andWhen("?- between(1, 100000000000000000000000, X), !.")
+                .assertSuccess()
+                .variable("X", isInteger(1));
+        assertThrows(PrologInstantiationError.class, () ->
+                PrologTest.given().when("?- between(_, 3, _)."));
+        assertThrows(PrologTypeError.class, () ->
+                PrologTest.given().when("?- between(1, foo, _)."));
+        assertThrows(PrologTypeError.class, () ->
+                PrologTest.given().when("?- between(1, 3, a)."));
+    }
+
+    @Test
+    public void testBetweenBeyondLong() {
+        PrologTest.given()
+                .when("?- findall(X, between(9223372036854775806, 9223372036854775808, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(Long.MAX_VALUE - 1), isInteger(Long.MAX_VALUE),
+                        isInteger(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE))))
+                .andWhen("?- between(9223372036854775807, inf, X), X > 9223372036854775808, !.")
+                .assertSuccess()
+                .variable("X", isInteger(new BigInteger("9223372036854775809")))
+                .andWhen("?- findall(X, between(-9223372036854775809, -9223372036854775807, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE)),
+                        isInteger(Long.MIN_VALUE), isInteger(Long.MIN_VALUE + 1)))
+                .andWhen("?- findall(X, between(100000000000000000000, 100000000000000000001, X), L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(new BigInteger("100000000000000000000")),
+                        isInteger(new BigInteger("100000000000000000001"))));
+    }
+
+    @Test
+    public void testSuccAndPlus() {
+        PrologTest.given()
+                .when("?- succ(3, X), succ(Y, 3).")
+                .assertSuccess()
+                .variable("X", isInteger(4))
+                .variable("Y", isInteger(2))
+                .andWhen("?- succ(X, 0).")
+                .assertFailed()
+                .andWhen("?- plus(1, 2, X), plus(1, Y, 5), plus(Z, 2, 5).")
+                .assertSuccess()
+                .variable("X", isInteger(3))
+                .variable("Y", isInteger(4))
+                .variable("Z", isInteger(3))
+                .andWhen("?- plus(1, 2, 4).")
+                .assertFailed();
+        assertThrows(PrologDomainError.class, () ->
+                PrologTest.given().when("?- succ(X, -1)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                PrologTest.given().when("?- succ(_, _)."));
+        assertThrows(PrologInstantiationError.class, () ->
+                PrologTest.given().when("?- plus(1, _, _)."));
+    }
+
+    @Test
+    public void testNumlist() {
+        PrologTest.given()
+                .when("?- numlist(1, 4, L).")
+                .assertSuccess()
+                .variable("L", isList(isInteger(1), isInteger(2), isInteger(3), isInteger(4)))
+                .andWhen("?- numlist(2, 1, _).")
+                .assertFailed();
+    }
+}
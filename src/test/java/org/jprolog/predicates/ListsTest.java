@@ -138,4 +138,68 @@ public class ListsTest {
                 .assertFailed();
     }
 
+    @Test
+    public void testSort() {
+        PrologTest.given()
+                .when("?- sort([c, a, b, a, 1, f(x), 2.0], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(Matchers.isFloat(2.0), Matchers.isInteger(1),
+                        Matchers.isAtom("a"), Matchers.isAtom("b"), Matchers.isAtom("c"),
+                        Matchers.isCompoundTerm("f", Matchers.isAtom("x"))))
+                .andWhen("?- msort([c, a, b, a], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(Matchers.isAtom("a"), Matchers.isAtom("a"),
+                        Matchers.isAtom("b"), Matchers.isAtom("c")))
+                .andWhen("?- sort([], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList());
+        assertThrows(PrologInstantiationError.class, () -> {
+            PrologTest.given()
+                    .when("?- sort([a|_], X).");
+        });
+    }
+
+    @Test
+    public void testKeySort() {
+        PrologTest.given()
+                .when("?- keysort([b-1, a-2, b-0, a-1], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(
+                        Matchers.isCompoundTerm("-", Matchers.isAtom("a"), Matchers.isInteger(2)),
+                        Matchers.isCompoundTerm("-", Matchers.isAtom("a"), Matchers.isInteger(1)),
+                        Matchers.isCompoundTerm("-", Matchers.isAtom("b"), Matchers.isInteger(1)),
+                        Matchers.isCompoundTerm("-", Matchers.isAtom("b"), Matchers.isInteger(0))));
+        assertThrows(PrologTypeError.class, () -> {
+            PrologTest.given()
+                    .when("?- keysort([a], X).");
+        });
+    }
+
+    @Test
+    public void testSort4() {
+        PrologTest.given()
+                .when("?- sort(1, @>=, [f(1, a), f(2, b), f(1, c)], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(
+                        Matchers.isCompoundTerm("f", Matchers.isInteger(2), Matchers.isAtom("b")),
+                        Matchers.isCompoundTerm("f", Matchers.isInteger(1), Matchers.isAtom("a")),
+                        Matchers.isCompoundTerm("f", Matchers.isInteger(1), Matchers.isAtom("c"))))
+                .andWhen("?- sort(1, @<, [f(1, a), f(2, b), f(1, c)], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(
+                        Matchers.isCompoundTerm("f", Matchers.isInteger(1), Matchers.isAtom("a")),
+                        Matchers.isCompoundTerm("f", Matchers.isInteger(2), Matchers.isAtom("b"))))
+                .andWhen("?- sort(0, @>, [a, c, b, c], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(Matchers.isAtom("c"), Matchers.isAtom("b"), Matchers.isAtom("a")));
+    }
+
+    @Test
+    public void testPredSort() {
+        PrologTest.given("by_len(O, A, B) :- atom_length(A, LA), atom_length(B, LB), compare(O, LA, LB).")
+                .when("?- predsort(by_len, [ccc, a, bb, dd], X).")
+                .assertSuccess()
+                .variable("X", Matchers.isList(Matchers.isAtom("a"), Matchers.isAtom("bb"), Matchers.isAtom("ccc")));
+    }
+
 }
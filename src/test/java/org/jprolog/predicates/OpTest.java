@@ -1,10 +1,17 @@
 package org.jprolog.predicates;
 
+import org.jprolog.constants.PrologAtomInterned;
+import org.jprolog.execution.Environment;
+import org.jprolog.execution.OperatorEntry;
 import org.jprolog.test.Given;
 import org.jprolog.test.Matchers;
 import org.jprolog.test.PrologTest;
 import org.junit.jupiter.api.Test;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
 public class OpTest {
 
     Given given() {
@@ -29,6 +36,26 @@ public class OpTest {
                 ;
     }
 
+    @Test
+    public void testOperatorsPerEnvironment() {
+        Environment first = new Environment();
+        Environment second = new Environment();
+        PrologAtomInterned atom = first.internAtom("is"); // bootstrap atom, shared by both environments
+        assertThat(second.internAtom("is"), is(sameInstance(atom)));
+        first.makeOperator(710, OperatorEntry.Code.XFX, atom);
+        PrologAtomInterned foo = second.internAtom("foo");
+        second.makeOperator(200, OperatorEntry.Code.XFY, foo);
+        for (int i = 0; i < 3; i++) {
+            assertThat(first.getInfixPostfixOperator(atom).getPrecedence(), is(710));
+            long cached = atom.getOperatorIndex();
+            assertThat(second.getInfixPostfixOperator(atom).getPrecedence(), is(700));
+            // cached index is not specific to a table
+            assertThat(atom.getOperatorIndex(), is(cached));
+            assertThat(first.getInfixPostfixOperator(first.internAtom("foo")), is(OperatorEntry.ARGUMENT));
+            assertThat(second.getInfixPostfixOperator(foo).getPrecedence(), is(200));
+        }
+    }
+
     @Test
     public void testCustomOperatorDelete() {
         given()
@@ -78,4 +105,26 @@ public class OpTest {
                 .anotherSolution()
                 .assertFailed();
     }
+
+    @Test
+    public void testRedefineOperatorIsPerEnvironment() {
+        PrologTest.given("?- op(200, xfx, +).")
+                .when("?- current_op(P, T, +), T = xfx.")
+                .assertSuccess()
+                .variable("P", Matchers.isInteger(200))
+                .andWhen("?- X = 1 + 2 * 3.")
+                .assertSuccess()
+                .variable("X", Matchers.isCompoundTerm("*",
+                        Matchers.isCompoundTerm("+", Matchers.isInteger(1), Matchers.isInteger(2)),
+                        Matchers.isInteger(3)));
+        PrologTest.given()
+                .when("?- current_op(P, T, +), T = yfx.")
+                .assertSuccess()
+                .variable("P", Matchers.isInteger(500))
+                .andWhen("?- X = 1 + 2 * 3.")
+                .assertSuccess()
+                .variable("X", Matchers.isCompoundTerm("+",
+                        Matchers.isInteger(1),
+                        Matchers.isCompoundTerm("*", Matchers.isInteger(2), Matchers.isInteger(3))));
+    }
 }
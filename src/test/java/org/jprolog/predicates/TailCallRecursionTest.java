@@ -32,11 +32,10 @@ public class TailCallRecursionTest {
                 // call(1) = clause-end for !(10,X)
                 // call(0) = terminal
                 .callDepth(equalTo(3))
-                // backtrack(3) = coreference variable binding
-                // backtrack(2) = X binding for !(1,X,X)
+                // variable bindings are recorded on the trail, not the backtrack stack
                 // backtrack(1) = !(1,X,X) which also matches !(P,Q,R)
                 // backtrack(0) = terminal
-                .backtrackDepth(equalTo(4));
+                .backtrackDepth(equalTo(2));
     }
 
     @Test
@@ -47,10 +46,9 @@ public class TailCallRecursionTest {
                 // call(1) = clause-end for !(10,X)
                 // call(0) = terminal
                 .callDepth(equalTo(3))
-                // backtrack(3) = coreference variable binding
-                // backtrack(2) = X binding for !(1,X,X)
+                // variable bindings are recorded on the trail, not the backtrack stack
                 // backtrack(1) = !(1,X,X) which also matches !(P,Q,R)
                 // backtrack(0) = terminal
-                .backtrackDepth(equalTo(4));
+                .backtrackDepth(equalTo(2));
     }
 }
@@ -1,9 +1,13 @@
 package org.jprolog.predicates;
 
+import org.jprolog.exceptions.PrologDomainError;
+import org.jprolog.exceptions.PrologTypeError;
 import org.jprolog.test.Matchers;
 import org.jprolog.test.PrologTest;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 /**
  * Test term manipulation predicates
  */
@@ -150,4 +154,65 @@ public class TermsTest {
                 .when("?- X=5, nonvar(X).")
                 .assertSuccess();
     }
+
+    @Test
+    public void testTermToBinary() {
+        PrologTest.given()
+                .when("?- term_to_binary(f(X, Y, X, g(Y), foo, foo, g(1), -7), B), " +
+                        "term_to_binary(T, B), T = f(P, Q, R, g(S), A, A, g(N), M), P == R, Q == S, P \\== Q.")
+                .assertSuccess()
+                .variable("A", Matchers.isAtom("foo"))
+                .variable("N", Matchers.isInteger(1))
+                .variable("M", Matchers.isInteger(-7));
+        assertThrows(PrologDomainError.class, () -> PrologTest.given()
+                .when("?- term_to_binary(X, \"invalid\")."));
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- X = f(X), term_to_binary(X, B)."));
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- L = [a, b|L], term_to_binary(L, B)."));
+        PrologTest.given()
+                .when("?- T = [b], X = g(T), term_to_binary(f(X, X, [T|T]), B), term_to_binary(R, B), " +
+                        "R == f(g([b]), g([b]), [[b], b]).")
+                .assertSuccess();
+    }
+
+    @Test
+    public void testTermHash() {
+        PrologTest.given()
+                .when("?- term_hash(f(a, [1, 2.5, \"s\"], g(b)), H1), term_hash(f(a, [1, 2.5, \"s\"], g(b)), H2), " +
+                        "term_hash(f(a, [1, 2.5, \"s\"], g(c)), H3), integer(H1), H1 == H2, H1 \\== H3.")
+                .assertSuccess();
+        PrologTest.given()
+                .when("?- term_hash(f(X), H), var(H).")
+                .assertSuccess();
+        PrologTest.given()
+                .when("?- term_hash(f(a, X), 1, 100, H), integer(H), H < 100, term_hash(f(b, Y), 1, 100, H).")
+                .assertSuccess();
+        PrologTest.given()
+                .when("?- term_hash([a, b|T], 2, 1000, H), integer(H), term_hash([a, b|T], 3, 1000, H2), var(H2).")
+                .assertSuccess();
+        PrologTest.given()
+                .when("?- T = [b], X = g(T), term_hash(f(X, X, [T|T]), H), integer(H).")
+                .assertSuccess();
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- X = f(X), term_hash(X, H)."));
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- L = [a|L], term_hash(L, H)."));
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- X = f(a, [b|X]), term_hash(X, H)."));
+    }
+
+    @Test
+    public void testVariantHash() {
+        PrologTest.given()
+                .when("?- variant_sha1(f(X, Y, X), S1), variant_sha1(f(A, B, A), S2), variant_sha1(f(A, B, B), S3), " +
+                        "S1 == S2, S1 \\== S3, atom_length(S1, 40), " +
+                        "variant_hash(f(X, Y, X), H1), variant_hash(f(A, B, A), H2), variant_hash(f(A, B, B), H3), " +
+                        "H1 == H2, H1 \\== H3.")
+                .assertSuccess();
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- X = f(Y, X), variant_sha1(X, S)."));
+        assertThrows(PrologTypeError.class, () -> PrologTest.given()
+                .when("?- X = f(Y, [X]), variant_hash(X, H)."));
+    }
 }
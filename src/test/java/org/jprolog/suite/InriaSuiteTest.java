@@ -310,6 +310,7 @@ public class InriaSuiteTest extends Suite {
         Environment e = given.environment();
         LocalContext context = e.getLocalContext();
         int backtrack = e.getBacktrackDepth(); // cheating
+        int trail = e.getTrailDepth();
         try {
             for (Term constraint : constraintsList) {
                 Term bound = constraint.resolve(context); // bind to same variable context
@@ -331,7 +332,7 @@ public class InriaSuiteTest extends Suite {
                 }
             }
         } finally {
-            e.trimBacktrackStackToDepth(backtrack);
+            e.trimBacktrackStackToDepth(backtrack, trail);
         }
         return true;
     }